@@ -0,0 +1,140 @@
+package com.example.payment.consumer.benchmark;
+
+import com.example.payment.consumer.config.ShardPartitions;
+import com.example.payment.consumer.config.ShardScope;
+import com.example.payment.consumer.domain.LedgerEntry;
+import com.example.payment.consumer.repository.AccountBalanceRepository;
+import com.example.payment.consumer.repository.AccountBalanceRepository.BalanceKey;
+import com.example.payment.consumer.service.LedgerBatchWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 잔액 행 잠금 경합 벤치마크 (profile: ledger-benchmark)
+ *
+ * 한 가맹점(BENCH-HOT)의 merchant_receivable/cash 잔액에 스레드 N개가 동시에 원장 트랜잭션을 반복하고,
+ * stripe 수 K별 초당 커밋 수(TPS)를 로그로 남긴 뒤 종료한다. 원장 배치와 같게 스레드마다 shard1 파티션 하나를 맡아
+ * LedgerBatchWriter.stripeOf로 stripe를 고른다. K는 원장 배치와 같이 샤드당 파티션 수가 상한이며, 더 크면 시작 시 거부한다.
+ * 실제 DB(shard1)에 실행하며, 끝나면 벤치마크 행을 지운다. Kafka 리스너는 이 프로파일에서 시작하지 않는다.
+ *
+ * 실행: SPRING_PROFILES_ACTIVE=ledger-benchmark java -jar consumer-worker.jar
+ */
+@Component
+@Profile("ledger-benchmark")
+public class BalanceContentionBenchmark implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceContentionBenchmark.class);
+    private static final String MERCHANT_ID = "BENCH-HOT";
+
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConfigurableApplicationContext context;
+    private final List<Integer> stripeCounts;
+    private final int threads;
+    private final int durationSeconds;
+    private final int entriesPerTransaction;
+    private final int partitionCount;
+
+    public BalanceContentionBenchmark(AccountBalanceRepository accountBalanceRepository,
+                                      JdbcTemplate jdbcTemplate,
+                                      PlatformTransactionManager transactionManager,
+                                      ConfigurableApplicationContext context,
+                                      @Value("${ledger.benchmark.stripes:1,2,3}") List<Integer> stripeCounts,
+                                      @Value("${ledger.benchmark.threads:16}") int threads,
+                                      @Value("${ledger.benchmark.duration-seconds:20}") int durationSeconds,
+                                      @Value("${ledger.benchmark.entries-per-tx:1}") int entriesPerTransaction,
+                                      @Value("${ledger.benchmark.partitions:6}") int partitionCount) {
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.context = context;
+        this.stripeCounts = stripeCounts;
+        this.threads = threads;
+        this.durationSeconds = durationSeconds;
+        this.entriesPerTransaction = entriesPerTransaction;
+        this.partitionCount = Math.max(1, partitionCount);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        stripeCounts.forEach(stripes -> LedgerBatchWriter.balanceStripes(stripes, partitionCount));
+        Map<Integer, Double> results = new LinkedHashMap<>();
+        try {
+            for (int stripes : stripeCounts) {
+                results.put(stripes, measure(stripes));
+                cleanup();
+            }
+        } finally {
+            cleanup();
+        }
+
+        double baseline = results.values().iterator().next();
+        log.info("Balance contention benchmark: threads={}, duration={}s, entriesPerTx={}, partitions={}",
+                threads, durationSeconds, entriesPerTransaction, partitionCount);
+        results.forEach((stripes, tps) -> log.info("  stripes={} -> {} tx/s ({}x)",
+                stripes, String.format("%.1f", tps), String.format("%.2f", tps / baseline)));
+        SpringApplication.exit(context);
+    }
+
+    private double measure(int stripes) throws InterruptedException {
+        AtomicLong committed = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int[] range = ShardPartitions.range("shard1", partitionCount);
+        for (int i = 0; i < threads; i++) {
+            int stripe = LedgerBatchWriter.stripeOf(range[0] + i % (range[1] - range[0]), partitionCount, stripes);
+            executor.submit(() -> {
+                try (ShardScope ignored = ShardScope.open("shard1")) {
+                    while (System.nanoTime() < deadline) {
+                        transactionTemplate.executeWithoutResult(status -> writeOnce(stripe));
+                        committed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(durationSeconds + 30L, TimeUnit.SECONDS);
+        return committed.get() / (double) durationSeconds;
+    }
+
+    private void writeOnce(int stripe) {
+        SortedMap<BalanceKey, long[]> deltas = new TreeMap<>();
+        List<LedgerEntry> entries = new ArrayList<>(entriesPerTransaction);
+        for (int i = 0; i < entriesPerTransaction; i++) {
+            long paymentId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+            LedgerEntry entry = new LedgerEntry(paymentId, "merchant_receivable", "cash", 1000L, Instant.now());
+            entries.add(entry);
+            AccountBalanceRepository.accumulate(deltas, MERCHANT_ID, entry, stripe);
+        }
+        accountBalanceRepository.applyDeltas(deltas);
+    }
+
+    private void cleanup() {
+        try (ShardScope ignored = ShardScope.open("shard1")) {
+            jdbcTemplate.update("DELETE FROM account_balance WHERE merchant_id = ?", MERCHANT_ID);
+        }
+    }
+}
@@ -36,6 +36,26 @@ public class JpaConfig {
     @Value("${spring.datasource.shard2.password}")
     private String shard2Password;
 
+    // 담당 샤드가 정해진 worker는 그 샤드에만 큰 풀을 연다 (다른 샤드는 fallback용 작은 풀)
+    @Value("${worker.shard:}")
+    private String workerShard;
+
+    @Value("${worker.pool.own-size:50}")
+    private int ownPoolSize;
+
+    @Value("${worker.pool.own-min-idle:10}")
+    private int ownMinIdle;
+
+    @Value("${worker.pool.other-size:5}")
+    private int otherPoolSize;
+
+    @Value("${worker.pool.other-min-idle:1}")
+    private int otherMinIdle;
+
+    // 기동 완료 후 샤드 범위 밖 쿼리를 거절 (ShardRoutingDataSource 참고)
+    @Value("${shard.routing.strict:true}")
+    private boolean strictRouting;
+
     @Bean
     public DataSource shard1DataSource() {
         HikariDataSource dataSource = new HikariDataSource();
@@ -43,8 +63,7 @@ public class JpaConfig {
         dataSource.setUsername(shard1Username);
         dataSource.setPassword(shard1Password);
         dataSource.setDriverClassName("org.mariadb.jdbc.Driver");
-        dataSource.setMaximumPoolSize(50);
-        dataSource.setMinimumIdle(10);
+        sizePool(dataSource, "shard1");
         return dataSource;
     }
 
@@ -55,15 +74,20 @@ public class JpaConfig {
         dataSource.setUsername(shard2Username);
         dataSource.setPassword(shard2Password);
         dataSource.setDriverClassName("org.mariadb.jdbc.Driver");
-        dataSource.setMaximumPoolSize(50);
-        dataSource.setMinimumIdle(10);
+        sizePool(dataSource, "shard2");
         return dataSource;
     }
 
+    private void sizePool(HikariDataSource dataSource, String shard) {
+        boolean own = workerShard.isBlank() || workerShard.equals(shard);
+        dataSource.setMaximumPoolSize(own ? ownPoolSize : otherPoolSize);
+        dataSource.setMinimumIdle(own ? ownMinIdle : otherMinIdle);
+    }
+
     @Bean
     @Primary
     public DataSource dataSource() {
-        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(strictRouting);
 
         Map<Object, Object> targetDataSources = new HashMap<>();
         targetDataSources.put("shard1", shard1DataSource());
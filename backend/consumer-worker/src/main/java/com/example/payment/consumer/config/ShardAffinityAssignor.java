@@ -0,0 +1,104 @@
+package com.example.payment.consumer.config;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Configurable;
+import org.apache.kafka.common.TopicPartition;
+
+/**
+ * 샤드 친화 파티션 할당 전략
+ *
+ * 각 consumer는 subscription userData로 담당 샤드(shard.affinity)를 알리고,
+ * 리더는 샤드 파티션 구간(ShardPartitions)을 그 샤드를 담당하는 멤버들에게 round-robin으로 나눈다.
+ * 담당 멤버가 없는 샤드의 파티션은 담당 샤드가 없는 멤버, 그마저 없으면 전체 멤버에게 준다 (파티션이 방치되지 않음).
+ * 롤링 배포 중 이 전략을 모르는 멤버와 섞일 수 있도록 partition.assignment.strategy에는 RangeAssignor를 함께 둔다.
+ */
+public class ShardAffinityAssignor implements ConsumerPartitionAssignor, Configurable {
+
+    public static final String SHARD_CONFIG = "shard.affinity";
+
+    private static final String ANY = "";
+
+    private String shard = ANY;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        Object value = configs.get(SHARD_CONFIG);
+        shard = value != null ? value.toString().trim() : ANY;
+    }
+
+    @Override
+    public String name() {
+        return "shard-affinity";
+    }
+
+    @Override
+    public ByteBuffer subscriptionUserData(Set<String> topics) {
+        return ByteBuffer.wrap(shard.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public GroupAssignment assign(Cluster metadata, GroupSubscription groupSubscription) {
+        Map<String, Subscription> subscriptions = groupSubscription.groupSubscription();
+        Map<String, String> preferred = new HashMap<>();
+        Map<String, List<TopicPartition>> assigned = new TreeMap<>();
+        Set<String> topics = new TreeSet<>();
+        subscriptions.forEach((memberId, subscription) -> {
+            preferred.put(memberId, decode(subscription.userData()));
+            assigned.put(memberId, new ArrayList<>());
+            topics.addAll(subscription.topics());
+        });
+
+        // 샤드별 round-robin 위치는 토픽을 넘어 이어가 멤버 간 파티션 수를 고르게 한다
+        Map<String, Integer> cursors = new HashMap<>();
+        for (String topic : topics) {
+            Integer partitionCount = metadata.partitionCountForTopic(topic);
+            if (partitionCount == null) {
+                continue;
+            }
+            List<String> subscribers = assigned.keySet().stream()
+                    .filter(memberId -> subscriptions.get(memberId).topics().contains(topic))
+                    .toList();
+            if (subscribers.isEmpty()) {
+                continue;
+            }
+            for (int partition = 0; partition < partitionCount; partition++) {
+                String owner = ShardPartitions.shardOfPartition(partition, partitionCount);
+                List<String> candidates = candidates(owner, subscribers, preferred);
+                int cursor = cursors.merge(owner != null ? owner : ANY, 1, Integer::sum) - 1;
+                assigned.get(candidates.get(cursor % candidates.size())).add(new TopicPartition(topic, partition));
+            }
+        }
+
+        Map<String, Assignment> assignments = new HashMap<>();
+        assigned.forEach((memberId, partitions) -> assignments.put(memberId, new Assignment(partitions)));
+        return new GroupAssignment(assignments);
+    }
+
+    private static List<String> candidates(String owner, List<String> subscribers, Map<String, String> preferred) {
+        if (owner != null) {
+            List<String> dedicated = subscribers.stream().filter(memberId -> owner.equals(preferred.get(memberId))).toList();
+            if (!dedicated.isEmpty()) {
+                return dedicated;
+            }
+        }
+        List<String> unpinned = subscribers.stream().filter(memberId -> ANY.equals(preferred.get(memberId))).toList();
+        return unpinned.isEmpty() ? subscribers : unpinned;
+    }
+
+    private static String decode(ByteBuffer userData) {
+        if (userData == null || !userData.hasRemaining()) {
+            return ANY;
+        }
+        return StandardCharsets.UTF_8.decode(userData.duplicate()).toString();
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.payment.consumer.controller;
+
+import com.example.payment.consumer.service.ListenerConcurrencyAutoscaler;
+import java.util.Map;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 원장 listener concurrency 자동 조정 상태/제어 API
+ */
+@RestController
+@RequestMapping("/admin/listener-concurrency")
+public class ListenerAdminController {
+
+    private final ListenerConcurrencyAutoscaler autoscaler;
+
+    public ListenerAdminController(ListenerConcurrencyAutoscaler autoscaler) {
+        this.autoscaler = autoscaler;
+    }
+
+    /**
+     * 현재 concurrency, lag, 처리 시간, 최근 조정 이력
+     */
+    @GetMapping
+    public Map<String, Object> status() {
+        return autoscaler.status();
+    }
+
+    /**
+     * 자동 조정 켜기/끄기 (끄면 현재 concurrency 유지)
+     */
+    @PostMapping("/enabled")
+    public Map<String, Object> setEnabled(@RequestParam boolean value) {
+        autoscaler.setEnabled(value);
+        return autoscaler.status();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.payment.consumer.repository;
+
+import com.example.payment.consumer.domain.LedgerEntry;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 계정별 잔액 집계 (account_balance)
+ *
+ * (merchant_id, account, stripe) 행에 차변/대변 누적 금액을 더해 간다.
+ * 한 계정을 여러 stripe 행으로 나눠 동시 트랜잭션이 같은 행 잠금에 줄 서지 않게 하고, 조회는 stripe를 합산한다.
+ * 원장 배치와 같은 샤드 트랜잭션 안에서 호출해야 ledger_entry와 어긋나지 않는다.
+ * 현재 ShardScope 범위의 샤드에서 실행된다.
+ */
+@Repository
+public class AccountBalanceRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AccountBalanceRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 원장 엔트리 한 건을 (가맹점, 계정, stripe)별 증감분에 합산
+     * 값 배열: [0]=debit, [1]=credit, [2]=entry count
+     */
+    public static void accumulate(SortedMap<BalanceKey, long[]> deltas, String merchantId, LedgerEntry entry,
+                                  int stripe) {
+        long[] debit = deltas.computeIfAbsent(new BalanceKey(merchantId, entry.getDebitAccount(), stripe),
+                key -> new long[3]);
+        debit[0] += entry.getAmount();
+        debit[2]++;
+        long[] credit = deltas.computeIfAbsent(new BalanceKey(merchantId, entry.getCreditAccount(), stripe),
+                key -> new long[3]);
+        credit[1] += entry.getAmount();
+        credit[2]++;
+    }
+
+    /**
+     * 증감분 반영 - 키 순서대로 갱신해 동시 배치 간 행 잠금 순서를 고정한다 (데드락 방지)
+     */
+    public void applyDeltas(SortedMap<BalanceKey, long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> args.add(new Object[]{
+                key.merchantId(), key.account(), key.stripe(), delta[0], delta[1], delta[2]}));
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO account_balance (merchant_id, account, stripe, debit_total, credit_total, entry_count) " +
+                        "VALUES (?, ?, ?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE debit_total = debit_total + VALUES(debit_total), " +
+                        "credit_total = credit_total + VALUES(credit_total), " +
+                        "entry_count = entry_count + VALUES(entry_count)",
+                args);
+    }
+
+    /**
+     * stripe 0 외의 행이 남아 있는 계정 (compactor 대상)
+     */
+    public List<Map<String, Object>> findStripedAccounts(int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT merchant_id, account FROM account_balance WHERE stripe > 0 LIMIT ?", limit);
+    }
+
+    /**
+     * 한 계정의 stripe들을 stripe 0으로 접기 (트랜잭션 안에서 호출)
+     * stripe 순서로 잠가 writer와 같은 잠금 순서를 따른다.
+     *
+     * @return 접은 stripe 행 수
+     */
+    public int foldStripes(String merchantId, String account) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT stripe, debit_total, credit_total, entry_count FROM account_balance " +
+                        "WHERE merchant_id = ? AND account = ? ORDER BY stripe FOR UPDATE",
+                merchantId, account);
+        long debit = 0;
+        long credit = 0;
+        long count = 0;
+        int folded = 0;
+        for (Map<String, Object> row : rows) {
+            if (((Number) row.get("stripe")).intValue() == 0) {
+                continue;
+            }
+            debit += ((Number) row.get("debit_total")).longValue();
+            credit += ((Number) row.get("credit_total")).longValue();
+            count += ((Number) row.get("entry_count")).longValue();
+            folded++;
+        }
+        if (folded == 0) {
+            return 0;
+        }
+        jdbcTemplate.update(
+                "INSERT INTO account_balance (merchant_id, account, stripe, debit_total, credit_total, entry_count) " +
+                        "VALUES (?, ?, 0, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE debit_total = debit_total + VALUES(debit_total), " +
+                        "credit_total = credit_total + VALUES(credit_total), " +
+                        "entry_count = entry_count + VALUES(entry_count)",
+                merchantId, account, debit, credit, count);
+        jdbcTemplate.update("DELETE FROM account_balance WHERE merchant_id = ? AND account = ? AND stripe > 0",
+                merchantId, account);
+        return folded;
+    }
+
+    /**
+     * account_balance 행 키 (merchant_id, account, stripe 순으로 정렬 = PK 순서)
+     */
+    public record BalanceKey(String merchantId, String account, int stripe) implements Comparable<BalanceKey> {
+
+        private static final Comparator<BalanceKey> ORDER = Comparator.comparing(BalanceKey::merchantId)
+                .thenComparing(BalanceKey::account)
+                .thenComparingInt(BalanceKey::stripe);
+
+        @Override
+        public int compareTo(BalanceKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
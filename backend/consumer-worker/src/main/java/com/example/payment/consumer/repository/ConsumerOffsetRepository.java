@@ -0,0 +1,51 @@
+package com.example.payment.consumer.repository;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 파티션별 consumer 오프셋 저장소 (ledger_entry와 같은 샤드 DB, 같은 트랜잭션)
+ *
+ * next_offset은 "이 샤드에 속한 레코드 중 next_offset 미만은 모두 반영됨"을 의미한다.
+ * 현재 ShardScope 범위의 샤드에서 실행된다.
+ */
+@Repository
+public class ConsumerOffsetRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ConsumerOffsetRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 저장된 next_offset 조회 (트랜잭션 안에서 호출하면 같은 파티션의 동시 반영을 직렬화)
+     */
+    public Optional<Long> lockNextOffset(String consumerGroup, String topic, int partition) {
+        List<Long> offsets = jdbcTemplate.queryForList(
+                "SELECT next_offset FROM consumer_offset " +
+                        "WHERE consumer_group = ? AND topic = ? AND partition_no = ? FOR UPDATE",
+                Long.class, consumerGroup, topic, partition);
+        return offsets.stream().findFirst();
+    }
+
+    public Optional<Long> findNextOffset(String consumerGroup, String topic, int partition) {
+        List<Long> offsets = jdbcTemplate.queryForList(
+                "SELECT next_offset FROM consumer_offset " +
+                        "WHERE consumer_group = ? AND topic = ? AND partition_no = ?",
+                Long.class, consumerGroup, topic, partition);
+        return offsets.stream().findFirst();
+    }
+
+    /**
+     * next_offset 전진 (뒤로 가지 않음)
+     */
+    public void advance(String consumerGroup, String topic, int partition, long nextOffset) {
+        jdbcTemplate.update(
+                "INSERT INTO consumer_offset (consumer_group, topic, partition_no, next_offset) VALUES (?, ?, ?, ?) " +
+                        "ON DUPLICATE KEY UPDATE next_offset = GREATEST(next_offset, VALUES(next_offset))",
+                consumerGroup, topic, partition, nextOffset);
+    }
+}
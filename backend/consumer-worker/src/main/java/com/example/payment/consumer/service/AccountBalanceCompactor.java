@@ -0,0 +1,62 @@
+package com.example.payment.consumer.service;
+
+import com.example.payment.consumer.config.ShardScope;
+import com.example.payment.consumer.repository.AccountBalanceRepository;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * account_balance stripe 접기
+ *
+ * 주기마다 샤드별로 stripe 행이 남은 계정을 최대 N개(기본 100)씩 stripe 0으로 합친다.
+ * 계정 하나당 짧은 트랜잭션 하나로 처리해 writer가 기다리는 시간을 줄인다.
+ * stripe 수를 줄였을 때 남는 행도 여기서 정리된다.
+ */
+@Component
+public class AccountBalanceCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountBalanceCompactor.class);
+    private static final List<String> SHARDS = List.of("shard1", "shard2");
+
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int accountsPerRun;
+
+    public AccountBalanceCompactor(AccountBalanceRepository accountBalanceRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${ledger.balance.compact-accounts:100}") int accountsPerRun) {
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountsPerRun = accountsPerRun;
+    }
+
+    @Scheduled(initialDelayString = "${ledger.balance.compact-interval-ms:300000}",
+            fixedDelayString = "${ledger.balance.compact-interval-ms:300000}")
+    public void compact() {
+        for (String shard : SHARDS) {
+            try (ShardScope ignored = ShardScope.open(shard)) {
+                int folded = 0;
+                for (Map<String, Object> account : accountBalanceRepository.findStripedAccounts(accountsPerRun)) {
+                    String merchantId = (String) account.get("merchant_id");
+                    String accountName = (String) account.get("account");
+                    Integer rows = transactionTemplate.execute(status ->
+                            accountBalanceRepository.foldStripes(merchantId, accountName));
+                    folded += rows != null ? rows : 0;
+                }
+                if (folded > 0) {
+                    log.info("Folded {} account balance stripes on {}", folded, shard);
+                }
+            } catch (DataAccessException ex) {
+                log.warn("Account balance compaction failed on {}: {}", shard, ex.getMessage());
+            }
+        }
+    }
+}
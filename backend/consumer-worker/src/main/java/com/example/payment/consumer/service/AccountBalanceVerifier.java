@@ -0,0 +1,134 @@
+package com.example.payment.consumer.service;
+
+import com.example.payment.consumer.config.ShardScope;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * account_balance 드리프트 검증
+ *
+ * 주기마다 한 샤드의 가맹점 청크(기본 20개)만 ledger_entry에서 다시 합산해 account_balance와 비교한다.
+ * 두 조회를 REPEATABLE READ 읽기 전용 트랜잭션 하나에서 수행해 같은 스냅샷을 비교한다 (반영 중인 배치로 인한 오탐 방지).
+ * 가맹점 커서가 끝에 닿으면 다음 샤드로 넘어간다.
+ *
+ * Metrics: ledger.balance.verify.chunks{shard, result=ok|drift}, ledger.balance.drift{shard} (어긋난 계정 행 수)
+ */
+@Component
+public class AccountBalanceVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountBalanceVerifier.class);
+    private static final List<String> SHARDS = List.of("shard1", "shard2");
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate snapshotTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+
+    private int shardIndex = 0;
+    private String merchantCursor = "";
+
+    public AccountBalanceVerifier(NamedParameterJdbcTemplate namedJdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${ledger.balance-verify.chunk-merchants:20}") int chunkSize) {
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.snapshotTemplate = new TransactionTemplate(transactionManager);
+        this.snapshotTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(initialDelayString = "${ledger.balance-verify.interval-ms:60000}",
+            fixedDelayString = "${ledger.balance-verify.interval-ms:60000}")
+    public synchronized void verifyNextChunk() {
+        String shard = SHARDS.get(shardIndex);
+        try (ShardScope ignored = ShardScope.open(shard)) {
+            Integer checked = snapshotTemplate.execute(status -> verifyChunk(shard));
+            if (checked == null || checked < chunkSize) {
+                merchantCursor = "";
+                shardIndex = (shardIndex + 1) % SHARDS.size();
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Account balance verification failed on {}: {}", shard, ex.getMessage());
+        }
+    }
+
+    /**
+     * @return 검증한 가맹점 수
+     */
+    private int verifyChunk(String shard) {
+        List<String> merchants = namedJdbcTemplate.queryForList(
+                "SELECT DISTINCT merchant_id FROM account_balance WHERE merchant_id > :cursor " +
+                        "ORDER BY merchant_id LIMIT :limit",
+                new MapSqlParameterSource("cursor", merchantCursor).addValue("limit", chunkSize), String.class);
+        if (merchants.isEmpty()) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("merchants", merchants);
+
+        // key = merchant_id + '|' + account, value = [debit, credit]
+        Map<String, long[]> stored = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT merchant_id, account, SUM(debit_total) AS debit_total, SUM(credit_total) AS credit_total " +
+                        "FROM account_balance WHERE merchant_id IN (:merchants) GROUP BY merchant_id, account",
+                params, rs -> {
+                    stored.put(rs.getString("merchant_id") + "|" + rs.getString("account"),
+                            new long[]{rs.getLong("debit_total"), rs.getLong("credit_total")});
+                });
+
+        Map<String, long[]> actual = new HashMap<>();
+        namedJdbcTemplate.query(
+                "SELECT p.merchant_id, le.debit_account AS account, SUM(le.amount) AS total " +
+                        "FROM ledger_entry le JOIN payment p ON p.payment_id = le.payment_id " +
+                        "WHERE p.merchant_id IN (:merchants) GROUP BY p.merchant_id, le.debit_account",
+                params, rs -> {
+                    actual.computeIfAbsent(rs.getString("merchant_id") + "|" + rs.getString("account"),
+                            key -> new long[2])[0] = rs.getLong("total");
+                });
+        namedJdbcTemplate.query(
+                "SELECT p.merchant_id, le.credit_account AS account, SUM(le.amount) AS total " +
+                        "FROM ledger_entry le JOIN payment p ON p.payment_id = le.payment_id " +
+                        "WHERE p.merchant_id IN (:merchants) GROUP BY p.merchant_id, le.credit_account",
+                params, rs -> {
+                    actual.computeIfAbsent(rs.getString("merchant_id") + "|" + rs.getString("account"),
+                            key -> new long[2])[1] = rs.getLong("total");
+                });
+
+        Set<String> keys = new HashSet<>(stored.keySet());
+        keys.addAll(actual.keySet());
+        int drifted = 0;
+        for (String key : keys) {
+            long[] expected = actual.getOrDefault(key, new long[2]);
+            long[] current = stored.getOrDefault(key, new long[2]);
+            if (expected[0] != current[0] || expected[1] != current[1]) {
+                drifted++;
+                log.error("Account balance drift on {} for {}: stored debit={} credit={}, ledger debit={} credit={}",
+                        shard, key, current[0], current[1], expected[0], expected[1]);
+            }
+        }
+
+        merchantCursor = merchants.get(merchants.size() - 1);
+        meterRegistry.counter("ledger.balance.verify.chunks", "shard", shard,
+                "result", drifted == 0 ? "ok" : "drift").increment();
+        if (drifted > 0) {
+            meterRegistry.counter("ledger.balance.drift", "shard", shard).increment(drifted);
+        }
+        return merchants.size();
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.payment.consumer.service;
+
+import com.example.payment.consumer.config.ShardContextHolder;
+import com.example.payment.consumer.config.ShardPartitions;
+import com.example.payment.consumer.config.ShardScope;
+import com.example.payment.consumer.domain.LedgerEntry;
+import com.example.payment.consumer.repository.AccountBalanceRepository;
+import com.example.payment.consumer.repository.AccountBalanceRepository.BalanceKey;
+import com.example.payment.consumer.repository.ConsumerOffsetRepository;
+import com.example.payment.consumer.repository.LedgerEntryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 원장 배치 반영 (exactly-once)
+ *
+ * 샤드마다 트랜잭션 하나로 "ledger_entry INSERT + account_balance 가산 + consumer_offset 전진"을 함께 커밋한다.
+ * - 배치의 모든 파티션 오프셋을 두 샤드 모두에 기록 (해당 샤드 레코드가 없어도 "이 구간은 반영 완료"를 의미)
+ * - 재처리 시 레코드 오프셋이 해당 샤드의 next_offset 미만이면 이미 반영된 것으로 보고 건너뜀
+ * - 파티션 할당 시 두 샤드 next_offset 중 작은 값으로 seek (한 샤드만 커밋된 상태에서 죽어도 유실/중복 없음)
+ *
+ * 잔액 stripe는 레코드 파티션의 샤드 구간 내 위치로 고른다. 파티션은 paymentId 키의 해시이므로 결제별로 고정되고,
+ * 서로 다른 파티션을 맡은 consumer 스레드가 같은 잔액 행 잠금에 줄 서지 않는다.
+ * 한 샤드의 레코드는 그 샤드 파티션 구간에서만 오므로 stripe 수는 샤드당 파티션 수가 상한이다 (파티션 6개면 3).
+ * 미지정이면 그 값을 쓰고, 더 크게 설정하면 쓰이지 않는 stripe이므로 시작 시 거부한다.
+ *
+ * 샤드는 샤드 접두어 키("shard2:123", ShardPartitions)로 정하고, 접두어가 없는 이전 형식 이벤트는 본문 merchantId로
+ * 계산한다 (ShardContextHolder.resolveShardKey). payment_id는 샤드마다 따로 증가해 겹치므로 id로 샤드를 찾지 않는다.
+ * 배치당 샤드별 payment_id IN (...) 한 번으로 결제 존재와 가맹점을 확인하며, 결제가 없거나 본문 가맹점과 다르면
+ * 반영하지 않고 호출자에게 돌려준다.
+ */
+@Service
+public class LedgerBatchWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerBatchWriter.class);
+    private static final List<String> SHARDS = List.of("shard1", "shard2");
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountBalanceRepository accountBalanceRepository;
+    private final ConsumerOffsetRepository offsetRepository;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String consumerGroup;
+    private final int partitionCount;
+    private final int balanceStripes;
+
+    public LedgerBatchWriter(LedgerEntryRepository ledgerEntryRepository,
+                             AccountBalanceRepository accountBalanceRepository,
+                             ConsumerOffsetRepository offsetRepository,
+                             NamedParameterJdbcTemplate namedJdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.kafka.consumer.group-id}") String consumerGroup,
+                             @Value("${ledger.balance.partitions:6}") int partitionCount,
+                             @Value("${ledger.balance.stripes:0}") int balanceStripes) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.accountBalanceRepository = accountBalanceRepository;
+        this.offsetRepository = offsetRepository;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.consumerGroup = consumerGroup;
+        this.partitionCount = Math.max(1, partitionCount);
+        this.balanceStripes = balanceStripes(balanceStripes, this.partitionCount);
+        log.info("Ledger balance stripes: {} ({} partitions)", this.balanceStripes, this.partitionCount);
+    }
+
+    /**
+     * 배치 반영
+     *
+     * @param batch    poll로 받은 전체 레코드 (오프셋 계산용, 건너뛴 레코드 포함)
+     * @param postings 원장에 반영할 레코드
+     * @return 샤드를 정할 수 없거나 그 샤드에 결제가 없어 반영하지 못한 posting (호출자가 DLQ 처리)
+     */
+    public List<LedgerPosting> write(List<ConsumerRecord<String, String>> batch, List<LedgerPosting> postings) {
+        Map<TopicPartition, Long> nextOffsets = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : batch) {
+            nextOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset() + 1, Math::max);
+        }
+
+        Map<String, List<LedgerPosting>> byShard = new HashMap<>();
+        Map<String, Map<Long, String>> merchantOf = new HashMap<>();
+        List<LedgerPosting> unresolved = new ArrayList<>();
+        resolveShards(postings, byShard, merchantOf, unresolved);
+
+        for (String shard : SHARDS) {
+            List<LedgerPosting> shardPostings = byShard.getOrDefault(shard, List.of());
+            Map<Long, String> shardMerchants = merchantOf.getOrDefault(shard, Map.of());
+            try (ShardScope ignored = ShardScope.open(shard)) {
+                Integer written = transactionTemplate.execute(status -> {
+                    Map<TopicPartition, Long> applied = new HashMap<>();
+                    for (TopicPartition tp : nextOffsets.keySet()) {
+                        offsetRepository.lockNextOffset(consumerGroup, tp.topic(), tp.partition())
+                                .ifPresent(offset -> applied.put(tp, offset));
+                    }
+
+                    List<LedgerEntry> entries = new ArrayList<>();
+                    SortedMap<BalanceKey, long[]> balanceDeltas = new TreeMap<>();
+                    for (LedgerPosting posting : shardPostings) {
+                        TopicPartition tp = new TopicPartition(posting.record().topic(), posting.record().partition());
+                        Long appliedUpTo = applied.get(tp);
+                        if (appliedUpTo == null || posting.record().offset() >= appliedUpTo) {
+                            entries.add(posting.entry());
+                            AccountBalanceRepository.accumulate(balanceDeltas,
+                                    shardMerchants.get(posting.entry().getPaymentId()), posting.entry(),
+                                    stripeOf(posting.record().partition()));
+                        }
+                    }
+                    ledgerEntryRepository.saveAll(entries);
+                    accountBalanceRepository.applyDeltas(balanceDeltas);
+
+                    nextOffsets.forEach((tp, next) ->
+                            offsetRepository.advance(consumerGroup, tp.topic(), tp.partition(), next));
+                    return entries.size();
+                });
+                if (written != null && written > 0) {
+                    meterRegistry.counter("ledger.entries.written", "shard", shard).increment(written);
+                }
+                if (written != null && written < shardPostings.size()) {
+                    log.info("Skipped {} already applied ledger postings on {}", shardPostings.size() - written, shard);
+                }
+            }
+        }
+        return unresolved;
+    }
+
+    /**
+     * 파티션 재시작 오프셋 (두 샤드 next_offset 중 작은 값, 한 샤드라도 기록이 없으면 empty)
+     */
+    public Optional<Long> restartOffset(TopicPartition partition) {
+        Long restart = null;
+        for (String shard : SHARDS) {
+            try (ShardScope ignored = ShardScope.open(shard)) {
+                Optional<Long> next = offsetRepository.findNextOffset(consumerGroup, partition.topic(),
+                        partition.partition());
+                if (next.isEmpty()) {
+                    return Optional.empty();
+                }
+                restart = restart == null ? next.get() : Math.min(restart, next.get());
+            }
+        }
+        return Optional.ofNullable(restart);
+    }
+
+    private int stripeOf(int partition) {
+        return stripeOf(partition, partitionCount, balanceStripes);
+    }
+
+    /**
+     * 잔액 stripe 수 (0 이하면 샤드당 파티션 수). 샤드당 파티션 수보다 크면 IllegalArgumentException
+     */
+    public static int balanceStripes(int configured, int partitionCount) {
+        int perShard = partitionCount;
+        for (String shard : ShardPartitions.SHARDS) {
+            int[] range = ShardPartitions.range(shard, partitionCount);
+            perShard = Math.min(perShard, range[1] - range[0]);
+        }
+        perShard = Math.max(1, perShard);
+        if (configured <= 0) {
+            return perShard;
+        }
+        if (configured > perShard) {
+            throw new IllegalArgumentException("ledger.balance.stripes=" + configured
+                    + " exceeds partitions per shard (" + perShard + " of " + partitionCount + ")");
+        }
+        return configured;
+    }
+
+    /**
+     * 파티션의 잔액 stripe = 샤드 파티션 구간 안에서의 위치 mod stripe 수 (벤치마크도 같은 규칙을 쓴다)
+     */
+    public static int stripeOf(int partition, int partitionCount, int stripes) {
+        String shard = ShardPartitions.shardOfPartition(partition, partitionCount);
+        int from = shard != null ? ShardPartitions.range(shard, partitionCount)[0] : 0;
+        return Math.floorMod(partition - from, Math.max(1, stripes));
+    }
+
+    /**
+     * @param merchantOf 샤드별 payment_id → merchant_id (샤드마다 payment_id가 따로 증가하므로 샤드 단위로 구분)
+     */
+    private void resolveShards(List<LedgerPosting> postings,
+                               Map<String, List<LedgerPosting>> byShard,
+                               Map<String, Map<Long, String>> merchantOf,
+                               List<LedgerPosting> unresolved) {
+        Map<String, Set<Long>> idsByShard = new HashMap<>();
+        for (LedgerPosting posting : postings) {
+            String shard = targetShard(posting);
+            if (shard != null) {
+                idsByShard.computeIfAbsent(shard, key -> new HashSet<>()).add(posting.entry().getPaymentId());
+            }
+        }
+
+        idsByShard.forEach((shard, ids) -> {
+            Map<Long, String> found = new HashMap<>();
+            try (ShardScope ignored = ShardScope.open(shard)) {
+                namedJdbcTemplate.query(
+                        "SELECT payment_id, merchant_id FROM payment WHERE payment_id IN (:ids)",
+                        new MapSqlParameterSource("ids", ids), rs -> {
+                            found.put(rs.getLong("payment_id"), rs.getString("merchant_id"));
+                        });
+            }
+            merchantOf.put(shard, found);
+        });
+
+        for (LedgerPosting posting : postings) {
+            String shard = shardFor(posting, merchantOf);
+            if (shard == null) {
+                unresolved.add(posting);
+            } else {
+                byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(posting);
+            }
+        }
+    }
+
+    /**
+     * 레코드의 샤드: 키 접두어 우선, 접두어가 없으면 본문 merchantId로 계산 (둘 다 없으면 null)
+     */
+    static String targetShard(LedgerPosting posting) {
+        String hint = ShardPartitions.shardOf(posting.record().key());
+        if (hint != null) {
+            return hint;
+        }
+        return posting.merchantId() != null ? ShardContextHolder.resolveShardKey(posting.merchantId()) : null;
+    }
+
+    private static String shardFor(LedgerPosting posting, Map<String, Map<Long, String>> merchantOf) {
+        String shard = targetShard(posting);
+        if (shard == null) {
+            return null;
+        }
+        String merchantId = merchantOf.getOrDefault(shard, Map.of()).get(posting.entry().getPaymentId());
+        if (merchantId == null || (posting.merchantId() != null && !posting.merchantId().equals(merchantId))) {
+            return null;
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.payment.consumer.service;
+
+import com.example.payment.consumer.domain.LedgerEntry;
+import java.time.Instant;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * 원장 반영 대상 레코드와 분개
+ * merchantId: 이벤트 본문의 가맹점 (샤드 접두어가 없는 이전 형식 키의 샤드 계산용, 없으면 null)
+ * authorizedAt: 결제 승인 시각, 이벤트에 없으면 null - 지연 지표용
+ */
+public record LedgerPosting(ConsumerRecord<String, String> record, LedgerEntry entry, String merchantId,
+                            Instant authorizedAt) {
+}
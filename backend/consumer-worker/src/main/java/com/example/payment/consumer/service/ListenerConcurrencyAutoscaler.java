@@ -0,0 +1,257 @@
+package com.example.payment.consumer.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 원장 listener concurrency 자동 조정
+ *
+ * 주기마다 consumer의 파티션별 records-lag 합계와 listener 처리 시간(spring.kafka.listener 타이머)을 보고
+ * ConcurrentMessageListenerContainer의 concurrency를 설정값(최소) ~ 구독 파티션 수(최대) 사이에서 조정한다.
+ * - 증설: 스레드당 lag가 상한 이상이고 lag가 줄지 않거나 처리 시간이 상한을 넘는 상태가 연속 N회 → 2배
+ * - 감축: 스레드당 lag가 하한 이하인 상태가 연속 M회 (M > N) → 1개씩
+ * - 상한/하한 사이 구간과 연속 횟수가 hysteresis, 변경 후 cooldown 동안은 판단만 하고 바꾸지 않는다
+ * concurrency 변경은 컨테이너 재시작(리밸런스)이 필요하다. 재시작 후 파티션 할당 시 DB 오프셋으로 seek하므로 유실/중복은 없다.
+ *
+ * Metrics: kafka.listener.autoscale.concurrency{listener}, kafka.listener.autoscale.lag{listener},
+ *          kafka.listener.autoscale.decisions{listener, direction=up|down}
+ */
+@Component
+public class ListenerConcurrencyAutoscaler {
+
+    private static final Logger log = LoggerFactory.getLogger(ListenerConcurrencyAutoscaler.class);
+    private static final int MAX_DECISIONS = 20;
+    private static final int PARTITION_REFRESH_TICKS = 20;
+
+    private final KafkaListenerEndpointRegistry registry;
+    private final KafkaAdmin kafkaAdmin;
+    private final MeterRegistry meterRegistry;
+    private final String listenerId;
+    private final int maxConcurrencyCap;
+    private final long scaleUpLagPerThread;
+    private final long scaleDownLagPerThread;
+    private final double maxLatencyMs;
+    private final int scaleUpTicks;
+    private final int scaleDownTicks;
+    private final long cooldownMs;
+
+    private final AtomicInteger concurrencyGauge = new AtomicInteger();
+    private final AtomicLong lagGauge = new AtomicLong();
+    private final Deque<Decision> decisions = new ArrayDeque<>();
+
+    private volatile boolean enabled;
+    private int minConcurrency;
+    private int partitionCount;
+    private int ticks;
+    private int upStreak;
+    private int downStreak;
+    private long lastLag = -1;
+    private double lastLatencyMs;
+    private long lastTimerCount;
+    private double lastTimerTotalMs;
+    private long lastChangeAt;
+
+    public ListenerConcurrencyAutoscaler(KafkaListenerEndpointRegistry registry,
+                                         KafkaAdmin kafkaAdmin,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${listener.autoscale.enabled:true}") boolean enabled,
+                                         @Value("${listener.autoscale.max-concurrency:12}") int maxConcurrencyCap,
+                                         @Value("${listener.autoscale.scale-up-lag-per-thread:500}") long scaleUpLagPerThread,
+                                         @Value("${listener.autoscale.scale-down-lag-per-thread:50}") long scaleDownLagPerThread,
+                                         @Value("${listener.autoscale.max-latency-ms:1000}") double maxLatencyMs,
+                                         @Value("${listener.autoscale.scale-up-ticks:2}") int scaleUpTicks,
+                                         @Value("${listener.autoscale.scale-down-ticks:8}") int scaleDownTicks,
+                                         @Value("${listener.autoscale.cooldown-ms:120000}") long cooldownMs) {
+        this.registry = registry;
+        this.kafkaAdmin = kafkaAdmin;
+        this.meterRegistry = meterRegistry;
+        this.listenerId = PaymentEventListener.LISTENER_ID;
+        this.enabled = enabled;
+        this.maxConcurrencyCap = maxConcurrencyCap;
+        this.scaleUpLagPerThread = scaleUpLagPerThread;
+        this.scaleDownLagPerThread = scaleDownLagPerThread;
+        this.maxLatencyMs = maxLatencyMs;
+        this.scaleUpTicks = Math.max(1, scaleUpTicks);
+        this.scaleDownTicks = Math.max(1, scaleDownTicks);
+        this.cooldownMs = cooldownMs;
+
+        Gauge.builder("kafka.listener.autoscale.concurrency", concurrencyGauge, AtomicInteger::get)
+                .tag("listener", listenerId).register(meterRegistry);
+        Gauge.builder("kafka.listener.autoscale.lag", lagGauge, AtomicLong::get)
+                .tag("listener", listenerId).register(meterRegistry);
+    }
+
+    @Scheduled(initialDelayString = "${listener.autoscale.interval-ms:15000}",
+            fixedDelayString = "${listener.autoscale.interval-ms:15000}")
+    public synchronized void evaluate() {
+        ConcurrentMessageListenerContainer<?, ?> container = container();
+        if (container == null || !container.isRunning()) {
+            return;
+        }
+        int current = container.getConcurrency();
+        if (minConcurrency == 0) {
+            // 설정된 concurrency가 하한
+            minConcurrency = current;
+        }
+        if (partitionCount == 0 || ticks++ % PARTITION_REFRESH_TICKS == 0) {
+            refreshPartitionCount(container);
+        }
+
+        long lag = currentLag(container);
+        double latencyMs = windowLatencyMs();
+        long lagPerThread = lag / Math.max(1, current);
+        boolean slow = latencyMs > maxLatencyMs;
+        boolean growing = lastLag >= 0 && lag >= lastLag;
+        upStreak = lagPerThread >= scaleUpLagPerThread && (growing || slow) ? upStreak + 1 : 0;
+        downStreak = lagPerThread <= scaleDownLagPerThread && !slow ? downStreak + 1 : 0;
+        lastLag = lag;
+        lastLatencyMs = latencyMs;
+        lagGauge.set(lag);
+        concurrencyGauge.set(current);
+
+        if (!enabled || System.currentTimeMillis() - lastChangeAt < cooldownMs) {
+            return;
+        }
+        int max = maxConcurrency(current);
+        if (upStreak >= scaleUpTicks && current < max) {
+            resize(container, current, Math.min(max, current * 2), "up",
+                    String.format("lag/thread=%d, latency=%.0fms", lagPerThread, latencyMs));
+        } else if (downStreak >= scaleDownTicks && current > minConcurrency) {
+            resize(container, current, current - 1, "down", "lag/thread=" + lagPerThread);
+        }
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public synchronized Map<String, Object> status() {
+        ConcurrentMessageListenerContainer<?, ?> container = container();
+        int current = container != null ? container.getConcurrency() : 0;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("listenerId", listenerId);
+        status.put("enabled", enabled);
+        status.put("running", container != null && container.isRunning());
+        status.put("concurrency", current);
+        status.put("minConcurrency", minConcurrency);
+        status.put("maxConcurrency", maxConcurrency(current));
+        status.put("partitions", partitionCount);
+        status.put("lag", Math.max(0, lastLag));
+        status.put("latencyMs", lastLatencyMs);
+        status.put("upStreak", upStreak);
+        status.put("downStreak", downStreak);
+        status.put("cooldownRemainingMs", Math.max(0, cooldownMs - (System.currentTimeMillis() - lastChangeAt)));
+        List<Decision> recent = new ArrayList<>(decisions);
+        status.put("recentDecisions", recent);
+        return status;
+    }
+
+    private void resize(ConcurrentMessageListenerContainer<?, ?> container, int from, int to,
+                        String direction, String reason) {
+        log.info("Scaling listener {} concurrency {} -> {} ({})", listenerId, from, to, reason);
+        container.stop();
+        container.setConcurrency(to);
+        container.start();
+
+        lastChangeAt = System.currentTimeMillis();
+        upStreak = 0;
+        downStreak = 0;
+        lastLag = -1;
+        concurrencyGauge.set(to);
+        meterRegistry.counter("kafka.listener.autoscale.decisions", "listener", listenerId,
+                "direction", direction).increment();
+        decisions.addFirst(new Decision(Instant.now(), from, to, direction, reason));
+        while (decisions.size() > MAX_DECISIONS) {
+            decisions.removeLast();
+        }
+    }
+
+    private int maxConcurrency(int current) {
+        // 파티션 수보다 많은 스레드는 할당받을 파티션이 없어 놀게 된다
+        int byPartitions = partitionCount > 0 ? partitionCount : current;
+        return Math.max(minConcurrency, Math.min(maxConcurrencyCap, byPartitions));
+    }
+
+    private ConcurrentMessageListenerContainer<?, ?> container() {
+        MessageListenerContainer container = registry.getListenerContainer(listenerId);
+        return container instanceof ConcurrentMessageListenerContainer<?, ?> concurrent ? concurrent : null;
+    }
+
+    private void refreshPartitionCount(ConcurrentMessageListenerContainer<?, ?> container) {
+        String[] topics = container.getContainerProperties().getTopics();
+        if (topics == null || topics.length == 0) {
+            return;
+        }
+        try {
+            partitionCount = kafkaAdmin.describeTopics(topics).values().stream()
+                    .mapToInt(description -> description.partitions().size())
+                    .sum();
+        } catch (RuntimeException ex) {
+            log.warn("Failed to describe topics for listener {}: {}", listenerId, ex.getMessage());
+        }
+    }
+
+    /**
+     * 컨테이너 consumer들의 파티션별 records-lag 합계
+     */
+    private static long currentLag(ConcurrentMessageListenerContainer<?, ?> container) {
+        long lag = 0;
+        for (Map<MetricName, ? extends Metric> metrics : container.metrics().values()) {
+            for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+                MetricName name = entry.getKey();
+                if (!"records-lag".equals(name.name()) || !name.tags().containsKey("partition")) {
+                    continue;
+                }
+                if (entry.getValue().metricValue() instanceof Number value && Double.isFinite(value.doubleValue())) {
+                    lag += (long) Math.max(0, value.doubleValue());
+                }
+            }
+        }
+        return lag;
+    }
+
+    /**
+     * 직전 판단 이후 listener 호출당 평균 처리 시간 (컨테이너 재시작으로 타이머가 초기화되면 0)
+     */
+    private double windowLatencyMs() {
+        long count = 0;
+        double totalMs = 0;
+        for (Timer timer : meterRegistry.find("spring.kafka.listener").timers()) {
+            String name = timer.getId().getTag("name");
+            if (name != null && name.startsWith(listenerId)) {
+                count += timer.count();
+                totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+            }
+        }
+        long deltaCount = count - lastTimerCount;
+        double deltaMs = totalMs - lastTimerTotalMs;
+        lastTimerCount = count;
+        lastTimerTotalMs = totalMs;
+        return deltaCount > 0 && deltaMs >= 0 ? deltaMs / deltaCount : 0;
+    }
+
+    public record Decision(Instant at, int from, int to, String direction, String reason) {
+    }
+}
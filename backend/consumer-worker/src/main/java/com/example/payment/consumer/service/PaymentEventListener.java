@@ -1,128 +1,152 @@
 package com.example.payment.consumer.service;
 
 import com.example.payment.consumer.domain.LedgerEntry;
-import com.example.payment.consumer.repository.LedgerEntryRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.NoTransactionException;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.interceptor.TransactionAspectSupport;
-
-import static com.example.payment.consumer.config.ShardContextHolder.clear;
-import static com.example.payment.consumer.config.ShardContextHolder.setShardKey;
 
+/**
+ * 원장 이벤트 배치 소비
+ *
+ * poll 단위로 레코드를 모아 LedgerBatchWriter가 샤드별 트랜잭션 하나로 원장과 오프셋을 함께 커밋한다.
+ * 파티션을 할당받으면 Kafka 커밋 오프셋 대신 샤드 DB에 저장된 오프셋으로 seek 한다.
+ * DB 반영 실패는 예외로 올려 컨테이너가 배치를 재시도하게 하며, 이미 반영된 레코드는 오프셋 비교로 건너뛴다.
+ */
 @Service
-public class PaymentEventListener {
+public class PaymentEventListener implements ConsumerSeekAware {
+
+    public static final String LISTENER_ID = "ledger-listener";
 
     private static final Logger log = LoggerFactory.getLogger(PaymentEventListener.class);
 
-    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerBatchWriter ledgerBatchWriter;
     private final ObjectMapper objectMapper;
     private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ProcessedEventStore processedEventStore;
+    private final EventLagRecorder eventLagRecorder;
     private final String dlqTopic;
 
-    public PaymentEventListener(LedgerEntryRepository ledgerEntryRepository,
+    public PaymentEventListener(LedgerBatchWriter ledgerBatchWriter,
                                 ObjectMapper objectMapper,
                                 KafkaTemplate<String, String> kafkaTemplate,
+                                ProcessedEventStore processedEventStore,
+                                EventLagRecorder eventLagRecorder,
                                 @Value("${payment.dlq-topic:payment.dlq}") String dlqTopic) {
-        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.ledgerBatchWriter = ledgerBatchWriter;
         this.objectMapper = objectMapper;
         this.kafkaTemplate = kafkaTemplate;
+        this.processedEventStore = processedEventStore;
+        this.eventLagRecorder = eventLagRecorder;
         this.dlqTopic = dlqTopic;
     }
 
     @KafkaListener(
+            id = LISTENER_ID,
+            idIsGroup = false,
             topics = {"payment.captured", "payment.refunded"},
-            concurrency = "${spring.kafka.listener.concurrency:1}"
+            concurrency = "${spring.kafka.listener.concurrency:1}",
+            batch = "true"
     )
-    @Transactional
-    public void handleEvent(ConsumerRecord<String, String> record) {
-        String payload = record.value();
-        String topic = record.topic();
-        int partition = record.partition();
-        long offset = record.offset();
+    public void handleBatch(List<ConsumerRecord<String, String>> records) {
+        log.info("Received {} ledger events", records.size());
 
-        log.info("Received event on topic {} partition {} offset {}: {}", topic, partition, offset, payload);
-        try {
-            JsonNode node = objectMapper.readTree(payload);
-            Long paymentId = node.path("paymentId").asLong();
-            long amount = node.path("amount").asLong();
-            String occurredAt = node.path("occurredAt").asText(null);
+        List<LedgerPosting> postings = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            // 재전달(리밸런스, outbox 재발행)은 원장 조회 없이 해시 조회로 걸러냄
+            if (processedEventStore.isDuplicate(record)) {
+                log.info("Skipping already processed event on topic {} partition {} offset {}",
+                        record.topic(), record.partition(), record.offset());
+                continue;
+            }
+            try {
+                LedgerPosting posting = toPosting(record);
+                if (posting != null) {
+                    postings.add(posting);
+                }
+            } catch (Exception ex) {
+                log.error("Failed to parse event from topic {} partition {} offset {}",
+                        record.topic(), record.partition(), record.offset(), ex);
+                sendToDlq(record, ex);
+            }
+        }
 
-            if ("payment.captured".equals(topic)) {
-                saveWithShardFallback(new LedgerEntry(
-                        paymentId,
-                        "merchant_receivable",
-                        "cash",
-                        amount,
-                        occurredAt != null ? Instant.parse(occurredAt) : Instant.now()
-                ));
-            } else if ("payment.refunded".equals(topic)) {
-                saveWithShardFallback(new LedgerEntry(
-                        paymentId,
-                        "cash",
-                        "merchant_receivable",
-                        amount,
-                        occurredAt != null ? Instant.parse(occurredAt) : Instant.now()
-                ));
-            } else {
-                log.debug("No ledger action required for topic {}", topic);
+        List<LedgerPosting> unresolved = ledgerBatchWriter.write(records, postings);
+        for (LedgerPosting posting : unresolved) {
+            log.error("Payment not found on its shard: paymentId={}, merchantId={}",
+                    posting.entry().getPaymentId(), posting.merchantId());
+            sendToDlq(posting.record(), new IllegalStateException(
+                    "Payment not found on its shard: " + posting.entry().getPaymentId()));
+        }
+        for (LedgerPosting posting : postings) {
+            if (unresolved.contains(posting)) {
+                continue;
             }
-        } catch (Exception ex) {
-            log.error("Failed to process event from topic {} partition {} offset {}", topic, partition, offset, ex);
-            markTransactionForRollback();
-            sendToDlq(payload, topic, partition, offset, ex);
+            processedEventStore.markProcessed(posting.record());
+            // 원장 커밋 이후 시점 기준 (이벤트 발생 → 원장, 승인 → 원장)
+            eventLagRecorder.recordCompletion("payment.ledger.completion", posting.record(),
+                    posting.entry().getOccurredAt());
+            eventLagRecorder.recordCompletion("payment.pipeline.authorize_to_ledger", posting.record(),
+                    posting.authorizedAt());
         }
     }
 
     /**
-     * Try shard1 first; on FK violation retry shard2. Clears context after use.
+     * 샤드 DB에 저장된 오프셋으로 재시작 (저장된 값이 없으면 Kafka 커밋 오프셋 사용)
      */
-    private void saveWithShardFallback(LedgerEntry entry) {
-        clear();
-        try {
-            setShardKey("shard1");
-            ledgerEntryRepository.save(entry);
-            return;
-        } catch (DataIntegrityViolationException ex) {
-            log.warn("Shard1 save failed for paymentId={} (retrying shard2): {}", entry.getPaymentId(), ex.getMessage());
-            clear();
-            try {
-                setShardKey("shard2");
-                ledgerEntryRepository.save(entry);
-                return;
-            } catch (DataIntegrityViolationException ex2) {
-                log.error("Shard2 save also failed for paymentId={}: {}", entry.getPaymentId(), ex2.getMessage());
-                throw ex2;
-            }
-        } finally {
-            clear();
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments.keySet().forEach(partition -> ledgerBatchWriter.restartOffset(partition)
+                .ifPresent(offset -> {
+                    log.info("Seeking {} to ledger offset {}", partition, offset);
+                    callback.seek(partition.topic(), partition.partition(), offset);
+                }));
+    }
+
+    private LedgerPosting toPosting(ConsumerRecord<String, String> record) throws Exception {
+        JsonNode node = objectMapper.readTree(record.value());
+        Long paymentId = node.path("paymentId").asLong();
+        String merchantId = node.path("merchantId").asText(null);
+        long amount = node.path("amount").asLong();
+        String occurredAt = node.path("occurredAt").asText(null);
+        Instant occurred = occurredAt != null ? Instant.parse(occurredAt) : Instant.now();
+        eventLagRecorder.recordReceived(record, occurredAt);
+        Instant authorizedAt = EventLagRecorder.parse(node.path("authorizedAt").asText(null));
+
+        if ("payment.captured".equals(record.topic())) {
+            return new LedgerPosting(record,
+                    new LedgerEntry(paymentId, "merchant_receivable", "cash", amount, occurred), merchantId,
+                    authorizedAt);
+        }
+        if ("payment.refunded".equals(record.topic())) {
+            return new LedgerPosting(record,
+                    new LedgerEntry(paymentId, "cash", "merchant_receivable", amount, occurred), merchantId,
+                    null);
         }
+        log.debug("No ledger action required for topic {}", record.topic());
+        return null;
     }
 
-    private void sendToDlq(String payload,
-                           String topic,
-                           int partition,
-                           long offset,
-                           Exception ex) {
+    private void sendToDlq(ConsumerRecord<String, String> record, Exception ex) {
         Map<String, Object> dlqMessage = new LinkedHashMap<>();
-        dlqMessage.put("originalTopic", topic);
-        dlqMessage.put("partition", partition);
-        dlqMessage.put("offset", offset);
-        dlqMessage.put("payload", payload);
+        dlqMessage.put("originalTopic", record.topic());
+        dlqMessage.put("partition", record.partition());
+        dlqMessage.put("offset", record.offset());
+        dlqMessage.put("payload", record.value());
         dlqMessage.put("errorType", ex.getClass().getSimpleName());
         dlqMessage.put("errorMessage", ex.getMessage());
         dlqMessage.put("timestamp", OffsetDateTime.now(ZoneOffset.UTC).toString());
@@ -135,12 +159,4 @@ public class PaymentEventListener {
             throw new IllegalStateException("DLQ publish failed", sendException);
         }
     }
-
-    private void markTransactionForRollback() {
-        try {
-            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
-        } catch (NoTransactionException ignored) {
-            // no transactional context to roll back
-        }
-    }
 }
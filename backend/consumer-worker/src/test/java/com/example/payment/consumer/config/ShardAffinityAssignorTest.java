@@ -0,0 +1,93 @@
+package com.example.payment.consumer.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.GroupAssignment;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.GroupSubscription;
+import org.apache.kafka.clients.consumer.ConsumerPartitionAssignor.Subscription;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+
+class ShardAffinityAssignorTest {
+
+    private static final String TOPIC = "payment.authorized";
+
+    private final ShardAffinityAssignor assignor = new ShardAffinityAssignor();
+    private final Cluster cluster = cluster(6);
+
+    @Test
+    void eachShardRangeGoesToItsDedicatedMember() {
+        GroupAssignment assignment = assign(Map.of("a", "shard1", "b", "shard2"));
+
+        assertThat(partitionsOf(assignment, "a")).containsExactly(0, 1, 2);
+        assertThat(partitionsOf(assignment, "b")).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    void shardRangeIsSplitRoundRobinAmongDedicatedMembers() {
+        GroupAssignment assignment = assign(Map.of("a1", "shard1", "a2", "shard1", "b", "shard2"));
+
+        assertThat(partitionsOf(assignment, "a1")).containsExactly(0, 2);
+        assertThat(partitionsOf(assignment, "a2")).containsExactly(1);
+        assertThat(partitionsOf(assignment, "b")).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    void orphanShardGoesToUnpinnedMember() {
+        GroupAssignment assignment = assign(Map.of("a", "shard1", "any", ""));
+
+        assertThat(partitionsOf(assignment, "a")).containsExactly(0, 1, 2);
+        assertThat(partitionsOf(assignment, "any")).containsExactly(3, 4, 5);
+    }
+
+    @Test
+    void orphanShardFallsBackToAllSubscribers() {
+        GroupAssignment assignment = assign(Map.of("a1", "shard1", "a2", "shard1"));
+
+        List<Integer> all = new ArrayList<>(partitionsOf(assignment, "a1"));
+        all.addAll(partitionsOf(assignment, "a2"));
+        assertThat(all).containsExactlyInAnyOrder(0, 1, 2, 3, 4, 5);
+    }
+
+    @Test
+    void configuredShardIsSentAsUserData() {
+        assignor.configure(Map.of(ShardAffinityAssignor.SHARD_CONFIG, " shard2 "));
+
+        ByteBuffer userData = assignor.subscriptionUserData(Set.of(TOPIC));
+
+        assertThat(StandardCharsets.UTF_8.decode(userData).toString()).isEqualTo("shard2");
+    }
+
+    private GroupAssignment assign(Map<String, String> shardByMember) {
+        Map<String, Subscription> subscriptions = new LinkedHashMap<>();
+        shardByMember.forEach((memberId, shard) -> subscriptions.put(memberId,
+                new Subscription(List.of(TOPIC), ByteBuffer.wrap(shard.getBytes(StandardCharsets.UTF_8)))));
+        return assignor.assign(cluster, new GroupSubscription(subscriptions));
+    }
+
+    private static List<Integer> partitionsOf(GroupAssignment assignment, String memberId) {
+        return assignment.groupAssignment().get(memberId).partitions().stream()
+                .map(TopicPartition::partition)
+                .sorted()
+                .toList();
+    }
+
+    private static Cluster cluster(int partitions) {
+        Node node = new Node(0, "localhost", 9092);
+        List<PartitionInfo> infos = new ArrayList<>();
+        for (int i = 0; i < partitions; i++) {
+            infos.add(new PartitionInfo(TOPIC, i, node, new Node[]{node}, new Node[]{node}));
+        }
+        return new Cluster("test", List.of(node), infos, Set.of(), Set.of());
+    }
+}
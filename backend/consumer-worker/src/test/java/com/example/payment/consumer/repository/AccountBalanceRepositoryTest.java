@@ -0,0 +1,82 @@
+package com.example.payment.consumer.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.payment.consumer.domain.LedgerEntry;
+import com.example.payment.consumer.repository.AccountBalanceRepository.BalanceKey;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBalanceRepositoryTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AccountBalanceRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new AccountBalanceRepository(jdbcTemplate);
+    }
+
+    @Test
+    void foldStripesSumsNonZeroStripesIntoStripeZero() {
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq("M1"), eq("cash"))).thenReturn(List.of(
+                row(0, 1_000L, 0L, 1L),
+                row(1, 200L, 50L, 2L),
+                row(3, 300L, 25L, 3L)));
+
+        int folded = repository.foldStripes("M1", "cash");
+
+        assertThat(folded).isEqualTo(2);
+        verify(jdbcTemplate).update(contains("VALUES (?, ?, 0, ?, ?, ?)"),
+                eq("M1"), eq("cash"), eq(500L), eq(75L), eq(5L));
+        verify(jdbcTemplate).update(contains("stripe > 0"), eq("M1"), eq("cash"));
+    }
+
+    @Test
+    void foldStripesSkipsAccountWithOnlyStripeZero() {
+        when(jdbcTemplate.queryForList(contains("FOR UPDATE"), eq("M1"), eq("cash")))
+                .thenReturn(List.of(row(0, 1_000L, 0L, 1L)));
+
+        int folded = repository.foldStripes("M1", "cash");
+
+        assertThat(folded).isZero();
+        verify(jdbcTemplate).queryForList(contains("FOR UPDATE"), eq("M1"), eq("cash"));
+        verifyNoMoreInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void accumulateSplitsDebitAndCreditPerStripe() {
+        SortedMap<BalanceKey, long[]> deltas = new TreeMap<>();
+        LedgerEntry entry = new LedgerEntry(1L, "merchant_receivable", "cash", 1000L, Instant.now());
+
+        AccountBalanceRepository.accumulate(deltas, "M1", entry, 1);
+        AccountBalanceRepository.accumulate(deltas, "M1", entry, 1);
+        AccountBalanceRepository.accumulate(deltas, "M1", entry, 2);
+
+        assertThat(deltas.get(new BalanceKey("M1", "merchant_receivable", 1))).containsExactly(2000L, 0L, 2L);
+        assertThat(deltas.get(new BalanceKey("M1", "cash", 1))).containsExactly(0L, 2000L, 2L);
+        assertThat(deltas.get(new BalanceKey("M1", "cash", 2))).containsExactly(0L, 1000L, 1L);
+        assertThat(deltas.firstKey()).isEqualTo(new BalanceKey("M1", "cash", 1));
+    }
+
+    private static Map<String, Object> row(int stripe, long debit, long credit, long count) {
+        return Map.of("stripe", stripe, "debit_total", debit, "credit_total", credit, "entry_count", count);
+    }
+}
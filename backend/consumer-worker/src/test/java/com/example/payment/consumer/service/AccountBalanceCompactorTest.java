@@ -0,0 +1,53 @@
+package com.example.payment.consumer.service;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.payment.consumer.repository.AccountBalanceRepository;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBalanceCompactorTest {
+
+    @Mock
+    private AccountBalanceRepository accountBalanceRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void foldsEveryStripedAccountOnEachShard() {
+        when(accountBalanceRepository.findStripedAccounts(100)).thenReturn(List.of(
+                Map.of("merchant_id", "M1", "account", "cash"),
+                Map.of("merchant_id", "M1", "account", "merchant_receivable")));
+        when(accountBalanceRepository.foldStripes("M1", "cash")).thenReturn(3);
+        when(accountBalanceRepository.foldStripes("M1", "merchant_receivable")).thenReturn(2);
+
+        new AccountBalanceCompactor(accountBalanceRepository, transactionManager, 100).compact();
+
+        // shard1, shard2 각각 한 번씩
+        verify(accountBalanceRepository, times(2)).findStripedAccounts(100);
+        verify(accountBalanceRepository, times(2)).foldStripes("M1", "cash");
+        verify(accountBalanceRepository, times(2)).foldStripes("M1", "merchant_receivable");
+    }
+
+    @Test
+    void failureOnOneShardDoesNotStopTheOther() {
+        when(accountBalanceRepository.findStripedAccounts(anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("shard1 down"))
+                .thenReturn(List.of(Map.of("merchant_id", "M2", "account", "cash")));
+
+        new AccountBalanceCompactor(accountBalanceRepository, transactionManager, 10).compact();
+
+        verify(accountBalanceRepository).foldStripes("M2", "cash");
+    }
+}
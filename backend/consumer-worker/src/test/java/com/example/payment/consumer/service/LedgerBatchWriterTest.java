@@ -0,0 +1,171 @@
+package com.example.payment.consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.payment.consumer.config.ShardScope;
+import com.example.payment.consumer.domain.LedgerEntry;
+import com.example.payment.consumer.repository.AccountBalanceRepository;
+import com.example.payment.consumer.repository.ConsumerOffsetRepository;
+import com.example.payment.consumer.repository.LedgerEntryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerBatchWriterTest {
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private AccountBalanceRepository accountBalanceRepository;
+
+    @Mock
+    private ConsumerOffsetRepository offsetRepository;
+
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    /** 샤드별 payment 테이블 (payment_id → merchant_id) */
+    private final Map<String, Map<Long, String>> payments = new HashMap<>();
+    /** saveAll이 실행된 샤드별 원장 행 */
+    private final Map<String, List<LedgerEntry>> written = new HashMap<>();
+    private final List<String> queriedShards = new ArrayList<>();
+
+    private LedgerBatchWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        writer = new LedgerBatchWriter(ledgerEntryRepository, accountBalanceRepository, offsetRepository,
+                namedJdbcTemplate, transactionManager, new SimpleMeterRegistry(), "ledger", 6, 0);
+
+        lenient().doAnswer(invocation -> {
+            String shard = ShardScope.current();
+            queriedShards.add(shard);
+            RowCallbackHandler handler = invocation.getArgument(2);
+            for (Map.Entry<Long, String> row : payments.getOrDefault(shard, Map.of()).entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("payment_id")).thenReturn(row.getKey());
+                when(rs.getString("merchant_id")).thenReturn(row.getValue());
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(namedJdbcTemplate).query(anyString(), any(SqlParameterSource.class), any(RowCallbackHandler.class));
+        lenient().when(ledgerEntryRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<LedgerEntry> entries = invocation.getArgument(0);
+            written.computeIfAbsent(ShardScope.current(), key -> new ArrayList<>()).addAll(entries);
+            return entries;
+        });
+    }
+
+    @Test
+    void legacyKeyResolvesShardFromPayloadMerchant() {
+        // payment_id 123이 두 샤드에 모두 있음 (샤드마다 따로 증가) - M1(홀수)은 shard2
+        payments.put("shard1", Map.of(123L, "M2"));
+        payments.put("shard2", Map.of(123L, "M1"));
+        LedgerPosting posting = posting("123", 123L, "M1");
+
+        List<LedgerPosting> unresolved = writer.write(List.of(posting.record()), List.of(posting));
+
+        assertThat(unresolved).isEmpty();
+        assertThat(queriedShards).containsExactly("shard2");
+        assertThat(written.getOrDefault("shard1", List.of())).isEmpty();
+        assertThat(written.get("shard2")).containsExactly(posting.entry());
+    }
+
+    @Test
+    void legacyKeyWithoutMerchantIsUnresolved() {
+        payments.put("shard1", Map.of(123L, "M2"));
+        LedgerPosting posting = posting("123", 123L, null);
+
+        List<LedgerPosting> unresolved = writer.write(List.of(posting.record()), List.of(posting));
+
+        assertThat(unresolved).containsExactly(posting);
+        verify(namedJdbcTemplate, never()).query(anyString(), any(SqlParameterSource.class),
+                any(RowCallbackHandler.class));
+    }
+
+    @Test
+    void paymentOfAnotherMerchantIsUnresolved() {
+        // shard1의 123은 다른 가맹점 결제 → 잘못된 샤드/결제에 원장을 쓰지 않는다
+        payments.put("shard1", Map.of(123L, "M4"));
+        LedgerPosting posting = posting("shard1:123", 123L, "M2");
+
+        List<LedgerPosting> unresolved = writer.write(List.of(posting.record()), List.of(posting));
+
+        assertThat(unresolved).containsExactly(posting);
+        assertThat(written.getOrDefault("shard1", List.of())).isEmpty();
+    }
+
+    @Test
+    void prefixedKeyWinsOverPayloadMerchant() {
+        assertThat(LedgerBatchWriter.targetShard(posting("shard2:7", 7L, "M2"))).isEqualTo("shard2");
+        assertThat(LedgerBatchWriter.targetShard(posting("7", 7L, "M2"))).isEqualTo("shard1");
+        assertThat(LedgerBatchWriter.targetShard(posting("7", 7L, null))).isNull();
+    }
+
+    @Test
+    void unsetStripesDefaultToPartitionsPerShard() {
+        assertThat(LedgerBatchWriter.balanceStripes(0, 6)).isEqualTo(3);
+        assertThat(LedgerBatchWriter.balanceStripes(0, 12)).isEqualTo(6);
+        assertThat(LedgerBatchWriter.balanceStripes(2, 6)).isEqualTo(2);
+    }
+
+    @Test
+    void stripesAbovePartitionsPerShardAreRejected() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> LedgerBatchWriter.balanceStripes(8, 6));
+
+        assertThat(ex.getMessage()).contains("ledger.balance.stripes=8").contains("3 of 6");
+    }
+
+    @Test
+    void everyStripeIsUsedOnEachShard() {
+        // shard1: 0-2, shard2: 3-5 → 두 샤드 모두 stripe 0, 1, 2
+        assertThat(stripes(0, 3, 6, 3)).containsExactly(0, 1, 2);
+        assertThat(stripes(3, 6, 6, 3)).containsExactly(0, 1, 2);
+        // stripe가 구간보다 적으면 구간 안에서 돌려 쓴다
+        assertThat(stripes(3, 6, 6, 2)).containsExactly(0, 1, 0);
+    }
+
+    private static LedgerPosting posting(String key, Long paymentId, String merchantId) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("payment.captured", 0, 10L, key, "{}");
+        LedgerEntry entry = new LedgerEntry(paymentId, "merchant_receivable", "cash", 1000L, Instant.now());
+        return new LedgerPosting(record, entry, merchantId, null);
+    }
+
+    private static int[] stripes(int from, int to, int partitionCount, int stripeCount) {
+        int[] stripes = new int[to - from];
+        for (int partition = from; partition < to; partition++) {
+            stripes[partition - from] = LedgerBatchWriter.stripeOf(partition, partitionCount, stripeCount);
+        }
+        return stripes;
+    }
+}
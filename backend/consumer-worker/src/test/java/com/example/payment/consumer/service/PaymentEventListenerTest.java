@@ -1,23 +1,28 @@
 package com.example.payment.consumer.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.example.payment.consumer.repository.LedgerEntryRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
 import java.util.concurrent.CompletableFuture;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -27,11 +32,14 @@ import org.springframework.kafka.support.SendResult;
 class PaymentEventListenerTest {
 
     @Mock
-    private LedgerEntryRepository ledgerEntryRepository;
+    private LedgerBatchWriter ledgerBatchWriter;
 
     @Mock
     private KafkaTemplate<String, String> kafkaTemplate;
 
+    @Mock
+    private ProcessedEventStore processedEventStore;
+
     private ObjectMapper objectMapper;
     private PaymentEventListener eventListener;
 
@@ -39,48 +47,94 @@ class PaymentEventListenerTest {
     void setUp() {
         objectMapper = new ObjectMapper();
         eventListener = new PaymentEventListener(
-                ledgerEntryRepository,
+                ledgerBatchWriter,
                 objectMapper,
                 kafkaTemplate,
+                processedEventStore,
+                new EventLagRecorder(new SimpleMeterRegistry()),
                 "payment.dlq"
         );
 
         CompletableFuture<SendResult<String, String>> future = new CompletableFuture<>();
         future.complete(null);
-        when(kafkaTemplate.send(anyString(), anyString())).thenReturn(future);
+        lenient().when(kafkaTemplate.send(anyString(), anyString())).thenReturn(future);
     }
 
     @Test
     void sendsToDlqWhenPayloadCannotBeParsed() {
-        String invalidPayload = "invalid-json";
+        List<ConsumerRecord<String, String>> batch =
+                List.of(new ConsumerRecord<>("payment.captured", 0, 10L, null, "invalid-json"));
+        when(ledgerBatchWriter.write(batch, List.of())).thenReturn(List.of());
 
-        assertDoesNotThrow(() ->
-                eventListener.handleEvent(new ConsumerRecord<>("payment.captured", 0, 10L, null, invalidPayload))
-        );
+        assertDoesNotThrow(() -> eventListener.handleBatch(batch));
 
         verify(kafkaTemplate).send(anyString(), anyString());
-        verify(ledgerEntryRepository, never())
-                .existsByPaymentIdAndDebitAccountAndCreditAccount(anyLong(), anyString(), anyString());
+        verify(processedEventStore, never()).markProcessed(any());
     }
 
     @Test
-    void sendsToDlqWhenLedgerUpdateFails() throws Exception {
-        when(ledgerEntryRepository.existsByPaymentIdAndDebitAccountAndCreditAccount(anyLong(), anyString(), anyString()))
-                .thenReturn(false);
-        when(ledgerEntryRepository.save(any())).thenThrow(new RuntimeException("DB failure"));
-
+    void sendsToDlqWhenPaymentIsOnNoShard() throws Exception {
         String payload = objectMapper.writeValueAsString(Map.of(
                 "paymentId", 42,
                 "amount", 1000,
                 "occurredAt", Instant.now().toString()
         ));
+        List<ConsumerRecord<String, String>> batch =
+                List.of(new ConsumerRecord<>("payment.captured", 1, 11L, null, payload));
+        when(ledgerBatchWriter.write(any(), anyList()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
 
-        assertDoesNotThrow(() ->
-                eventListener.handleEvent(new ConsumerRecord<>("payment.captured", 1, 11L, null, payload))
-        );
+        assertDoesNotThrow(() -> eventListener.handleBatch(batch));
+
+        verify(kafkaTemplate).send(anyString(), anyString());
+        verify(processedEventStore, never()).markProcessed(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesBatchAndMarksPostedEvents() throws Exception {
+        String captured = objectMapper.writeValueAsString(Map.of("paymentId", 1, "amount", 1000));
+        String refunded = objectMapper.writeValueAsString(Map.of("paymentId", 2, "amount", 500));
+        ConsumerRecord<String, String> first = new ConsumerRecord<>("payment.captured", 0, 20L, null, captured);
+        ConsumerRecord<String, String> second = new ConsumerRecord<>("payment.refunded", 0, 21L, null, refunded);
+        List<ConsumerRecord<String, String>> batch = List.of(first, second);
+        when(ledgerBatchWriter.write(any(), anyList())).thenReturn(List.of());
+
+        eventListener.handleBatch(batch);
+
+        ArgumentCaptor<List<LedgerPosting>> postings = ArgumentCaptor.forClass(List.class);
+        verify(ledgerBatchWriter).write(eq(batch), postings.capture());
+        assertThat(postings.getValue()).hasSize(2);
+        assertThat(postings.getValue().get(0).entry().getDebitAccount()).isEqualTo("merchant_receivable");
+        assertThat(postings.getValue().get(1).entry().getDebitAccount()).isEqualTo("cash");
+        verify(processedEventStore).markProcessed(first);
+        verify(processedEventStore).markProcessed(second);
+        verify(kafkaTemplate, never()).send(anyString(), anyString());
+    }
+
+    @Test
+    void propagatesWriterFailureForBatchRetry() throws Exception {
+        String payload = objectMapper.writeValueAsString(Map.of("paymentId", 3, "amount", 1000));
+        List<ConsumerRecord<String, String>> batch =
+                List.of(new ConsumerRecord<>("payment.captured", 0, 30L, null, payload));
+        when(ledgerBatchWriter.write(any(), anyList())).thenThrow(new RuntimeException("DB failure"));
+
+        assertThrows(RuntimeException.class, () -> eventListener.handleBatch(batch));
+
+        verify(kafkaTemplate, never()).send(anyString(), anyString());
+        verify(processedEventStore, never()).markProcessed(any());
+    }
+
+    @Test
+    void skipsRedeliveredEventWithoutTouchingLedger() {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>("payment.captured", 2, 12L, null, "{}");
+        List<ConsumerRecord<String, String>> batch = List.of(record);
+        when(processedEventStore.isDuplicate(record)).thenReturn(true);
+        when(ledgerBatchWriter.write(batch, List.of())).thenReturn(List.of());
+
+        eventListener.handleBatch(batch);
 
-        verify(ledgerEntryRepository).existsByPaymentIdAndDebitAccountAndCreditAccount(anyLong(), anyString(), anyString());
-        verify(ledgerEntryRepository).save(any());
-        verify(kafkaTemplate, atLeastOnce()).send(anyString(), anyString());
+        verify(processedEventStore, never()).markProcessed(any());
+        verify(kafkaTemplate, never()).send(anyString(), anyString());
     }
 }
@@ -0,0 +1,109 @@
+package com.example.payment.consumer.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedEventStoreTest {
+
+    private static final String TOPIC = "payment.captured";
+    private static final String GROUP = "ledger-group";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProcessedEventStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new ProcessedEventStore(jdbcTemplate, meterRegistry, GROUP, 100, 24);
+    }
+
+    @Test
+    void eventKeyUsesShardQualifiedHeader() {
+        assertThat(ProcessedEventStore.eventKey(record(0, 10, "shard1:42"))).isEqualTo("evt:shard1:42");
+        // JSON 헤더 매퍼로 인코딩된 값
+        assertThat(ProcessedEventStore.eventKey(record(0, 10, "\"shard2:42\""))).isEqualTo("evt:shard2:42");
+        assertThat(ProcessedEventStore.eventKey(record(3, 77, null))).isEqualTo(TOPIC + "-3@77");
+    }
+
+    @Test
+    void sameOutboxIdFromTwoShardsIsNotADuplicate() {
+        ConsumerRecord<String, String> shard1 = record(0, 10, "shard1:42");
+        ConsumerRecord<String, String> shard2 = record(0, 11, "shard2:42");
+
+        store.markProcessed(shard1);
+
+        assertThat(store.isDuplicate(shard2)).isFalse();
+        assertThat(store.isDuplicate(record(0, 12, "shard1:42"))).isTrue();
+        verify(jdbcTemplate).update(anyString(), eq(GROUP), eq("evt:shard1:42"), eq(TOPIC), eq(0), any());
+
+        store.markProcessed(shard2);
+        assertThat(store.isDuplicate(record(0, 13, "shard2:42"))).isTrue();
+        verify(jdbcTemplate).update(anyString(), eq(GROUP), eq("evt:shard2:42"), eq(TOPIC), eq(0), any());
+        assertThat(meterRegistry.get("event.dedupe.duplicates").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void assignedPartitionPreloadsRecentKeys() {
+        TopicPartition partition = new TopicPartition(TOPIC, 1);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(GROUP), eq(TOPIC), eq(1), eq(100)))
+                .thenReturn(List.of("evt:shard2:42", "evt:shard1:42"));
+
+        store.onPartitionsAssigned(null, List.of(partition));
+
+        assertThat(store.isDuplicate(record(1, 500, "shard1:42"))).isTrue();
+        assertThat(store.isDuplicate(record(1, 501, "shard2:42"))).isTrue();
+        assertThat(store.isDuplicate(record(1, 502, "shard1:43"))).isFalse();
+        // 다른 파티션의 윈도우와는 섞이지 않음
+        assertThat(store.isDuplicate(record(2, 500, "shard1:42"))).isFalse();
+    }
+
+    @Test
+    void preloadFailureLeavesEmptyWindow() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(GROUP), eq(TOPIC), eq(1), eq(100)))
+                .thenThrow(new DataAccessResourceFailureException("shard1 down"));
+
+        store.onPartitionsAssigned(null, List.of(new TopicPartition(TOPIC, 1)));
+
+        assertThat(store.isDuplicate(record(1, 500, "shard1:42"))).isFalse();
+        store.markProcessed(record(1, 500, "shard1:42"));
+        assertThat(store.isDuplicate(record(1, 501, "shard1:42"))).isTrue();
+    }
+
+    @Test
+    void revokedPartitionDropsWindow() {
+        store.markProcessed(record(0, 10, "shard1:42"));
+
+        store.onPartitionsRevokedAfterCommit(null, List.of(new TopicPartition(TOPIC, 0)));
+
+        assertThat(store.isDuplicate(record(0, 10, "shard1:42"))).isFalse();
+    }
+
+    private static ConsumerRecord<String, String> record(int partition, long offset, String eventId) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(TOPIC, partition, offset, "shard1:7", "{}");
+        if (eventId != null) {
+            record.headers().add("eventId", eventId.getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
@@ -7,6 +7,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 /**
@@ -14,7 +15,8 @@ import org.springframework.stereotype.Component;
  * 실제 PG사 카드 승인 API 호출을 시뮬레이션
  */
 @Component
-public class MockPgAuthApiClient {
+@ConditionalOnProperty(name = "pg.client.mode", havingValue = "mock", matchIfMissing = true)
+public class MockPgAuthApiClient implements PgAuthApiClient {
 
     private static final Logger log = LoggerFactory.getLogger(MockPgAuthApiClient.class);
 
@@ -36,6 +38,7 @@ public class MockPgAuthApiClient {
      * - 일반 모드: 0.5% 확률로 실패 시뮬레이션 (현실적인 에러 처리 테스트용)
      * - 부하 테스트 모드: 0.01% 확률로 실패 (성능 측정용)
      *
+     * @param pgReference PG 멱등 참조값 (Mock은 상태가 없어 로그에만 남긴다)
      * @param merchantId 가맹점 ID
      * @param amount 승인 금액
      * @param currency 통화
@@ -43,14 +46,16 @@ public class MockPgAuthApiClient {
      * @return 승인 응답
      * @throws PgApiException PG API 오류 발생 시
      */
+    @Override
     public AuthorizationResponse requestAuthorization(
+            String pgReference,
             String merchantId,
             BigDecimal amount,
             String currency,
             String cardNumber
     ) throws PgApiException {
-        log.debug("Requesting authorization to Mock PG: merchantId={}, amount={}, currency={}",
-                merchantId, amount, currency);
+        log.debug("Requesting authorization to Mock PG: pgReference={}, merchantId={}, amount={}, currency={}",
+                pgReference, merchantId, amount, currency);
 
         // 1~3초 지연 시뮬레이션 (실제 PG API 응답 시간)
         try {
@@ -93,73 +98,4 @@ public class MockPgAuthApiClient {
                 Instant.now()
         );
     }
-
-    /**
-     * 승인 응답 DTO
-     */
-    public static class AuthorizationResponse {
-        private final String status;
-        private final String transactionId;
-        private final String approvalNumber;
-        private final String responseCode;
-        private final String responseMessage;
-        private final BigDecimal amount;
-        private final Instant authorizedAt;
-
-        public AuthorizationResponse(String status, String transactionId, String approvalNumber,
-                                      String responseCode, String responseMessage,
-                                      BigDecimal amount, Instant authorizedAt) {
-            this.status = status;
-            this.transactionId = transactionId;
-            this.approvalNumber = approvalNumber;
-            this.responseCode = responseCode;
-            this.responseMessage = responseMessage;
-            this.amount = amount;
-            this.authorizedAt = authorizedAt;
-        }
-
-        public String getStatus() {
-            return status;
-        }
-
-        public String getTransactionId() {
-            return transactionId;
-        }
-
-        public String getApprovalNumber() {
-            return approvalNumber;
-        }
-
-        public String getResponseCode() {
-            return responseCode;
-        }
-
-        public String getResponseMessage() {
-            return responseMessage;
-        }
-
-        public BigDecimal getAmount() {
-            return amount;
-        }
-
-        public Instant getAuthorizedAt() {
-            return authorizedAt;
-        }
-    }
-
-    /**
-     * PG API 예외
-     */
-    public static class PgApiException extends Exception {
-        private final String errorCode;
-
-        public PgApiException(String errorCode, String message) {
-            super(message);
-            this.errorCode = errorCode;
-        }
-
-        public String getErrorCode() {
-            return errorCode;
-        }
-    }
 }
@@ -1,38 +1,40 @@
 package com.example.payment.config.shard;
 
 /**
- * 현재 샤드 키를 저장하는 ThreadLocal 홀더.
- * ShardRoutingDataSource가 어떤 샤드로 라우팅할지 결정할 때 사용.
+ * merchant ID → 샤드 키 계산.
+ * 샤드 바인딩은 ShardScope(open/run/call)로만 하고, 여기서는 ThreadLocal을 직접 건드리지 않는다.
  */
-public class ShardContextHolder {
+public final class ShardContextHolder {
 
-    private static final ThreadLocal<String> contextHolder = new ThreadLocal<>();
-
-    public static void setShardKey(String shardKey) {
-        contextHolder.set(shardKey);
+    private ShardContextHolder() {
     }
 
+    /**
+     * 현재 범위의 샤드 키 (범위 밖이면 null)
+     */
     public static String getShardKey() {
-        return contextHolder.get();
-    }
-
-    public static void clear() {
-        contextHolder.remove();
+        return ShardScope.current();
     }
 
     /**
-     * merchant ID 기반 모듈로 라우팅으로 샤드 설정.
+     * merchant ID 기반 모듈로 라우팅.
      * merchant_id % 2 = 0 → shard1 (VM1)
      * merchant_id % 2 = 1 → shard2 (VM2)
      */
-    public static void setShardByMerchantId(String merchantId) {
+    public static String resolveShardKey(String merchantId) {
         try {
             long id = Long.parseLong(merchantId.replaceAll("[^0-9]", ""));
-            String shardKey = (id % 2 == 0) ? "shard1" : "shard2";
-            setShardKey(shardKey);
+            return (id % 2 == 0) ? "shard1" : "shard2";
         } catch (NumberFormatException e) {
             // merchant ID가 숫자가 아니면 기본값 shard1
-            setShardKey("shard1");
+            return "shard1";
         }
     }
+
+    /**
+     * merchant ID의 샤드 범위 시작 (try-with-resources)
+     */
+    public static ShardScope openForMerchant(String merchantId) {
+        return ShardScope.open(resolveShardKey(merchantId));
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.payment.config.shard;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * 샤드 정렬 파티셔너.
+ * "shard:aggregateId" 키는 해당 샤드의 파티션 구간 안에서만 배치해
+ * 샤드별로 전담 worker가 한 샤드 이벤트만 소비할 수 있게 한다 (ShardPartitions 참고).
+ */
+public class ShardPartitioner implements Partitioner {
+
+    @Override
+    public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes, Cluster cluster) {
+        int partitionCount = cluster.partitionsForTopic(topic).size();
+        if (keyBytes == null) {
+            return ThreadLocalRandom.current().nextInt(partitionCount);
+        }
+        int hash = Utils.toPositive(Utils.murmur2(keyBytes));
+        String shard = key instanceof String stringKey ? ShardPartitions.shardOf(stringKey) : null;
+        if (shard == null) {
+            return hash % partitionCount;
+        }
+        int[] range = ShardPartitions.range(shard, partitionCount);
+        return range[0] + hash % (range[1] - range[0]);
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
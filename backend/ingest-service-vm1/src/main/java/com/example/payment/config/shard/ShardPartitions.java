@@ -0,0 +1,49 @@
+package com.example.payment.config.shard;
+
+import java.util.List;
+
+/**
+ * 샤드 정렬 Kafka 파티션 배치.
+ * 토픽 파티션을 샤드 수만큼 연속 구간으로 나눠 샤드마다 고정 구간을 준다 (6개면 shard1: 0-2, shard2: 3-5).
+ * 메시지 키는 "shard:aggregateId" 형식이며, 구간 안에서는 키 해시로 파티션을 고른다 (결제별 순서 유지).
+ * shard 접두어가 없는 키(DLQ, 이전 형식 이벤트)는 전체 파티션에 기본 해시 방식으로 배치한다.
+ */
+public final class ShardPartitions {
+
+    public static final List<String> SHARDS = List.of("shard1", "shard2");
+
+    private static final char SEPARATOR = ':';
+
+    private ShardPartitions() {
+    }
+
+    public static String messageKey(String shard, Object aggregateId) {
+        return shard + SEPARATOR + aggregateId;
+    }
+
+    /**
+     * 키의 샤드 (접두어가 없거나 알 수 없는 샤드면 null)
+     */
+    public static String shardOf(String key) {
+        if (key == null) {
+            return null;
+        }
+        int separator = key.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            return null;
+        }
+        String shard = key.substring(0, separator);
+        return SHARDS.contains(shard) ? shard : null;
+    }
+
+    /**
+     * 샤드의 파티션 구간 [from, to) (파티션 수가 샤드 수보다 적으면 전체 구간)
+     */
+    public static int[] range(String shard, int partitionCount) {
+        int index = SHARDS.indexOf(shard);
+        if (index < 0 || partitionCount < SHARDS.size()) {
+            return new int[]{0, partitionCount};
+        }
+        return new int[]{index * partitionCount / SHARDS.size(), (index + 1) * partitionCount / SHARDS.size()};
+    }
+}
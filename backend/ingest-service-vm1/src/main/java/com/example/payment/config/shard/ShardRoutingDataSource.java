@@ -1,16 +1,42 @@
 package com.example.payment.config.shard;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
 
 /**
- * ShardContextHolder 기반으로 샤드를 선택하는 라우팅 DataSource.
+ * ShardScope 기반으로 샤드를 선택하는 라우팅 DataSource.
+ *
+ * 기동 중(스키마 검증, 커넥션 풀 초기화 등)에는 범위가 없으면 shard1을 쓰고, ApplicationReadyEvent 이후에는
+ * strict 모드(shard.routing.strict, 기본 true)에서 범위 밖 쿼리를 IllegalStateException으로 거절한다.
+ * (비동기 단계나 콜백에서 샤드 전파가 빠지면 조용히 shard1에 쓰는 대신 바로 드러나도록)
  */
-public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+public class ShardRoutingDataSource extends AbstractRoutingDataSource
+        implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final String DEFAULT_SHARD = "shard1";
+
+    private final boolean strict;
+    private volatile boolean ready;
+
+    public ShardRoutingDataSource(boolean strict) {
+        this.strict = strict;
+    }
 
     @Override
     protected Object determineCurrentLookupKey() {
-        String shardKey = ShardContextHolder.getShardKey();
-        // 샤드 키가 설정되지 않으면 기본값 shard1
-        return shardKey != null ? shardKey : "shard1";
+        String shardKey = ShardScope.current();
+        if (shardKey != null) {
+            return shardKey;
+        }
+        if (strict && ready) {
+            return ShardScope.require();
+        }
+        return DEFAULT_SHARD;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ready = true;
     }
 }
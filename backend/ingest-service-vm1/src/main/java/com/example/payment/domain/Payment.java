@@ -30,6 +30,18 @@ public class Payment {
     @Column(name = "status", nullable = false, length = 16)
     private PaymentStatus status;
 
+    /**
+     * 환불 예약 누적 금액 (요청 시점에 조건부 UPDATE로 증가, 최종 실패 시 차감)
+     */
+    @Column(name = "refunded_amount", nullable = false)
+    private Long refundedAmount = 0L;
+
+    /**
+     * 상태 전이 버전 (조건부 UPDATE마다 +1, Redis 캐시 스냅샷의 버전 스탬프로 사용)
+     */
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
     @Column(name = "idempotency_key", nullable = false, length = 64)
     private String idempotencyKey;
 
@@ -82,6 +94,18 @@ public class Payment {
         return status;
     }
 
+    public Long getRefundedAmount() {
+        return refundedAmount;
+    }
+
+    public long getRefundableAmount() {
+        return amount - refundedAmount;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
     public String getIdempotencyKey() {
         return idempotencyKey;
     }
@@ -0,0 +1,212 @@
+package com.example.payment.readmodel;
+
+import com.example.payment.config.shard.ShardContextHolder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 결제 이벤트 → 읽기 모델 투영 (CQRS projector)
+ *
+ * payment.* 상태 이벤트를 별도 consumer group으로 배치 소비해 PaymentReadModelStore에 반영한다.
+ * 반영이 이벤트 순서/중복에 무관하므로 오프셋은 Kafka에 커밋하고, 재구축(PaymentReadModelRebuilder)과 동시에 돌아도 된다.
+ * 중복 판정은 eventId 헤더("shard:outboxId")로 하므로 outbox가 같은 이벤트를 다시 발행해 오프셋이 달라져도 한 번만 반영된다.
+ * 파싱할 수 없는 이벤트는 건너뛰고 payment.read_model.events{result=skipped}로 남긴다.
+ * Redis 오류는 예외로 올려 컨테이너가 배치를 다시 전달하게 한다.
+ *
+ * 환불 실패는 이벤트가 없으므로 읽기 모델에서는 환불 요청 상태(IN_PROGRESS)로 남는다.
+ */
+@Component
+public class PaymentReadModelProjector {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReadModelProjector.class);
+    private static final String EVENT_ID_HEADER = "eventId";
+
+    private enum EventKind {
+        AUTHORIZED("A", PaymentReadModelStore.AUTHORIZED_AT),
+        CAPTURE_REQUESTED("CR", PaymentReadModelStore.CAPTURE_REQUESTED_AT),
+        CAPTURED("C", PaymentReadModelStore.CAPTURED_AT),
+        REFUND_REQUESTED("RR", PaymentReadModelStore.REFUND_REQUESTED_AT),
+        REFUNDED("R", PaymentReadModelStore.REFUNDED_AT);
+
+        private final String code;
+        private final String timeField;
+
+        EventKind(String code, String timeField) {
+            this.code = code;
+            this.timeField = timeField;
+        }
+    }
+
+    private final PaymentReadModelStore store;
+    private final ObjectMapper objectMapper;
+    private final Map<String, EventKind> topics = new LinkedHashMap<>();
+    private final Counter appliedCounter;
+    private final Counter duplicateCounter;
+    private final Counter skippedCounter;
+    private final Timer lagTimer;
+
+    public PaymentReadModelProjector(PaymentReadModelStore store,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${payment.topics.authorized:payment.authorized}") String authorizedTopic,
+                                     @Value("${payment.topics.capture-requested:payment.capture-requested}") String captureRequestedTopic,
+                                     @Value("${payment.topics.captured:payment.captured}") String capturedTopic,
+                                     @Value("${payment.topics.refund-requested:payment.refund-requested}") String refundRequestedTopic,
+                                     @Value("${payment.topics.refunded:payment.refunded}") String refundedTopic) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        topics.put(authorizedTopic, EventKind.AUTHORIZED);
+        topics.put(captureRequestedTopic, EventKind.CAPTURE_REQUESTED);
+        topics.put(capturedTopic, EventKind.CAPTURED);
+        topics.put(refundRequestedTopic, EventKind.REFUND_REQUESTED);
+        topics.put(refundedTopic, EventKind.REFUNDED);
+        this.appliedCounter = Counter.builder("payment.read_model.events").tag("result", "applied")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("payment.read_model.events").tag("result", "duplicate")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("payment.read_model.events").tag("result", "skipped")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("payment.read_model.lag")
+                .description("Kafka append → read model apply (oldest record in batch)")
+                .publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+    }
+
+    @KafkaListener(
+            id = "paymentReadModelProjector",
+            topics = {"${payment.topics.authorized:payment.authorized}",
+                    "${payment.topics.capture-requested:payment.capture-requested}",
+                    "${payment.topics.captured:payment.captured}",
+                    "${payment.topics.refund-requested:payment.refund-requested}",
+                    "${payment.topics.refunded:payment.refunded}"},
+            groupId = "${payment.read-model.consumer-group:payment-read-model}",
+            concurrency = "${payment.read-model.concurrency:3}",
+            autoStartup = "${payment.read-model.enabled:true}",
+            batch = "true",
+            properties = {"auto.offset.reset=earliest", "max.poll.records=1000"}
+    )
+    public void handleBatch(List<ConsumerRecord<String, String>> records) {
+        int applied = project(records);
+        long oldest = records.stream().mapToLong(ConsumerRecord::timestamp).min().orElse(System.currentTimeMillis());
+        lagTimer.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - oldest)));
+        log.debug("Read model batch applied: records={}, applied={}", records.size(), applied);
+    }
+
+    /**
+     * 레코드 묶음을 읽기 모델에 반영 (listener와 재구축이 공유). 새로 반영된 이벤트 수를 반환
+     */
+    public int project(List<ConsumerRecord<String, String>> records) {
+        List<PaymentProjection> projections = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            PaymentProjection projection = toProjection(record);
+            if (projection != null) {
+                projections.add(projection);
+            } else {
+                skippedCounter.increment();
+            }
+        }
+        int applied = store.apply(projections);
+        appliedCounter.increment(applied);
+        duplicateCounter.increment(projections.size() - applied);
+        return applied;
+    }
+
+    /**
+     * 투영 대상 토픽 이름 (재구축용)
+     */
+    public List<String> topics() {
+        return List.copyOf(topics.keySet());
+    }
+
+    private PaymentProjection toProjection(ConsumerRecord<String, String> record) {
+        EventKind kind = topics.get(record.topic());
+        if (kind == null || record.value() == null) {
+            return null;
+        }
+        try {
+            JsonNode node = objectMapper.readTree(record.value());
+            if (!node.hasNonNull("paymentId") || !node.hasNonNull("merchantId")) {
+                return null;
+            }
+            Long paymentId = node.get("paymentId").asLong();
+            String merchantId = node.get("merchantId").asText();
+            String shard = ShardContextHolder.resolveShardKey(merchantId);
+            String occurredAt = node.path("occurredAt").asText(null);
+            long occurredAtMillis = occurredAt != null
+                    ? Instant.parse(occurredAt).toEpochMilli()
+                    : record.timestamp();
+
+            Map<String, String> fields = new LinkedHashMap<>();
+            fields.put(PaymentReadModelStore.PAYMENT_ID, String.valueOf(paymentId));
+            fields.put(PaymentReadModelStore.MERCHANT_ID, merchantId);
+            fields.put(PaymentReadModelStore.SHARD, shard);
+            String sumField = null;
+            long sumAmount = 0;
+            switch (kind) {
+                case AUTHORIZED, CAPTURE_REQUESTED -> {
+                    putText(fields, PaymentReadModelStore.AMOUNT, node, "amount");
+                    putText(fields, PaymentReadModelStore.CURRENCY, node, "currency");
+                    putText(fields, PaymentReadModelStore.APPROVAL_NUMBER, node, "approvalNumber");
+                    putText(fields, PaymentReadModelStore.TRANSACTION_ID, node, "transactionId");
+                }
+                case CAPTURED -> putText(fields, PaymentReadModelStore.AMOUNT, node, "amount");
+                case REFUND_REQUESTED -> {
+                    // amount = 환불 요청 금액, paymentAmount = 결제 금액
+                    putText(fields, PaymentReadModelStore.AMOUNT, node, "paymentAmount");
+                    putText(fields, PaymentReadModelStore.REFUND_REASON, node, "reason");
+                    sumField = PaymentReadModelStore.REFUND_REQUESTED;
+                    sumAmount = node.path("amount").asLong();
+                }
+                case REFUNDED -> {
+                    sumField = PaymentReadModelStore.REFUNDED;
+                    sumAmount = node.path("amount").asLong();
+                }
+            }
+            String eventField = "e:" + kind.code + ":" + eventIdentity(record);
+            return new PaymentProjection(merchantId, shard, paymentId, eventField, kind.timeField, occurredAtMillis,
+                    kind == EventKind.AUTHORIZED, sumField, sumAmount, fields);
+        } catch (Exception ex) {
+            log.warn("Skipping unparseable read model event topic={} partition={} offset={}: {}",
+                    record.topic(), record.partition(), record.offset(), ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 이벤트 식별자: eventId 헤더 우선 (재발행돼도 같음), 헤더가 없는 이벤트는 partition:offset
+     */
+    private static String eventIdentity(ConsumerRecord<String, String> record) {
+        Header header = record.headers().lastHeader(EVENT_ID_HEADER);
+        if (header != null && header.value() != null) {
+            String value = new String(header.value(), StandardCharsets.UTF_8);
+            // JSON 헤더 매퍼로 인코딩된 문자열은 따옴표로 감싸져 있음
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            return "id:" + value;
+        }
+        return record.partition() + ":" + record.offset();
+    }
+
+    private static void putText(Map<String, String> fields, String field, JsonNode node, String property) {
+        if (node.hasNonNull(property)) {
+            fields.put(field, node.get(property).asText());
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.payment.readmodel;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 읽기 모델 재구축 (토픽 처음부터 다시 투영)
+ *
+ * 1. reset이면 payview:* 키를 모두 지운다
+ * 2. 그 다음 시점의 파티션별 끝 오프셋을 잡는다 (이후 이벤트는 실시간 projector가 반영)
+ * 3. 파티션마다 group 없는 consumer를 하나씩 만들어 처음부터 끝 오프셋까지 readModelRebuildExecutor에서 병렬로 읽는다
+ * 반영이 이벤트 단위로 멱등이라 실시간 projector를 멈추지 않아도 된다. 동시에 한 번만 실행한다.
+ */
+@Component
+public class PaymentReadModelRebuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentReadModelRebuilder.class);
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    private final PaymentReadModelProjector projector;
+    private final PaymentReadModelStore store;
+    private final Executor executor;
+    private final String bootstrapServers;
+    private final AtomicReference<Run> current = new AtomicReference<>();
+
+    public PaymentReadModelRebuilder(PaymentReadModelProjector projector,
+                                     PaymentReadModelStore store,
+                                     @Qualifier("readModelRebuildExecutor") Executor executor,
+                                     @Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers) {
+        this.projector = projector;
+        this.store = store;
+        this.executor = executor;
+        this.bootstrapServers = bootstrapServers;
+    }
+
+    /**
+     * 재구축 시작 (비동기). 이미 실행 중이면 IllegalStateException
+     */
+    public synchronized RebuildStatus start(boolean reset) {
+        Run running = current.get();
+        if (running != null && running.finishedAt == null) {
+            throw new IllegalStateException("Read model rebuild already running: " + running.id);
+        }
+        Run run = new Run(UUID.randomUUID().toString(), reset);
+        current.set(run);
+
+        try {
+            CompletableFuture.supplyAsync(() -> prepare(run), executor)
+                    .thenCompose(endOffsets -> CompletableFuture.allOf(endOffsets.entrySet().stream()
+                            .map(end -> CompletableFuture.runAsync(() -> replay(run, end.getKey(), end.getValue()),
+                                    executor))
+                            .toArray(CompletableFuture[]::new)))
+                    .whenComplete((ignored, ex) -> run.finish(ex));
+        } catch (RuntimeException ex) {
+            run.finish(ex);
+            throw ex;
+        }
+        log.info("Read model rebuild started: id={}, reset={}", run.id, reset);
+        return run.toStatus();
+    }
+
+    public Optional<RebuildStatus> status() {
+        return Optional.ofNullable(current.get()).map(Run::toStatus);
+    }
+
+    private Map<TopicPartition, Long> prepare(Run run) {
+        if (run.reset) {
+            run.keysCleared.set(store.clear());
+        }
+        try (KafkaConsumer<String, String> consumer = newConsumer("read-model-rebuild-metadata")) {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : projector.topics()) {
+                List<PartitionInfo> infos = consumer.partitionsFor(topic);
+                if (infos != null) {
+                    infos.forEach(info -> partitions.add(new TopicPartition(topic, info.partition())));
+                }
+            }
+            Map<TopicPartition, Long> beginnings = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> ends = consumer.endOffsets(partitions);
+            ends.entrySet().removeIf(end -> end.getValue() <= beginnings.getOrDefault(end.getKey(), 0L));
+            run.partitions.set(ends.size());
+            return ends;
+        }
+    }
+
+    private void replay(Run run, TopicPartition partition, long endOffset) {
+        try (KafkaConsumer<String, String> consumer = newConsumer(
+                "read-model-rebuild-" + partition.topic() + "-" + partition.partition())) {
+            consumer.assign(List.of(partition));
+            consumer.seekToBeginning(List.of(partition));
+            while (consumer.position(partition) < endOffset) {
+                ConsumerRecords<String, String> polled = consumer.poll(POLL_TIMEOUT);
+                List<ConsumerRecord<String, String>> records = new ArrayList<>(polled.count());
+                for (ConsumerRecord<String, String> record : polled.records(partition)) {
+                    if (record.offset() < endOffset) {
+                        records.add(record);
+                    }
+                }
+                if (!records.isEmpty()) {
+                    run.eventsApplied.addAndGet(projector.project(records));
+                    run.recordsRead.addAndGet(records.size());
+                }
+            }
+        }
+        run.completedPartitions.incrementAndGet();
+        log.debug("Read model partition replayed: {} (end offset {})", partition, endOffset);
+    }
+
+    private KafkaConsumer<String, String> newConsumer(String clientId) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.CLIENT_ID_CONFIG, clientId);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1000);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        return new KafkaConsumer<>(props);
+    }
+
+    /**
+     * 재구축 진행 상태
+     */
+    public record RebuildStatus(
+            String id,
+            String status,
+            boolean reset,
+            long keysCleared,
+            int partitions,
+            int completedPartitions,
+            long recordsRead,
+            long eventsApplied,
+            Instant startedAt,
+            Instant finishedAt,
+            String error
+    ) {
+    }
+
+    private static final class Run {
+
+        private final String id;
+        private final boolean reset;
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong keysCleared = new AtomicLong();
+        private final AtomicInteger partitions = new AtomicInteger();
+        private final AtomicInteger completedPartitions = new AtomicInteger();
+        private final AtomicLong recordsRead = new AtomicLong();
+        private final AtomicLong eventsApplied = new AtomicLong();
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private Run(String id, boolean reset) {
+            this.id = id;
+            this.reset = reset;
+        }
+
+        private void finish(Throwable ex) {
+            if (ex != null) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                error = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+                log.error("Read model rebuild failed: id={}", id, cause);
+            } else {
+                log.info("Read model rebuild completed: id={}, partitions={}, records={}, applied={}",
+                        id, partitions.get(), recordsRead.get(), eventsApplied.get());
+            }
+            finishedAt = Instant.now();
+        }
+
+        private RebuildStatus toStatus() {
+            String status = finishedAt == null ? "RUNNING" : error == null ? "COMPLETED" : "FAILED";
+            return new RebuildStatus(id, status, reset, keysCleared.get(), partitions.get(),
+                    completedPartitions.get(), recordsRead.get(), eventsApplied.get(), startedAt, finishedAt, error);
+        }
+    }
+}
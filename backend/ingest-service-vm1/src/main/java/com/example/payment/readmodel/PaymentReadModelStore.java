@@ -0,0 +1,238 @@
+package com.example.payment.readmodel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.stereotype.Component;
+
+/**
+ * 결제 읽기 모델 저장소 (Redis hash + 가맹점별 최근 결제 ZSET)
+ *
+ * - payview:{merchantId}:{shard}:{paymentId} hash: 이벤트에서 모은 사실 (짧은 필드명, 시각은 epoch millis)
+ * - payview:{merchantId}:recent ZSET: member "shard:paymentId", score = 승인 시각 (목록 조회용)
+ * - 키에 가맹점 hash tag를 넣어 Redis Cluster에서도 가맹점 단위로 같은 슬롯에 둔다
+ *
+ * 이벤트 반영은 Lua 스크립트 한 번으로 하며 순서와 중복에 무관하다.
+ * - e:{kind}:id:{eventId} 필드를 HSETNX로 남겨 같은 이벤트의 재반영(재전달, outbox 재발행, 재구축)을 건너뛴다
+ *   (eventId 헤더가 없는 이벤트는 e:{kind}:{partition}:{offset})
+ * - 시각 필드는 큰 값만 남기고, 환불 금액은 이벤트마다 누적한다
+ * 조회는 OLTP 샤드를 전혀 거치지 않는다.
+ */
+@Component
+public class PaymentReadModelStore {
+
+    static final String PAYMENT_ID = "id";
+    static final String MERCHANT_ID = "mid";
+    static final String SHARD = "sh";
+    static final String AMOUNT = "amt";
+    static final String CURRENCY = "cur";
+    static final String APPROVAL_NUMBER = "apn";
+    static final String TRANSACTION_ID = "txn";
+    static final String AUTHORIZED_AT = "aAt";
+    static final String CAPTURE_REQUESTED_AT = "crAt";
+    static final String CAPTURED_AT = "cAt";
+    static final String REFUND_REQUESTED = "rq";
+    static final String REFUND_REQUESTED_AT = "rqAt";
+    static final String REFUNDED = "rf";
+    static final String REFUNDED_AT = "rfAt";
+    static final String REFUND_REASON = "rsn";
+    static final String UPDATED_AT = "uAt";
+
+    static final String KEY_PREFIX = "payview:";
+
+    // KEYS[1]=view hash, KEYS[2]=가맹점 index
+    // ARGV[1]=이벤트 필드, ARGV[2]=ttl(s), ARGV[3]=index member, ARGV[4]=index 모드(SET|NX), ARGV[5]=index 보존 하한(ms)
+    // ARGV[6]=시각 필드, ARGV[7]=발생 시각(ms), ARGV[8]=누적 필드(없으면 ''), ARGV[9]=누적 금액, ARGV[10..]=필드/값 쌍
+    private static final byte[] APPLY_SCRIPT = (
+            "if redis.call('HSETNX', KEYS[1], ARGV[1], '1') == 0 then return 0 end " +
+            "local at = tonumber(ARGV[7]) " +
+            "local cur = tonumber(redis.call('HGET', KEYS[1], ARGV[6])) " +
+            "if not cur or cur < at then redis.call('HSET', KEYS[1], ARGV[6], ARGV[7]) end " +
+            "local upd = tonumber(redis.call('HGET', KEYS[1], '" + UPDATED_AT + "')) " +
+            "if not upd or upd < at then redis.call('HSET', KEYS[1], '" + UPDATED_AT + "', ARGV[7]) end " +
+            "if ARGV[8] ~= '' then redis.call('HINCRBY', KEYS[1], ARGV[8], ARGV[9]) end " +
+            "for i = 10, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "if ARGV[4] == 'SET' then redis.call('ZADD', KEYS[2], at, ARGV[3]) " +
+            "else redis.call('ZADD', KEYS[2], 'NX', at, ARGV[3]) end " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', '(' .. ARGV[5]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[2]) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
+    private static final int CLEAR_BATCH_SIZE = 500;
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+    private final Timer applyTimer;
+    private final Timer readTimer;
+
+    public PaymentReadModelStore(StringRedisTemplate redisTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payment.read-model.ttl-days:30}") long ttlDays) {
+        this.redisTemplate = redisTemplate;
+        this.ttl = Duration.ofDays(ttlDays);
+        this.applyTimer = Timer.builder("payment.read_model.latency").tag("operation", "apply")
+                .publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+        this.readTimer = Timer.builder("payment.read_model.latency").tag("operation", "read")
+                .publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+    }
+
+    /**
+     * 이벤트 반영분을 파이프라인 한 번으로 적용. 반환값은 새로 반영된 이벤트 수 (중복은 제외)
+     * Redis 오류는 호출자로 전파한다 (listener 컨테이너가 배치를 재시도)
+     */
+    public int apply(Collection<PaymentProjection> projections) {
+        if (projections.isEmpty()) {
+            return 0;
+        }
+        byte[] ttlSeconds = bytes(String.valueOf(ttl.toSeconds()));
+        byte[] retainFrom = bytes(String.valueOf(System.currentTimeMillis() - ttl.toMillis()));
+        List<Object> results = applyTimer.record(() -> redisTemplate.executePipelined(
+                (RedisCallback<Object>) connection -> {
+                    for (PaymentProjection projection : projections) {
+                        connection.scriptingCommands().eval(APPLY_SCRIPT, ReturnType.INTEGER, 2,
+                                scriptArgs(projection, ttlSeconds, retainFrom));
+                    }
+                    return null;
+                }));
+        int applied = 0;
+        for (Object result : results) {
+            if (result instanceof Long written && written == 1L) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    public Optional<PaymentView> find(String merchantId, String shard, Long paymentId) {
+        Map<Object, Object> fields = readTimer.record(() ->
+                redisTemplate.opsForHash().entries(viewKey(merchantId, shard, paymentId)));
+        if (fields == null || !fields.containsKey(PAYMENT_ID)) {
+            return Optional.empty();
+        }
+        return Optional.of(PaymentView.of(toStringMap(fields)));
+    }
+
+    /**
+     * 가맹점의 최근 결제 (승인 시각 내림차순, beforeMillis 미만만). 만료된 hash는 건너뛴다
+     */
+    public RecentPage recent(String merchantId, Long beforeMillis, int limit) {
+        double max = beforeMillis != null ? beforeMillis - 1 : Double.POSITIVE_INFINITY;
+        return readTimer.record(() -> {
+            Set<TypedTuple<String>> members = redisTemplate.opsForZSet()
+                    .reverseRangeByScoreWithScores(indexKey(merchantId), Double.NEGATIVE_INFINITY, max, 0, limit);
+            if (members == null || members.isEmpty()) {
+                return new RecentPage(List.of(), null);
+            }
+            List<byte[]> keys = new ArrayList<>(members.size());
+            Long lastScore = null;
+            for (TypedTuple<String> member : members) {
+                keys.add(bytes(memberKey(merchantId, member.getValue())));
+                lastScore = member.getScore() != null ? member.getScore().longValue() : null;
+            }
+            List<Object> hashes = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                keys.forEach(key -> connection.hashCommands().hGetAll(key));
+                return null;
+            });
+            List<PaymentView> views = new ArrayList<>(hashes.size());
+            for (Object hash : hashes) {
+                if (hash instanceof Map<?, ?> fields && fields.containsKey(PAYMENT_ID)) {
+                    views.add(PaymentView.of(toStringMap(fields)));
+                }
+            }
+            return new RecentPage(views, members.size() == limit ? lastScore : null);
+        });
+    }
+
+    /**
+     * 모든 읽기 모델 키 삭제 (재구축 reset용, SCAN으로 나눠서 삭제). 삭제한 키 수를 반환
+     */
+    public long clear() {
+        ScanOptions options = ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(CLEAR_BATCH_SIZE).build();
+        long deleted = 0;
+        List<String> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= CLEAR_BATCH_SIZE) {
+                    deleted += deleteAll(batch);
+                }
+            }
+        }
+        return deleted + deleteAll(batch);
+    }
+
+    private long deleteAll(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long deleted = redisTemplate.delete(keys);
+        keys.clear();
+        return deleted != null ? deleted : 0;
+    }
+
+    private static byte[][] scriptArgs(PaymentProjection projection, byte[] ttlSeconds, byte[] retainFrom) {
+        Map<String, String> fields = projection.fields();
+        byte[][] args = new byte[2 + 9 + fields.size() * 2][];
+        int i = 0;
+        args[i++] = bytes(viewKey(projection.merchantId(), projection.shard(), projection.paymentId()));
+        args[i++] = bytes(indexKey(projection.merchantId()));
+        args[i++] = bytes(projection.eventField());
+        args[i++] = ttlSeconds;
+        args[i++] = bytes(projection.shard() + ":" + projection.paymentId());
+        args[i++] = bytes(projection.indexOwner() ? "SET" : "NX");
+        args[i++] = retainFrom;
+        args[i++] = bytes(projection.timeField());
+        args[i++] = bytes(String.valueOf(projection.occurredAtMillis()));
+        args[i++] = bytes(projection.sumField() != null ? projection.sumField() : "");
+        args[i++] = bytes(String.valueOf(projection.sumAmount()));
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            args[i++] = bytes(field.getKey());
+            args[i++] = bytes(field.getValue());
+        }
+        return args;
+    }
+
+    static String viewKey(String merchantId, String shard, Long paymentId) {
+        return KEY_PREFIX + "{" + merchantId + "}:" + shard + ":" + paymentId;
+    }
+
+    private static String memberKey(String merchantId, String member) {
+        return KEY_PREFIX + "{" + merchantId + "}:" + member;
+    }
+
+    static String indexKey(String merchantId) {
+        return KEY_PREFIX + "{" + merchantId + "}:recent";
+    }
+
+    private static Map<String, String> toStringMap(Map<?, ?> fields) {
+        Map<String, String> result = new HashMap<>(fields.size() * 2);
+        fields.forEach((key, value) -> result.put(String.valueOf(key), String.valueOf(value)));
+        return result;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 최근 결제 목록 한 페이지 (nextBefore: 다음 페이지 before 값, 마지막 페이지면 null)
+     */
+    public record RecentPage(List<PaymentView> items, Long nextBefore) {
+    }
+}
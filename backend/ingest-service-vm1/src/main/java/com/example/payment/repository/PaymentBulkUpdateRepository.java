@@ -0,0 +1,78 @@
+package com.example.payment.repository;
+
+import com.example.payment.domain.PaymentStatus;
+import com.example.payment.service.PaymentSnapshot;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 대량 capture/refund 파일 처리용 청크 단위 조회/UPDATE
+ *
+ * 청크의 결제 행을 payment_id 순으로 잠가(SELECT ... FOR UPDATE) 파일 순서대로 전이를 판단한 뒤,
+ * 바뀐 행만 version 조건부 UPDATE를 JDBC batch 한 번으로 보낸다. 잠금 순서가 항상 같으므로 청크끼리 교착하지 않고,
+ * 판단과 UPDATE 사이에 단건 API의 전이가 끼어들지 않는다.
+ * 호출자의 트랜잭션 안에서, 현재 ShardScope의 샤드에 실행된다. 시각은 UTC로 읽고 쓴다.
+ */
+@Repository
+public class PaymentBulkUpdateRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PaymentBulkUpdateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 결제 행 잠금 조회 (없는 payment_id는 결과에서 빠진다)
+     */
+    public List<PaymentSnapshot> lockForUpdate(Collection<Long> paymentIds) {
+        if (paymentIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> sorted = new ArrayList<>(paymentIds);
+        Collections.sort(sorted);
+        String placeholders = String.join(", ", Collections.nCopies(sorted.size(), "?"));
+        return jdbcTemplate.query(
+                "SELECT payment_id, merchant_id, amount, currency, status, refunded_amount, requested_at, version "
+                        + "FROM payment WHERE payment_id IN (" + placeholders + ") ORDER BY payment_id FOR UPDATE",
+                (rs, rowNum) -> new PaymentSnapshot(
+                        rs.getLong("payment_id"),
+                        rs.getString("merchant_id"),
+                        rs.getLong("amount"),
+                        rs.getString("currency"),
+                        PaymentStatus.valueOf(rs.getString("status")),
+                        rs.getLong("refunded_amount"),
+                        rs.getObject("requested_at", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+                        rs.getLong("version")),
+                sorted.toArray());
+    }
+
+    /**
+     * 잠근 스냅샷(before) 기준으로 바뀐 상태(after)를 기록 (before/after는 같은 순서의 같은 결제)
+     *
+     * @return 행별 영향 행 수 (드라이버가 개수를 돌려주지 않으면 Statement.SUCCESS_NO_INFO)
+     */
+    public int[] applyTransitions(List<PaymentSnapshot> before, List<PaymentSnapshot> after, Instant now) {
+        if (after.isEmpty()) {
+            return new int[0];
+        }
+        LocalDateTime updatedAt = LocalDateTime.ofInstant(now, ZoneOffset.UTC);
+        List<Object[]> args = new ArrayList<>(after.size());
+        for (int i = 0; i < after.size(); i++) {
+            PaymentSnapshot next = after.get(i);
+            args.add(new Object[]{next.getStatus().name(), next.getRefundedAmount(), next.getVersion(), updatedAt,
+                    next.getId(), before.get(i).getVersion()});
+        }
+        return jdbcTemplate.batchUpdate(
+                "UPDATE payment SET status = ?, refunded_amount = ?, version = ?, updated_at = ? "
+                        + "WHERE payment_id = ? AND version = ?",
+                args);
+    }
+}
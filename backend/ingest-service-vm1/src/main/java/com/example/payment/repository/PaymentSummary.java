@@ -0,0 +1,28 @@
+package com.example.payment.repository;
+
+import com.example.payment.domain.PaymentStatus;
+import java.time.Instant;
+
+/**
+ * Payment 읽기 전용 프로젝션
+ * 상태 전이는 조건부 UPDATE로 처리하고, 응답/이벤트 생성에 필요한 컬럼만 조회할 때 사용
+ * (영속성 컨텍스트에 엔티티를 올리지 않으므로 dirty checking으로 인한 전체 컬럼 UPDATE가 없다)
+ */
+public interface PaymentSummary {
+
+    Long getId();
+
+    String getMerchantId();
+
+    Long getAmount();
+
+    String getCurrency();
+
+    PaymentStatus getStatus();
+
+    Long getRefundedAmount();
+
+    Instant getRequestedAt();
+
+    Long getVersion();
+}
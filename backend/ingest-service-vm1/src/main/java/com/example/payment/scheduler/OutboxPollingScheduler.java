@@ -3,7 +3,7 @@ package com.example.payment.scheduler;
 import com.example.payment.domain.OutboxEvent;
 import com.example.payment.repository.OutboxEventRepository;
 import com.example.payment.service.PaymentEventPublisher;
-import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.config.shard.ShardScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -91,14 +91,11 @@ public class OutboxPollingScheduler {
             return;
         }
         // Poll only even merchant IDs for VM1 (using shard1)
-        ShardContextHolder.setShardKey("shard1");
-        try {
+        try (ShardScope ignored = ShardScope.open("shard1")) {
             log.info("Outbox polling start for even merchant IDs (VM1)");
             pollAndPublishWithRetry();
         } catch (Exception ex) {
             log.error("Outbox polling cycle failed for even merchant IDs", ex);
-        } finally {
-            ShardContextHolder.clear();
         }
     }
 
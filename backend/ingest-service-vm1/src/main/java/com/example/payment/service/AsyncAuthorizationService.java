@@ -0,0 +1,124 @@
+package com.example.payment.service;
+
+import com.example.payment.client.PgAuthApiClient.AuthorizationResponse;
+import com.example.payment.client.PgAuthApiClient.PgApiException;
+import com.example.payment.client.PgAuthApiService.PgCircuitOpenException;
+import com.example.payment.client.PgAuthApiService.PgConcurrencyLimitException;
+import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.config.shard.ShardScope;
+import com.example.payment.service.PaymentService.IdempotencyWrite;
+import com.example.payment.web.dto.AuthorizePaymentRequest;
+import com.example.payment.web.dto.PaymentResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * 비동기 결제 승인 파이프라인 (/payments/authorize/async)
+ *
+ * PaymentService.authorize와 같은 단계를 CompletableFuture 단계로 나눠 단계별 실행기에서 실행한다.
+ * 1. 멱등성/중복 사전 검사 + 레이트 제한 (authorizeDbExecutor)
+ * 2. PG 승인 호출 (authorizePgExecutor) - PG 지연 동안 서블릿 스레드는 반환된다
+ * 3. 결제 + outbox 저장 트랜잭션 (authorizeDbExecutor)
+ * 4. 커밋 이후 Redis 멱등 응답 적재 (authorizeCacheExecutor)
+ *
+ * 샤드 키는 요청 시점에 merchantId로 계산해 단계에 값으로 넘기고, DB 단계만 ShardScope.call로
+ * 실행 중에만 바인딩한다 (풀 스레드에 샤드가 남거나 다른 요청의 샤드로 라우팅되지 않도록).
+ * 실행기 큐가 차면 TaskRejectedException으로 실패하며 컨트롤러가 503으로 응답한다.
+ */
+@Service
+public class AsyncAuthorizationService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncAuthorizationService.class);
+
+    private final PaymentService paymentService;
+    private final IdempotencyCacheService idempotencyCacheService;
+    private final Executor pgExecutor;
+    private final Executor dbExecutor;
+    private final Executor cacheExecutor;
+    private final boolean loadTestMode;
+
+    public AsyncAuthorizationService(PaymentService paymentService,
+                                     IdempotencyCacheService idempotencyCacheService,
+                                     @Qualifier("authorizePgExecutor") Executor pgExecutor,
+                                     @Qualifier("authorizeDbExecutor") Executor dbExecutor,
+                                     @Qualifier("authorizeCacheExecutor") Executor cacheExecutor,
+                                     @Value("${mock.pg.loadtest-mode:false}") boolean loadTestMode) {
+        this.paymentService = paymentService;
+        this.idempotencyCacheService = idempotencyCacheService;
+        this.pgExecutor = pgExecutor;
+        this.dbExecutor = dbExecutor;
+        this.cacheExecutor = cacheExecutor;
+        this.loadTestMode = loadTestMode;
+    }
+
+    public CompletableFuture<PaymentResult> authorize(AuthorizePaymentRequest request) {
+        String shardKey = ShardContextHolder.resolveShardKey(request.merchantId());
+        return CompletableFuture
+                .supplyAsync(() -> ShardScope.call(shardKey, () -> precheck(request)), dbExecutor)
+                .thenCompose(existing -> existing != null
+                        ? CompletableFuture.completedFuture(existing)
+                        : authorizeWithPg(request, shardKey));
+    }
+
+    private CompletableFuture<PaymentResult> authorizeWithPg(AuthorizePaymentRequest request, String shardKey) {
+        return CompletableFuture
+                .supplyAsync(() -> callPg(request), pgExecutor)
+                .thenApplyAsync(pg -> pg.failure() != null
+                        ? pg.failure()
+                        : ShardScope.call(shardKey, () -> persist(request, pg.response())), dbExecutor)
+                .thenApplyAsync(result -> {
+                    if (!loadTestMode && !result.duplicate()) {
+                        idempotencyCacheService.cacheAuthorization(request.merchantId(), request.idempotencyKey(),
+                                result.response());
+                    }
+                    return result;
+                }, cacheExecutor);
+    }
+
+    /**
+     * 이미 처리된 요청이면 그 응답, 아니면 레이트 제한 확인 후 null
+     */
+    private PaymentResult precheck(AuthorizePaymentRequest request) {
+        if (!loadTestMode) {
+            PaymentResult cached = idempotencyCacheService
+                    .findAuthorization(request.merchantId(), request.idempotencyKey())
+                    .orElse(null);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return paymentService.precheckAuthorization(request, loadTestMode);
+    }
+
+    private PgStageResult callPg(AuthorizePaymentRequest request) {
+        try {
+            return new PgStageResult(paymentService.requestPgAuthorization(request), null);
+        } catch (PgApiException | PgCircuitOpenException | PgConcurrencyLimitException ex) {
+            return new PgStageResult(null, paymentService.pgFailure(request, ex));
+        }
+    }
+
+    private PaymentResult persist(AuthorizePaymentRequest request, AuthorizationResponse pgResponse) {
+        try {
+            PaymentResponse response = paymentService.persistAuthorization(request, pgResponse,
+                    loadTestMode ? IdempotencyWrite.NONE : IdempotencyWrite.DATABASE);
+            log.debug("Async authorization persisted: merchantId={}, paymentId={}",
+                    request.merchantId(), response.paymentId());
+            return new PaymentResult(response, false);
+        } catch (DataIntegrityViolationException ex) {
+            return paymentService.duplicateAuthorization(request, ex);
+        }
+    }
+
+    /**
+     * PG 단계 결과: 승인 응답 또는 (PG 실패를 변환한) 최종 결과
+     */
+    private record PgStageResult(AuthorizationResponse response, PaymentResult failure) {
+    }
+}
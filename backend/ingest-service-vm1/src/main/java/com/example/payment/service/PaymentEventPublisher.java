@@ -2,7 +2,8 @@ package com.example.payment.service;
 
 import com.example.payment.domain.OutboxEvent;
 import com.example.payment.repository.OutboxEventRepository;
-import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.config.shard.ShardPartitions;
+import com.example.payment.config.shard.ShardScope;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
@@ -44,15 +45,18 @@ public class PaymentEventPublisher {
     private final OutboxEventRepository outboxEventRepository;
     private final ObjectMapper objectMapper;
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final PaymentStageMetrics stageMetrics;
 
     public PaymentEventPublisher(KafkaTemplate<String, String> kafkaTemplate,
                                 OutboxEventRepository outboxEventRepository,
                                 ObjectMapper objectMapper,
-                                CircuitBreakerRegistry circuitBreakerRegistry) {
+                                CircuitBreakerRegistry circuitBreakerRegistry,
+                                PaymentStageMetrics stageMetrics) {
         this.kafkaTemplate = kafkaTemplate;
         this.outboxEventRepository = outboxEventRepository;
         this.objectMapper = objectMapper;
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.stageMetrics = stageMetrics;
 
         // Register event listeners for monitoring circuit breaker state changes
         registerCircuitBreakerEventListeners(circuitBreakerRegistry);
@@ -114,43 +118,51 @@ public class PaymentEventPublisher {
             return;
         }
 
-        String messageKey = String.valueOf(outboxEvent.getAggregateId());
+        // 샤드 접두어 키: ShardPartitioner가 샤드 파티션 구간 안에 배치 (샤드마다 payment_id가 따로 증가하므로 샤드까지 포함해야 유일)
+        String messageKey = ShardPartitions.messageKey(shardKey, outboxEvent.getAggregateId());
+        // eventId도 샤드를 포함 ("shard1:42") - outbox id는 샤드마다 따로 증가하므로 id만으로는 consumer dedupe 키가 겹친다
+        String eventId = ShardPartitions.messageKey(shardKey, outboxEvent.getId());
 
         Message<String> message = MessageBuilder
                 .withPayload(payload)
                 .setHeader(KafkaHeaders.TOPIC, topic)
                 .setHeader(KafkaHeaders.KEY, messageKey)
-                .setHeader("eventId", String.valueOf(outboxEvent.getId()))
+                .setHeader("eventId", eventId)
                 .build();
 
+        // outbox 체류 시간 (INSERT → 전송 시작, 재시도 대기 포함) / 전송 → ack는 콜백에서 기록
+        stageMetrics.recordOutboxDwell(topic, shardKey, outboxEvent.getCreatedAt());
+        long sendStart = System.nanoTime();
+
         // Non-blocking async send - returns immediately, result handled in callback
         kafkaTemplate.send(message).whenComplete((sendResult, ex) -> {
-            // Ensure we save published flag into the same shard where we fetched
-            ShardContextHolder.setShardKey(shardKey);
-            if (ex != null) {
-                log.error("Kafka publish failed for topic={}, eventId={}", topic, outboxEvent.getId(), ex);
-                try {
-                    circuitBreaker.executeRunnable(() -> {
-                        throw new KafkaPublishingException("Kafka send failed", ex);
-                    });
-                } catch (Exception ignored) {
-                    // Event stays in outbox for retry
-                }
-            } else {
-                log.debug("Event published to Kafka topic={}, eventId={}, paymentId={}",
-                        topic, outboxEvent.getId(), outboxEvent.getAggregateId());
-                outboxEvent.markPublished();
-                outboxEventRepository.save(outboxEvent);
-
-                // Record success only in HALF_OPEN state to allow transition to CLOSED
-                // Record all successes in HALF_OPEN to ensure quick recovery
-                if (circuitBreaker.getState() == io.github.resilience4j.circuitbreaker.CircuitBreaker.State.HALF_OPEN) {
-                    circuitBreaker.executeRunnable(() -> {
-                        // Success - no exception thrown
-                    });
+            // 콜백은 프로듀서 I/O 스레드에서 실행되므로, 조회했던 샤드에 published 플래그를 저장하도록 범위를 다시 연다
+            try (ShardScope scope = ShardScope.open(shardKey)) {
+                if (ex != null) {
+                    log.error("Kafka publish failed for topic={}, eventId={}", topic, outboxEvent.getId(), ex);
+                    try {
+                        circuitBreaker.executeRunnable(() -> {
+                            throw new KafkaPublishingException("Kafka send failed", ex);
+                        });
+                    } catch (Exception ignored) {
+                        // Event stays in outbox for retry
+                    }
+                } else {
+                    stageMetrics.recordPublishAck(topic, shardKey, sendStart);
+                    log.debug("Event published to Kafka topic={}, eventId={}, paymentId={}",
+                            topic, outboxEvent.getId(), outboxEvent.getAggregateId());
+                    outboxEvent.markPublished();
+                    outboxEventRepository.save(outboxEvent);
+
+                    // Record success only in HALF_OPEN state to allow transition to CLOSED
+                    // Record all successes in HALF_OPEN to ensure quick recovery
+                    if (circuitBreaker.getState() == io.github.resilience4j.circuitbreaker.CircuitBreaker.State.HALF_OPEN) {
+                        circuitBreaker.executeRunnable(() -> {
+                            // Success - no exception thrown
+                        });
+                    }
                 }
             }
-            ShardContextHolder.clear();
         });
     }
 
@@ -2,11 +2,14 @@ package com.example.payment.service;
 
 import com.example.payment.client.PgAuthApiService;
 import com.example.payment.client.PgAuthApiService.PgCircuitOpenException;
-import com.example.payment.client.MockPgAuthApiClient.AuthorizationResponse;
-import com.example.payment.client.MockPgAuthApiClient.PgApiException;
+import com.example.payment.client.PgAuthApiService.PgConcurrencyLimitException;
+import com.example.payment.client.PgAuthApiClient.AuthorizationResponse;
+import com.example.payment.client.PgAuthApiClient.PgApiException;
 import com.example.payment.domain.Payment;
+import com.example.payment.domain.PaymentStateMachine;
 import com.example.payment.domain.PaymentStatus;
 import com.example.payment.repository.PaymentRepository;
+import com.example.payment.repository.PaymentSummary;
 import com.example.payment.web.dto.AuthorizePaymentRequest;
 import com.example.payment.web.dto.CapturePaymentRequest;
 import com.example.payment.web.dto.LedgerEntryResponse;
@@ -14,12 +17,17 @@ import com.example.payment.web.dto.PaymentResponse;
 import com.example.payment.web.dto.RefundPaymentRequest;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -28,26 +36,50 @@ public class PaymentService {
         private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
         private static final String AGGREGATE_TYPE = "payment";
 
+        /**
+         * capture API: AUTHORIZED / CAPTURE_REQUESTED → CAPTURED
+         */
+        static final Set<PaymentStatus> CAPTURE_SOURCES = PaymentStateMachine.sourcesOf(
+                        PaymentStatus.CAPTURED, PaymentStatus.AUTHORIZED, PaymentStatus.CAPTURE_REQUESTED);
+
+        /**
+         * refund API: 정산 완료 / 환불 진행 중 / 부분 환불 완료 / 환불 실패 → REFUND_REQUESTED (잔액 내에서 추가 환불 가능)
+         */
+        static final Set<PaymentStatus> REFUND_SOURCES = PaymentStateMachine.sourcesOf(
+                        PaymentStatus.REFUND_REQUESTED, PaymentStatus.CAPTURED, PaymentStatus.REFUND_REQUESTED,
+                        PaymentStatus.PARTIAL_REFUNDED, PaymentStatus.REFUND_FAILED);
+
+        /**
+         * version 조건부 UPDATE 최대 시도 횟수 (빗나갈 때마다 DB에서 최신 스냅샷을 다시 읽음)
+         */
+        private static final int MAX_TRANSITION_ATTEMPTS = 3;
+
         private final PaymentRepository paymentRepository;
+        private final PaymentCacheService paymentCacheService;
         private final IdempotencyCacheService idempotencyCacheService;
         private final RedisRateLimiter rateLimiter;
         private final PaymentEventPublisher eventPublisher;
         private final PgAuthApiService pgAuthApiService;
+        private final PaymentStageMetrics stageMetrics;
         private final org.springframework.transaction.support.TransactionTemplate transactionTemplate;
         private final boolean loadTestMode;
 
         public PaymentService(PaymentRepository paymentRepository,
+                        PaymentCacheService paymentCacheService,
                         IdempotencyCacheService idempotencyCacheService,
                         RedisRateLimiter rateLimiter,
                         PaymentEventPublisher eventPublisher,
                         PgAuthApiService pgAuthApiService,
+                        PaymentStageMetrics stageMetrics,
                         org.springframework.transaction.PlatformTransactionManager transactionManager,
                         @org.springframework.beans.factory.annotation.Value("${mock.pg.loadtest-mode:false}") boolean loadTestMode) {
                 this.paymentRepository = paymentRepository;
+                this.paymentCacheService = paymentCacheService;
                 this.idempotencyCacheService = idempotencyCacheService;
                 this.rateLimiter = rateLimiter;
                 this.eventPublisher = eventPublisher;
                 this.pgAuthApiService = pgAuthApiService;
+                this.stageMetrics = stageMetrics;
                 this.transactionTemplate = new org.springframework.transaction.support.TransactionTemplate(
                                 transactionManager);
                 this.loadTestMode = loadTestMode;
@@ -65,218 +97,397 @@ public class PaymentService {
                         return createAuthorization(request, true);
                 }
                 // 샤딩은 Controller에서 트랜잭션 시작 전에 설정됨
-                return idempotencyCacheService.findAuthorization(request.merchantId(), request.idempotencyKey())
+                return stageMetrics.time("authorize", "idempotency_cache", request.merchantId(),
+                                () -> idempotencyCacheService.findAuthorization(request.merchantId(),
+                                                request.idempotencyKey()))
                                 .orElseGet(() -> createAuthorization(request, false));
         }
 
         /**
          * 정산 처리 (내부 사용)
          * settlement-worker가 호출
-         * AUTHORIZED → CAPTURED 상태 전환
+         * AUTHORIZED / CAPTURE_REQUESTED → CAPTURED 상태 전환 (version 조건부 UPDATE)
+         *
+         * READ_COMMITTED: 조건부 UPDATE가 빗나간 뒤 재조회가 최신 커밋 버전을 보도록 한다
+         * (REPEATABLE_READ에서는 첫 SELECT의 스냅샷이 재사용되어 재시도가 항상 실패)
          */
-        @Transactional
+        @Transactional(isolation = Isolation.READ_COMMITTED)
         public PaymentResult capture(Long paymentId, CapturePaymentRequest request) {
                 // 샤딩은 Controller에서 트랜잭션 시작 전에 설정됨
                 return captureInternal(paymentId, request);
         }
 
         private PaymentResult captureInternal(Long paymentId, CapturePaymentRequest request) {
-                long methodStart = System.currentTimeMillis();
+                long methodStart = System.nanoTime();
                 rateLimiter.verifyCaptureAllowed(request.merchantId());
-
-                long dbStart = System.currentTimeMillis();
-                Payment payment = paymentRepository.findByIdAndMerchantId(paymentId, request.merchantId())
-                                .orElseThrow(() -> new IllegalArgumentException("Payment not found for merchant"));
-                long dbReadTime = System.currentTimeMillis() - dbStart;
-                log.debug("Capture - DB read time: {}ms", dbReadTime);
-
-                if (payment.getStatus() != PaymentStatus.AUTHORIZED
-                                && payment.getStatus() != PaymentStatus.CAPTURE_REQUESTED) {
-                        PaymentResponse response = toResponse(payment, Collections.emptyList(),
-                                        "Payment is not in AUTHORIZED or CAPTURE_REQUESTED status");
-                        return new PaymentResult(response, true);
+                stageMetrics.record("capture", "rate_limit", request.merchantId(), methodStart);
+
+                // 결제 상태 조회 (Redis read-through)
+                long stageStart = System.nanoTime();
+                PaymentSnapshot payment = loadSnapshot(paymentId, request.merchantId());
+                long readTime = stageMetrics.record("capture", "state_read", request.merchantId(), stageStart);
+                log.debug("Capture - state read time: {}ms", readTime);
+
+                // 정산 완료 상태로 변경 (스냅샷 version 조건부 UPDATE - 캐시가 오래되었으면 0건 → DB 재조회 후 재시도)
+                stageStart = System.nanoTime();
+                boolean verified = false;
+                int attempts = 0;
+                while (true) {
+                        if (!CAPTURE_SOURCES.contains(payment.getStatus())) {
+                                if (!verified) {
+                                        payment = reloadSnapshot(paymentId, request.merchantId());
+                                        verified = true;
+                                        continue;
+                                }
+                                return reject(payment, "Payment is not in AUTHORIZED or CAPTURE_REQUESTED status");
+                        }
+                        int updated = paymentRepository.transitionStatus(paymentId, request.merchantId(),
+                                        CAPTURE_SOURCES, PaymentStatus.CAPTURED, payment.getVersion(), Instant.now());
+                        if (updated == 1) {
+                                break;
+                        }
+                        if (++attempts >= MAX_TRANSITION_ATTEMPTS) {
+                                return completeRefundRequest(paymentId, request,
+                                                reject(reloadSnapshot(paymentId, request.merchantId()),
+                                                                "Payment was modified concurrently"));
+                        }
+                        payment = reloadSnapshot(paymentId, request.merchantId());
+                        verified = true;
                 }
-
-                // 정산 완료 상태로 변경
-                payment.setStatus(PaymentStatus.CAPTURED);
-                dbStart = System.currentTimeMillis();
-                paymentRepository.save(payment);
-                long dbUpdateTime = System.currentTimeMillis() - dbStart;
+                long dbUpdateTime = stageMetrics.record("capture", "db_update", request.merchantId(), stageStart);
                 log.debug("Capture - DB update time: {}ms", dbUpdateTime);
 
+                PaymentSnapshot captured = payment.transitioned(PaymentStatus.CAPTURED, 0);
+                paymentCacheService.putAfterCommit(captured);
+
                 // payment.captured 이벤트 발행 (ledger 기록 트리거)
-                long evtStart = System.currentTimeMillis();
-                publishEvent(payment, "PAYMENT_CAPTURED", Map.of(
-                                "paymentId", payment.getId(),
-                                "status", payment.getStatus().name(),
-                                "amount", payment.getAmount(),
-                                "occurredAt", Instant.now().toString()));
-                long evtTime = System.currentTimeMillis() - evtStart;
+                stageStart = System.nanoTime();
+                eventPublisher.publishEvent(paymentId, "PAYMENT_CAPTURED", capturedEvent(captured));
+                long evtTime = stageMetrics.record("capture", "outbox_insert", request.merchantId(), stageStart);
                 log.debug("Capture - Event publish time: {}ms", evtTime);
+                stageMetrics.recordCommit("capture", request.merchantId());
 
-                PaymentResponse response = toResponse(payment, Collections.emptyList(),
+                PaymentResponse response = toResponse(captured, captured.getStatus(),
                                 "Payment captured successfully");
 
-                long totalTime = System.currentTimeMillis() - methodStart;
-                log.info("Capture complete: dbRead={}ms, dbUpdate={}ms, event={}ms, totalTime={}ms",
-                                dbReadTime, dbUpdateTime, evtTime, totalTime);
+                long totalTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - methodStart);
+                log.info("Capture complete: read={}ms, dbUpdate={}ms, event={}ms, totalTime={}ms",
+                                readTime, dbUpdateTime, evtTime, totalTime);
 
                 return new PaymentResult(response, false);
         }
 
         /**
-         * 환불 요청 (실제 PG사 구조)
-         * CAPTURED → REFUND_REQUESTED 상태 전환
-         * 환불 요청 시 payment.refund-requested 이벤트 발행
+         * 환불 요청 (실제 PG사 구조, 부분 환불 지원)
+         * CAPTURED / PARTIAL_REFUNDED → REFUND_REQUESTED 상태 전환
+         * 환불 금액은 refunded_amount에 version 조건부 UPDATE로 예약한 뒤 payment.refund-requested 이벤트 발행
+         * 멱등 키(결제별 유일)를 예약과 같은 트랜잭션에 기록해, 재시도된 요청은 다시 예약하지 않고 처음 결과(거절 포함)를 받는다
          */
-        @Transactional
+        @Transactional(isolation = Isolation.READ_COMMITTED)
         public PaymentResult refund(Long paymentId, RefundPaymentRequest request) {
                 // 샤딩은 Controller에서 트랜잭션 시작 전에 설정됨
                 return refundInternal(paymentId, request);
         }
 
         private PaymentResult refundInternal(Long paymentId, RefundPaymentRequest request) {
-                long methodStart = System.currentTimeMillis();
+                long methodStart = System.nanoTime();
+                // 같은 멱등 키의 재시도는 금액을 다시 예약하지 않고 처음 결과를 돌려준다 (레이트 제한도 차감하지 않음)
+                Optional<PaymentResult> replay = idempotencyCacheService.findRefund(paymentId, request.merchantId(),
+                                request.idempotencyKey());
+                if (replay.isPresent()) {
+                        return replay.get();
+                }
                 rateLimiter.verifyRefundAllowed(request.merchantId());
-
-                long dbStart = System.currentTimeMillis();
-                Payment payment = paymentRepository.findByIdAndMerchantId(paymentId, request.merchantId())
-                                .orElseThrow(() -> new IllegalArgumentException("Payment not found for merchant"));
-                long dbReadTime = System.currentTimeMillis() - dbStart;
-                log.debug("Refund - DB read time: {}ms", dbReadTime);
-
-                if (payment.getStatus() != PaymentStatus.CAPTURED) {
-                        PaymentResponse response = toResponse(payment, Collections.emptyList(),
-                                        "Only captured payments can be refunded");
-                        return new PaymentResult(response, true);
+                stageMetrics.record("refund", "rate_limit", request.merchantId(), methodStart);
+
+                // 결제 상태 조회 (Redis read-through)
+                long stageStart = System.nanoTime();
+                PaymentSnapshot payment = loadSnapshot(paymentId, request.merchantId());
+                long readTime = stageMetrics.record("refund", "state_read", request.merchantId(), stageStart);
+                log.debug("Refund - state read time: {}ms", readTime);
+
+                // 결제 소유가 확인된 뒤 예약보다 먼저 멱등 키 선점
+                // 실패 = 같은 키로 동시에 들어온 요청이 먼저 커밋함 (선점 INSERT가 그 커밋을 기다린 뒤 0건) → 그 결과를 돌려준다
+                if (!idempotencyCacheService.claimRefund(paymentId, request.merchantId(), request.idempotencyKey())) {
+                        return idempotencyCacheService.findRefund(paymentId, request.merchantId(),
+                                        request.idempotencyKey())
+                                        .orElseThrow(() -> new IllegalStateException(
+                                                        "Refund idempotency key claimed without a result"));
                 }
 
-                // 환불 요청 상태로 변경
-                payment.setStatus(PaymentStatus.REFUND_REQUESTED);
-                dbStart = System.currentTimeMillis();
-                paymentRepository.save(payment);
-                long dbUpdateTime = System.currentTimeMillis() - dbStart;
+                // 환불 금액 예약: 조건부 UPDATE 한 번으로 상태 검증 + 잔액 검증 + 증가 + 상태 전환
+                // (문장 하나 동안만 짧게 row X-lock, version 조건이 없어 동시 부분 환불끼리 실패시키지 않음)
+                // 캐시 스냅샷 기준으로 거절하거나 예약이 0건이면 DB에서 다시 확인한다
+                stageStart = System.nanoTime();
+                boolean verified = false;
+                int attempts = 0;
+                long refundAmount;
+                while (true) {
+                        // amount 미지정 시 남은 금액 전체 환불
+                        refundAmount = request.amount() != null ? request.amount() : payment.getRefundableAmount();
+                        String rejection = refundRejection(payment, refundAmount, request.amount() == null);
+                        if (rejection != null) {
+                                if (!verified) {
+                                        payment = reloadSnapshot(paymentId, request.merchantId());
+                                        verified = true;
+                                        continue;
+                                }
+                                return completeRefundRequest(paymentId, request, reject(payment, rejection));
+                        }
+                        int reserved = paymentRepository.reserveRefund(paymentId, request.merchantId(), refundAmount,
+                                        REFUND_SOURCES, PaymentStatus.REFUND_REQUESTED, Instant.now());
+                        if (reserved == 1) {
+                                break;
+                        }
+                        // 0건 = 상태 불일치 또는 잔액 초과 (다른 환불이 먼저 예약함) → DB 기준으로 거절 사유 판단
+                        if (++attempts >= MAX_TRANSITION_ATTEMPTS) {
+                                return reject(reloadSnapshot(paymentId, request.merchantId()),
+                                                "Payment was modified concurrently");
+                        }
+                        payment = reloadSnapshot(paymentId, request.merchantId());
+                        verified = true;
+                }
+                long dbUpdateTime = stageMetrics.record("refund", "db_update", request.merchantId(), stageStart);
                 log.debug("Refund - DB update time: {}ms", dbUpdateTime);
 
+                // version 조건 없이 예약했으므로 스냅샷에 +1 하지 않고 예약 직후 행을 읽는다 (자기 트랜잭션의 쓰기)
+                PaymentSnapshot refunding = paymentRepository.findSummaryByIdAndMerchantId(paymentId, request.merchantId())
+                                .map(PaymentSnapshot::of)
+                                .orElseThrow(() -> new IllegalStateException("Payment disappeared after refund reservation"));
+                paymentCacheService.putAfterCommit(refunding);
+
                 // payment.refund-requested 이벤트 발행 (refund-worker 트리거)
-                long evtStart = System.currentTimeMillis();
-                publishEvent(payment, "PAYMENT_REFUND_REQUESTED", Map.of(
-                                "paymentId", payment.getId(),
-                                "merchantId", payment.getMerchantId(),
-                                "status", payment.getStatus().name(),
-                                "amount", payment.getAmount(),
-                                "occurredAt", Instant.now().toString(),
-                                "reason", request.reason()));
-                long evtTime = System.currentTimeMillis() - evtStart;
+                stageStart = System.nanoTime();
+                eventPublisher.publishEvent(paymentId, "PAYMENT_REFUND_REQUESTED",
+                                refundRequestedEvent(refunding, refundAmount, request.reason()));
+                long evtTime = stageMetrics.record("refund", "outbox_insert", request.merchantId(), stageStart);
                 log.debug("Refund - Event publish time: {}ms", evtTime);
+                stageMetrics.recordCommit("refund", request.merchantId());
 
-                PaymentResponse response = toResponse(payment, Collections.emptyList(),
-                                "Refund requested successfully");
+                PaymentResponse response = toResponse(refunding, refunding.getStatus(),
+                                "Refund requested successfully (amount=" + refundAmount + ")");
 
-                long totalTime = System.currentTimeMillis() - methodStart;
-                log.info("Refund complete: dbRead={}ms, dbUpdate={}ms, event={}ms, totalTime={}ms",
-                                dbReadTime, dbUpdateTime, evtTime, totalTime);
+                long totalTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - methodStart);
+                log.info("Refund complete: read={}ms, dbUpdate={}ms, event={}ms, totalTime={}ms",
+                                readTime, dbUpdateTime, evtTime, totalTime);
 
-                return new PaymentResult(response, false);
+                return completeRefundRequest(paymentId, request, new PaymentResult(response, false));
+        }
+
+        /**
+         * 선점한 환불 멱등 키에 결과를 기록하고 그대로 반환 (예약과 같은 트랜잭션에서 커밋)
+         */
+        private PaymentResult completeRefundRequest(Long paymentId, RefundPaymentRequest request, PaymentResult result) {
+                idempotencyCacheService.saveRefund(paymentId, request.idempotencyKey(), result);
+                return result;
+        }
+
+        /**
+         * payment.captured 이벤트 payload (단건 capture와 대량 파일 처리가 함께 사용)
+         * authorizedAt은 원장 기록 시점까지의 승인→원장 지연 계산용
+         */
+        static Map<String, Object> capturedEvent(PaymentSnapshot captured) {
+                return Map.of(
+                                "paymentId", captured.getId(),
+                                "merchantId", captured.getMerchantId(),
+                                "status", PaymentStatus.CAPTURED.name(),
+                                "amount", captured.getAmount(),
+                                "authorizedAt", captured.getRequestedAt().toString(),
+                                "occurredAt", Instant.now().toString());
+        }
+
+        /**
+         * payment.refund-requested 이벤트 payload (단건 refund와 대량 파일 처리가 함께 사용)
+         */
+        static Map<String, Object> refundRequestedEvent(PaymentSnapshot refunding, long refundAmount, String reason) {
+                return Map.of(
+                                "paymentId", refunding.getId(),
+                                "merchantId", refunding.getMerchantId(),
+                                "status", PaymentStatus.REFUND_REQUESTED.name(),
+                                "amount", refundAmount,
+                                "paymentAmount", refunding.getAmount(),
+                                "occurredAt", Instant.now().toString(),
+                                "reason", reason);
+        }
+
+        /**
+         * 스냅샷 기준 환불 거절 사유 (null이면 예약 시도 가능)
+         */
+        static String refundRejection(PaymentSnapshot payment, long refundAmount, boolean fullRefund) {
+                if (!REFUND_SOURCES.contains(payment.getStatus())) {
+                        return "Only captured payments can be refunded";
+                }
+                if (fullRefund && refundAmount <= 0) {
+                        return "Payment has already been fully refunded";
+                }
+                if (refundAmount > payment.getRefundableAmount()) {
+                        return "Refund amount exceeds refundable balance";
+                }
+                return null;
+        }
+
+        private PaymentResult reject(PaymentSnapshot current, String message) {
+                return new PaymentResult(toResponse(current, current.getStatus(), message), true);
+        }
+
+        /**
+         * 결제 상태 스냅샷 조회 (캐시 우선, 미스 시 DB 조회 후 캐시 적재)
+         */
+        private PaymentSnapshot loadSnapshot(Long paymentId, String merchantId) {
+                return paymentCacheService.getOrLoad(paymentId, merchantId,
+                                () -> paymentRepository.findSummaryByIdAndMerchantId(paymentId, merchantId))
+                                .orElseThrow(() -> new IllegalArgumentException("Payment not found for merchant"));
+        }
+
+        /**
+         * DB에서 직접 재조회 (캐시 스냅샷이 오래되었을 때) 후 캐시 갱신
+         */
+        private PaymentSnapshot reloadSnapshot(Long paymentId, String merchantId) {
+                PaymentSnapshot snapshot = paymentRepository.findSummaryByIdAndMerchantId(paymentId, merchantId)
+                                .map(PaymentSnapshot::of)
+                                .orElseThrow(() -> new IllegalArgumentException("Payment not found for merchant"));
+                paymentCacheService.put(snapshot);
+                return snapshot;
         }
 
         private PaymentResult createAuthorization(AuthorizePaymentRequest request, boolean fastPathLoadTest) {
-                long methodStart = System.currentTimeMillis();
+                long methodStart = System.nanoTime();
+
+                PaymentResult precheck = precheckAuthorization(request, fastPathLoadTest);
+                if (precheck != null) {
+                        return precheck;
+                }
 
+                try {
+                        // Step 1: Mock PG API 호출 (카드 승인) - Circuit Breaker로 보호됨
+                        long pgStart = System.nanoTime();
+                        AuthorizationResponse pgResponse = requestPgAuthorization(request);
+                        long pgTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pgStart);
+
+                        // Step 2 & 3: DB 저장 및 이벤트 발행 (트랜잭션 내에서 실행)
+                        long txStart = System.nanoTime();
+                        PaymentResponse response = persistAuthorization(request, pgResponse,
+                                        fastPathLoadTest ? IdempotencyWrite.NONE : IdempotencyWrite.DATABASE_AND_CACHE);
+
+                        long txTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - txStart);
+                        long totalTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - methodStart);
+                        log.debug("Authorization complete: pgTime={}ms, txTime={}ms, totalTime={}ms",
+                                        pgTime, txTime, totalTime);
+
+                        return new PaymentResult(response, false);
+                } catch (PgCircuitOpenException | PgConcurrencyLimitException | PgApiException pgEx) {
+                        return pgFailure(request, pgEx);
+                } catch (DataIntegrityViolationException ex) {
+                        return duplicateAuthorization(request, ex);
+                }
+        }
+
+        /**
+         * 승인 사전 검사: 같은 멱등 키의 결제가 이미 있으면 그 응답, 없으면 레이트 제한 확인 후 null
+         * (DB 조회가 있으므로 샤드가 설정된 스레드에서 호출해야 함)
+         */
+        public PaymentResult precheckAuthorization(AuthorizePaymentRequest request, boolean fastPathLoadTest) {
                 if (!fastPathLoadTest) {
-                        Payment existing = paymentRepository.findByMerchantIdAndIdempotencyKey(
-                                        request.merchantId(), request.idempotencyKey()).orElse(null);
+                        Payment existing = stageMetrics.time("authorize", "idempotency_db", request.merchantId(),
+                                        () -> paymentRepository.findByMerchantIdAndIdempotencyKey(
+                                                        request.merchantId(), request.idempotencyKey()).orElse(null));
                         if (existing != null) {
-                                PaymentResponse response = toResponse(existing, Collections.emptyList(),
-                                                "Idempotency key already used");
-                                return new PaymentResult(response, true);
+                                return existingAuthorization(existing);
                         }
                 }
 
-                rateLimiter.verifyAuthorizeAllowed(request.merchantId());
-
+                long rateLimitStart = System.nanoTime();
                 try {
-                        // Step 1: Mock PG API 호출 (카드 승인) - Circuit Breaker로 보호됨
-                        long pgStart = System.currentTimeMillis();
-                        log.debug("Calling Mock PG Authorization API: merchantId={}, amount={}, currency={}",
-                                        request.merchantId(), request.amount(), request.currency());
+                        rateLimiter.verifyAuthorizeAllowed(request.merchantId());
+                } finally {
+                        stageMetrics.record("authorize", "rate_limit", request.merchantId(), rateLimitStart);
+                }
+                return null;
+        }
 
-                        AuthorizationResponse pgResponse = pgAuthApiService.requestAuthorization(
+        /**
+         * PG 승인 호출 (DB를 쓰지 않으므로 샤드 컨텍스트 불필요)
+         */
+        public AuthorizationResponse requestPgAuthorization(AuthorizePaymentRequest request)
+                        throws PgApiException, PgCircuitOpenException, PgConcurrencyLimitException {
+                long pgStart = System.nanoTime();
+                log.debug("Calling Mock PG Authorization API: merchantId={}, amount={}, currency={}",
+                                request.merchantId(), request.amount(), request.currency());
+
+                AuthorizationResponse pgResponse;
+                long pgTime;
+                try {
+                        pgResponse = pgAuthApiService.requestAuthorization(
+                                        request.merchantId() + ":" + request.idempotencyKey(), // PG 멱등 참조값
                                         request.merchantId(),
                                         java.math.BigDecimal.valueOf(request.amount()),
                                         request.currency(),
                                         "MOCK_CARD_NUMBER" // 실제론 request에서 받아야 함
                         );
+                } finally {
+                        // 실패/타임아웃도 pg 단계 지연에 포함
+                        pgTime = stageMetrics.record("authorize", "pg", request.merchantId(), pgStart);
+                }
+                log.debug("PG Authorization succeeded: approvalNumber={}, transactionId={}, elapsedMs={}",
+                                pgResponse.getApprovalNumber(), pgResponse.getTransactionId(), pgTime);
+                return pgResponse;
+        }
 
-                        long pgTime = System.currentTimeMillis() - pgStart;
-                        log.debug("PG Authorization succeeded: approvalNumber={}, transactionId={}, elapsedMs={}",
-                                        pgResponse.getApprovalNumber(), pgResponse.getTransactionId(), pgTime);
-
-                        // Step 2 & 3: DB 저장 및 이벤트 발행 (트랜잭션 내에서 실행)
-                        long txStart = System.currentTimeMillis();
-                        PaymentResponse response = transactionTemplate.execute(status -> {
-                                // OPTIMIZATION: Save directly as CAPTURE_REQUESTED to avoid extra UPDATE
-                                // (Authorized -> Capture Requested transition happens immediately)
-                                Payment payment = new Payment(request.merchantId(), request.amount(),
-                                                request.currency(), PaymentStatus.CAPTURE_REQUESTED,
-                                                request.idempotencyKey());
-
-                                long dbStart = System.currentTimeMillis();
-                                paymentRepository.save(payment);
-                                long dbTime = System.currentTimeMillis() - dbStart;
-                                log.debug("DB save time: {}ms", dbTime);
-
-                                // Event 1: Payment Authorized (Fact)
-                                long evt1Start = System.currentTimeMillis();
-                                publishEvent(payment, "PAYMENT_AUTHORIZED", Map.of(
-                                                "paymentId", payment.getId(),
-                                                "status", "AUTHORIZED", // Event payload keeps original semantic status
-                                                "amount", payment.getAmount(),
-                                                "currency", payment.getCurrency(),
-                                                "approvalNumber", pgResponse.getApprovalNumber(),
-                                                "transactionId", pgResponse.getTransactionId(),
-                                                "occurredAt", Instant.now().toString()));
-                                long evt1Time = System.currentTimeMillis() - evt1Start;
-                                log.debug("Event 1 publish time: {}ms", evt1Time);
-
-                                // Event 2: Capture Requested (Fact)
-                                long evt2Start = System.currentTimeMillis();
-                                publishEvent(payment, "PAYMENT_CAPTURE_REQUESTED", Map.of(
-                                                "paymentId", payment.getId(),
-                                                "status", payment.getStatus().name(),
-                                                "amount", payment.getAmount(),
-                                                "currency", payment.getCurrency(),
-                                                "merchantId", payment.getMerchantId(),
-                                                "approvalNumber", pgResponse.getApprovalNumber(),
-                                                "transactionId", pgResponse.getTransactionId(),
-                                                "occurredAt", Instant.now().toString()));
-                                long evt2Time = System.currentTimeMillis() - evt2Start;
-                                log.debug("Event 2 publish time: {}ms", evt2Time);
-
-                                PaymentResponse res = toResponse(payment, Collections.emptyList(),
-                                                "Payment authorized and capture requested - Approval: "
-                                                                + pgResponse.getApprovalNumber());
-
-                                if (!fastPathLoadTest) {
-                                        // Save Idempotency Response within the same transaction
-                                        long cacheStart = System.currentTimeMillis();
-                                        idempotencyCacheService.storeAuthorization(request.merchantId(),
-                                                        request.idempotencyKey(), 200,
-                                                        res);
-                                        long cacheTime = System.currentTimeMillis() - cacheStart;
-                                        log.debug("Idempotency cache save time: {}ms", cacheTime);
-                                }
-
-                                return res;
-                        });
+        /**
+         * 승인 결과 저장 + outbox 이벤트 2건 (하나의 트랜잭션, 샤드가 설정된 스레드에서 호출해야 함)
+         */
+        public PaymentResponse persistAuthorization(AuthorizePaymentRequest request, AuthorizationResponse pgResponse,
+                        IdempotencyWrite idempotencyWrite) {
+                return transactionTemplate.execute(status -> {
+                        long txStart = System.nanoTime();
+                        stageMetrics.recordCommit("authorize", request.merchantId());
+
+                        // OPTIMIZATION: Save directly as CAPTURE_REQUESTED to avoid extra UPDATE
+                        // (Authorized -> Capture Requested transition happens immediately)
+                        Payment payment = new Payment(request.merchantId(), request.amount(),
+                                        request.currency(), PaymentStatus.CAPTURE_REQUESTED,
+                                        request.idempotencyKey());
+
+                        long stageStart = System.nanoTime();
+                        paymentRepository.save(payment);
+                        long dbTime = stageMetrics.record("authorize", "db_insert", request.merchantId(), stageStart);
+                        log.debug("DB save time: {}ms", dbTime);
+
+                        // Event 1: Payment Authorized (Fact), Event 2: Capture Requested (Fact)
+                        stageStart = System.nanoTime();
+                        authorizationEvents(payment, pgResponse)
+                                        .forEach((eventType, payload) -> publishEvent(payment, eventType, payload));
+                        long evtTime = stageMetrics.record("authorize", "outbox_insert", request.merchantId(),
+                                        stageStart);
+                        log.debug("Event publish time: {}ms", evtTime);
+
+                        PaymentResponse res = authorizedResponse(payment, pgResponse);
+
+                        if (idempotencyWrite == IdempotencyWrite.DATABASE_AND_CACHE) {
+                                // Save Idempotency Response within the same transaction
+                                stageStart = System.nanoTime();
+                                idempotencyCacheService.storeAuthorization(request.merchantId(),
+                                                request.idempotencyKey(), 200,
+                                                res);
+                                long cacheTime = stageMetrics.record("authorize", "idempotency_save",
+                                                request.merchantId(), stageStart);
+                                log.debug("Idempotency cache save time: {}ms", cacheTime);
+                        } else if (idempotencyWrite == IdempotencyWrite.DATABASE) {
+                                // Redis 적재는 호출자가 커밋 이후 별도 단계에서 수행
+                                idempotencyCacheService.saveAuthorization(request.merchantId(),
+                                                request.idempotencyKey(), 200, res);
+                        }
 
-                        long txTime = System.currentTimeMillis() - txStart;
-                        long totalTime = System.currentTimeMillis() - methodStart;
-                        log.debug("Authorization complete: pgTime={}ms, txTime={}ms, totalTime={}ms",
-                                        pgTime, txTime, totalTime);
+                        stageMetrics.record("authorize", "transaction", request.merchantId(), txStart);
+                        return res;
+                });
+        }
 
-                        return new PaymentResult(response, false);
-                } catch (PgCircuitOpenException circuitEx) {
+        /**
+         * PG 호출 실패를 응답으로 변환 (동시 호출 한도 초과는 503으로 거절)
+         */
+        public PaymentResult pgFailure(AuthorizePaymentRequest request, Exception failure) {
+                if (failure instanceof PgCircuitOpenException) {
                         // Circuit Breaker OPEN - PG API 다운됨
                         log.error("PG Authorization Circuit Breaker OPEN: merchantId={}, amount={}",
                                         request.merchantId(), request.amount());
@@ -289,7 +500,12 @@ public class PaymentService {
                                         Collections.emptyList(),
                                         "PG service temporarily unavailable. Please try again later.");
                         return new PaymentResult(response, true);
-                } catch (PgApiException pgEx) {
+                }
+                if (failure instanceof PgConcurrencyLimitException limitEx) {
+                        // PG 지연으로 동시 호출 한도 초과 - 스레드를 묶지 않고 바로 거절 (재시도 가능)
+                        throw new PgOverloadedException(limitEx.getMessage(), "PG_CONCURRENCY_LIMITED");
+                }
+                if (failure instanceof PgApiException pgEx) {
                         // PG API 호출 실패 (승인 거부, 타임아웃 등)
                         log.error("PG Authorization failed: errorCode={}, message={}", pgEx.getErrorCode(),
                                         pgEx.getMessage());
@@ -302,15 +518,77 @@ public class PaymentService {
                                         Collections.emptyList(),
                                         "Authorization failed: " + pgEx.getMessage());
                         return new PaymentResult(response, true);
-                } catch (DataIntegrityViolationException ex) {
-                        log.warn("Duplicate idempotency key detected for merchant {}", request.merchantId());
-                        Payment payment = paymentRepository.findByMerchantIdAndIdempotencyKey(
-                                        request.merchantId(), request.idempotencyKey())
-                                        .orElseThrow(() -> ex);
-                        PaymentResponse response = toResponse(payment, Collections.emptyList(),
-                                        "Idempotency key already used");
-                        return new PaymentResult(response, true);
                 }
+                throw new IllegalStateException("Unexpected PG authorization failure", failure);
+        }
+
+        /**
+         * 같은 멱등 키로 동시에 들어온 요청이 먼저 저장된 경우 (유니크 제약 위반) 기존 결제를 응답
+         */
+        public PaymentResult duplicateAuthorization(AuthorizePaymentRequest request, DataIntegrityViolationException ex) {
+                log.warn("Duplicate idempotency key detected for merchant {}", request.merchantId());
+                Payment payment = paymentRepository.findByMerchantIdAndIdempotencyKey(
+                                request.merchantId(), request.idempotencyKey())
+                                .orElseThrow(() -> ex);
+                return existingAuthorization(payment);
+        }
+
+        /**
+         * 같은 멱등 키로 이미 저장된 결제의 응답
+         */
+        public PaymentResult existingAuthorization(Payment payment) {
+                PaymentResponse response = toResponse(payment, Collections.emptyList(),
+                                "Idempotency key already used");
+                return new PaymentResult(response, true);
+        }
+
+        /**
+         * 승인 저장 시 함께 쓰는 outbox 이벤트 (이벤트 타입 → payload, 저장 순서대로)
+         * 단건 승인과 배치 승인(BatchAuthorizationService)이 같은 payload를 쓰도록 여기서만 만든다.
+         * capture-requested의 authorizedAt은 settlement-worker가 payment.captured로 넘겨 승인→원장 지연 계산에 쓴다.
+         */
+        public Map<String, Map<String, Object>> authorizationEvents(Payment payment,
+                        AuthorizationResponse pgResponse) {
+                String occurredAt = Instant.now().toString();
+                Map<String, Map<String, Object>> events = new LinkedHashMap<>();
+                events.put("PAYMENT_AUTHORIZED", Map.of(
+                                "paymentId", payment.getId(),
+                                "merchantId", payment.getMerchantId(),
+                                "status", "AUTHORIZED", // Event payload keeps original semantic status
+                                "amount", payment.getAmount(),
+                                "currency", payment.getCurrency(),
+                                "approvalNumber", pgResponse.getApprovalNumber(),
+                                "transactionId", pgResponse.getTransactionId(),
+                                "occurredAt", occurredAt));
+                events.put("PAYMENT_CAPTURE_REQUESTED", Map.of(
+                                "paymentId", payment.getId(),
+                                "status", payment.getStatus().name(),
+                                "amount", payment.getAmount(),
+                                "currency", payment.getCurrency(),
+                                "merchantId", payment.getMerchantId(),
+                                "approvalNumber", pgResponse.getApprovalNumber(),
+                                "transactionId", pgResponse.getTransactionId(),
+                                "authorizedAt", occurredAt,
+                                "occurredAt", occurredAt));
+                return events;
+        }
+
+        public PaymentResponse authorizedResponse(Payment payment, AuthorizationResponse pgResponse) {
+                return toResponse(payment, Collections.emptyList(),
+                                "Payment authorized and capture requested - Approval: "
+                                                + pgResponse.getApprovalNumber());
+        }
+
+        /**
+         * 승인 시 멱등 응답 저장 방식
+         */
+        public enum IdempotencyWrite {
+                /** 저장하지 않음 (부하 테스트 fast path) */
+                NONE,
+                /** 트랜잭션 안에서 DB만 저장 (Redis는 호출자가 커밋 후 적재) */
+                DATABASE,
+                /** 트랜잭션 안에서 DB 저장 + Redis 적재 */
+                DATABASE_AND_CACHE
         }
 
         private void publishEvent(Payment payment, String eventType, Map<String, Object> payload) {
@@ -318,6 +596,17 @@ public class PaymentService {
                 eventPublisher.publishEvent(payment.getId(), eventType, payload);
         }
 
+        private PaymentResponse toResponse(PaymentSummary payment, PaymentStatus status, String message) {
+                return new PaymentResponse(
+                                payment.getId(),
+                                status.name(),
+                                payment.getAmount(),
+                                payment.getCurrency(),
+                                payment.getRequestedAt(),
+                                Collections.emptyList(),
+                                message);
+        }
+
         private PaymentResponse toResponse(Payment payment, List<LedgerEntryResponse> ledgerEntries, String message) {
                 return new PaymentResponse(
                                 payment.getId(),
@@ -0,0 +1,102 @@
+package com.example.payment.service;
+
+import com.example.payment.domain.PaymentStatus;
+import com.example.payment.repository.PaymentSummary;
+import java.time.Instant;
+
+/**
+ * 결제 상태 스냅샷 (Redis 캐시 저장 단위)
+ *
+ * version은 payment.version 컬럼과 같은 값이며, 조건부 UPDATE의 expectedVersion으로 사용된다.
+ * 캐시에서 읽은 스냅샷이 오래되었다면 UPDATE가 0건이 되므로 잘못된 전이를 허용하지 않는다.
+ */
+public final class PaymentSnapshot implements PaymentSummary {
+
+    private final Long id;
+    private final String merchantId;
+    private final Long amount;
+    private final String currency;
+    private final PaymentStatus status;
+    private final Long refundedAmount;
+    private final Instant requestedAt;
+    private final Long version;
+
+    public PaymentSnapshot(Long id, String merchantId, Long amount, String currency, PaymentStatus status,
+            Long refundedAmount, Instant requestedAt, Long version) {
+        this.id = id;
+        this.merchantId = merchantId;
+        this.amount = amount;
+        this.currency = currency;
+        this.status = status;
+        this.refundedAmount = refundedAmount;
+        this.requestedAt = requestedAt;
+        this.version = version;
+    }
+
+    public static PaymentSnapshot of(PaymentSummary summary) {
+        if (summary instanceof PaymentSnapshot snapshot) {
+            return snapshot;
+        }
+        return new PaymentSnapshot(
+                summary.getId(),
+                summary.getMerchantId(),
+                summary.getAmount(),
+                summary.getCurrency(),
+                summary.getStatus(),
+                summary.getRefundedAmount() != null ? summary.getRefundedAmount() : 0L,
+                summary.getRequestedAt(),
+                summary.getVersion() != null ? summary.getVersion() : 0L);
+    }
+
+    /**
+     * 조건부 UPDATE 성공 후 DB와 같은 상태의 스냅샷 (version + 1)
+     */
+    public PaymentSnapshot transitioned(PaymentStatus newStatus, long refundedDelta) {
+        return new PaymentSnapshot(id, merchantId, amount, currency, newStatus,
+                refundedAmount + refundedDelta, requestedAt, version + 1);
+    }
+
+    public long getRefundableAmount() {
+        return amount - refundedAmount;
+    }
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    @Override
+    public Long getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String getCurrency() {
+        return currency;
+    }
+
+    @Override
+    public PaymentStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public Long getRefundedAmount() {
+        return refundedAmount;
+    }
+
+    @Override
+    public Instant getRequestedAt() {
+        return requestedAt;
+    }
+
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+}
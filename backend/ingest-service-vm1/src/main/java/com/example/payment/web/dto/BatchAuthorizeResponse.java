@@ -0,0 +1,16 @@
+package com.example.payment.web.dto;
+
+import java.util.List;
+
+/**
+ * 배치 승인 응답 (items는 요청 순서와 같고, failed는 REJECTED 항목을 포함한다)
+ */
+public record BatchAuthorizeResponse(
+        int total,
+        int authorized,
+        int duplicates,
+        int rateLimited,
+        int failed,
+        List<BatchAuthorizeItemResult> items
+) {
+}
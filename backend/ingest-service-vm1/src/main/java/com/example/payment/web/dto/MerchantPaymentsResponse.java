@@ -0,0 +1,14 @@
+package com.example.payment.web.dto;
+
+import com.example.payment.readmodel.PaymentView;
+import java.util.List;
+
+/**
+ * 가맹점 최근 결제 목록 (nextBefore를 다음 요청의 before로 넘기면 이어서 조회, 마지막 페이지면 null)
+ */
+public record MerchantPaymentsResponse(
+        String merchantId,
+        List<PaymentView> payments,
+        Long nextBefore
+) {
+}
@@ -0,0 +1,12 @@
+-- Ledger consumer offsets stored next to ledger_entry (consumer-worker)
+-- Created on every shard: ledger rows and next_offset are committed in the same shard transaction,
+-- and on partition assignment the worker seeks to the smallest next_offset across shards.
+
+CREATE TABLE IF NOT EXISTS consumer_offset (
+  consumer_group  VARCHAR(64)  NOT NULL,
+  topic           VARCHAR(128) NOT NULL,
+  partition_no    INT          NOT NULL,
+  next_offset     BIGINT       NOT NULL,
+  updated_at      TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (consumer_group, topic, partition_no)
+) ENGINE=InnoDB;
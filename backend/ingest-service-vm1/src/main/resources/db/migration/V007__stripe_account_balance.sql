@@ -0,0 +1,8 @@
+-- Split each account balance into stripes so concurrent ledger transactions do not queue on one row lock.
+-- Existing rows become stripe 0; readers sum all stripes and consumer-worker folds stripes back periodically.
+
+ALTER TABLE account_balance
+  ADD COLUMN stripe SMALLINT NOT NULL DEFAULT 0 AFTER account,
+  DROP PRIMARY KEY,
+  ADD PRIMARY KEY (merchant_id, account, stripe),
+  ADD KEY ix_stripe (stripe);
@@ -0,0 +1,10 @@
+-- Refund redelivery dedupe by event identity
+-- refund-worker stores the originating event key (evt:{outbox eventId}) with each refund request.
+-- A redelivered refund-requested event finds its own row and is skipped; distinct refunds of the
+-- same amount each get their own row.
+
+ALTER TABLE refund_request
+    ADD COLUMN IF NOT EXISTS event_key VARCHAR(160) NULL AFTER refund_reason;
+
+ALTER TABLE refund_request
+    ADD UNIQUE KEY IF NOT EXISTS uk_refund_event (payment_id, event_key);
@@ -0,0 +1,132 @@
+package com.example.payment.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+        private SimpleMeterRegistry meterRegistry;
+        private long now;
+
+        @BeforeEach
+        void setUp() {
+                meterRegistry = new SimpleMeterRegistry();
+                now = 0;
+        }
+
+        @Test
+        @DisplayName("지연이 기준 안이면 한도를 sqrt(limit)씩 늘려야 함")
+        void growsUnderLowLatency() {
+                AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 1_000);
+
+                int previous = limiter.getLimit();
+                for (int i = 0; i < 5; i++) {
+                        round(limiter, 10);
+                        assertThat(limiter.getLimit()).isGreaterThan(previous);
+                        previous = limiter.getLimit();
+                }
+        }
+
+        @Test
+        @DisplayName("한도의 절반도 쓰지 않으면 늘리지 않아야 함")
+        void doesNotGrowWhenUnderused() {
+                AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 1_000);
+
+                for (int i = 0; i < 20; i++) {
+                        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+                        advance(10);
+                        permit.onSuccess();
+                }
+
+                assertThat(limiter.getLimit()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("지연이 기준의 tolerance배를 넘으면 한도를 줄여야 함")
+        void backsOffOnLatencySpike() {
+                AdaptiveConcurrencyLimiter limiter = limiter(20, 1, 40);
+                for (int i = 0; i < 5; i++) {
+                        round(limiter, 10);
+                }
+                assertThat(limiter.getLimit()).isEqualTo(40);
+
+                round(limiter, 200);
+
+                assertThat(limiter.getLimit()).isLessThan(20);
+        }
+
+        @Test
+        @DisplayName("과부하 신호마다 backoffRatio만큼 곱셈 감소해야 함")
+        void backsOffOnOverload() {
+                AdaptiveConcurrencyLimiter limiter = limiter(40, 1, 1_000);
+
+                limiter.tryAcquire().onOverload();
+                assertThat(limiter.getLimit()).isEqualTo(20);
+                limiter.tryAcquire().onOverload();
+                assertThat(limiter.getLimit()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("한도는 minLimit/maxLimit 안으로 고정되어야 함")
+        void clampsToMinAndMax() {
+                AdaptiveConcurrencyLimiter limiter = limiter(10, 4, 30);
+                for (int i = 0; i < 50; i++) {
+                        round(limiter, 10);
+                }
+                assertThat(limiter.getLimit()).isEqualTo(30);
+
+                for (int i = 0; i < 20; i++) {
+                        limiter.tryAcquire().onOverload();
+                }
+                assertThat(limiter.getLimit()).isEqualTo(4);
+
+                assertThat(limiter(1_000, 4, 30).getLimit()).isEqualTo(30);
+                assertThat(limiter(0, 4, 30).getLimit()).isEqualTo(4);
+        }
+
+        @Test
+        @DisplayName("한도에 닿으면 거절하고 rejected를 기록해야 함")
+        void rejectsAtLimit() {
+                AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10);
+
+                AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire();
+                AdaptiveConcurrencyLimiter.Permit second = limiter.tryAcquire();
+                assertThat(limiter.tryAcquire()).isNull();
+                assertThat(meterRegistry.get("pg.limiter.rejected").counter().count()).isEqualTo(1.0);
+
+                first.onIgnore();
+                first.onSuccess(); // 이미 반환된 허가는 무시
+                assertThat(limiter.getInflight()).isEqualTo(1);
+                assertThat(limiter.tryAcquire()).isNotNull();
+                second.onIgnore();
+        }
+
+        private AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit) {
+                return new AdaptiveConcurrencyLimiter("test", true, initialLimit, minLimit, maxLimit,
+                                2.0, 1.0, 0.5, 100, meterRegistry, () -> now);
+        }
+
+        /**
+         * 한도만큼 동시에 호출하고 latencyMs 뒤 모두 성공 처리
+         */
+        private void round(AdaptiveConcurrencyLimiter limiter, long latencyMs) {
+                List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+                AdaptiveConcurrencyLimiter.Permit permit;
+                while ((permit = limiter.tryAcquire()) != null) {
+                        permits.add(permit);
+                }
+                advance(latencyMs);
+                permits.forEach(AdaptiveConcurrencyLimiter.Permit::onSuccess);
+        }
+
+        private void advance(long millis) {
+                now += TimeUnit.MILLISECONDS.toNanos(millis);
+        }
+}
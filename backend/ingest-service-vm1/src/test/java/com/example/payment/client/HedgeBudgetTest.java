@@ -0,0 +1,79 @@
+package com.example.payment.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class HedgeBudgetTest {
+
+        @Test
+        @DisplayName("원 요청이 없으면 헤징할 수 없어야 함")
+        void emptyBudgetRejects() {
+                HedgeBudget budget = new HedgeBudget(0.25, 10);
+
+                assertThat(budget.tryAcquire()).isFalse();
+                assertThat(budget.available()).isZero();
+        }
+
+        @Test
+        @DisplayName("원 요청 1/ratio건마다 헤징 1회가 허용되고 다 쓰면 다시 쌓일 때까지 거절해야 함")
+        void exhaustionAndRefill() {
+                HedgeBudget budget = new HedgeBudget(0.25, 10);
+                requests(budget, 4);
+
+                assertThat(budget.tryAcquire()).isTrue();
+                assertThat(budget.tryAcquire()).isFalse();
+
+                requests(budget, 3);
+                assertThat(budget.tryAcquire()).isFalse();
+                requests(budget, 1);
+                assertThat(budget.tryAcquire()).isTrue();
+        }
+
+        @Test
+        @DisplayName("버스트는 maxTokens까지만 허용해야 함")
+        void burstCappedAtMaxTokens() {
+                HedgeBudget budget = new HedgeBudget(0.5, 3);
+                requests(budget, 100);
+
+                assertThat(budget.available()).isEqualTo(3.0);
+                assertThat(budget.tryAcquire()).isTrue();
+                assertThat(budget.tryAcquire()).isTrue();
+                assertThat(budget.tryAcquire()).isTrue();
+                assertThat(budget.tryAcquire()).isFalse();
+        }
+
+        @Test
+        @DisplayName("장기적으로 헤징 횟수는 원 요청의 ratio 비율을 넘지 않아야 함")
+        void longRunHedgeRateBoundedByRatio() {
+                HedgeBudget budget = new HedgeBudget(0.125, 5);
+                int hedged = 0;
+                for (int i = 0; i < 10_000; i++) {
+                        budget.onRequest();
+                        if (budget.tryAcquire()) {
+                                hedged++;
+                        }
+                }
+
+                assertThat(hedged).isEqualTo(1_250);
+        }
+
+        @Test
+        @DisplayName("음수 ratio는 0, maxTokens는 최소 1로 보정해야 함")
+        void clampsConfiguration() {
+                HedgeBudget disabled = new HedgeBudget(-1, 10);
+                requests(disabled, 100);
+                assertThat(disabled.tryAcquire()).isFalse();
+
+                HedgeBudget tiny = new HedgeBudget(1, 0);
+                requests(tiny, 5);
+                assertThat(tiny.available()).isEqualTo(1.0);
+        }
+
+        private static void requests(HedgeBudget budget, int count) {
+                for (int i = 0; i < count; i++) {
+                        budget.onRequest();
+                }
+        }
+}
@@ -0,0 +1,77 @@
+package com.example.payment.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class LatencyPercentileWindowTest {
+
+        @Test
+        @DisplayName("표본이 minSamples보다 적으면 -1이어야 함")
+        void notEnoughSamples() {
+                LatencyPercentileWindow window = new LatencyPercentileWindow(100, 0.95, 10, 1);
+                record(window, 1, 9);
+
+                assertThat(window.currentMs()).isEqualTo(-1);
+                window.record(10);
+                assertThat(window.currentMs()).isEqualTo(10);
+        }
+
+        @Test
+        @DisplayName("1~100ms 표본의 p50/p95/p100은 50/95/100이어야 함")
+        void percentilesOverKnownSample() {
+                LatencyPercentileWindow p50 = new LatencyPercentileWindow(100, 0.50, 1, 1);
+                LatencyPercentileWindow p95 = new LatencyPercentileWindow(100, 0.95, 1, 1);
+                LatencyPercentileWindow p100 = new LatencyPercentileWindow(100, 1.0, 1, 1);
+                // 정렬되지 않은 순서로 기록
+                for (int i = 0; i < 100; i++) {
+                        long latency = (i * 37L) % 100 + 1;
+                        p50.record(latency);
+                        p95.record(latency);
+                        p100.record(latency);
+                }
+
+                assertThat(p50.currentMs()).isEqualTo(50);
+                assertThat(p95.currentMs()).isEqualTo(95);
+                assertThat(p100.currentMs()).isEqualTo(100);
+        }
+
+        @Test
+        @DisplayName("창 크기를 넘은 오래된 표본은 밀려나야 함")
+        void oldSamplesEvicted() {
+                LatencyPercentileWindow window = new LatencyPercentileWindow(10, 0.5, 1, 1);
+                record(window, 1, 10);
+                assertThat(window.currentMs()).isEqualTo(5);
+
+                for (int i = 0; i < 10; i++) {
+                        window.record(1_000);
+                }
+
+                assertThat(window.size()).isEqualTo(10);
+                assertThat(window.currentMs()).isEqualTo(1_000);
+        }
+
+        @Test
+        @DisplayName("백분위수는 recomputeEvery건마다만 다시 계산해야 함")
+        void recomputesEveryNRecords() {
+                LatencyPercentileWindow window = new LatencyPercentileWindow(100, 0.5, 1, 5);
+                record(window, 1, 5);
+                assertThat(window.currentMs()).isEqualTo(3);
+
+                for (int i = 0; i < 4; i++) {
+                        window.record(500);
+                }
+                assertThat(window.currentMs()).isEqualTo(3);
+
+                // 10건 [1..5, 500 x5]의 p50
+                window.record(500);
+                assertThat(window.currentMs()).isEqualTo(5);
+        }
+
+        private static void record(LatencyPercentileWindow window, long from, long to) {
+                for (long latency = from; latency <= to; latency++) {
+                        window.record(latency);
+                }
+        }
+}
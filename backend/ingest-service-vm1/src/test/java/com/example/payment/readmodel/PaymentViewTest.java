@@ -0,0 +1,130 @@
+package com.example.payment.readmodel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PaymentViewTest {
+
+        @Test
+        @DisplayName("승인만 반영되면 AUTHORIZED, 정산/환불 상태는 NONE이어야 함")
+        void authorizedOnly() {
+                PaymentView view = PaymentView.of(authorized(10000));
+
+                assertThat(view.status()).isEqualTo("AUTHORIZED");
+                assertThat(view.settlementStatus()).isEqualTo("NONE");
+                assertThat(view.refundStatus()).isEqualTo("NONE");
+                assertThat(view.authorizedAt()).isEqualTo(Instant.ofEpochMilli(1_000L));
+        }
+
+        @Test
+        @DisplayName("capture 요청은 PENDING, 정산 완료는 CAPTURED여야 함")
+        void settlementStatus() {
+                Map<String, String> fields = authorized(10000);
+                fields.put(PaymentReadModelStore.CAPTURE_REQUESTED_AT, "2000");
+
+                PaymentView requested = PaymentView.of(fields);
+                assertThat(requested.status()).isEqualTo("CAPTURE_REQUESTED");
+                assertThat(requested.settlementStatus()).isEqualTo("PENDING");
+
+                fields.put(PaymentReadModelStore.CAPTURED_AT, "3000");
+
+                PaymentView captured = PaymentView.of(fields);
+                assertThat(captured.status()).isEqualTo("CAPTURED");
+                assertThat(captured.settlementStatus()).isEqualTo("CAPTURED");
+        }
+
+        @Test
+        @DisplayName("요청 금액이 완료 금액보다 크면 IN_PROGRESS (REFUND_REQUESTED)여야 함")
+        void refundInProgress() {
+                Map<String, String> fields = captured(10000);
+                fields.put(PaymentReadModelStore.REFUND_REQUESTED, "3000");
+
+                PaymentView view = PaymentView.of(fields);
+
+                assertThat(view.refundStatus()).isEqualTo("IN_PROGRESS");
+                assertThat(view.status()).isEqualTo("REFUND_REQUESTED");
+                assertThat(view.settlementStatus()).isEqualTo("CAPTURED");
+        }
+
+        @Test
+        @DisplayName("요청한 만큼 완료됐지만 결제 금액보다 작으면 PARTIAL (PARTIAL_REFUNDED)여야 함")
+        void partialRefund() {
+                Map<String, String> fields = captured(10000);
+                fields.put(PaymentReadModelStore.REFUND_REQUESTED, "3000");
+                fields.put(PaymentReadModelStore.REFUNDED, "3000");
+
+                PaymentView view = PaymentView.of(fields);
+
+                assertThat(view.refundStatus()).isEqualTo("PARTIAL");
+                assertThat(view.status()).isEqualTo("PARTIAL_REFUNDED");
+                assertThat(view.refundedAmount()).isEqualTo(3000L);
+        }
+
+        @Test
+        @DisplayName("두 번째 환불이 요청 중이면 PARTIAL이 아니라 IN_PROGRESS여야 함")
+        void secondRefundInProgress() {
+                Map<String, String> fields = captured(10000);
+                fields.put(PaymentReadModelStore.REFUND_REQUESTED, "7000");
+                fields.put(PaymentReadModelStore.REFUNDED, "3000");
+
+                assertThat(PaymentView.of(fields).refundStatus()).isEqualTo("IN_PROGRESS");
+        }
+
+        @Test
+        @DisplayName("완료 금액이 결제 금액에 도달하면 REFUNDED여야 함")
+        void fullyRefunded() {
+                Map<String, String> fields = captured(10000);
+                fields.put(PaymentReadModelStore.REFUND_REQUESTED, "10000");
+                fields.put(PaymentReadModelStore.REFUNDED, "10000");
+
+                PaymentView view = PaymentView.of(fields);
+
+                assertThat(view.refundStatus()).isEqualTo("REFUNDED");
+                assertThat(view.status()).isEqualTo("REFUNDED");
+        }
+
+        @Test
+        @DisplayName("결제 금액을 모르는 상태에서 환불 완료가 먼저 오면 REFUNDED로 단정하지 않아야 함")
+        void refundBeforeAmountIsKnown() {
+                Map<String, String> fields = new HashMap<>();
+                fields.put(PaymentReadModelStore.PAYMENT_ID, "42");
+                fields.put(PaymentReadModelStore.REFUNDED, "10000");
+
+                PaymentView view = PaymentView.of(fields);
+
+                assertThat(view.refundStatus()).isEqualTo("PARTIAL");
+                assertThat(view.amount()).isNull();
+        }
+
+        @Test
+        @DisplayName("승인 이벤트가 아직 없으면 UNKNOWN이어야 함")
+        void unknownWithoutAuthorization() {
+                Map<String, String> fields = new HashMap<>();
+                fields.put(PaymentReadModelStore.PAYMENT_ID, "42");
+
+                assertThat(PaymentView.of(fields).status()).isEqualTo("UNKNOWN");
+        }
+
+        private static Map<String, String> authorized(long amount) {
+                Map<String, String> fields = new HashMap<>();
+                fields.put(PaymentReadModelStore.PAYMENT_ID, "42");
+                fields.put(PaymentReadModelStore.MERCHANT_ID, "M2");
+                fields.put(PaymentReadModelStore.SHARD, "shard1");
+                fields.put(PaymentReadModelStore.AMOUNT, String.valueOf(amount));
+                fields.put(PaymentReadModelStore.CURRENCY, "KRW");
+                fields.put(PaymentReadModelStore.AUTHORIZED_AT, "1000");
+                return fields;
+        }
+
+        private static Map<String, String> captured(long amount) {
+                Map<String, String> fields = authorized(amount);
+                fields.put(PaymentReadModelStore.CAPTURE_REQUESTED_AT, "2000");
+                fields.put(PaymentReadModelStore.CAPTURED_AT, "3000");
+                return fields;
+        }
+}
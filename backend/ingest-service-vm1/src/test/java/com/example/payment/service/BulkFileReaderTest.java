@@ -0,0 +1,173 @@
+package com.example.payment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.payment.service.BulkFileReader.Format;
+import com.example.payment.service.BulkOperationLine.Operation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class BulkFileReaderTest {
+
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        @Test
+        @DisplayName("빈 파일이면 바로 null을 반환해야 함")
+        void emptyFile() throws IOException {
+                AtomicLong bytesRead = new AtomicLong();
+
+                assertThat(readAll("", Format.CSV, bytesRead)).isEmpty();
+                assertThat(bytesRead.get()).isZero();
+                assertThat(readAll("operation,paymentId,merchantId,amount,reason\n\n   \n", Format.CSV,
+                                new AtomicLong())).isEmpty();
+                assertThat(readAll("", Format.NDJSON, new AtomicLong())).isEmpty();
+        }
+
+        @Test
+        @DisplayName("CSV 헤더는 건너뛰고 인용 필드와 줄 번호를 유지해야 함")
+        void csvWithHeaderAndQuotedFields() throws IOException {
+                List<BulkOperationLine> lines = readAll("""
+                                operation,paymentId,merchantId,amount,reason
+                                capture,1,M1
+                                REFUND,2,M1,500,"고객 요청, 부분 환불"
+
+                                REFUND,3, M2 ,,"say ""hi"" now"
+                                """, Format.CSV, new AtomicLong());
+
+                assertThat(lines).hasSize(3);
+                assertThat(lines.get(0)).isEqualTo(
+                                new BulkOperationLine(2, Operation.CAPTURE, 1L, "M1", null, null, null));
+                assertThat(lines.get(1)).isEqualTo(
+                                new BulkOperationLine(3, Operation.REFUND, 2L, "M1", 500L, "고객 요청, 부분 환불", null));
+                assertThat(lines.get(2)).isEqualTo(
+                                new BulkOperationLine(5, Operation.REFUND, 3L, "M2", null, "say \"hi\" now", null));
+        }
+
+        @Test
+        @DisplayName("형식이 잘못된 줄은 오류로 돌려주고 다음 줄을 계속 읽어야 함")
+        void malformedLinesAreReportedAndSkipped() throws IOException {
+                List<BulkOperationLine> lines = readAll("""
+                                REFUND,1,M1,100,"unterminated
+                                CAPTURE,2
+                                VOID,3,M1
+                                CAPTURE,-4,M1
+                                CAPTURE,5,M1,abc
+                                REFUND,6,M1,100
+                                CAPTURE,7,M1
+                                """, Format.CSV, new AtomicLong());
+
+                assertThat(lines).extracting(BulkOperationLine::lineNumber).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+                assertThat(lines).extracting(BulkOperationLine::error).containsExactly(
+                                "Unterminated quoted field",
+                                "Expected operation,paymentId,merchantId[,amount[,reason]]",
+                                "operation must be CAPTURE or REFUND",
+                                "paymentId must be a positive number",
+                                "amount must be a positive number",
+                                "reason is required for REFUND",
+                                null);
+                assertThat(lines.get(6).isValid()).isTrue();
+        }
+
+        @Test
+        @DisplayName("NDJSON은 줄마다 객체 하나로 읽고 잘못된 JSON은 오류 줄로 돌려줘야 함")
+        void ndjsonLines() throws IOException {
+                List<BulkOperationLine> lines = readAll("""
+                                {"operation":"REFUND","paymentId":1,"merchantId":"M1","amount":500,"reason":"r"}
+                                {"operation":"CAPTURE","paymentId":"2","merchantId":"M1"}
+                                {"operation":"CAPTURE",
+                                [1,2]
+                                """, Format.NDJSON, new AtomicLong());
+
+                assertThat(lines).hasSize(4);
+                assertThat(lines.get(0)).isEqualTo(
+                                new BulkOperationLine(1, Operation.REFUND, 1L, "M1", 500L, "r", null));
+                assertThat(lines.get(1)).isEqualTo(
+                                new BulkOperationLine(2, Operation.CAPTURE, 2L, "M1", null, null, null));
+                assertThat(lines.get(2).error()).startsWith("Malformed JSON");
+                assertThat(lines.get(3).error()).isEqualTo("Expected a JSON object");
+        }
+
+        @Test
+        @DisplayName("스트림이 몇 바이트씩 잘려 들어와도 줄과 UTF-8 문자가 깨지지 않아야 함")
+        void chunkBoundariesDoNotSplitLinesOrCharacters() throws IOException {
+                StringBuilder file = new StringBuilder("operation,paymentId,merchantId,amount,reason\r\n");
+                int count = 3_000;
+                for (int i = 1; i <= count; i++) {
+                        file.append("REFUND,").append(i).append(",M1,").append(i).append(",환불 사유 ").append(i);
+                        if (i < count) {
+                                file.append("\r\n");
+                        }
+                }
+                byte[] bytes = file.toString().getBytes(StandardCharsets.UTF_8);
+                AtomicLong bytesRead = new AtomicLong();
+
+                List<BulkOperationLine> lines = new ArrayList<>();
+                try (BulkFileReader reader = new BulkFileReader(new TrickleInputStream(bytes, 3), Format.CSV,
+                                objectMapper, bytesRead)) {
+                        BulkOperationLine line;
+                        while ((line = reader.next()) != null) {
+                                lines.add(line);
+                        }
+                }
+
+                assertThat(lines).hasSize(count);
+                assertThat(lines).allMatch(BulkOperationLine::isValid);
+                for (int i = 0; i < count; i++) {
+                        BulkOperationLine line = lines.get(i);
+                        assertThat(line.lineNumber()).isEqualTo(i + 2);
+                        assertThat(line.paymentId()).isEqualTo(i + 1L);
+                        assertThat(line.reason()).isEqualTo("환불 사유 " + (i + 1));
+                }
+                assertThat(bytesRead.get()).isEqualTo(bytes.length);
+        }
+
+        @Test
+        @DisplayName("Content-Type에 json이 있으면 NDJSON, 그 외는 CSV여야 함")
+        void formatFromContentType() {
+                assertThat(Format.fromContentType("application/x-ndjson")).isEqualTo(Format.NDJSON);
+                assertThat(Format.fromContentType("application/JSON")).isEqualTo(Format.NDJSON);
+                assertThat(Format.fromContentType("text/csv")).isEqualTo(Format.CSV);
+                assertThat(Format.fromContentType(null)).isEqualTo(Format.CSV);
+        }
+
+        private List<BulkOperationLine> readAll(String content, Format format, AtomicLong bytesRead)
+                        throws IOException {
+                List<BulkOperationLine> lines = new ArrayList<>();
+                try (BulkFileReader reader = new BulkFileReader(
+                                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format,
+                                objectMapper, bytesRead)) {
+                        BulkOperationLine line;
+                        while ((line = reader.next()) != null) {
+                                lines.add(line);
+                        }
+                }
+                return lines;
+        }
+
+        /**
+         * read 한 번에 최대 maxChunk 바이트만 돌려주는 스트림 (네트워크 업로드처럼 잘려 들어오는 경우)
+         */
+        private static final class TrickleInputStream extends FilterInputStream {
+
+                private final int maxChunk;
+
+                private TrickleInputStream(byte[] bytes, int maxChunk) {
+                        super(new ByteArrayInputStream(bytes));
+                        this.maxChunk = maxChunk;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                        return super.read(buffer, offset, Math.min(length, maxChunk));
+                }
+        }
+}
@@ -0,0 +1,34 @@
+package com.example.payment.client;
+
+/**
+ * 헤징 요청 예산 (토큰 버킷)
+ * 원 요청마다 ratio 만큼 토큰이 쌓이고 헤징 1회에 1개를 쓴다. 장기적으로 헤징 요청은 원 요청의 ratio 비율을 넘지 않으며,
+ * PG가 전반적으로 느려져 모든 요청이 p95를 넘더라도 추가 부하가 ratio로 제한된다. 버스트는 maxTokens까지만 허용한다.
+ */
+public class HedgeBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    public HedgeBudget(double ratio, double maxTokens) {
+        this.ratio = Math.max(0, ratio);
+        this.maxTokens = Math.max(1, maxTokens);
+    }
+
+    public synchronized void onRequest() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+
+    public synchronized double available() {
+        return tokens;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.payment.client;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+/**
+ * HTTP PG Authorization API Client (pg.client.mode=http)
+ * pg-stub-server 또는 실제 PG의 승인 API를 커넥션 풀/타임아웃이 설정된 WebClient로 호출한다 (PgClientConfig).
+ * 호출 스레드는 응답까지 대기하므로 PgAuthApiService의 Circuit Breaker가 그대로 적용된다.
+ *
+ * 오류 매핑:
+ * - 4xx/5xx: 응답 본문의 errorCode (없으면 PG_HTTP_{status})
+ * - 응답 타임아웃: PG_TIMEOUT
+ * - 커넥션 풀 대기 초과: PG_POOL_EXHAUSTED
+ * - 연결 실패 등: PG_UNAVAILABLE
+ */
+@Component
+@ConditionalOnProperty(name = "pg.client.mode", havingValue = "http")
+public class HttpPgAuthApiClient implements PgAuthApiClient {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpPgAuthApiClient.class);
+
+    private final WebClient webClient;
+
+    public HttpPgAuthApiClient(@Qualifier("pgWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public AuthorizationResponse requestAuthorization(
+            String pgReference,
+            String merchantId,
+            BigDecimal amount,
+            String currency,
+            String cardNumber
+    ) throws PgApiException {
+        log.debug("Requesting authorization to PG: pgReference={}, merchantId={}, amount={}, currency={}",
+                pgReference, merchantId, amount, currency);
+
+        AuthorizationResult result;
+        try {
+            result = webClient.post()
+                    .uri("/pg/authorizations")
+                    .bodyValue(new AuthorizationCall(pgReference, merchantId, amount, currency, cardNumber))
+                    .retrieve()
+                    .bodyToMono(AuthorizationResult.class)
+                    .block();
+        } catch (RuntimeException ex) {
+            PgApiException pgEx = translate(ex, "승인");
+            log.warn("PG authorization failed: merchantId={}, errorCode={}, message={}",
+                    merchantId, pgEx.getErrorCode(), ex.getMessage());
+            throw pgEx;
+        }
+        if (result == null) {
+            throw new PgApiException("PG_EMPTY_RESPONSE", "승인 API 응답 없음");
+        }
+
+        return new AuthorizationResponse(
+                result.status(),
+                result.transactionId(),
+                result.approvalNumber(),
+                result.responseCode(),
+                result.responseMessage(),
+                result.amount(),
+                result.authorizedAt()
+        );
+    }
+
+    private static PgApiException translate(RuntimeException ex, String apiName) {
+        if (ex instanceof WebClientResponseException response) {
+            ErrorBody body = null;
+            try {
+                body = response.getResponseBodyAs(ErrorBody.class);
+            } catch (RuntimeException ignored) {
+                // 본문이 JSON이 아니면 상태 코드로만 판단
+            }
+            if (body != null && body.errorCode() != null) {
+                return new PgApiException(body.errorCode(), body.message() != null ? body.message() : apiName + " API 오류");
+            }
+            return new PgApiException("PG_HTTP_" + response.getStatusCode().value(), apiName + " API 오류");
+        }
+        Throwable cause = ex instanceof WebClientRequestException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof ReadTimeoutException) {
+            return new PgApiException("PG_TIMEOUT", apiName + " API 응답 시간 초과");
+        }
+        if (cause instanceof TimeoutException) {
+            return new PgApiException("PG_POOL_EXHAUSTED", apiName + " API 커넥션 대기 시간 초과");
+        }
+        return new PgApiException("PG_UNAVAILABLE", apiName + " API 연결 실패: " + cause.getMessage());
+    }
+
+    record AuthorizationCall(String pgReference, String merchantId, BigDecimal amount, String currency,
+                             String cardNumber) {
+    }
+
+    record AuthorizationResult(String status, String transactionId, String approvalNumber,
+                               String responseCode, String responseMessage,
+                               BigDecimal amount, Instant authorizedAt) {
+    }
+
+    record ErrorBody(String errorCode, String message) {
+    }
+}
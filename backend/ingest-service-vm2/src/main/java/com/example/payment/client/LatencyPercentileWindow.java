@@ -0,0 +1,52 @@
+package com.example.payment.client;
+
+import java.util.Arrays;
+
+/**
+ * 최근 N건 응답 시간의 백분위수
+ * 링 버퍼에 기록하고, 백분위수는 recomputeEvery건마다 다시 정렬해 계산한 값을 캐시한다 (조회는 O(1)).
+ */
+public class LatencyPercentileWindow {
+
+    private final long[] samples;
+    private final double percentile;
+    private final int minSamples;
+    private final int recomputeEvery;
+
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long cachedMs = -1;
+
+    public LatencyPercentileWindow(int size, double percentile, int minSamples, int recomputeEvery) {
+        this.samples = new long[Math.max(1, size)];
+        this.percentile = percentile;
+        this.minSamples = Math.max(1, Math.min(minSamples, samples.length));
+        this.recomputeEvery = Math.max(1, recomputeEvery);
+    }
+
+    public synchronized void record(long latencyMs) {
+        samples[next] = latencyMs;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (count >= minSamples && ++sinceRecompute >= recomputeEvery) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            cachedMs = sorted[(int) Math.min(count - 1, Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    /**
+     * @return 백분위수 (ms), 표본이 minSamples보다 적으면 -1
+     */
+    public long currentMs() {
+        return cachedMs;
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+}
@@ -12,6 +12,12 @@ public class KafkaTopicConfig {
     @Value("${payment.topics.authorized:payment.authorized}")
     private String authorizedTopic;
 
+    @Value("${payment.topics.capture-requested:payment.capture-requested}")
+    private String captureRequestedTopic;
+
+    @Value("${payment.topics.refund-requested:payment.refund-requested}")
+    private String refundRequestedTopic;
+
     @Value("${payment.topics.captured:payment.captured}")
     private String capturedTopic;
 
@@ -26,6 +32,17 @@ public class KafkaTopicConfig {
         return TopicBuilder.name(authorizedTopic).partitions(6).replicas(1).build();
     }
 
+    // 샤드 정렬 파티셔닝: 파티션 수는 샤드 수(2)의 배수로 둔다
+    @Bean
+    public NewTopic paymentCaptureRequestedTopic() {
+        return TopicBuilder.name(captureRequestedTopic).partitions(6).replicas(1).build();
+    }
+
+    @Bean
+    public NewTopic paymentRefundRequestedTopic() {
+        return TopicBuilder.name(refundRequestedTopic).partitions(6).replicas(1).build();
+    }
+
     @Bean
     public NewTopic paymentCapturedTopic() {
         return TopicBuilder.name(capturedTopic).partitions(6).replicas(1).build();
@@ -3,13 +3,66 @@ package com.example.payment.repository;
 import com.example.payment.domain.Payment;
 import com.example.payment.domain.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByMerchantIdAndIdempotencyKey(String merchantId, String idempotencyKey);
 
+    /**
+     * 배치 승인: 멱등 키 여러 개를 한 번에 조회 (uk_idem 인덱스)
+     */
+    List<Payment> findByMerchantIdAndIdempotencyKeyIn(String merchantId, Collection<String> idempotencyKeys);
+
     Optional<Payment> findByIdAndMerchantId(Long id, String merchantId);
 
+    Optional<PaymentSummary> findSummaryByIdAndMerchantId(Long id, String merchantId);
+
     long countByStatus(PaymentStatus status);
+
+    /**
+     * 상태 전이 (단일 조건부 UPDATE, compare-and-set)
+     * 출발 상태 집합은 PaymentStateMachine에서 얻는다.
+     * expectedVersion은 호출자가 판단 근거로 삼은 스냅샷(캐시 포함)의 버전이며, 성공 시 version이 1 증가한다.
+     *
+     * @return 1이면 전이 성공, 0이면 결제가 없거나 상태/버전이 일치하지 않음
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :newStatus, p.version = p.version + 1, p.updatedAt = :now " +
+           "WHERE p.id = :paymentId AND p.merchantId = :merchantId " +
+           "AND p.status IN :fromStatuses AND p.version = :expectedVersion")
+    int transitionStatus(@Param("paymentId") Long paymentId,
+                         @Param("merchantId") String merchantId,
+                         @Param("fromStatuses") Collection<PaymentStatus> fromStatuses,
+                         @Param("newStatus") PaymentStatus newStatus,
+                         @Param("expectedVersion") long expectedVersion,
+                         @Param("now") Instant now);
+
+    /**
+     * 부분 환불 금액 예약 (단일 조건부 UPDATE)
+     * 잔여 환불 가능 금액을 넘지 않을 때만 refunded_amount를 증가시킨다. version은 조건에 넣지 않으므로
+     * 동시 부분 환불은 서로를 실패시키지 않고, 합계가 결제 금액을 넘는 요청만 0건이 된다.
+     * 문장 하나가 짧게 InnoDB row X-lock을 잡았다 놓을 뿐 read-modify-write 사이에 락을 들고 있지 않는다.
+     * 성공 시 version이 1 증가한다 (캐시 스냅샷 무효화 기준).
+     *
+     * @return 1이면 예약 성공, 0이면 결제 없음/상태 불일치 또는 잔액 초과
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.refundedAmount = p.refundedAmount + :amount, " +
+           "p.status = :newStatus, p.version = p.version + 1, p.updatedAt = :now " +
+           "WHERE p.id = :paymentId AND p.merchantId = :merchantId " +
+           "AND p.status IN :fromStatuses " +
+           "AND p.refundedAmount + :amount <= p.amount")
+    int reserveRefund(@Param("paymentId") Long paymentId,
+                      @Param("merchantId") String merchantId,
+                      @Param("amount") long amount,
+                      @Param("fromStatuses") Collection<PaymentStatus> fromStatuses,
+                      @Param("newStatus") PaymentStatus newStatus,
+                      @Param("now") Instant now);
 }
@@ -3,7 +3,7 @@ package com.example.payment.scheduler;
 import com.example.payment.domain.OutboxEvent;
 import com.example.payment.repository.OutboxEventRepository;
 import com.example.payment.service.PaymentEventPublisher;
-import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.config.shard.ShardScope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -91,14 +91,11 @@ public class OutboxPollingScheduler {
             return;
         }
         // Poll only odd merchant IDs for VM2 (using shard2)
-        ShardContextHolder.setShardKey("shard2");
-        try {
+        try (ShardScope ignored = ShardScope.open("shard2")) {
             log.info("Outbox polling start for odd merchant IDs (VM2)");
             pollAndPublishWithRetry();
         } catch (Exception ex) {
             log.error("Outbox polling cycle failed for odd merchant IDs", ex);
-        } finally {
-            ShardContextHolder.clear();
         }
     }
 
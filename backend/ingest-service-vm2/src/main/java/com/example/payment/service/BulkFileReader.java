@@ -0,0 +1,222 @@
+package com.example.payment.service;
+
+import com.example.payment.service.BulkOperationLine.Operation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 대량 capture/refund 파일을 한 줄씩 읽는 파서 (파일 전체를 메모리에 올리지 않음)
+ *
+ * CSV: operation,paymentId,merchantId,amount,reason (첫 줄이 operation으로 시작하면 헤더로 보고 건너뜀, 큰따옴표 인용 지원)
+ * NDJSON: {"operation":"REFUND","paymentId":1,"merchantId":"M1","amount":500,"reason":"..."}
+ * 빈 줄은 건너뛰고, 형식이 잘못된 줄은 error가 채워진 줄로 돌려준다 (처리는 계속).
+ */
+public class BulkFileReader implements Closeable {
+
+    private static final int MAX_MERCHANT_ID_LENGTH = 32;
+    private static final int MAX_REASON_LENGTH = 128;
+
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * Content-Type으로 형식 결정 (json이 들어가면 NDJSON, 그 외 CSV)
+         */
+        public static Format fromContentType(String contentType) {
+            if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")) {
+                return NDJSON;
+            }
+            return CSV;
+        }
+    }
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+
+    public BulkFileReader(InputStream in, Format format, ObjectMapper objectMapper, AtomicLong bytesRead) {
+        this.reader = new BufferedReader(new InputStreamReader(new CountingInputStream(in, bytesRead),
+                StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 다음 줄 (파일 끝이면 null)
+     */
+    public BulkOperationLine next() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && lineNumber == 1
+                    && line.trim().toLowerCase(Locale.ROOT).startsWith("operation")) {
+                continue;
+            }
+            return format == Format.CSV ? parseCsv(line) : parseJson(line);
+        }
+        return null;
+    }
+
+    private BulkOperationLine parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields == null) {
+            return BulkOperationLine.invalid(lineNumber, "Unterminated quoted field");
+        }
+        if (fields.size() < 3) {
+            return BulkOperationLine.invalid(lineNumber, "Expected operation,paymentId,merchantId[,amount[,reason]]");
+        }
+        return toLine(fields.get(0), fields.get(1), fields.get(2),
+                fields.size() > 3 ? fields.get(3) : null,
+                fields.size() > 4 ? fields.get(4) : null);
+    }
+
+    private BulkOperationLine parseJson(String line) {
+        try {
+            JsonNode node = objectMapper.readTree(line);
+            if (node == null || !node.isObject()) {
+                return BulkOperationLine.invalid(lineNumber, "Expected a JSON object");
+            }
+            return toLine(text(node, "operation"), text(node, "paymentId"), text(node, "merchantId"),
+                    text(node, "amount"), text(node, "reason"));
+        } catch (JsonProcessingException ex) {
+            return BulkOperationLine.invalid(lineNumber, "Malformed JSON: " + ex.getOriginalMessage());
+        }
+    }
+
+    private BulkOperationLine toLine(String operationText, String paymentIdText, String merchantId,
+                                     String amountText, String reason) {
+        Operation operation;
+        try {
+            operation = Operation.valueOf(operationText.trim().toUpperCase(Locale.ROOT));
+        } catch (RuntimeException ex) {
+            return BulkOperationLine.invalid(lineNumber, "operation must be CAPTURE or REFUND");
+        }
+        Long paymentId = parsePositive(paymentIdText);
+        if (paymentId == null) {
+            return BulkOperationLine.invalid(lineNumber, "paymentId must be a positive number");
+        }
+        if (merchantId == null || merchantId.isBlank() || merchantId.trim().length() > MAX_MERCHANT_ID_LENGTH) {
+            return BulkOperationLine.invalid(lineNumber, "merchantId is required (max 32 characters)");
+        }
+        Long amount = null;
+        if (amountText != null && !amountText.isBlank()) {
+            amount = parsePositive(amountText);
+            if (amount == null) {
+                return BulkOperationLine.invalid(lineNumber, "amount must be a positive number");
+            }
+        }
+        String trimmedReason = reason != null && !reason.isBlank() ? reason.trim() : null;
+        if (operation == Operation.REFUND && trimmedReason == null) {
+            return BulkOperationLine.invalid(lineNumber, "reason is required for REFUND");
+        }
+        if (trimmedReason != null && trimmedReason.length() > MAX_REASON_LENGTH) {
+            return BulkOperationLine.invalid(lineNumber, "reason must not exceed 128 characters");
+        }
+        return new BulkOperationLine(lineNumber, operation, paymentId, merchantId.trim(), amount, trimmedReason,
+                null);
+    }
+
+    private static Long parsePositive(String text) {
+        if (text == null) {
+            return null;
+        }
+        try {
+            long value = Long.parseLong(text.trim());
+            return value > 0 ? value : null;
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    /**
+     * CSV 한 줄 분리 (큰따옴표 인용, "" 이스케이프). 인용이 닫히지 않으면 null
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 읽은 바이트 수를 진행률용으로 기록
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        private CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+    }
+}
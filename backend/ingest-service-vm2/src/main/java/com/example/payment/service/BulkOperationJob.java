@@ -0,0 +1,168 @@
+package com.example.payment.service;
+
+import com.example.payment.service.BulkFileReader.Format;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 대량 capture/refund 파일 작업 1건의 진행 상태 (처리 스레드가 갱신, 조회 API가 읽음)
+ */
+public class BulkOperationJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final Format format;
+    private final long totalBytes;
+    private final Path spoolFile;
+    private final Path resultFile;
+    private final Instant createdAt = Instant.now();
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong lines = new AtomicLong();
+    private final AtomicLong applied = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    BulkOperationJob(String id, Format format, long totalBytes, Path spoolFile, Path resultFile) {
+        this.id = id;
+        this.format = format;
+        this.totalBytes = totalBytes;
+        this.spoolFile = spoolFile;
+        this.resultFile = resultFile;
+    }
+
+    void start() {
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+    }
+
+    void complete() {
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    void fail(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    void record(BulkLineOutcome outcome) {
+        lines.incrementAndGet();
+        switch (outcome) {
+            case APPLIED -> applied.incrementAndGet();
+            case REJECTED -> rejected.incrementAndGet();
+            case INVALID -> invalid.incrementAndGet();
+            case FAILED -> failed.incrementAndGet();
+        }
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    /**
+     * 읽은 바이트 기준 진행률 (0~100)
+     */
+    public double getProgressPercent() {
+        if (status == Status.COMPLETED) {
+            return 100.0;
+        }
+        return totalBytes <= 0 ? 0.0 : Math.min(100.0, bytesRead.get() * 100.0 / totalBytes);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    Path getSpoolFile() {
+        return spoolFile;
+    }
+
+    public Path getResultFile() {
+        return resultFile;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    AtomicLong bytesReadCounter() {
+        return bytesRead;
+    }
+
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    public long getLines() {
+        return lines.get();
+    }
+
+    public long getApplied() {
+        return applied.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getInvalid() {
+        return invalid.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * 줄 단위 처리 결과
+     */
+    public enum BulkLineOutcome {
+        /** 전이 + outbox 기록 완료 */
+        APPLIED,
+        /** 결제 없음, 상태/잔액 불일치 등으로 거절 */
+        REJECTED,
+        /** 줄 형식 오류 */
+        INVALID,
+        /** DB 오류로 처리하지 못함 (같은 줄을 다시 올리면 재시도 가능) */
+        FAILED
+    }
+}
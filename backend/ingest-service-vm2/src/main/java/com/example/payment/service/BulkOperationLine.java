@@ -0,0 +1,30 @@
+package com.example.payment.service;
+
+/**
+ * 대량 capture/refund 파일의 한 줄 (error가 있으면 형식 오류로 처리하지 않는 줄)
+ *
+ * amount: REFUND에서 없으면 남은 환불 가능 금액 전체, CAPTURE에서는 무시
+ */
+public record BulkOperationLine(
+        long lineNumber,
+        Operation operation,
+        Long paymentId,
+        String merchantId,
+        Long amount,
+        String reason,
+        String error
+) {
+
+    public enum Operation {
+        CAPTURE,
+        REFUND
+    }
+
+    static BulkOperationLine invalid(long lineNumber, String error) {
+        return new BulkOperationLine(lineNumber, null, null, null, null, null, error);
+    }
+
+    boolean isValid() {
+        return error == null;
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.payment.service;
+
+import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.config.shard.ShardScope;
+import com.example.payment.domain.OutboxEvent;
+import com.example.payment.domain.PaymentStatus;
+import com.example.payment.repository.PaymentBatchRepository;
+import com.example.payment.repository.PaymentBulkUpdateRepository;
+import com.example.payment.service.BulkFileReader.Format;
+import com.example.payment.service.BulkOperationJob.BulkLineOutcome;
+import com.example.payment.service.BulkOperationLine.Operation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 대량 capture/refund 파일 처리 (/payments/bulk/files)
+ *
+ * 1. 업로드 본문을 스풀 파일로 스트리밍 복사한 뒤 작업을 등록하고 바로 반환 (bulkFileExecutor에서 처리)
+ * 2. 스풀 파일을 한 줄씩 읽어 chunkSize 줄마다 샤드별로 묶는다
+ * 3. 샤드별 트랜잭션 하나에서 청크의 결제 행을 잠가 파일 순서대로 전이를 판단하고 (같은 결제의 여러 줄도 순서대로 반영),
+ *    바뀐 행의 version 조건부 UPDATE를 JDBC batch로, outbox 이벤트를 multi-row INSERT로 기록
+ * 4. 커밋 이후 결제 상태 캐시를 파이프라인으로 갱신하고, 줄별 결과를 결과 CSV에 이어 쓴다
+ * 메모리에는 청크 하나만 올라가므로 파일 크기와 무관하게 사용량이 일정하다.
+ *
+ * 대사(reconciliation) 파일이므로 단건 API의 가맹점 레이트 제한은 적용하지 않는다.
+ * 작업 상태는 이 인스턴스 메모리에 있으므로 진행률/결과 조회는 업로드한 인스턴스로 보내야 한다.
+ *
+ * Metrics: payment.bulk.lines{operation, outcome}
+ */
+@Service
+public class BulkOperationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkOperationService.class);
+    private static final String RESULT_HEADER = "line,operation,paymentId,merchantId,outcome,status,message";
+
+    private final PaymentBulkUpdateRepository bulkUpdateRepository;
+    private final PaymentBatchRepository paymentBatchRepository;
+    private final PaymentCacheService paymentCacheService;
+    private final ObjectMapper objectMapper;
+    private final Executor bulkExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Path workDir;
+    private final int chunkSize;
+    private final Duration retention;
+    private final Map<String, BulkOperationJob> jobs = new ConcurrentHashMap<>();
+
+    public BulkOperationService(PaymentBulkUpdateRepository bulkUpdateRepository,
+                                PaymentBatchRepository paymentBatchRepository,
+                                PaymentCacheService paymentCacheService,
+                                ObjectMapper objectMapper,
+                                @Qualifier("bulkFileExecutor") Executor bulkExecutor,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${payment.bulk.work-dir:${java.io.tmpdir}/payment-bulk}") String workDir,
+                                @Value("${payment.bulk.chunk-size:1000}") int chunkSize,
+                                @Value("${payment.bulk.retention-hours:24}") long retentionHours) {
+        this.bulkUpdateRepository = bulkUpdateRepository;
+        this.paymentBatchRepository = paymentBatchRepository;
+        this.paymentCacheService = paymentCacheService;
+        this.objectMapper = objectMapper;
+        this.bulkExecutor = bulkExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // 단건 capture/refund와 같이 READ_COMMITTED
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+        this.meterRegistry = meterRegistry;
+        this.workDir = Path.of(workDir);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.retention = Duration.ofHours(Math.max(1, retentionHours));
+    }
+
+    /**
+     * 업로드 본문을 스풀 파일로 복사하고 작업 등록 (실행기가 포화되면 RejectedExecutionException)
+     */
+    public BulkOperationJob submit(InputStream body, Format format) throws IOException {
+        Files.createDirectories(workDir);
+        String id = UUID.randomUUID().toString();
+        Path spoolFile = workDir.resolve(id + ".upload");
+        Path resultFile = workDir.resolve(id + ".result.csv");
+        long size = Files.copy(body, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+
+        BulkOperationJob job = new BulkOperationJob(id, format, size, spoolFile, resultFile);
+        jobs.put(id, job);
+        try {
+            bulkExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(id);
+            Files.deleteIfExists(spoolFile);
+            throw ex;
+        }
+        log.info("Bulk file job queued: id={}, format={}, bytes={}", id, format, size);
+        return job;
+    }
+
+    public Optional<BulkOperationJob> findJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    private void run(BulkOperationJob job) {
+        job.start();
+        try (InputStream in = Files.newInputStream(job.getSpoolFile());
+             BulkFileReader reader = new BulkFileReader(in, job.getFormat(), objectMapper, job.bytesReadCounter());
+             BufferedWriter writer = Files.newBufferedWriter(job.getResultFile(), StandardCharsets.UTF_8)) {
+            writer.write(RESULT_HEADER);
+            writer.newLine();
+
+            List<BulkOperationLine> chunk = new ArrayList<>(chunkSize);
+            BulkOperationLine line;
+            while ((line = reader.next()) != null) {
+                chunk.add(line);
+                if (chunk.size() >= chunkSize) {
+                    processChunk(job, chunk, writer);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(job, chunk, writer);
+            }
+            job.complete();
+            log.info("Bulk file job completed: id={}, lines={}, applied={}, rejected={}, invalid={}, failed={}",
+                    job.getId(), job.getLines(), job.getApplied(), job.getRejected(), job.getInvalid(),
+                    job.getFailed());
+        } catch (IOException | RuntimeException ex) {
+            log.error("Bulk file job failed: id={}, linesProcessed={}", job.getId(), job.getLines(), ex);
+            job.fail(ex.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(job.getSpoolFile());
+            } catch (IOException ex) {
+                log.warn("Failed to delete bulk spool file: {}", job.getSpoolFile(), ex);
+            }
+        }
+    }
+
+    private void processChunk(BulkOperationJob job, List<BulkOperationLine> chunk, BufferedWriter writer)
+            throws IOException {
+        LineResult[] results = new LineResult[chunk.size()];
+        Map<String, List<Integer>> byShard = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkOperationLine line = chunk.get(i);
+            if (!line.isValid()) {
+                results[i] = new LineResult(BulkLineOutcome.INVALID, null, line.error());
+                continue;
+            }
+            byShard.computeIfAbsent(ShardContextHolder.resolveShardKey(line.merchantId()), key -> new ArrayList<>())
+                    .add(i);
+        }
+
+        byShard.forEach((shardKey, indexes) -> {
+            List<BulkOperationLine> shardLines = new ArrayList<>(indexes.size());
+            for (int index : indexes) {
+                shardLines.add(chunk.get(index));
+            }
+            List<LineResult> shardResults = applyShard(shardKey, shardLines);
+            for (int i = 0; i < indexes.size(); i++) {
+                results[indexes.get(i)] = shardResults.get(i);
+            }
+        });
+
+        for (int i = 0; i < chunk.size(); i++) {
+            BulkOperationLine line = chunk.get(i);
+            LineResult result = results[i];
+            writeResult(writer, line, result);
+            job.record(result.outcome());
+            meterRegistry.counter("payment.bulk.lines",
+                    "operation", line.operation() != null ? line.operation().name() : "UNKNOWN",
+                    "outcome", result.outcome().name()).increment();
+        }
+        writer.flush();
+    }
+
+    /**
+     * 샤드 하나의 줄들을 트랜잭션 하나로 반영 (결과는 커밋 이후에만 APPLIED, 실패 시 모두 FAILED)
+     */
+    private List<LineResult> applyShard(String shardKey, List<BulkOperationLine> lines) {
+        try (ShardScope ignored = ShardScope.open(shardKey)) {
+            ShardWrite write = transactionTemplate.execute(status -> transition(lines));
+            paymentCacheService.putAll(write.changed());
+            return write.results();
+        } catch (DataAccessException | TransactionException | IllegalStateException ex) {
+            log.error("Bulk chunk failed on {} ({} lines)", shardKey, lines.size(), ex);
+            List<LineResult> failed = new ArrayList<>(lines.size());
+            for (int i = 0; i < lines.size(); i++) {
+                failed.add(new LineResult(BulkLineOutcome.FAILED, null,
+                        "Database error - resubmit this line"));
+            }
+            return failed;
+        }
+    }
+
+    private ShardWrite transition(List<BulkOperationLine> lines) {
+        Set<Long> paymentIds = new LinkedHashSet<>();
+        for (BulkOperationLine line : lines) {
+            paymentIds.add(line.paymentId());
+        }
+        Map<Long, PaymentSnapshot> locked = new HashMap<>();
+        for (PaymentSnapshot snapshot : bulkUpdateRepository.lockForUpdate(paymentIds)) {
+            locked.put(snapshot.getId(), snapshot);
+        }
+
+        Map<Long, PaymentSnapshot> current = new LinkedHashMap<>(locked);
+        List<LineResult> results = new ArrayList<>(lines.size());
+        List<OutboxEvent> events = new ArrayList<>();
+        for (BulkOperationLine line : lines) {
+            PaymentSnapshot payment = current.get(line.paymentId());
+            if (payment == null || !payment.getMerchantId().equals(line.merchantId())) {
+                results.add(new LineResult(BulkLineOutcome.REJECTED, null, "Payment not found for merchant"));
+                continue;
+            }
+            if (line.operation() == Operation.CAPTURE) {
+                if (!PaymentService.CAPTURE_SOURCES.contains(payment.getStatus())) {
+                    results.add(new LineResult(BulkLineOutcome.REJECTED, payment.getStatus(),
+                            "Payment is not in AUTHORIZED or CAPTURE_REQUESTED status"));
+                    continue;
+                }
+                PaymentSnapshot captured = payment.transitioned(PaymentStatus.CAPTURED, 0);
+                current.put(captured.getId(), captured);
+                events.add(outboxEvent(captured.getId(), "PAYMENT_CAPTURED",
+                        PaymentService.capturedEvent(captured)));
+                results.add(new LineResult(BulkLineOutcome.APPLIED, PaymentStatus.CAPTURED, "Payment captured"));
+            } else {
+                long refundAmount = line.amount() != null ? line.amount() : payment.getRefundableAmount();
+                String rejection = PaymentService.refundRejection(payment, refundAmount, line.amount() == null);
+                if (rejection != null) {
+                    results.add(new LineResult(BulkLineOutcome.REJECTED, payment.getStatus(), rejection));
+                    continue;
+                }
+                PaymentSnapshot refunding = payment.transitioned(PaymentStatus.REFUND_REQUESTED, refundAmount);
+                current.put(refunding.getId(), refunding);
+                events.add(outboxEvent(refunding.getId(), "PAYMENT_REFUND_REQUESTED",
+                        PaymentService.refundRequestedEvent(refunding, refundAmount, line.reason())));
+                results.add(new LineResult(BulkLineOutcome.APPLIED, PaymentStatus.REFUND_REQUESTED,
+                        "Refund requested (amount=" + refundAmount + ")"));
+            }
+        }
+
+        List<PaymentSnapshot> before = new ArrayList<>();
+        List<PaymentSnapshot> after = new ArrayList<>();
+        current.forEach((paymentId, snapshot) -> {
+            PaymentSnapshot original = locked.get(paymentId);
+            if (!snapshot.getVersion().equals(original.getVersion())) {
+                before.add(original);
+                after.add(snapshot);
+            }
+        });
+        int[] updated = bulkUpdateRepository.applyTransitions(before, after, Instant.now());
+        for (int i = 0; i < updated.length; i++) {
+            // 잠근 행이므로 0건이면 잠금이 깨진 것 - 청크 전체를 롤백
+            if (updated[i] == 0) {
+                throw new IllegalStateException("Locked payment changed during bulk update: id="
+                        + after.get(i).getId());
+            }
+        }
+        paymentBatchRepository.insertOutboxEvents(events);
+        return new ShardWrite(results, after);
+    }
+
+    private OutboxEvent outboxEvent(Long paymentId, String eventType, Map<String, Object> payload) {
+        try {
+            return new OutboxEvent("payment", paymentId, eventType, objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize event payload", ex);
+        }
+    }
+
+    private static void writeResult(BufferedWriter writer, BulkOperationLine line, LineResult result)
+            throws IOException {
+        writer.write(String.valueOf(line.lineNumber()));
+        writer.write(',');
+        writer.write(line.operation() != null ? line.operation().name() : "");
+        writer.write(',');
+        writer.write(line.paymentId() != null ? String.valueOf(line.paymentId()) : "");
+        writer.write(',');
+        writer.write(csv(line.merchantId()));
+        writer.write(',');
+        writer.write(result.outcome().name());
+        writer.write(',');
+        writer.write(result.status() != null ? result.status().name() : "");
+        writer.write(',');
+        writer.write(csv(result.message()));
+        writer.newLine();
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * 보존 기간이 지난 완료 작업과 결과 파일 정리
+     */
+    @Scheduled(fixedDelayString = "${payment.bulk.cleanup-interval-ms:600000}")
+    public void purgeExpiredJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (!job.isFinished() || job.getFinishedAt().isAfter(cutoff)) {
+                return false;
+            }
+            try {
+                Files.deleteIfExists(job.getResultFile());
+            } catch (IOException ex) {
+                log.warn("Failed to delete bulk result file: {}", job.getResultFile(), ex);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * 줄별 처리 결과 (status는 처리 후 또는 거절 시점의 결제 상태)
+     */
+    private record LineResult(BulkLineOutcome outcome, PaymentStatus status, String message) {
+    }
+
+    /**
+     * 샤드 트랜잭션 결과: 줄 순서대로의 결과 + 커밋 이후 캐시에 반영할 스냅샷
+     */
+    private record ShardWrite(List<LineResult> results, List<PaymentSnapshot> changed) {
+    }
+}
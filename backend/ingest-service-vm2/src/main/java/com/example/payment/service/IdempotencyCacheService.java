@@ -4,16 +4,24 @@ import com.example.payment.config.IdempotencyCacheProperties;
 import com.example.payment.domain.IdemResponseCache;
 import com.example.payment.domain.IdemResponseCacheId;
 import com.example.payment.repository.IdemResponseCacheRepository;
+import com.example.payment.repository.PaymentBatchRepository;
+import com.example.payment.repository.RefundIdempotencyRepository;
 import com.example.payment.web.dto.PaymentResponse;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,17 +32,23 @@ public class IdempotencyCacheService {
     private static final Logger log = LoggerFactory.getLogger(IdempotencyCacheService.class);
 
     private final IdemResponseCacheRepository repository;
+    private final PaymentBatchRepository batchRepository;
+    private final RefundIdempotencyRepository refundIdempotencyRepository;
     private final StringRedisTemplate redisTemplate;
     private final ObjectMapper objectMapper;
     private final IdempotencyCacheProperties properties;
     private final boolean loadTestMode;
 
     public IdempotencyCacheService(IdemResponseCacheRepository repository,
+            PaymentBatchRepository batchRepository,
+            RefundIdempotencyRepository refundIdempotencyRepository,
             StringRedisTemplate redisTemplate,
             ObjectMapper objectMapper,
             IdempotencyCacheProperties properties,
             @org.springframework.beans.factory.annotation.Value("${mock.pg.loadtest-mode:false}") boolean loadTestMode) {
         this.repository = repository;
+        this.batchRepository = batchRepository;
+        this.refundIdempotencyRepository = refundIdempotencyRepository;
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
         this.properties = properties;
@@ -80,13 +94,110 @@ public class IdempotencyCacheService {
 
     @Transactional
     public void storeAuthorization(String merchantId, String idempotencyKey, int httpStatus, PaymentResponse response) {
+        String serialized = saveAuthorization(merchantId, idempotencyKey, httpStatus, response);
+        putInRedis(cacheKey(merchantId, idempotencyKey), serialized);
+    }
+
+    /**
+     * DB에만 멱등 응답 저장 (Redis 적재는 cacheAuthorization으로 따로)
+     *
+     * @return 직렬화된 응답 본문
+     */
+    @Transactional
+    public String saveAuthorization(String merchantId, String idempotencyKey, int httpStatus, PaymentResponse response) {
         String serialized = serialize(response);
         try {
             repository.save(new IdemResponseCache(merchantId, idempotencyKey, httpStatus, serialized));
         } catch (DataIntegrityViolationException ex) {
             log.warn("Idempotent cache already exists for merchant={}, key={}", merchantId, idempotencyKey);
         }
-        putInRedis(cacheKey(merchantId, idempotencyKey), serialized);
+        return serialized;
+    }
+
+    /**
+     * Redis에만 멱등 응답 적재 (DB 커밋 이후 호출, 샤드 컨텍스트 불필요)
+     */
+    public void cacheAuthorization(String merchantId, String idempotencyKey, PaymentResponse response) {
+        putInRedis(cacheKey(merchantId, idempotencyKey), serialize(response));
+    }
+
+    /**
+     * 여러 멱등 응답을 multi-row INSERT로 DB에만 저장 (배치 승인, 호출자 트랜잭션 안에서 호출)
+     *
+     * @return Redis 키 → 직렬화된 응답 본문 (커밋 이후 cacheSerialized로 적재)
+     */
+    public Map<String, String> saveAuthorizations(Map<IdemResponseCacheId, PaymentResponse> responses,
+            int httpStatus) {
+        Map<String, String> serialized = new LinkedHashMap<>();
+        List<IdemResponseCache> rows = new ArrayList<>(responses.size());
+        responses.forEach((id, response) -> {
+            String body = serialize(response);
+            rows.add(new IdemResponseCache(id.getMerchantId(), id.getIdempotencyKey(), httpStatus, body));
+            serialized.put(cacheKey(id.getMerchantId(), id.getIdempotencyKey()), body);
+        });
+        batchRepository.insertIdempotentResponses(rows);
+        return serialized;
+    }
+
+    /**
+     * 직렬화된 멱등 응답 여러 건을 파이프라인 한 번으로 Redis에 적재 (DB 커밋 이후 호출)
+     */
+    public void cacheSerialized(Map<String, String> bodies) {
+        if (bodies.isEmpty()) {
+            return;
+        }
+        long ttlSeconds = properties.getTtlSeconds();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                bodies.forEach((key, body) -> {
+                    byte[] rawKey = key.getBytes(StandardCharsets.UTF_8);
+                    byte[] rawBody = body.getBytes(StandardCharsets.UTF_8);
+                    if (ttlSeconds > 0) {
+                        connection.stringCommands().setEx(rawKey, ttlSeconds, rawBody);
+                    } else {
+                        connection.stringCommands().set(rawKey, rawBody);
+                    }
+                });
+                return null;
+            });
+        } catch (DataAccessException ex) {
+            log.warn("Redis access failed when saving {} idempotent cache entries", bodies.size(), ex);
+        }
+    }
+
+    /**
+     * 같은 결제에 같은 멱등 키로 처리된 환불 결과 (환불 트랜잭션 안에서 호출, 현재 샤드의 refund_idempotency 조회)
+     */
+    public Optional<PaymentResult> findRefund(Long paymentId, String merchantId, String idempotencyKey) {
+        return refundIdempotencyRepository.find(paymentId, merchantId, idempotencyKey)
+                .map(stored -> {
+                    try {
+                        PaymentResponse response = objectMapper.readValue(stored.responseBody(),
+                                PaymentResponse.class);
+                        return new PaymentResult(response, stored.rejected());
+                    } catch (JsonProcessingException ex) {
+                        throw new IllegalStateException(
+                                String.format(Locale.ROOT,
+                                        "Failed to deserialize refund response for payment=%d key=%s",
+                                        paymentId, idempotencyKey),
+                                ex);
+                    }
+                });
+    }
+
+    /**
+     * 환불 멱등 키 선점 (예약 전에 호출, false면 같은 키의 요청이 먼저 커밋됨)
+     */
+    public boolean claimRefund(Long paymentId, String merchantId, String idempotencyKey) {
+        return refundIdempotencyRepository.claim(paymentId, merchantId, idempotencyKey);
+    }
+
+    /**
+     * 선점한 환불 멱등 키에 결과 기록 (같은 트랜잭션에서 커밋되어 재시도 시 그대로 재생된다)
+     */
+    public void saveRefund(Long paymentId, String idempotencyKey, PaymentResult result) {
+        refundIdempotencyRepository.complete(paymentId, idempotencyKey, result.duplicate(),
+                serialize(result.response()));
     }
 
     private String serialize(PaymentResponse response) {
@@ -1,93 +1,198 @@
 package com.example.payment.service;
 
-import com.example.payment.domain.Payment;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import java.time.Duration;
+import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.repository.PaymentSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * Payment Redis Cache Service
  *
- * Caches Payment entities by paymentId for capture and refund operations
- * TTL: 5 minutes (refresh on each read)
+ * capture/refund의 결제 상태 조회용 read-through 캐시 + 상태 전이 시 write-through
+ * TTL: 5 minutes (refresh on each write)
  *
- * Benefits:
- * - Reduces DB load for frequently accessed payment records
- * - Improves response time for capture/refund operations
- * - Cache invalidation: explicit invalidation after state changes
+ * - 키: payment:state:{shard}:{paymentId} (payment_id는 샤드마다 따로 증가하므로 샤드로 구분, 읽기 모델 키와 같은 규칙)
+ * - 저장 형식: Redis hash {v: version, d: PaymentSnapshotCodec 바이너리}
+ * - 쓰기는 Lua 스크립트로 캐시된 version보다 작은 스냅샷을 버린다 (늦게 도착한 read-through가 최신 값을 덮지 않음)
+ * - 캐시는 판단 근거일 뿐이며, 전이 허용 여부는 항상 조건부 UPDATE가 결정한다 (정산: version, 환불 예약: 잔액)
+ * - Redis 장애 시 DB 조회로 fallback
+ *
+ * Metrics: payment.cache.requests{result=hit|miss|error}, payment.cache.hit.ratio,
+ * payment.cache.latency{operation=get|put}
  */
 @Service
 public class PaymentCacheService {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentCacheService.class);
-    private static final String PAYMENT_CACHE_PREFIX = "payment:";
+    private static final String PAYMENT_CACHE_PREFIX = "payment:state:";
     private static final long CACHE_TTL_SECONDS = 300; // 5 minutes
 
+    private static final byte[] FIELD_DATA = "d".getBytes(StandardCharsets.UTF_8);
+
+    // KEYS[1]=key, ARGV[1]=version, ARGV[2]=data, ARGV[3]=ttl(ms)
+    private static final byte[] PUT_IF_NEWER_SCRIPT = (
+            "local cur = redis.call('HGET', KEYS[1], 'v') " +
+            "if cur and tonumber(cur) > tonumber(ARGV[1]) then return 0 end " +
+            "redis.call('HSET', KEYS[1], 'v', ARGV[1], 'd', ARGV[2]) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+            "return 1").getBytes(StandardCharsets.UTF_8);
+
     private final StringRedisTemplate redisTemplate;
-    private final ObjectMapper objectMapper;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter errorCounter;
+    private final Timer getTimer;
+    private final Timer putTimer;
 
-    public PaymentCacheService(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+    public PaymentCacheService(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
-        this.objectMapper = objectMapper;
+        this.hitCounter = Counter.builder("payment.cache.requests").tag("result", "hit")
+                .description("Payment state cache lookups").register(meterRegistry);
+        this.missCounter = Counter.builder("payment.cache.requests").tag("result", "miss")
+                .description("Payment state cache lookups").register(meterRegistry);
+        this.errorCounter = Counter.builder("payment.cache.requests").tag("result", "error")
+                .description("Payment state cache lookups").register(meterRegistry);
+        this.getTimer = Timer.builder("payment.cache.latency").tag("operation", "get")
+                .publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+        this.putTimer = Timer.builder("payment.cache.latency").tag("operation", "put")
+                .publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+        Gauge.builder("payment.cache.hit.ratio", this, PaymentCacheService::hitRatio)
+                .description("Payment state cache hit ratio since start").register(meterRegistry);
+    }
+
+    /**
+     * Read-through 조회: 캐시 미스(또는 다른 가맹점 키) 시 loader로 DB 조회 후 캐시에 적재
+     */
+    public Optional<PaymentSnapshot> getOrLoad(Long paymentId, String merchantId,
+            Supplier<Optional<? extends PaymentSummary>> loader) {
+        PaymentSnapshot cached = get(merchantId, paymentId);
+        if (cached != null && cached.getMerchantId().equals(merchantId)) {
+            hitCounter.increment();
+            return Optional.of(cached);
+        }
+        missCounter.increment();
+        Optional<PaymentSnapshot> loaded = loader.get().map(PaymentSnapshot::of);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    /**
+     * 상태 전이 후 write-through
+     * 트랜잭션 안이면 커밋 이후에 기록한다 (롤백된 전이가 캐시에 남지 않도록)
+     */
+    public void putAfterCommit(PaymentSnapshot snapshot) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(snapshot);
+                }
+            });
+        } else {
+            put(snapshot);
+        }
     }
 
     /**
-     * Get payment from cache (with fallback to supplier if not found)
+     * Store payment snapshot (version이 캐시된 값보다 작으면 무시)
      */
-    public Optional<Payment> getPayment(Long paymentId) {
-        String key = cacheKey(paymentId);
+    public void put(PaymentSnapshot snapshot) {
+        byte[] key = cacheKey(snapshot.getMerchantId(), snapshot.getId());
+        byte[] version = String.valueOf(snapshot.getVersion()).getBytes(StandardCharsets.UTF_8);
+        byte[] ttl = String.valueOf(CACHE_TTL_SECONDS * 1000).getBytes(StandardCharsets.UTF_8);
         try {
-            String cached = redisTemplate.opsForValue().get(key);
-            if (cached != null) {
-                Payment payment = objectMapper.readValue(cached, Payment.class);
-                log.debug("Payment cache hit: id={}", paymentId);
-                return Optional.of(payment);
-            }
-        } catch (JsonProcessingException ex) {
-            log.warn("Failed to deserialize payment from cache: id={}", paymentId, ex);
-            invalidate(paymentId);
+            byte[] data = PaymentSnapshotCodec.encode(snapshot);
+            Long written = putTimer.record(() -> redisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.scriptingCommands().eval(PUT_IF_NEWER_SCRIPT, ReturnType.INTEGER, 1,
+                            key, version, data, ttl)));
+            log.debug("Payment cached: id={}, version={}, written={}", snapshot.getId(), snapshot.getVersion(),
+                    written);
         } catch (DataAccessException ex) {
-            log.warn("Redis access failed when reading payment cache: id={}", paymentId, ex);
+            log.warn("Redis access failed when caching payment: id={}", snapshot.getId(), ex);
         }
-        return Optional.empty();
     }
 
     /**
-     * Store payment in cache
+     * 여러 스냅샷을 파이프라인 한 번으로 저장 (대량 파일 처리의 청크 커밋 이후, put과 같은 version 규칙)
      */
-    public void cachePayment(Payment payment) {
-        String key = cacheKey(payment.getId());
+    public void putAll(Collection<PaymentSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        byte[] ttl = String.valueOf(CACHE_TTL_SECONDS * 1000).getBytes(StandardCharsets.UTF_8);
         try {
-            String serialized = objectMapper.writeValueAsString(payment);
-            redisTemplate.opsForValue().set(key, serialized, Duration.ofSeconds(CACHE_TTL_SECONDS));
-            log.debug("Payment cached: id={}", payment.getId());
-        } catch (JsonProcessingException ex) {
-            log.warn("Failed to serialize payment for cache: id={}", payment.getId(), ex);
+            putTimer.record(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (PaymentSnapshot snapshot : snapshots) {
+                    byte[] version = String.valueOf(snapshot.getVersion()).getBytes(StandardCharsets.UTF_8);
+                    connection.scriptingCommands().eval(PUT_IF_NEWER_SCRIPT, ReturnType.INTEGER, 1,
+                            cacheKey(snapshot.getMerchantId(), snapshot.getId()), version,
+                            PaymentSnapshotCodec.encode(snapshot), ttl);
+                }
+                return null;
+            }));
         } catch (DataAccessException ex) {
-            log.warn("Redis access failed when caching payment: id={}", payment.getId(), ex);
+            log.warn("Redis access failed when caching {} payments", snapshots.size(), ex);
         }
     }
 
     /**
-     * Invalidate payment cache (after status change)
+     * Invalidate payment cache
      */
-    public void invalidate(Long paymentId) {
-        String key = cacheKey(paymentId);
+    public void invalidate(String merchantId, Long paymentId) {
         try {
-            redisTemplate.delete(key);
+            redisTemplate.execute((RedisCallback<Long>) connection ->
+                    connection.keyCommands().del(cacheKey(merchantId, paymentId)));
             log.debug("Payment cache invalidated: id={}", paymentId);
         } catch (DataAccessException ex) {
             log.warn("Redis access failed when invalidating cache: id={}", paymentId, ex);
         }
     }
 
-    private String cacheKey(Long paymentId) {
-        return PAYMENT_CACHE_PREFIX + paymentId;
+    private PaymentSnapshot get(String merchantId, Long paymentId) {
+        try {
+            byte[] data = getTimer.record(() -> redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                    connection.hashCommands().hGet(cacheKey(merchantId, paymentId), FIELD_DATA)));
+            if (data == null) {
+                return null;
+            }
+            PaymentSnapshot snapshot = PaymentSnapshotCodec.decode(data);
+            if (snapshot == null) {
+                invalidate(merchantId, paymentId);
+            }
+            return snapshot;
+        } catch (DataAccessException ex) {
+            errorCounter.increment();
+            log.warn("Redis access failed when reading payment cache: id={}", paymentId, ex);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to decode payment from cache: id={}", paymentId, ex);
+            invalidate(merchantId, paymentId);
+        }
+        return null;
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    private byte[] cacheKey(String merchantId, Long paymentId) {
+        return (PAYMENT_CACHE_PREFIX + ShardContextHolder.resolveShardKey(merchantId) + ":" + paymentId)
+                .getBytes(StandardCharsets.UTF_8);
     }
 }
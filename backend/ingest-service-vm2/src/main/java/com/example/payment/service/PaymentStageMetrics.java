@@ -0,0 +1,128 @@
+package com.example.payment.service;
+
+import com.example.payment.config.shard.ShardContextHolder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 결제 파이프라인 단계별 지연 (percentile histogram, 샤드 태그)
+ *
+ * payment.stage.latency{operation, stage, shard}
+ * - authorize: idempotency_cache(Redis), idempotency_db, rate_limit(Redis), pg,
+ *   transaction(db_insert, outbox_insert, idempotency_save 포함), commit
+ * - capture / refund: rate_limit, state_read, db_update, outbox_insert, commit
+ * payment.outbox.latency{stage, topic, shard}
+ * - insert_to_publish: outbox INSERT → Kafka 전송 시작 (outbox 체류 시간)
+ * - publish_to_ack: Kafka 전송 시작 → 브로커 ack
+ *
+ * commit은 트랜잭션 동기화의 beforeCommit → afterCommit 구간이다 (JPA flush 포함).
+ * 타이머는 태그 조합마다 한 번만 만들고 재사용한다.
+ */
+@Component
+public class PaymentStageMetrics {
+
+    private static final String STAGE_LATENCY = "payment.stage.latency";
+    private static final String OUTBOX_LATENCY = "payment.outbox.latency";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public PaymentStageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * startNanos(System.nanoTime())부터 지금까지를 기록하고 경과 시간(ms)을 돌려준다 (로그용)
+     */
+    public long record(String operation, String stage, String merchantId, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        stageTimer(operation, stage, shardOf(merchantId)).record(elapsed, TimeUnit.NANOSECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(elapsed);
+    }
+
+    public <T> T time(String operation, String stage, String merchantId, Supplier<T> action) {
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            record(operation, stage, merchantId, start);
+        }
+    }
+
+    /**
+     * 현재 트랜잭션의 커밋 시간을 commit 단계로 기록 (트랜잭션 밖이면 무시)
+     */
+    public void recordCommit(String operation, String merchantId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Timer timer = stageTimer(operation, "commit", shardOf(merchantId));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long commitStart;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                commitStart = System.nanoTime();
+            }
+
+            @Override
+            public void afterCommit() {
+                if (commitStart != 0) {
+                    timer.record(System.nanoTime() - commitStart, TimeUnit.NANOSECONDS);
+                }
+            }
+        });
+    }
+
+    /**
+     * outbox INSERT 시각부터 지금까지 (Kafka 전송 직전에 호출)
+     */
+    public void recordOutboxDwell(String topic, String shard, Instant insertedAt) {
+        if (insertedAt != null) {
+            Duration dwell = Duration.between(insertedAt, Instant.now());
+            outboxTimer("insert_to_publish", topic, shard).record(dwell.isNegative() ? Duration.ZERO : dwell);
+        }
+    }
+
+    public void recordPublishAck(String topic, String shard, long sendStartNanos) {
+        outboxTimer("publish_to_ack", topic, shard).record(System.nanoTime() - sendStartNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer stageTimer(String operation, String stage, String shard) {
+        return timers.computeIfAbsent(STAGE_LATENCY + '|' + operation + '|' + stage + '|' + shard,
+                ignored -> histogram(Timer.builder(STAGE_LATENCY)
+                        .description("Payment pipeline stage latency")
+                        .tag("operation", operation)
+                        .tag("stage", stage)
+                        .tag("shard", shard)));
+    }
+
+    private Timer outboxTimer(String stage, String topic, String shard) {
+        return timers.computeIfAbsent(OUTBOX_LATENCY + '|' + stage + '|' + topic + '|' + shard,
+                ignored -> histogram(Timer.builder(OUTBOX_LATENCY)
+                        .description("Outbox dwell and Kafka publish latency")
+                        .tag("stage", stage)
+                        .tag("topic", topic)
+                        .tag("shard", shard != null ? shard : "unknown")));
+    }
+
+    private Timer histogram(Timer.Builder builder) {
+        return builder.publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(meterRegistry);
+    }
+
+    private static String shardOf(String merchantId) {
+        return merchantId != null ? ShardContextHolder.resolveShardKey(merchantId) : "unknown";
+    }
+}
@@ -34,6 +34,34 @@ public class RedisRateLimiter {
         enforceLimit("refund", merchantId, rateLimitProperties.getRefund());
     }
 
+    /**
+     * 배치 승인용: requested건의 허가를 INCRBY 한 번으로 차감하고 허가된 건수를 돌려준다
+     * (윈도 용량을 넘는 부분만 거절, Redis 장애 시 전부 허가 - 단건 검사와 같은 fail-open)
+     */
+    public int acquireAuthorizePermits(String merchantId, int requested) {
+        RateLimitProperties.Policy policy = rateLimitProperties.getAuthorize();
+        if (requested <= 0 || policy.getCapacity() <= 0 || policy.getWindowSeconds() <= 0) {
+            return requested;
+        }
+
+        String key = rateLimitKey("authorize", merchantId);
+        try {
+            Long count = redisTemplate.opsForValue().increment(key, requested);
+            if (count == null) {
+                log.warn("Rate limiter increment returned null for action=authorize, merchant={}", merchantId);
+                return requested;
+            }
+            if (count == requested) {
+                redisTemplate.expire(key, Duration.ofSeconds(policy.getWindowSeconds()));
+            }
+            long before = count - requested;
+            return (int) Math.max(0, Math.min(requested, policy.getCapacity() - before));
+        } catch (DataAccessException ex) {
+            log.warn("Redis access failed during rate limiting for action=authorize, merchant={}", merchantId, ex);
+            return requested;
+        }
+    }
+
     private void enforceLimit(String action, String merchantId, RateLimitProperties.Policy policy) {
         if (policy.getCapacity() <= 0 || policy.getWindowSeconds() <= 0) {
             return; // effectively disabled
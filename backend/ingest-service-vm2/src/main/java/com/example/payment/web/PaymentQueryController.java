@@ -0,0 +1,84 @@
+package com.example.payment.web;
+
+import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.readmodel.PaymentReadModelRebuilder;
+import com.example.payment.readmodel.PaymentReadModelStore;
+import com.example.payment.readmodel.PaymentReadModelStore.RecentPage;
+import com.example.payment.web.dto.ErrorResponse;
+import com.example.payment.web.dto.MerchantPaymentsResponse;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 결제 상태 조회 (CQRS 읽기 모델, OLTP 샤드를 거치지 않음)
+ *
+ * GET  /payments/{paymentId}?merchantId=         결제 1건 (결제 ID는 샤드마다 따로 증가하므로 merchantId 필수)
+ * GET  /merchants/{merchantId}/payments          최근 결제 목록 (limit, before = 이전 응답의 nextBefore)
+ * POST /payments/read-model/rebuild?reset=false 토픽 처음부터 재구축 시작 (202)
+ * GET  /payments/read-model/rebuild              재구축 진행 상태
+ *
+ * 읽기 모델은 이벤트 반영 지연만큼 늦을 수 있다. 아직 반영되지 않은 결제는 404.
+ */
+@RestController
+public class PaymentQueryController {
+
+    private static final int MAX_LIMIT = 200;
+
+    private final PaymentReadModelStore readModelStore;
+    private final PaymentReadModelRebuilder rebuilder;
+
+    public PaymentQueryController(PaymentReadModelStore readModelStore, PaymentReadModelRebuilder rebuilder) {
+        this.readModelStore = readModelStore;
+        this.rebuilder = rebuilder;
+    }
+
+    @GetMapping("/payments/{paymentId}")
+    public ResponseEntity<?> payment(@PathVariable Long paymentId, @RequestParam String merchantId) {
+        String shard = ShardContextHolder.resolveShardKey(merchantId);
+        return readModelStore.find(merchantId, shard, paymentId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse("NOT_FOUND", "Payment not found: " + paymentId, paymentId)));
+    }
+
+    @GetMapping("/merchants/{merchantId}/payments")
+    public ResponseEntity<?> merchantPayments(@PathVariable String merchantId,
+                                              @RequestParam(defaultValue = "50") int limit,
+                                              @RequestParam(required = false) Long before) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("INVALID_LIMIT", "limit must be between 1 and " + MAX_LIMIT, null));
+        }
+        RecentPage page = readModelStore.recent(merchantId, before, limit);
+        return ResponseEntity.ok(new MerchantPaymentsResponse(merchantId, page.items(), page.nextBefore()));
+    }
+
+    @PostMapping("/payments/read-model/rebuild")
+    public ResponseEntity<?> rebuild(@RequestParam(defaultValue = "false") boolean reset) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(rebuilder.start(reset));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("REBUILD_RUNNING", ex.getMessage(), null));
+        }
+    }
+
+    @GetMapping("/payments/read-model/rebuild")
+    public ResponseEntity<?> rebuildStatus() {
+        return rebuilder.status()
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(new ErrorResponse("NOT_FOUND", "No read model rebuild has been started", null)));
+    }
+
+    @ExceptionHandler(DataAccessException.class)
+    public ResponseEntity<ErrorResponse> handleReadModelUnavailable(DataAccessException ex) {
+        // DB로 fallback 하지 않는다 (상태 polling이 OLTP 샤드로 넘어가지 않도록)
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse("READ_MODEL_UNAVAILABLE", "Payment read model is unavailable", null));
+    }
+}
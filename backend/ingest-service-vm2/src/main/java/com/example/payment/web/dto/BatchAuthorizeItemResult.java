@@ -0,0 +1,28 @@
+package com.example.payment.web.dto;
+
+/**
+ * 배치 승인 항목별 결과 (index는 요청 items의 순번)
+ */
+public record BatchAuthorizeItemResult(
+        int index,
+        String merchantId,
+        String idempotencyKey,
+        Outcome outcome,
+        PaymentResponse payment,
+        String errorCode,
+        String message
+) {
+
+    public enum Outcome {
+        /** 승인 + 저장 완료 */
+        AUTHORIZED,
+        /** 같은 멱등 키의 결제가 이미 있음 (payment는 기존 결제) */
+        DUPLICATE,
+        /** 가맹점 레이트 제한 초과 (재시도 가능) */
+        RATE_LIMITED,
+        /** PG 승인 실패 또는 처리 불가 (errorCode 참고) */
+        FAILED,
+        /** 요청 자체가 잘못됨 (배치 안의 멱등 키 중복 등) */
+        REJECTED
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.payment.web.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * 배치 승인 요청 (항목마다 멱등 키를 가지며, 한 배치에 여러 가맹점이 섞여도 된다)
+ */
+public record BatchAuthorizeRequest(
+        @NotEmpty List<@Valid AuthorizePaymentRequest> items
+) {
+}
@@ -0,0 +1,26 @@
+package com.example.payment.web.dto;
+
+import java.time.Instant;
+
+/**
+ * 대량 capture/refund 파일 작업 상태 (resultUrl은 처리가 끝나면 채워짐)
+ */
+public record BulkJobResponse(
+        String jobId,
+        String status,
+        String format,
+        long lines,
+        long applied,
+        long rejected,
+        long invalid,
+        long failed,
+        long bytesRead,
+        long totalBytes,
+        double progressPercent,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        String resultUrl,
+        String error
+) {
+}
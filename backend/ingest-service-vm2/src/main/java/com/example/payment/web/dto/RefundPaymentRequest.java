@@ -1,10 +1,18 @@
 package com.example.payment.web.dto;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+/**
+ * 환불 요청
+ * amount가 없으면 남은 환불 가능 금액 전체를 환불한다 (부분 환불 지원)
+ * idempotencyKey는 결제별로 유일하며, 같은 키로 재시도하면 금액을 다시 예약하지 않고 처음 결과를 그대로 돌려준다
+ */
 public record RefundPaymentRequest(
         @NotBlank @Size(max = 32) String merchantId,
-        @NotBlank @Size(max = 128) String reason
+        @NotBlank @Size(max = 128) String reason,
+        @Min(1) Long amount,
+        @NotBlank @Size(max = 64) String idempotencyKey
 ) {
 }
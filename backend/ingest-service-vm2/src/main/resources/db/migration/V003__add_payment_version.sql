@@ -0,0 +1,6 @@
+-- Payment state version stamp
+-- Every conditional status UPDATE increments version. The Redis payment cache stores the
+-- version with each snapshot, so a stale snapshot can never satisfy a transition's WHERE clause.
+
+ALTER TABLE payment
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0 AFTER refunded_amount;
@@ -4,9 +4,12 @@ CREATE TABLE IF NOT EXISTS payment (
   amount            BIGINT       NOT NULL CHECK (amount > 0),
   currency          CHAR(3)      NOT NULL DEFAULT 'KRW',
   status            VARCHAR(50)  NOT NULL,
+  refunded_amount   BIGINT       NOT NULL DEFAULT 0,  -- 환불 예약 누적 금액 (부분 환불)
+  version           BIGINT       NOT NULL DEFAULT 0,  -- 상태 전이마다 +1 (캐시 버전 스탬프)
   idempotency_key   VARCHAR(64)  NOT NULL,
   requested_at      TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
   updated_at        TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  CONSTRAINT ck_refunded_amount CHECK (refunded_amount >= 0 AND refunded_amount <= amount),
   UNIQUE KEY uk_idem (merchant_id, idempotency_key),
   KEY ix_status_time (status, requested_at),
   KEY ix_merchant_time (merchant_id, requested_at)
@@ -32,6 +35,9 @@ CREATE TABLE IF NOT EXISTS outbox_event (
   event_type      VARCHAR(32) NOT NULL,
   payload         JSON        NOT NULL,
   published       TINYINT(1)  NOT NULL DEFAULT 0,
+  published_at    TIMESTAMP(3),
+  retry_count     INT         NOT NULL DEFAULT 0,
+  last_retry_at   TIMESTAMP(3),
   created_at      TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
   KEY ix_pub_created (published, created_at)
 ) ENGINE=InnoDB;
@@ -45,6 +51,17 @@ CREATE TABLE IF NOT EXISTS idem_response_cache (
   PRIMARY KEY (merchant_id, idempotency_key)
 ) ENGINE=InnoDB;
 
+-- 환불 요청 멱등 키 (결제별 유일, 예약과 같은 트랜잭션에서 선점 후 응답 기록)
+CREATE TABLE IF NOT EXISTS refund_idempotency (
+  payment_id       BIGINT      NOT NULL,
+  idempotency_key  VARCHAR(64) NOT NULL,
+  merchant_id      VARCHAR(32) NOT NULL,
+  rejected         BOOLEAN,              -- 거절 응답(409)이면 true, 선점 직후에는 NULL
+  response_body    JSON,                 -- 처음 응답 (재시도 시 그대로 반환)
+  created_at       TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (payment_id, idempotency_key)
+) ENGINE=InnoDB;
+
 -- 정산 요청 테이블 (PG 매입 확정 관리)
 CREATE TABLE IF NOT EXISTS settlement_request (
   id                      BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -71,6 +88,7 @@ CREATE TABLE IF NOT EXISTS refund_request (
   payment_id                  BIGINT          NOT NULL,
   refund_amount               DECIMAL(15,2)   NOT NULL CHECK (refund_amount > 0),
   refund_reason               VARCHAR(500),
+  event_key                   VARCHAR(160),              -- 환불을 만든 이벤트 (evt:{shard}:{outbox id}), 재전달 판정
   status                      VARCHAR(50)     NOT NULL,  -- PENDING, SUCCESS, FAILED
   pg_cancel_transaction_id    VARCHAR(255),              -- PG 취소 트랜잭션 ID
   pg_response_code            VARCHAR(50),
@@ -82,6 +100,42 @@ CREATE TABLE IF NOT EXISTS refund_request (
   CONSTRAINT fk_refund_payment
     FOREIGN KEY (payment_id) REFERENCES payment(payment_id)
     ON DELETE CASCADE,
+  UNIQUE KEY uk_refund_event (payment_id, event_key),
   KEY ix_status_requested (status, requested_at),
   KEY ix_payment (payment_id)
 ) ENGINE=InnoDB;
+
+-- Consumer 이벤트 중복 처리 방지 (shard1에만 사용, 보존 기간 경과 시 worker가 삭제)
+CREATE TABLE IF NOT EXISTS processed_event (
+  consumer_group  VARCHAR(64)  NOT NULL,
+  event_key       VARCHAR(160) NOT NULL,  -- evt:{shard}:{outbox id} 또는 {topic}-{partition}@{offset}
+  topic           VARCHAR(128) NOT NULL,
+  partition_no    INT          NOT NULL,
+  processed_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (consumer_group, event_key),
+  KEY ix_partition_time (consumer_group, topic, partition_no, processed_at)
+) ENGINE=InnoDB;
+
+-- consumer-worker 원장 반영 오프셋 (모든 샤드에 생성, ledger_entry와 같은 트랜잭션으로 갱신)
+CREATE TABLE IF NOT EXISTS consumer_offset (
+  consumer_group  VARCHAR(64)  NOT NULL,
+  topic           VARCHAR(128) NOT NULL,
+  partition_no    INT          NOT NULL,
+  next_offset     BIGINT       NOT NULL,  -- 이 샤드에서 next_offset 미만 레코드는 원장에 반영 완료
+  updated_at      TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (consumer_group, topic, partition_no)
+) ENGINE=InnoDB;
+
+-- 가맹점/계정별 잔액 (consumer-worker가 원장 배치와 같은 트랜잭션으로 가산, 대사 조회는 이 테이블만 읽음)
+CREATE TABLE IF NOT EXISTS account_balance (
+  merchant_id   VARCHAR(32)  NOT NULL,
+  account       VARCHAR(64)  NOT NULL,
+  stripe        SMALLINT     NOT NULL DEFAULT 0,  -- 핫 계정 잠금 분산용 (조회 시 합산, compactor가 0번으로 접음)
+  debit_total   BIGINT       NOT NULL DEFAULT 0,
+  credit_total  BIGINT       NOT NULL DEFAULT 0,
+  entry_count   BIGINT       NOT NULL DEFAULT 0,
+  updated_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (merchant_id, account, stripe),
+  KEY ix_account (account),
+  KEY ix_stripe (stripe)
+) ENGINE=InnoDB;
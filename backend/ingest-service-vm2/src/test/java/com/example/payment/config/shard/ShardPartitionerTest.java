@@ -0,0 +1,87 @@
+package com.example.payment.config.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ShardPartitionerTest {
+
+        private static final String TOPIC = "payment.authorized";
+
+        private final ShardPartitioner partitioner = new ShardPartitioner();
+        private final Cluster cluster = cluster(6);
+
+        @Test
+        @DisplayName("파티션 6개면 shard1은 0-2, shard2는 3-5 구간에만 배치해야 함")
+        void shardKeysStayInShardRange() {
+                Set<Integer> shard1 = new HashSet<>();
+                Set<Integer> shard2 = new HashSet<>();
+                for (long paymentId = 1; paymentId <= 500; paymentId++) {
+                        shard1.add(partition(ShardPartitions.messageKey("shard1", paymentId)));
+                        shard2.add(partition(ShardPartitions.messageKey("shard2", paymentId)));
+                }
+
+                assertThat(shard1).containsExactlyInAnyOrder(0, 1, 2);
+                assertThat(shard2).containsExactlyInAnyOrder(3, 4, 5);
+        }
+
+        @Test
+        @DisplayName("같은 키는 항상 같은 파티션이어야 함 (결제별 순서 유지)")
+        void sameKeySamePartition() {
+                String key = ShardPartitions.messageKey("shard2", 42L);
+
+                assertThat(partition(key)).isEqualTo(partition(key));
+        }
+
+        @Test
+        @DisplayName("접두어가 없거나 알 수 없는 샤드 키는 전체 파티션에 기본 해시로 배치해야 함")
+        void unknownOrMissingPrefixUsesWholeTopic() {
+                for (String key : List.of("42", "shard9:42", ":42", "DLQ-payment-7")) {
+                        int expected = Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % 6;
+                        assertThat(partition(key)).as(key).isEqualTo(expected);
+                }
+                assertThat(ShardPartitions.shardOf("shard9:42")).isNull();
+                assertThat(ShardPartitions.shardOf("42")).isNull();
+        }
+
+        @Test
+        @DisplayName("키가 없으면 전체 파티션 중 하나여야 함")
+        void nullKeyUsesAnyPartition() {
+                for (int i = 0; i < 50; i++) {
+                        assertThat(partitioner.partition(TOPIC, null, null, "v", null, cluster)).isBetween(0, 5);
+                }
+        }
+
+        @Test
+        @DisplayName("파티션 수가 샤드 수보다 적으면 샤드 키도 전체 구간을 써야 함")
+        void fewerPartitionsThanShards() {
+                Cluster single = cluster(1);
+                String key = ShardPartitions.messageKey("shard2", 42L);
+
+                assertThat(partitioner.partition(TOPIC, key, key.getBytes(StandardCharsets.UTF_8), "v", null, single))
+                                .isZero();
+        }
+
+        private int partition(String key) {
+                return partitioner.partition(TOPIC, key, key.getBytes(StandardCharsets.UTF_8), "v", null, cluster);
+        }
+
+        private static Cluster cluster(int partitions) {
+                Node node = new Node(0, "localhost", 9092);
+                List<PartitionInfo> infos = new ArrayList<>();
+                for (int i = 0; i < partitions; i++) {
+                        infos.add(new PartitionInfo(TOPIC, i, node, new Node[]{node}, new Node[]{node}));
+                }
+                return new Cluster("test", List.of(node), infos, Set.of(), Set.of());
+        }
+}
@@ -0,0 +1,83 @@
+package com.example.payment.config.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+
+class ShardRoutingDataSourceTest {
+
+        private final DataSource shard1 = mock(DataSource.class);
+        private final DataSource shard2 = mock(DataSource.class);
+        private final Connection shard1Connection = mock(Connection.class);
+        private final Connection shard2Connection = mock(Connection.class);
+
+        @BeforeEach
+        void setUp() throws Exception {
+                when(shard1.getConnection()).thenReturn(shard1Connection);
+                when(shard2.getConnection()).thenReturn(shard2Connection);
+        }
+
+        @Test
+        @DisplayName("범위 안에서는 바인딩된 샤드의 커넥션을 써야 함")
+        void scopedLookupUsesBoundShard() throws Exception {
+                ShardRoutingDataSource dataSource = routing(true);
+                dataSource.onApplicationEvent(readyEvent());
+
+                try (ShardScope scope = ShardScope.open("shard2")) {
+                        assertThat(dataSource.getConnection()).isSameAs(shard2Connection);
+                }
+        }
+
+        @Test
+        @DisplayName("기동 중에는 범위가 없어도 shard1로 보내야 함 (스키마 검증, 풀 초기화)")
+        void unscopedLookupBeforeReadyUsesDefaultShard() throws Exception {
+                ShardRoutingDataSource dataSource = routing(true);
+
+                assertThat(dataSource.getConnection()).isSameAs(shard1Connection);
+        }
+
+        @Test
+        @DisplayName("strict 모드에서 ApplicationReadyEvent 이후 범위 밖 조회는 거절해야 함")
+        void strictModeRejectsUnscopedLookupAfterReady() {
+                ShardRoutingDataSource dataSource = routing(true);
+                dataSource.onApplicationEvent(readyEvent());
+
+                assertThatThrownBy(dataSource::getConnection)
+                                .isInstanceOf(IllegalStateException.class)
+                                .hasMessageContaining("No shard bound");
+        }
+
+        @Test
+        @DisplayName("strict 모드를 끄면 기동 이후에도 범위 밖 조회는 shard1로 보내야 함")
+        void lenientModeFallsBackToDefaultShard() throws Exception {
+                ShardRoutingDataSource dataSource = routing(false);
+                dataSource.onApplicationEvent(readyEvent());
+
+                assertThat(dataSource.getConnection()).isSameAs(shard1Connection);
+        }
+
+        private ShardRoutingDataSource routing(boolean strict) {
+                ShardRoutingDataSource dataSource = new ShardRoutingDataSource(strict);
+                dataSource.setTargetDataSources(Map.of("shard1", shard1, "shard2", shard2));
+                dataSource.setLenientFallback(false);
+                dataSource.afterPropertiesSet();
+                return dataSource;
+        }
+
+        private static ApplicationReadyEvent readyEvent() {
+                return new ApplicationReadyEvent(new SpringApplication(), new String[0],
+                                mock(ConfigurableApplicationContext.class), Duration.ZERO);
+        }
+}
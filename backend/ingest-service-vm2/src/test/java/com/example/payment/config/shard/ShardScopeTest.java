@@ -0,0 +1,118 @@
+package com.example.payment.config.shard;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ShardScopeTest {
+
+        private final ExecutorService pool = Executors.newSingleThreadExecutor();
+
+        @AfterEach
+        void tearDown() throws InterruptedException {
+                pool.shutdownNow();
+                pool.awaitTermination(5, TimeUnit.SECONDS);
+        }
+
+        @Test
+        @DisplayName("중첩 범위를 닫으면 바깥 샤드로, 바깥 범위를 닫으면 바인딩 없음으로 돌아가야 함")
+        void nestedScopeRestoresPreviousShard() {
+                try (ShardScope outer = ShardScope.open("shard1")) {
+                        try (ShardScope inner = ShardScope.open("shard2")) {
+                                assertThat(ShardScope.current()).isEqualTo("shard2");
+                        }
+                        assertThat(ShardScope.current()).isEqualTo("shard1");
+                }
+
+                assertThat(ShardScope.current()).isNull();
+        }
+
+        @Test
+        @DisplayName("close를 두 번 호출해도 바깥 범위의 샤드를 지우지 않아야 함")
+        void doubleCloseKeepsOuterShard() {
+                try (ShardScope outer = ShardScope.open("shard1")) {
+                        ShardScope inner = ShardScope.open("shard2");
+                        inner.close();
+                        inner.close();
+
+                        assertThat(ShardScope.current()).isEqualTo("shard1");
+                }
+        }
+
+        @Test
+        @DisplayName("작업이 예외로 끝나도 이전 샤드로 복구되어야 함")
+        void scopeIsRestoredWhenActionThrows() {
+                try (ShardScope outer = ShardScope.open("shard1")) {
+                        assertThatThrownBy(() -> ShardScope.run("shard2", () -> {
+                                throw new IllegalStateException("boom");
+                        })).isInstanceOf(IllegalStateException.class);
+
+                        assertThat(ShardScope.current()).isEqualTo("shard1");
+                }
+        }
+
+        @Test
+        @DisplayName("다른 executor에서 ShardScope.call로 연 범위의 샤드가 보여야 함")
+        void callBindsShardOnAnotherExecutor() throws Exception {
+                String seen = pool.submit(() -> ShardScope.call("shard2", ShardScope::require))
+                                .get(5, TimeUnit.SECONDS);
+
+                assertThat(seen).isEqualTo("shard2");
+                assertThat(ShardScope.current()).isNull();
+        }
+
+        @Test
+        @DisplayName("propagating/wrapSupplier는 제출 시점의 샤드를 실행 스레드로 전파해야 함")
+        void submittingShardPropagatesToExecutor() throws Exception {
+                CompletableFuture<String> viaExecutor = new CompletableFuture<>();
+                CompletableFuture<String> viaSupplier;
+                try (ShardScope scope = ShardScope.open("shard2")) {
+                        ShardScope.propagating(pool).execute(() -> viaExecutor.complete(ShardScope.current()));
+                        viaSupplier = CompletableFuture.supplyAsync(ShardScope.wrapSupplier(ShardScope::current), pool);
+                }
+
+                assertThat(viaExecutor.get(5, TimeUnit.SECONDS)).isEqualTo("shard2");
+                assertThat(viaSupplier.get(5, TimeUnit.SECONDS)).isEqualTo("shard2");
+        }
+
+        @Test
+        @DisplayName("풀 스레드에서 범위가 끝나면 다음 작업에 샤드가 남지 않아야 함")
+        void pooledThreadHasNoLeftoverBinding() throws Exception {
+                try (ShardScope scope = ShardScope.open("shard2")) {
+                        pool.execute(ShardScope.wrap(() -> {
+                        }));
+                }
+                pool.submit(() -> ShardScope.call("shard1", () -> {
+                        throw new IllegalStateException("boom");
+                }));
+
+                // 단일 스레드 풀이므로 같은 스레드에서 실행된다
+                String leftover = pool.submit(ShardScope::current).get(5, TimeUnit.SECONDS);
+
+                assertThat(leftover).isNull();
+        }
+
+        @Test
+        @DisplayName("범위 밖에서 require는 IllegalStateException이어야 함")
+        void requireOutsideScopeFails() {
+                assertThatThrownBy(ShardScope::require)
+                                .isInstanceOf(IllegalStateException.class)
+                                .hasMessageContaining("No shard bound");
+        }
+
+        @Test
+        @DisplayName("제출 시점에 샤드가 없으면 wrap은 작업을 그대로 돌려줘야 함")
+        void wrapWithoutShardReturnsTask() {
+                Runnable task = () -> {
+                };
+
+                assertThat(ShardScope.wrap(task)).isSameAs(task);
+        }
+}
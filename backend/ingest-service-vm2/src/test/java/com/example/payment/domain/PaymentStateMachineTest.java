@@ -0,0 +1,94 @@
+package com.example.payment.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PaymentStateMachineTest {
+
+        @Test
+        @DisplayName("환불 실패 상태에서 추가 환불 요청과 최종 실패 후 상태 복구가 가능해야 함")
+        void refundFailedIsNotADeadEnd() {
+                assertThat(PaymentStateMachine.allowedTargets(PaymentStatus.REFUND_FAILED))
+                                .containsExactlyInAnyOrder(PaymentStatus.REFUND_REQUESTED, PaymentStatus.CAPTURED,
+                                                PaymentStatus.PARTIAL_REFUNDED, PaymentStatus.REFUNDED);
+                assertThat(PaymentStateMachine.sourcesOf(PaymentStatus.REFUND_REQUESTED))
+                                .contains(PaymentStatus.REFUND_FAILED);
+                assertThatCode(() -> PaymentStateMachine.sourcesOf(PaymentStatus.REFUND_REQUESTED,
+                                PaymentStatus.CAPTURED, PaymentStatus.REFUND_REQUESTED,
+                                PaymentStatus.PARTIAL_REFUNDED, PaymentStatus.REFUND_FAILED))
+                                .doesNotThrowAnyException();
+        }
+
+        @Test
+        @DisplayName("최종 실패한 환불의 예약 반환 시 복구 대상 상태로 전이할 수 있어야 함")
+        void releasedRefundRestoresPreviousStatus() {
+                // 남은 예약 0 → CAPTURED, 성공 환불 일부 → PARTIAL_REFUNDED, 다른 환불 진행 중 → REFUND_REQUESTED
+                assertThat(PaymentStateMachine.canTransition(PaymentStatus.REFUND_FAILED, PaymentStatus.CAPTURED))
+                                .isTrue();
+                assertThat(PaymentStateMachine.canTransition(PaymentStatus.REFUND_FAILED,
+                                PaymentStatus.PARTIAL_REFUNDED)).isTrue();
+                assertThat(PaymentStateMachine.canTransition(PaymentStatus.REFUND_FAILED,
+                                PaymentStatus.REFUND_REQUESTED)).isTrue();
+                assertThat(PaymentStateMachine.sourcesOf(PaymentStatus.CAPTURED))
+                                .contains(PaymentStatus.REFUND_FAILED);
+        }
+
+        @Test
+        @DisplayName("정산 완료 이후에만 환불 요청이 가능해야 함")
+        void refundRequestedOnlyAfterCapture() {
+                assertThat(PaymentStateMachine.sourcesOf(PaymentStatus.REFUND_REQUESTED))
+                                .containsExactlyInAnyOrder(PaymentStatus.CAPTURED, PaymentStatus.REFUND_REQUESTED,
+                                                PaymentStatus.PARTIAL_REFUNDED, PaymentStatus.REFUND_FAILED,
+                                                PaymentStatus.COMPLETED);
+                assertThat(PaymentStateMachine.canTransition(PaymentStatus.AUTHORIZED,
+                                PaymentStatus.REFUND_REQUESTED)).isFalse();
+                assertThat(PaymentStateMachine.canTransition(PaymentStatus.CAPTURE_REQUESTED,
+                                PaymentStatus.REFUND_REQUESTED)).isFalse();
+        }
+
+        @Test
+        @DisplayName("부분 환불이 동시에 여러 건 진행될 수 있어야 함")
+        void concurrentPartialRefundsAllowed() {
+                assertThat(PaymentStateMachine.canTransition(PaymentStatus.REFUND_REQUESTED,
+                                PaymentStatus.REFUND_REQUESTED)).isTrue();
+                assertThat(PaymentStateMachine.allowedTargets(PaymentStatus.REFUND_REQUESTED))
+                                .containsExactlyInAnyOrder(PaymentStatus.REFUND_REQUESTED, PaymentStatus.REFUNDED,
+                                                PaymentStatus.PARTIAL_REFUNDED, PaymentStatus.REFUND_FAILED);
+                assertThat(PaymentStateMachine.allowedTargets(PaymentStatus.PARTIAL_REFUNDED))
+                                .containsExactlyInAnyOrder(PaymentStatus.REFUND_REQUESTED, PaymentStatus.REFUNDED,
+                                                PaymentStatus.PARTIAL_REFUNDED);
+        }
+
+        @Test
+        @DisplayName("전액 환불 / 승인 실패 / 취소 상태에서는 더 이상 전이할 수 없어야 함")
+        void terminalStatesHaveNoTargets() {
+                assertThat(PaymentStateMachine.allowedTargets(PaymentStatus.REFUNDED)).isEmpty();
+                assertThat(PaymentStateMachine.allowedTargets(PaymentStatus.AUTH_FAILED)).isEmpty();
+                assertThat(PaymentStateMachine.allowedTargets(PaymentStatus.CANCELLED)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("전이 테이블에 없는 출발 상태 조합은 즉시 실패해야 함")
+        void sourcesOfRejectsIllegalTransition() {
+                assertThatThrownBy(() -> PaymentStateMachine.sourcesOf(PaymentStatus.REFUND_REQUESTED,
+                                PaymentStatus.CAPTURED, PaymentStatus.REFUNDED))
+                                .isInstanceOf(IllegalArgumentException.class)
+                                .hasMessageContaining("REFUNDED -> REFUND_REQUESTED");
+                assertThatThrownBy(() -> PaymentStateMachine.sourcesOf(PaymentStatus.CAPTURED,
+                                PaymentStatus.READY))
+                                .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        @DisplayName("모든 상태가 전이 테이블에 등록되어 있어야 함")
+        void everyStatusHasAnEntry() {
+                for (PaymentStatus status : PaymentStatus.values()) {
+                        assertThat(PaymentStateMachine.allowedTargets(status)).isNotNull();
+                        assertThat(PaymentStateMachine.sourcesOf(status)).isNotNull();
+                }
+        }
+}
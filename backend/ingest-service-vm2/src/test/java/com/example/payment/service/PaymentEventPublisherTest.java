@@ -8,6 +8,7 @@ import com.example.payment.domain.OutboxEvent;
 import com.example.payment.repository.OutboxEventRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.Map;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -47,7 +48,8 @@ class PaymentEventPublisherTest {
                 kafkaTemplate,
                 outboxEventRepository,
                 objectMapper,
-                circuitBreakerRegistry
+                circuitBreakerRegistry,
+                new PaymentStageMetrics(new SimpleMeterRegistry())
         );
     }
 
@@ -0,0 +1,63 @@
+package com.example.payment.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.payment.domain.PaymentStatus;
+import java.time.Instant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class PaymentSnapshotCodecTest {
+
+        @Test
+        @DisplayName("인코딩한 스냅샷을 디코딩하면 모든 필드가 그대로여야 함")
+        void roundTrip() {
+                PaymentSnapshot snapshot = new PaymentSnapshot(42L, "M123", 10000L, "KRW",
+                                PaymentStatus.PARTIAL_REFUNDED, 3000L, Instant.parse("2026-03-01T12:34:56.789123456Z"),
+                                7L);
+
+                PaymentSnapshot decoded = PaymentSnapshotCodec.decode(PaymentSnapshotCodec.encode(snapshot));
+
+                assertThat(decoded).isNotNull();
+                assertThat(decoded.getId()).isEqualTo(42L);
+                assertThat(decoded.getMerchantId()).isEqualTo("M123");
+                assertThat(decoded.getAmount()).isEqualTo(10000L);
+                assertThat(decoded.getCurrency()).isEqualTo("KRW");
+                assertThat(decoded.getStatus()).isEqualTo(PaymentStatus.PARTIAL_REFUNDED);
+                assertThat(decoded.getRefundedAmount()).isEqualTo(3000L);
+                assertThat(decoded.getRequestedAt()).isEqualTo(Instant.parse("2026-03-01T12:34:56.789123456Z"));
+                assertThat(decoded.getVersion()).isEqualTo(7L);
+        }
+
+        @Test
+        @DisplayName("모든 결제 상태가 왕복되어야 함")
+        void roundTripEveryStatus() {
+                for (PaymentStatus status : PaymentStatus.values()) {
+                        PaymentSnapshot snapshot = new PaymentSnapshot(1L, "M1", 500L, "KRW", status, 0L,
+                                        Instant.EPOCH, 0L);
+
+                        assertThat(PaymentSnapshotCodec.decode(PaymentSnapshotCodec.encode(snapshot)).getStatus())
+                                        .isEqualTo(status);
+                }
+        }
+
+        @Test
+        @DisplayName("첫 바이트는 포맷 버전이어야 함")
+        void firstByteIsFormatVersion() {
+                PaymentSnapshot snapshot = new PaymentSnapshot(1L, "M1", 500L, "KRW", PaymentStatus.CAPTURED, 0L,
+                                Instant.EPOCH, 0L);
+
+                assertThat(PaymentSnapshotCodec.encode(snapshot)[0]).isEqualTo(PaymentSnapshotCodec.FORMAT_VERSION);
+        }
+
+        @Test
+        @DisplayName("포맷 버전이 다른 값은 캐시 미스(null)로 처리해야 함")
+        void otherFormatVersionDecodesToNull() {
+                PaymentSnapshot snapshot = new PaymentSnapshot(1L, "M1", 500L, "KRW", PaymentStatus.CAPTURED, 0L,
+                                Instant.EPOCH, 0L);
+                byte[] data = PaymentSnapshotCodec.encode(snapshot);
+                data[0] = (byte) (PaymentSnapshotCodec.FORMAT_VERSION + 1);
+
+                assertThat(PaymentSnapshotCodec.decode(data)).isNull();
+        }
+}
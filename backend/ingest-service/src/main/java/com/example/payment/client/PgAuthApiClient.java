@@ -0,0 +1,99 @@
+package com.example.payment.client;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * PG Authorization API 클라이언트
+ * pg.client.mode 로 구현을 고른다: mock (JVM 내 시뮬레이션, 기본값) | http (pg-stub-server 등 실제 HTTP PG)
+ */
+public interface PgAuthApiClient {
+
+    /**
+     * 카드 승인 요청
+     *
+     * @param pgReference PG 멱등 참조값 (같은 참조로 다시 요청하면 PG는 같은 승인 결과를 돌려준다, 헤징 재요청에 사용)
+     * @param merchantId 가맹점 ID
+     * @param amount 승인 금액
+     * @param currency 통화
+     * @param cardNumber 카드 번호 (실제론 마스킹되어 전달)
+     * @return 승인 응답
+     * @throws PgApiException PG API 오류 발생 시
+     */
+    AuthorizationResponse requestAuthorization(
+            String pgReference,
+            String merchantId,
+            BigDecimal amount,
+            String currency,
+            String cardNumber
+    ) throws PgApiException;
+
+    /**
+     * 승인 응답 DTO
+     */
+    class AuthorizationResponse {
+        private final String status;
+        private final String transactionId;
+        private final String approvalNumber;
+        private final String responseCode;
+        private final String responseMessage;
+        private final BigDecimal amount;
+        private final Instant authorizedAt;
+
+        public AuthorizationResponse(String status, String transactionId, String approvalNumber,
+                                      String responseCode, String responseMessage,
+                                      BigDecimal amount, Instant authorizedAt) {
+            this.status = status;
+            this.transactionId = transactionId;
+            this.approvalNumber = approvalNumber;
+            this.responseCode = responseCode;
+            this.responseMessage = responseMessage;
+            this.amount = amount;
+            this.authorizedAt = authorizedAt;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getTransactionId() {
+            return transactionId;
+        }
+
+        public String getApprovalNumber() {
+            return approvalNumber;
+        }
+
+        public String getResponseCode() {
+            return responseCode;
+        }
+
+        public String getResponseMessage() {
+            return responseMessage;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public Instant getAuthorizedAt() {
+            return authorizedAt;
+        }
+    }
+
+    /**
+     * PG API 예외
+     */
+    class PgApiException extends Exception {
+        private final String errorCode;
+
+        public PgApiException(String errorCode, String message) {
+            super(message);
+            this.errorCode = errorCode;
+        }
+
+        public String getErrorCode() {
+            return errorCode;
+        }
+    }
+}
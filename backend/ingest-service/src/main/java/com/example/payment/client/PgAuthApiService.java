@@ -1,42 +1,114 @@
 package com.example.payment.client;
 
-import com.example.payment.client.MockPgAuthApiClient.AuthorizationResponse;
-import com.example.payment.client.MockPgAuthApiClient.PgApiException;
+import com.example.payment.client.PgAuthApiClient.AuthorizationResponse;
+import com.example.payment.client.PgAuthApiClient.PgApiException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * PG Authorization API Service with Circuit Breaker protection
  *
- * MockPgAuthApiClient를 Circuit Breaker로 보호하는 래퍼 서비스
+ * PgAuthApiClient(mock 또는 HTTP)를 Circuit Breaker로 보호하는 래퍼 서비스
  * PG API 장애 시 빠른 실패(fail-fast)로 시스템 보호
+ *
+ * 헤징 (pg.hedge.enabled=true):
+ * 원 요청이 최근 PG 응답 시간의 p95(하한 pg.hedge.min-delay-ms) 안에 끝나지 않으면 같은 PG 참조값으로 두 번째 요청을 보내
+ * 먼저 성공한 응답을 쓴다 (둘 다 실패하면 나중 실패를 던진다). 추가 부하는 HedgeBudget(기본 원 요청의 5%)으로 제한하고,
+ * Circuit Breaker가 CLOSED일 때만 헤징한다. 두 요청 모두 Circuit Breaker를 거치며, 진 요청은 취소하지 않고 끝까지 기록한다.
+ *
+ * 적응형 동시 호출 제한 (pg.limiter.*):
+ * Circuit Breaker는 실패/지연 비율이 50%를 넘어야 동작하므로, 그 전에 PG가 느려지면 Tomcat 스레드가 모두 PG 응답을 기다리게 된다.
+ * 실제 PG 호출(원 요청, 헤징 요청) 앞에 AdaptiveConcurrencyLimiter를 두어 지연이 기준보다 늘면 동시 호출 한도를 줄이고,
+ * 한도를 넘는 요청은 기다리지 않고 PgConcurrencyLimitException(재시도 가능)으로 바로 거절한다. 헤징 요청은 한도가 없으면 보내지 않는다.
+ *
+ * Metrics: pg.auth.requests, pg.auth.hedge.fired, pg.auth.hedge.wins, pg.auth.hedge.skipped{reason=budget|circuit|executor|limit},
+ *          pg.auth.hedge.delay (현재 헤징 기준 ms, 표본 부족 시 -1), pg.limiter.*{name=pg-auth}
  */
 @Service
 public class PgAuthApiService {
 
     private static final Logger log = LoggerFactory.getLogger(PgAuthApiService.class);
     private static final String CIRCUIT_BREAKER_NAME = "pg-auth-api";
+    private static final Set<String> OVERLOAD_ERROR_CODES = Set.of("PG_TIMEOUT", "PG_POOL_EXHAUSTED", "PG_UNAVAILABLE");
 
-    private final MockPgAuthApiClient pgAuthApiClient;
+    private final PgAuthApiClient pgAuthApiClient;
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final ThreadPoolTaskExecutor hedgeExecutor;
+    private final boolean hedgeEnabled;
+    private final long minHedgeDelayMs;
+    private final LatencyPercentileWindow latencyWindow;
+    private final HedgeBudget hedgeBudget;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final Counter requestCounter;
+    private final Counter hedgeFiredCounter;
+    private final Counter hedgeWinCounter;
+    private final MeterRegistry meterRegistry;
 
-    public PgAuthApiService(MockPgAuthApiClient pgAuthApiClient,
-                            CircuitBreakerRegistry circuitBreakerRegistry) {
+    public PgAuthApiService(PgAuthApiClient pgAuthApiClient,
+                            CircuitBreakerRegistry circuitBreakerRegistry,
+                            @Qualifier("pgHedgeExecutor") ThreadPoolTaskExecutor hedgeExecutor,
+                            MeterRegistry meterRegistry,
+                            @Value("${pg.hedge.enabled:false}") boolean hedgeEnabled,
+                            @Value("${pg.hedge.percentile:0.95}") double hedgePercentile,
+                            @Value("${pg.hedge.min-delay-ms:20}") long minHedgeDelayMs,
+                            @Value("${pg.hedge.window-size:1000}") int windowSize,
+                            @Value("${pg.hedge.min-samples:100}") int minSamples,
+                            @Value("${pg.hedge.budget-ratio:0.05}") double budgetRatio,
+                            @Value("${pg.hedge.budget-burst:20}") double budgetBurst,
+                            @Value("${pg.limiter.enabled:true}") boolean limiterEnabled,
+                            @Value("${pg.limiter.initial-limit:100}") int initialLimit,
+                            @Value("${pg.limiter.min-limit:10}") int minLimit,
+                            @Value("${pg.limiter.max-limit:400}") int maxLimit,
+                            @Value("${pg.limiter.tolerance:2.0}") double tolerance,
+                            @Value("${pg.limiter.smoothing:0.2}") double smoothing,
+                            @Value("${pg.limiter.backoff-ratio:0.9}") double backoffRatio,
+                            @Value("${pg.limiter.long-window:600}") int longWindow) {
         this.pgAuthApiClient = pgAuthApiClient;
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.hedgeExecutor = hedgeExecutor;
+        this.meterRegistry = meterRegistry;
+        this.hedgeEnabled = hedgeEnabled;
+        this.minHedgeDelayMs = minHedgeDelayMs;
+        this.latencyWindow = new LatencyPercentileWindow(windowSize, hedgePercentile, minSamples, 50);
+        this.hedgeBudget = new HedgeBudget(budgetRatio, budgetBurst);
+        this.concurrencyLimiter = new AdaptiveConcurrencyLimiter("pg-auth", limiterEnabled, initialLimit, minLimit,
+                maxLimit, tolerance, smoothing, backoffRatio, longWindow, meterRegistry);
+
+        this.requestCounter = meterRegistry.counter("pg.auth.requests");
+        this.hedgeFiredCounter = meterRegistry.counter("pg.auth.hedge.fired");
+        this.hedgeWinCounter = meterRegistry.counter("pg.auth.hedge.wins");
+        Gauge.builder("pg.auth.hedge.delay", this, service -> service.hedgeDelayMs())
+                .description("Current hedge trigger delay in ms (-1 while warming up)")
+                .register(meterRegistry);
 
         // Register event listeners for monitoring
         registerCircuitBreakerEventListeners();
     }
 
     /**
-     * 카드 승인 요청 (Circuit Breaker로 보호)
+     * 카드 승인 요청 (Circuit Breaker로 보호, 설정 시 헤징)
      *
+     * @param pgReference PG 멱등 참조값 (헤징 요청도 같은 값을 쓴다)
      * @param merchantId 가맹점 ID
      * @param amount 승인 금액
      * @param currency 통화
@@ -44,19 +116,31 @@ public class PgAuthApiService {
      * @return 승인 응답
      * @throws PgApiException PG API 오류 발생 시
      * @throws PgCircuitOpenException Circuit Breaker가 OPEN 상태일 때
+     * @throws PgConcurrencyLimitException 동시 호출 한도 초과 시 (재시도 가능)
      */
     public AuthorizationResponse requestAuthorization(
+            String pgReference,
             String merchantId,
             BigDecimal amount,
             String currency,
             String cardNumber
-    ) throws PgApiException, PgCircuitOpenException {
+    ) throws PgApiException, PgCircuitOpenException, PgConcurrencyLimitException {
         CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        requestCounter.increment();
+
+        AdaptiveConcurrencyLimiter.Permit permit = concurrencyLimiter.tryAcquire();
+        if (permit == null) {
+            log.warn("PG authorization rejected by concurrency limit: merchantId={}, limit={}",
+                    merchantId, concurrencyLimiter.getLimit());
+            throw new PgConcurrencyLimitException("PG Authorization concurrency limit reached");
+        }
 
         try {
-            return circuitBreaker.executeCheckedSupplier(() ->
-                pgAuthApiClient.requestAuthorization(merchantId, amount, currency, cardNumber)
-            );
+            if (hedgeEnabled) {
+                hedgeBudget.onRequest();
+                return requestWithHedge(circuitBreaker, permit, pgReference, merchantId, amount, currency, cardNumber);
+            }
+            return timedCall(circuitBreaker, permit, pgReference, merchantId, amount, currency, cardNumber);
         } catch (io.github.resilience4j.circuitbreaker.CallNotPermittedException ex) {
             // Circuit Breaker가 OPEN 상태 - PG API가 다운된 것으로 판단
             log.error("Circuit Breaker OPEN - PG Authorization API is unavailable. merchantId={}, amount={}",
@@ -73,6 +157,146 @@ public class PgAuthApiService {
         }
     }
 
+    private AuthorizationResponse requestWithHedge(CircuitBreaker circuitBreaker, AdaptiveConcurrencyLimiter.Permit permit,
+                                                   String pgReference, String merchantId, BigDecimal amount,
+                                                   String currency, String cardNumber) throws Throwable {
+        long hedgeDelayMs = hedgeDelayMs();
+        if (hedgeDelayMs < 0) {
+            // 표본이 모일 때까지는 헤징 없이 호출
+            return timedCall(circuitBreaker, permit, pgReference, merchantId, amount, currency, cardNumber);
+        }
+
+        CompletableFuture<AuthorizationResponse> primary;
+        try {
+            primary = attempt(circuitBreaker, permit, pgReference, merchantId, amount, currency, cardNumber);
+        } catch (RejectedExecutionException rejected) {
+            skipped("executor");
+            return timedCall(circuitBreaker, permit, pgReference, merchantId, amount, currency, cardNumber);
+        }
+
+        try {
+            return primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException slow) {
+            // p95 초과 - 아래에서 헤징 여부 판단
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PgApiException("PG_INTERRUPTED", "승인 API 호출 중단");
+        }
+
+        if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            skipped("circuit");
+            return await(primary);
+        }
+        if (!hedgeBudget.tryAcquire()) {
+            skipped("budget");
+            return await(primary);
+        }
+        AdaptiveConcurrencyLimiter.Permit hedgePermit = concurrencyLimiter.tryAcquire();
+        if (hedgePermit == null) {
+            skipped("limit");
+            return await(primary);
+        }
+        CompletableFuture<AuthorizationResponse> hedge;
+        try {
+            hedge = attempt(circuitBreaker, hedgePermit, pgReference, merchantId, amount, currency, cardNumber);
+        } catch (RejectedExecutionException rejected) {
+            hedgePermit.onIgnore();
+            skipped("executor");
+            return await(primary);
+        }
+        hedgeFiredCounter.increment();
+        log.debug("PG authorization hedged: pgReference={}, hedgeDelayMs={}", pgReference, hedgeDelayMs);
+
+        CompletableFuture<AuthorizationResponse> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((response, error) -> {
+            if (error == null) {
+                winner.complete(response);
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(error);
+            }
+        });
+        hedge.whenComplete((response, error) -> {
+            if (error == null) {
+                if (winner.complete(response)) {
+                    hedgeWinCounter.increment();
+                }
+            } else if (failures.incrementAndGet() == 2) {
+                winner.completeExceptionally(error);
+            }
+        });
+        return await(winner);
+    }
+
+    private CompletableFuture<AuthorizationResponse> attempt(CircuitBreaker circuitBreaker,
+                                                             AdaptiveConcurrencyLimiter.Permit permit,
+                                                             String pgReference, String merchantId, BigDecimal amount,
+                                                             String currency, String cardNumber) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return timedCall(circuitBreaker, permit, pgReference, merchantId, amount, currency, cardNumber);
+            } catch (Throwable throwable) {
+                throw new CompletionException(throwable);
+            }
+        }, hedgeExecutor);
+    }
+
+    /**
+     * Circuit Breaker를 거친 PG 호출 1회 (성공한 호출의 응답 시간을 헤징 기준 계산에 기록)
+     * 결과를 동시 호출 제한에 알리고 permit을 반환한다: 성공은 응답 시간 반영, 타임아웃/연결 실패는 한도 감소, 그 외는 무시.
+     */
+    private AuthorizationResponse timedCall(CircuitBreaker circuitBreaker, AdaptiveConcurrencyLimiter.Permit permit,
+                                            String pgReference, String merchantId, BigDecimal amount,
+                                            String currency, String cardNumber) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            AuthorizationResponse response = circuitBreaker.executeCheckedSupplier(() ->
+                    pgAuthApiClient.requestAuthorization(pgReference, merchantId, amount, currency, cardNumber)
+            );
+            permit.onSuccess();
+            latencyWindow.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return response;
+        } catch (PgApiException ex) {
+            if (OVERLOAD_ERROR_CODES.contains(ex.getErrorCode())) {
+                permit.onOverload();
+            }
+            throw ex;
+        } finally {
+            // 이미 결과를 알린 경우 아무 일도 하지 않는다
+            permit.onIgnore();
+        }
+    }
+
+    private static AuthorizationResponse await(CompletableFuture<AuthorizationResponse> future) throws Throwable {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PgApiException("PG_INTERRUPTED", "승인 API 호출 중단");
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private void skipped(String reason) {
+        meterRegistry.counter("pg.auth.hedge.skipped", "reason", reason).increment();
+    }
+
+    private long hedgeDelayMs() {
+        long percentileMs = latencyWindow.currentMs();
+        return percentileMs < 0 ? -1 : Math.max(minHedgeDelayMs, percentileMs);
+    }
+
     /**
      * Circuit Breaker 상태 전환 모니터링
      */
@@ -100,4 +324,14 @@ public class PgAuthApiService {
             super(message);
         }
     }
+
+    /**
+     * 동시 호출 한도 초과 예외
+     * PG가 느려져 적응형 한도에 닿은 경우 - PG를 호출하지 않았으므로 같은 멱등 키로 바로 재시도해도 안전하다
+     */
+    public static class PgConcurrencyLimitException extends Exception {
+        public PgConcurrencyLimitException(String message) {
+            super(message);
+        }
+    }
 }
@@ -1,11 +1,15 @@
 package com.example.payment.config;
 
+import com.example.payment.config.shard.ShardScope;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+/**
+ * 모든 실행기는 ShardScope.taskDecorator()로 제출 시점의 샤드 범위를 작업 스레드에 전파한다.
+ */
 @Configuration
 public class AsyncConfig {
 
@@ -21,6 +25,89 @@ public class AsyncConfig {
         executor.setQueueCapacity(queueCapacity);
         executor.setAwaitTerminationSeconds(5);
         executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(ShardScope.taskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * PG 승인 헤징용 실행기 (pg.hedge.enabled=true 일 때 원 요청/헤징 요청을 이 풀에서 실행)
+     * 큐가 차면 거절하고 호출 스레드에서 직접 실행하거나 헤징을 건너뛴다.
+     */
+    @Bean(name = "pgHedgeExecutor")
+    public ThreadPoolTaskExecutor pgHedgeExecutor(
+            @Value("${pg.hedge.core-pool-size:32}") int corePoolSize,
+            @Value("${pg.hedge.max-pool-size:256}") int maxPoolSize,
+            @Value("${pg.hedge.queue-capacity:0}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("pg-hedge-");
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(Math.max(corePoolSize, maxPoolSize));
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAwaitTerminationSeconds(5);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(ShardScope.taskDecorator());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 비동기 승인(/payments/authorize/async) 단계별 실행기
+     * 단계마다 풀/큐 크기를 따로 둬서 동시성을 독립적으로 제한한다. 큐까지 차면 TaskRejectedException으로 바로 503 응답.
+     * - pg: PG 승인 호출 대기 (PG 지연 동안 서블릿 스레드 대신 이 풀의 스레드가 대기)
+     * - db: 멱등성 사전 검사 + 저장 트랜잭션 (Hikari 풀 크기 이내로)
+     * - cache: 커밋 이후 Redis 멱등 응답 적재
+     * Metrics: executor.* {name=authorizePgExecutor|authorizeDbExecutor|authorizeCacheExecutor}
+     */
+    @Bean(name = "authorizePgExecutor")
+    public ThreadPoolTaskExecutor authorizePgExecutor(
+            @Value("${payment.authorize.async.pg.pool-size:200}") int poolSize,
+            @Value("${payment.authorize.async.pg.queue-capacity:200}") int queueCapacity) {
+        return stageExecutor("authorize-pg-", poolSize, queueCapacity);
+    }
+
+    @Bean(name = "authorizeDbExecutor")
+    public ThreadPoolTaskExecutor authorizeDbExecutor(
+            @Value("${payment.authorize.async.db.pool-size:64}") int poolSize,
+            @Value("${payment.authorize.async.db.queue-capacity:1000}") int queueCapacity) {
+        return stageExecutor("authorize-db-", poolSize, queueCapacity);
+    }
+
+    @Bean(name = "authorizeCacheExecutor")
+    public ThreadPoolTaskExecutor authorizeCacheExecutor(
+            @Value("${payment.authorize.async.cache.pool-size:16}") int poolSize,
+            @Value("${payment.authorize.async.cache.queue-capacity:2000}") int queueCapacity) {
+        return stageExecutor("authorize-cache-", poolSize, queueCapacity);
+    }
+
+    /**
+     * 대량 capture/refund 파일 처리 실행기 (작업 1건이 스레드 1개를 끝까지 사용, 큐가 차면 업로드를 503으로 거절)
+     */
+    @Bean(name = "bulkFileExecutor")
+    public ThreadPoolTaskExecutor bulkFileExecutor(
+            @Value("${payment.bulk.pool-size:2}") int poolSize,
+            @Value("${payment.bulk.queue-capacity:8}") int queueCapacity) {
+        return stageExecutor("bulk-file-", poolSize, queueCapacity);
+    }
+
+    /**
+     * 읽기 모델 재구축 실행기 (파티션 1개 = 작업 1개, 풀 크기만큼 파티션을 병렬로 재생)
+     */
+    @Bean(name = "readModelRebuildExecutor")
+    public ThreadPoolTaskExecutor readModelRebuildExecutor(
+            @Value("${payment.read-model.rebuild-parallelism:6}") int poolSize) {
+        return stageExecutor("read-model-rebuild-", poolSize, 256);
+    }
+
+    private static ThreadPoolTaskExecutor stageExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAwaitTerminationSeconds(5);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(ShardScope.taskDecorator());
         executor.initialize();
         return executor;
     }
@@ -0,0 +1,129 @@
+package com.example.payment.config.shard;
+
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 현재 스레드의 샤드 범위
+ *
+ * 샤드 키는 항상 범위(open/run/call)로만 바인딩하고, 범위가 끝나면 이전 값으로 되돌린다 (set 후 clear를 빠뜨려
+ * 풀 스레드에 다른 요청의 샤드가 남는 일이 없도록). 다른 스레드로 넘어가는 작업은 wrap/propagating/taskDecorator로
+ * 제출 시점의 샤드를 캡처해 실행 스레드에서 같은 범위로 다시 연다 (executor, CompletableFuture 단계, Kafka 콜백).
+ * ShardRoutingDataSource는 애플리케이션 기동 이후 범위 밖에서 실행되는 쿼리를 기본 샤드로 보내지 않고 실패시킨다.
+ *
+ * ScopedValue는 Java 21에서 preview API라 ThreadLocal로 구현하되, 바인딩 API를 범위 형태로만 노출한다.
+ * 다른 모듈(consumer/settlement/refund-worker, monitoring-service)에도 동일한 클래스가 있으므로 변경 시 함께 수정해야 한다.
+ */
+public final class ShardScope implements AutoCloseable {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private final String previous;
+    private boolean closed;
+
+    private ShardScope(String previous) {
+        this.previous = previous;
+    }
+
+    /**
+     * 샤드 범위 시작 (try-with-resources로 사용, close 시 이전 샤드로 복구)
+     */
+    public static ShardScope open(String shardKey) {
+        if (shardKey == null) {
+            throw new IllegalArgumentException("shardKey must not be null");
+        }
+        ShardScope scope = new ShardScope(CURRENT.get());
+        CURRENT.set(shardKey);
+        return scope;
+    }
+
+    public static void run(String shardKey, Runnable action) {
+        try (ShardScope ignored = open(shardKey)) {
+            action.run();
+        }
+    }
+
+    public static <T> T call(String shardKey, Supplier<T> action) {
+        try (ShardScope ignored = open(shardKey)) {
+            return action.get();
+        }
+    }
+
+    /**
+     * 현재 바인딩된 샤드 키 (범위 밖이면 null)
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 현재 바인딩된 샤드 키 (범위 밖이면 IllegalStateException)
+     */
+    public static String require() {
+        String shardKey = CURRENT.get();
+        if (shardKey == null) {
+            throw new IllegalStateException(
+                    "No shard bound to the current thread - wrap the call in ShardScope.open/run/call");
+        }
+        return shardKey;
+    }
+
+    /**
+     * 제출 시점의 샤드를 캡처해 실행 시 같은 범위로 실행 (캡처할 샤드가 없으면 그대로 실행)
+     */
+    public static Runnable wrap(Runnable task) {
+        String captured = CURRENT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> run(captured, task);
+    }
+
+    public static <T> Supplier<T> wrapSupplier(Supplier<T> supplier) {
+        String captured = CURRENT.get();
+        if (captured == null) {
+            return supplier;
+        }
+        return () -> call(captured, supplier);
+    }
+
+    /**
+     * CompletableFuture.whenComplete 등 콜백용 (Kafka send 콜백은 프로듀서 I/O 스레드에서 실행된다)
+     */
+    public static <T, U> BiConsumer<T, U> wrapCallback(BiConsumer<T, U> callback) {
+        String captured = CURRENT.get();
+        if (captured == null) {
+            return callback;
+        }
+        return (first, second) -> run(captured, () -> callback.accept(first, second));
+    }
+
+    /**
+     * 제출하는 작업마다 현재 샤드를 전파하는 Executor
+     */
+    public static Executor propagating(Executor delegate) {
+        return task -> delegate.execute(wrap(task));
+    }
+
+    /**
+     * ThreadPoolTaskExecutor용 TaskDecorator
+     */
+    public static TaskDecorator taskDecorator() {
+        return ShardScope::wrap;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
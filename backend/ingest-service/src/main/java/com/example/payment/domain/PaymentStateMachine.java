@@ -0,0 +1,97 @@
+package com.example.payment.domain;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 결제 상태 전이 테이블
+ *
+ * 모든 상태 변경은 이 테이블에서 허용된 출발 상태 집합을 조건으로 하는 단일 UPDATE로 수행한다.
+ * UPDATE payment SET status = :to WHERE payment_id = :id AND status IN (:from)
+ * 영향받은 행 수(0/1)가 전이 성공 여부이므로 엔티티 조회 없이 동시성 문제(lost update)를 막는다.
+ * UPDATE 문 하나가 InnoDB row X-lock을 짧게 잡았다 놓을 뿐, 조회와 갱신 사이에 락을 들고 있지 않는다.
+ *
+ * settlement-worker, refund-worker에도 동일한 테이블이 있으므로 변경 시 함께 수정해야 한다.
+ */
+public final class PaymentStateMachine {
+
+    private static final Map<PaymentStatus, Set<PaymentStatus>> TRANSITIONS = new EnumMap<>(PaymentStatus.class);
+    private static final Map<PaymentStatus, Set<PaymentStatus>> SOURCES = new EnumMap<>(PaymentStatus.class);
+
+    static {
+        // 승인 단계
+        allow(PaymentStatus.READY, PaymentStatus.AUTHORIZED, PaymentStatus.AUTH_FAILED);
+        allow(PaymentStatus.AUTHORIZED, PaymentStatus.CAPTURE_REQUESTED, PaymentStatus.CAPTURED);
+        allow(PaymentStatus.AUTH_FAILED);
+
+        // 정산 단계
+        allow(PaymentStatus.CAPTURE_REQUESTED, PaymentStatus.CAPTURED, PaymentStatus.CAPTURE_FAILED);
+        allow(PaymentStatus.CAPTURED, PaymentStatus.REFUND_REQUESTED);
+        allow(PaymentStatus.CAPTURE_FAILED, PaymentStatus.CAPTURE_REQUESTED, PaymentStatus.CAPTURED);
+
+        // 환불 단계 (부분 환불이 동시에 여러 건 진행될 수 있음)
+        allow(PaymentStatus.REFUND_REQUESTED, PaymentStatus.REFUND_REQUESTED, PaymentStatus.REFUNDED,
+                PaymentStatus.PARTIAL_REFUNDED, PaymentStatus.REFUND_FAILED);
+        allow(PaymentStatus.REFUNDED);
+        // 환불 실패: 진행 중인 다른 환불 완료, 추가 환불 요청, 최종 실패 후 예약 반환 시 이전 상태로 복구
+        allow(PaymentStatus.REFUND_FAILED, PaymentStatus.REFUNDED, PaymentStatus.PARTIAL_REFUNDED,
+                PaymentStatus.REFUND_REQUESTED, PaymentStatus.CAPTURED);
+        allow(PaymentStatus.PARTIAL_REFUNDED, PaymentStatus.REFUND_REQUESTED, PaymentStatus.REFUNDED,
+                PaymentStatus.PARTIAL_REFUNDED);
+
+        // 레거시 상태 (REQUESTED = AUTHORIZED, COMPLETED = CAPTURED, CANCELLED = REFUNDED)
+        allow(PaymentStatus.REQUESTED, PaymentStatus.CAPTURE_REQUESTED, PaymentStatus.CAPTURED);
+        allow(PaymentStatus.COMPLETED, PaymentStatus.REFUND_REQUESTED);
+        allow(PaymentStatus.CANCELLED);
+
+        for (PaymentStatus status : PaymentStatus.values()) {
+            if (!TRANSITIONS.containsKey(status)) {
+                throw new IllegalStateException("Missing transition entry for status " + status);
+            }
+            SOURCES.putIfAbsent(status, EnumSet.noneOf(PaymentStatus.class));
+        }
+    }
+
+    private PaymentStateMachine() {
+    }
+
+    private static void allow(PaymentStatus from, PaymentStatus... targets) {
+        Set<PaymentStatus> allowed = EnumSet.noneOf(PaymentStatus.class);
+        for (PaymentStatus to : targets) {
+            allowed.add(to);
+            SOURCES.computeIfAbsent(to, key -> EnumSet.noneOf(PaymentStatus.class)).add(from);
+        }
+        TRANSITIONS.put(from, Collections.unmodifiableSet(allowed));
+    }
+
+    public static boolean canTransition(PaymentStatus from, PaymentStatus to) {
+        return TRANSITIONS.get(from).contains(to);
+    }
+
+    public static Set<PaymentStatus> allowedTargets(PaymentStatus from) {
+        return TRANSITIONS.get(from);
+    }
+
+    /**
+     * 목표 상태로 전이할 수 있는 모든 출발 상태
+     */
+    public static Set<PaymentStatus> sourcesOf(PaymentStatus to) {
+        return Collections.unmodifiableSet(SOURCES.get(to));
+    }
+
+    /**
+     * 특정 작업에서 허용할 출발 상태 집합 (전이 테이블에 없는 조합이면 즉시 실패)
+     */
+    public static Set<PaymentStatus> sourcesOf(PaymentStatus to, PaymentStatus first, PaymentStatus... rest) {
+        Set<PaymentStatus> sources = EnumSet.of(first, rest);
+        for (PaymentStatus from : sources) {
+            if (!canTransition(from, to)) {
+                throw new IllegalArgumentException("Transition not allowed: " + from + " -> " + to);
+            }
+        }
+        return Collections.unmodifiableSet(sources);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.payment.readmodel;
+
+import java.util.Map;
+
+/**
+ * 이벤트 1건이 읽기 모델 hash에 남기는 변경분 (PaymentReadModelStore 스크립트 인자)
+ *
+ * @param eventField       중복 반영 방지용 필드 (e:{kind}:id:{eventId}, 헤더가 없으면 e:{kind}:{partition}:{offset})
+ * @param timeField        발생 시각을 기록할 필드 (기존 값보다 클 때만 갱신)
+ * @param indexOwner       true면 가맹점 index score를 이 이벤트 시각으로 덮어쓴다 (승인 이벤트)
+ * @param sumField         금액을 누적할 필드 (없으면 null)
+ * @param fields           그대로 기록할 필드 (결제 불변 속성, 마지막 환불 사유)
+ */
+public record PaymentProjection(
+        String merchantId,
+        String shard,
+        Long paymentId,
+        String eventField,
+        String timeField,
+        long occurredAtMillis,
+        boolean indexOwner,
+        String sumField,
+        long sumAmount,
+        Map<String, String> fields
+) {
+}
@@ -0,0 +1,101 @@
+package com.example.payment.readmodel;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 읽기 모델의 결제 상태 (PaymentReadModelStore의 Redis hash 하나)
+ *
+ * 이벤트는 토픽마다 다른 순서로 도착하므로 status는 저장하지 않고 누적된 사실(승인/정산 시각, 환불 요청/완료 금액)로 계산한다.
+ * 시각 필드는 epoch millis로 저장되어 있다.
+ * - settlementStatus: NONE | PENDING (capture 요청됨) | CAPTURED
+ * - refundStatus: NONE | IN_PROGRESS (요청 금액 > 완료 금액) | PARTIAL | REFUNDED
+ */
+public record PaymentView(
+        Long paymentId,
+        String merchantId,
+        String shard,
+        Long amount,
+        String currency,
+        String status,
+        String settlementStatus,
+        String refundStatus,
+        long refundRequestedAmount,
+        long refundedAmount,
+        String approvalNumber,
+        String transactionId,
+        Instant authorizedAt,
+        Instant capturedAt,
+        Instant lastRefundedAt,
+        Instant updatedAt
+) {
+
+    static PaymentView of(Map<String, String> fields) {
+        Long amount = longOrNull(fields.get(PaymentReadModelStore.AMOUNT));
+        long refundRequested = longOrZero(fields.get(PaymentReadModelStore.REFUND_REQUESTED));
+        long refunded = longOrZero(fields.get(PaymentReadModelStore.REFUNDED));
+        boolean captureRequested = fields.containsKey(PaymentReadModelStore.CAPTURE_REQUESTED_AT);
+        boolean captured = fields.containsKey(PaymentReadModelStore.CAPTURED_AT);
+        boolean authorized = fields.containsKey(PaymentReadModelStore.AUTHORIZED_AT);
+
+        String refundStatus;
+        if (refunded > 0 && amount != null && refunded >= amount) {
+            refundStatus = "REFUNDED";
+        } else if (refundRequested > refunded) {
+            refundStatus = "IN_PROGRESS";
+        } else if (refunded > 0) {
+            refundStatus = "PARTIAL";
+        } else {
+            refundStatus = "NONE";
+        }
+        String settlementStatus = captured ? "CAPTURED" : captureRequested ? "PENDING" : "NONE";
+
+        String status;
+        if ("REFUNDED".equals(refundStatus)) {
+            status = "REFUNDED";
+        } else if ("IN_PROGRESS".equals(refundStatus)) {
+            status = "REFUND_REQUESTED";
+        } else if ("PARTIAL".equals(refundStatus)) {
+            status = "PARTIAL_REFUNDED";
+        } else if (captured) {
+            status = "CAPTURED";
+        } else if (captureRequested) {
+            status = "CAPTURE_REQUESTED";
+        } else if (authorized) {
+            status = "AUTHORIZED";
+        } else {
+            // 승인 이벤트보다 다른 이벤트가 먼저 반영된 경우
+            status = "UNKNOWN";
+        }
+
+        return new PaymentView(
+                longOrNull(fields.get(PaymentReadModelStore.PAYMENT_ID)),
+                fields.get(PaymentReadModelStore.MERCHANT_ID),
+                fields.get(PaymentReadModelStore.SHARD),
+                amount,
+                fields.get(PaymentReadModelStore.CURRENCY),
+                status,
+                settlementStatus,
+                refundStatus,
+                refundRequested,
+                refunded,
+                fields.get(PaymentReadModelStore.APPROVAL_NUMBER),
+                fields.get(PaymentReadModelStore.TRANSACTION_ID),
+                instantOrNull(fields.get(PaymentReadModelStore.AUTHORIZED_AT)),
+                instantOrNull(fields.get(PaymentReadModelStore.CAPTURED_AT)),
+                instantOrNull(fields.get(PaymentReadModelStore.REFUNDED_AT)),
+                instantOrNull(fields.get(PaymentReadModelStore.UPDATED_AT)));
+    }
+
+    private static Long longOrNull(String value) {
+        return value != null ? Long.valueOf(value) : null;
+    }
+
+    private static long longOrZero(String value) {
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+
+    private static Instant instantOrNull(String value) {
+        return value != null ? Instant.ofEpochMilli(Long.parseLong(value)) : null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.payment.repository;
+
+import com.example.payment.domain.IdemResponseCache;
+import com.example.payment.domain.OutboxEvent;
+import com.example.payment.domain.Payment;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 배치 승인용 multi-row INSERT (payment, outbox_event, idem_response_cache)
+ *
+ * payment/outbox_event는 IDENTITY 키라 Hibernate의 JDBC batch insert가 꺼진다. 행마다 INSERT를 보내는 대신
+ * VALUES (...), (...) 한 문장으로 묶어 chunkSize 행씩 실행한다. 생성된 payment_id는 호출자가
+ * (merchant_id, idempotency_key)로 다시 조회한다.
+ * 호출자의 트랜잭션 안에서, 현재 ShardScope의 샤드에 실행된다. 시각은 hibernate.jdbc.time_zone(UTC)에 맞춰 UTC로 저장한다.
+ */
+@Repository
+public class PaymentBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+
+    public PaymentBatchRepository(JdbcTemplate jdbcTemplate,
+                                  @Value("${payment.authorize.batch.insert-chunk-size:200}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public void insertPayments(List<Payment> payments) {
+        insertRows("INSERT INTO payment (merchant_id, amount, currency, status, refunded_amount, version, "
+                        + "idempotency_key, requested_at, updated_at) VALUES ",
+                "(?, ?, ?, ?, ?, ?, ?, ?, ?)", "", payments, (payment, args) -> {
+                    args.add(payment.getMerchantId());
+                    args.add(payment.getAmount());
+                    args.add(payment.getCurrency());
+                    args.add(payment.getStatus().name());
+                    args.add(payment.getRefundedAmount());
+                    args.add(payment.getVersion());
+                    args.add(payment.getIdempotencyKey());
+                    args.add(utc(payment.getRequestedAt()));
+                    args.add(utc(payment.getUpdatedAt()));
+                });
+    }
+
+    public void insertOutboxEvents(List<OutboxEvent> events) {
+        insertRows("INSERT INTO outbox_event (aggregate_type, aggregate_id, event_type, payload, published, "
+                        + "created_at, retry_count) VALUES ",
+                "(?, ?, ?, ?, ?, ?, ?)", "", events, (event, args) -> {
+                    args.add(event.getAggregateType());
+                    args.add(event.getAggregateId());
+                    args.add(event.getEventType());
+                    args.add(event.getPayload());
+                    args.add(event.isPublished());
+                    args.add(utc(event.getCreatedAt()));
+                    args.add(event.getRetryCount());
+                });
+    }
+
+    /**
+     * 이미 있는 (merchant_id, idempotency_key)는 그대로 둔다 (IdempotencyCacheService.saveAuthorization과 같은 의미)
+     */
+    public void insertIdempotentResponses(List<IdemResponseCache> responses) {
+        insertRows("INSERT INTO idem_response_cache (merchant_id, idempotency_key, http_status, response_body, "
+                        + "created_at) VALUES ",
+                "(?, ?, ?, ?, ?)", " ON DUPLICATE KEY UPDATE http_status = http_status", responses,
+                (response, args) -> {
+                    args.add(response.getId().getMerchantId());
+                    args.add(response.getId().getIdempotencyKey());
+                    args.add(response.getHttpStatus());
+                    args.add(response.getResponseBody());
+                    args.add(utc(response.getCreatedAt()));
+                });
+    }
+
+    private <T> void insertRows(String prefix, String rowPlaceholder, String suffix, List<T> rows,
+                                BiConsumer<T, List<Object>> binder) {
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<T> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+            StringBuilder sql = new StringBuilder(prefix);
+            List<Object> args = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0) {
+                    sql.append(", ");
+                }
+                sql.append(rowPlaceholder);
+                binder.accept(chunk.get(i), args);
+            }
+            sql.append(suffix);
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    private static LocalDateTime utc(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
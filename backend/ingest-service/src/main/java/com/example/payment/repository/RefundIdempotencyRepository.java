@@ -0,0 +1,61 @@
+package com.example.payment.repository;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 환불 요청 멱등 키 (refund_idempotency, 결제별 유일)
+ *
+ * 환불 트랜잭션 안에서 예약보다 먼저 (payment_id, idempotency_key) 행을 INSERT IGNORE로 선점하고, 결과가 정해지면
+ * 같은 행에 응답을 기록한다. 같은 키로 동시에 들어온 요청은 선점 INSERT가 앞선 트랜잭션의 커밋을 기다린 뒤 0건이 되므로
+ * 예약을 다시 하지 않고 커밋된 응답을 읽는다 (앞선 트랜잭션이 롤백되면 선점에 성공해 처음부터 처리한다).
+ * 호출자의 트랜잭션 안에서, 현재 ShardScope의 샤드에 실행된다.
+ */
+@Repository
+public class RefundIdempotencyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RefundIdempotencyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * 응답이 기록된 멱등 키 조회 (다른 가맹점의 결제에 쓰인 키는 보이지 않는다)
+     */
+    public Optional<StoredRefund> find(Long paymentId, String merchantId, String idempotencyKey) {
+        List<StoredRefund> rows = jdbcTemplate.query(
+                "SELECT rejected, response_body FROM refund_idempotency "
+                        + "WHERE payment_id = ? AND idempotency_key = ? AND merchant_id = ? "
+                        + "AND response_body IS NOT NULL",
+                (rs, rowNum) -> new StoredRefund(rs.getBoolean("rejected"), rs.getString("response_body")),
+                paymentId, idempotencyKey, merchantId);
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * 멱등 키 선점
+     *
+     * @return 선점했으면 true, 같은 키가 이미 커밋되어 있으면 false
+     */
+    public boolean claim(Long paymentId, String merchantId, String idempotencyKey) {
+        return jdbcTemplate.update(
+                "INSERT IGNORE INTO refund_idempotency (payment_id, idempotency_key, merchant_id) VALUES (?, ?, ?)",
+                paymentId, idempotencyKey, merchantId) == 1;
+    }
+
+    /**
+     * 선점한 키에 처리 결과 기록 (거절 응답도 그대로 재생하도록 함께 남긴다)
+     */
+    public void complete(Long paymentId, String idempotencyKey, boolean rejected, String responseBody) {
+        jdbcTemplate.update(
+                "UPDATE refund_idempotency SET rejected = ?, response_body = ? "
+                        + "WHERE payment_id = ? AND idempotency_key = ?",
+                rejected, responseBody, paymentId, idempotencyKey);
+    }
+
+    public record StoredRefund(boolean rejected, String responseBody) {
+    }
+}
@@ -3,7 +3,7 @@ package com.example.payment.scheduler;
 import com.example.payment.domain.OutboxEvent;
 import com.example.payment.repository.OutboxEventRepository;
 import com.example.payment.service.PaymentEventPublisher;
-import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.config.shard.ShardScope;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -106,14 +106,11 @@ public class OutboxPollingScheduler {
 
     private void pollShard(String shard) {
         // ingest-service는 샤드별로 개별 데이터소스를 사용하므로 명시적으로 샤드 컨텍스트를 설정
-        ShardContextHolder.setShardKey(shard);
-        try {
+        try (ShardScope ignored = ShardScope.open(shard)) {
             log.info("Outbox polling start for shard {}", shard);
             pollAndPublishWithRetry(shard);
         } catch (Exception ex) {
             log.error("Outbox polling cycle failed for shard {}", shard, ex);
-        } finally {
-            ShardContextHolder.clear();
         }
     }
 
@@ -0,0 +1,397 @@
+package com.example.payment.service;
+
+import com.example.payment.client.PgAuthApiClient.AuthorizationResponse;
+import com.example.payment.client.PgAuthApiClient.PgApiException;
+import com.example.payment.client.PgAuthApiService.PgCircuitOpenException;
+import com.example.payment.client.PgAuthApiService.PgConcurrencyLimitException;
+import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.config.shard.ShardScope;
+import com.example.payment.domain.IdemResponseCacheId;
+import com.example.payment.domain.OutboxEvent;
+import com.example.payment.domain.Payment;
+import com.example.payment.domain.PaymentStatus;
+import com.example.payment.repository.PaymentBatchRepository;
+import com.example.payment.repository.PaymentRepository;
+import com.example.payment.service.PaymentService.IdempotencyWrite;
+import com.example.payment.web.dto.AuthorizePaymentRequest;
+import com.example.payment.web.dto.BatchAuthorizeItemResult;
+import com.example.payment.web.dto.BatchAuthorizeItemResult.Outcome;
+import com.example.payment.web.dto.BatchAuthorizeResponse;
+import com.example.payment.web.dto.PaymentResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 배치 결제 승인 (/payments/authorize/batch)
+ *
+ * 1. 배치 안에서 (merchantId, idempotencyKey)가 겹치는 항목은 REJECTED
+ * 2. 샤드별로 묶어 ShardScope 안에서 기존 결제를 멱등 키 IN 조회 한 번으로 확인 (있으면 DUPLICATE)
+ * 3. 가맹점별로 레이트 제한 허가를 INCRBY 한 번으로 차감 (허가 수를 넘는 항목은 RATE_LIMITED)
+ * 4. PG 승인 호출을 authorizePgExecutor에서 배치당 최대 pg-concurrency개 worker로 병렬 실행
+ * 5. 샤드별 트랜잭션 하나에서 payment / outbox_event / idem_response_cache를 multi-row INSERT로 저장하고,
+ *    커밋 이후 Redis 멱등 응답을 파이프라인으로 적재
+ *
+ * 저장 중 다른 요청이 같은 멱등 키를 먼저 저장해 유니크 제약에 걸리면 그 샤드만 단건 저장으로 다시 처리한다.
+ * PG 승인 후 저장에 실패한 항목은 FAILED(PERSIST_FAILED)로 응답하며, 같은 멱등 키로 재시도하면
+ * PG 멱등 참조값(merchantId:idempotencyKey)으로 기존 승인이 재사용된다.
+ */
+@Service
+public class BatchAuthorizationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchAuthorizationService.class);
+
+    private final PaymentService paymentService;
+    private final PaymentRepository paymentRepository;
+    private final PaymentBatchRepository paymentBatchRepository;
+    private final IdempotencyCacheService idempotencyCacheService;
+    private final RedisRateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+    private final Executor pgExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxItems;
+    private final int pgConcurrency;
+    private final boolean loadTestMode;
+
+    public BatchAuthorizationService(PaymentService paymentService,
+                                     PaymentRepository paymentRepository,
+                                     PaymentBatchRepository paymentBatchRepository,
+                                     IdempotencyCacheService idempotencyCacheService,
+                                     RedisRateLimiter rateLimiter,
+                                     ObjectMapper objectMapper,
+                                     @Qualifier("authorizePgExecutor") Executor pgExecutor,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${payment.authorize.batch.max-items:500}") int maxItems,
+                                     @Value("${payment.authorize.batch.pg-concurrency:32}") int pgConcurrency,
+                                     @Value("${mock.pg.loadtest-mode:false}") boolean loadTestMode) {
+        this.paymentService = paymentService;
+        this.paymentRepository = paymentRepository;
+        this.paymentBatchRepository = paymentBatchRepository;
+        this.idempotencyCacheService = idempotencyCacheService;
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+        this.pgExecutor = pgExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxItems = maxItems;
+        this.pgConcurrency = Math.max(1, pgConcurrency);
+        this.loadTestMode = loadTestMode;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public BatchAuthorizeResponse authorize(List<AuthorizePaymentRequest> requests) {
+        BatchAuthorizeItemResult[] results = new BatchAuthorizeItemResult[requests.size()];
+
+        Map<String, List<Item>> byShard = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AuthorizePaymentRequest request = requests.get(i);
+            Item item = new Item(i, request, ShardContextHolder.resolveShardKey(request.merchantId()));
+            if (!seen.add(request.merchantId() + ":" + request.idempotencyKey())) {
+                results[i] = item.result(Outcome.REJECTED, null, "DUPLICATE_IN_BATCH",
+                        "Idempotency key appears more than once in the batch");
+                continue;
+            }
+            byShard.computeIfAbsent(item.shardKey, key -> new ArrayList<>()).add(item);
+        }
+
+        List<Item> pending = new ArrayList<>();
+        byShard.forEach((shardKey, shardItems) ->
+                pending.addAll(ShardScope.call(shardKey, () -> precheck(shardItems, results))));
+
+        callPg(pending, results);
+
+        Map<String, List<Item>> approvedByShard = new LinkedHashMap<>();
+        for (Item item : pending) {
+            if (item.pgResponse != null) {
+                approvedByShard.computeIfAbsent(item.shardKey, key -> new ArrayList<>()).add(item);
+            }
+        }
+        approvedByShard.forEach((shardKey, shardItems) ->
+                ShardScope.run(shardKey, () -> persist(shardKey, shardItems, results)));
+
+        return summarize(Arrays.asList(results));
+    }
+
+    /**
+     * 기존 결제 확인 + 레이트 제한 (샤드 범위 안에서 호출)
+     *
+     * @return PG 호출 대상 항목
+     */
+    private List<Item> precheck(List<Item> shardItems, BatchAuthorizeItemResult[] results) {
+        List<Item> candidates = new ArrayList<>(shardItems.size());
+        for (Map.Entry<String, List<Item>> entry : byMerchant(shardItems).entrySet()) {
+            if (loadTestMode) {
+                candidates.addAll(entry.getValue());
+                continue;
+            }
+            Map<String, Payment> existing = new HashMap<>();
+            paymentRepository.findByMerchantIdAndIdempotencyKeyIn(entry.getKey(), idempotencyKeys(entry.getValue()))
+                    .forEach(payment -> existing.put(payment.getIdempotencyKey(), payment));
+            for (Item item : entry.getValue()) {
+                Payment payment = existing.get(item.request.idempotencyKey());
+                if (payment != null) {
+                    results[item.index] = item.result(Outcome.DUPLICATE,
+                            paymentService.existingAuthorization(payment).response(), "DUPLICATE_REQUEST",
+                            "Idempotency key already used");
+                } else {
+                    candidates.add(item);
+                }
+            }
+        }
+
+        List<Item> allowed = new ArrayList<>(candidates.size());
+        byMerchant(candidates).forEach((merchantId, merchantItems) -> {
+            int granted = rateLimiter.acquireAuthorizePermits(merchantId, merchantItems.size());
+            for (int i = 0; i < merchantItems.size(); i++) {
+                Item item = merchantItems.get(i);
+                if (i < granted) {
+                    allowed.add(item);
+                } else {
+                    results[item.index] = item.result(Outcome.RATE_LIMITED, null, "RATE_LIMIT_EXCEEDED",
+                            "Rate limit exceeded for authorize requests");
+                }
+            }
+        });
+        return allowed;
+    }
+
+    /**
+     * PG 승인 호출 fan-out: 최대 pgConcurrency개 worker가 공유 큐에서 항목을 꺼내 호출한다
+     * (배치 하나가 authorizePgExecutor 스레드를 pgConcurrency개 넘게 점유하지 않도록)
+     */
+    private void callPg(List<Item> items, BatchAuthorizeItemResult[] results) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Queue<Item> queue = new ConcurrentLinkedQueue<>(items);
+        int workers = Math.min(pgConcurrency, items.size());
+        List<CompletableFuture<Void>> running = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            try {
+                running.add(CompletableFuture.runAsync(() -> drainPg(queue, results), pgExecutor));
+            } catch (RejectedExecutionException ex) {
+                // 실행기 포화 - 이미 시작한 worker가 남은 항목을 처리한다
+                break;
+            }
+        }
+        CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).join();
+
+        Item item;
+        while ((item = queue.poll()) != null) {
+            results[item.index] = item.result(Outcome.FAILED, null, "AUTHORIZE_BUSY",
+                    "Authorization pipeline is saturated");
+        }
+    }
+
+    private void drainPg(Queue<Item> queue, BatchAuthorizeItemResult[] results) {
+        Item item;
+        while ((item = queue.poll()) != null) {
+            AuthorizePaymentRequest request = item.request;
+            try {
+                item.pgResponse = paymentService.requestPgAuthorization(request);
+            } catch (PgApiException ex) {
+                results[item.index] = item.result(Outcome.FAILED,
+                        paymentService.pgFailure(request, ex).response(), ex.getErrorCode(), ex.getMessage());
+            } catch (PgCircuitOpenException ex) {
+                results[item.index] = item.result(Outcome.FAILED,
+                        paymentService.pgFailure(request, ex).response(), "PG_CIRCUIT_OPEN", ex.getMessage());
+            } catch (PgConcurrencyLimitException ex) {
+                results[item.index] = item.result(Outcome.FAILED, null, "PG_CONCURRENCY_LIMITED", ex.getMessage());
+            } catch (RuntimeException ex) {
+                // 한 항목의 예기치 못한 오류가 worker와 나머지 항목을 멈추지 않도록
+                log.error("PG authorization failed unexpectedly: merchantId={}, key={}", request.merchantId(),
+                        request.idempotencyKey(), ex);
+                results[item.index] = item.result(Outcome.FAILED, null, "PG_ERROR", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 샤드 하나의 승인 항목 저장 (샤드 범위 안에서 호출, 결과는 커밋 이후에만 반영)
+     */
+    private void persist(String shardKey, List<Item> items, BatchAuthorizeItemResult[] results) {
+        BatchWrite written;
+        try {
+            written = transactionTemplate.execute(status -> insertAll(items));
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("Batch insert on {} hit an existing idempotency key, falling back to single writes ({} items)",
+                    shardKey, items.size());
+            persistEach(items, results);
+            return;
+        } catch (DataAccessException | TransactionException ex) {
+            log.error("Batch insert on {} failed for {} PG-approved items", shardKey, items.size(), ex);
+            for (Item item : items) {
+                results[item.index] = item.result(Outcome.FAILED, null, "PERSIST_FAILED",
+                        "Authorization could not be stored. Retry with the same idempotency key.");
+            }
+            return;
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            results[item.index] = item.result(Outcome.AUTHORIZED, written.responses().get(i), null, null);
+        }
+        idempotencyCacheService.cacheSerialized(written.cacheEntries());
+    }
+
+    private BatchWrite insertAll(List<Item> items) {
+        List<Payment> rows = new ArrayList<>(items.size());
+        for (Item item : items) {
+            // 단건 승인과 같이 CAPTURE_REQUESTED로 바로 저장
+            rows.add(new Payment(item.request.merchantId(), item.request.amount(), item.request.currency(),
+                    PaymentStatus.CAPTURE_REQUESTED, item.request.idempotencyKey()));
+        }
+        paymentBatchRepository.insertPayments(rows);
+
+        // IDENTITY로 생성된 payment_id를 멱등 키로 다시 조회
+        Map<IdemResponseCacheId, Payment> saved = new HashMap<>();
+        byMerchant(items).forEach((merchantId, merchantItems) ->
+                paymentRepository.findByMerchantIdAndIdempotencyKeyIn(merchantId, idempotencyKeys(merchantItems))
+                        .forEach(payment -> saved.put(
+                                new IdemResponseCacheId(payment.getMerchantId(), payment.getIdempotencyKey()),
+                                payment)));
+
+        List<OutboxEvent> events = new ArrayList<>(items.size() * 2);
+        List<PaymentResponse> responses = new ArrayList<>(items.size());
+        Map<IdemResponseCacheId, PaymentResponse> idempotentResponses = new LinkedHashMap<>();
+        for (Item item : items) {
+            IdemResponseCacheId id = new IdemResponseCacheId(item.request.merchantId(), item.request.idempotencyKey());
+            Payment payment = saved.get(id);
+            if (payment == null) {
+                throw new IllegalStateException("Inserted payment not found for merchant="
+                        + item.request.merchantId() + ", key=" + item.request.idempotencyKey());
+            }
+            paymentService.authorizationEvents(payment, item.pgResponse).forEach((eventType, payload) ->
+                    events.add(new OutboxEvent("payment", payment.getId(), eventType, toJson(payload))));
+            PaymentResponse response = paymentService.authorizedResponse(payment, item.pgResponse);
+            responses.add(response);
+            idempotentResponses.put(id, response);
+        }
+        paymentBatchRepository.insertOutboxEvents(events);
+
+        Map<String, String> cacheEntries = loadTestMode
+                ? Map.of()
+                : idempotencyCacheService.saveAuthorizations(idempotentResponses, 200);
+        return new BatchWrite(responses, cacheEntries);
+    }
+
+    /**
+     * multi-row INSERT가 유니크 제약에 걸린 샤드: 항목마다 단건 트랜잭션으로 저장 (먼저 저장된 키는 DUPLICATE)
+     */
+    private void persistEach(List<Item> items, BatchAuthorizeItemResult[] results) {
+        for (Item item : items) {
+            try {
+                PaymentResponse response = paymentService.persistAuthorization(item.request, item.pgResponse,
+                        loadTestMode ? IdempotencyWrite.NONE : IdempotencyWrite.DATABASE);
+                results[item.index] = item.result(Outcome.AUTHORIZED, response, null, null);
+                if (!loadTestMode) {
+                    idempotencyCacheService.cacheAuthorization(item.request.merchantId(),
+                            item.request.idempotencyKey(), response);
+                }
+            } catch (DataIntegrityViolationException ex) {
+                results[item.index] = item.result(Outcome.DUPLICATE,
+                        paymentService.duplicateAuthorization(item.request, ex).response(), "DUPLICATE_REQUEST",
+                        "Idempotency key already used");
+            } catch (DataAccessException | TransactionException ex) {
+                log.error("Single write fallback failed for merchant={}, key={}", item.request.merchantId(),
+                        item.request.idempotencyKey(), ex);
+                results[item.index] = item.result(Outcome.FAILED, null, "PERSIST_FAILED",
+                        "Authorization could not be stored. Retry with the same idempotency key.");
+            }
+        }
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize event payload", ex);
+        }
+    }
+
+    private static Map<String, List<Item>> byMerchant(List<Item> items) {
+        Map<String, List<Item>> grouped = new LinkedHashMap<>();
+        for (Item item : items) {
+            grouped.computeIfAbsent(item.request.merchantId(), key -> new ArrayList<>()).add(item);
+        }
+        return grouped;
+    }
+
+    private static List<String> idempotencyKeys(List<Item> items) {
+        List<String> keys = new ArrayList<>(items.size());
+        for (Item item : items) {
+            keys.add(item.request.idempotencyKey());
+        }
+        return keys;
+    }
+
+    private static BatchAuthorizeResponse summarize(List<BatchAuthorizeItemResult> results) {
+        int authorized = 0;
+        int duplicates = 0;
+        int rateLimited = 0;
+        int failed = 0;
+        for (BatchAuthorizeItemResult result : results) {
+            switch (result.outcome()) {
+                case AUTHORIZED -> authorized++;
+                case DUPLICATE -> duplicates++;
+                case RATE_LIMITED -> rateLimited++;
+                case FAILED, REJECTED -> failed++;
+            }
+        }
+        return new BatchAuthorizeResponse(results.size(), authorized, duplicates, rateLimited, failed, results);
+    }
+
+    /**
+     * 배치 항목 (pgResponse는 PG worker 스레드가 채우고 callPg의 join 이후에 읽는다)
+     */
+    private static final class Item {
+
+        private final int index;
+        private final AuthorizePaymentRequest request;
+        private final String shardKey;
+        private AuthorizationResponse pgResponse;
+
+        private Item(int index, AuthorizePaymentRequest request, String shardKey) {
+            this.index = index;
+            this.request = request;
+            this.shardKey = shardKey;
+        }
+
+        private BatchAuthorizeItemResult result(Outcome outcome, PaymentResponse payment, String errorCode,
+                                                String message) {
+            return new BatchAuthorizeItemResult(index, request.merchantId(), request.idempotencyKey(), outcome,
+                    payment, errorCode, message);
+        }
+    }
+
+    /**
+     * 샤드 트랜잭션 결과: 항목 순서대로의 응답 + 커밋 이후 Redis에 적재할 멱등 응답
+     */
+    private record BatchWrite(List<PaymentResponse> responses, Map<String, String> cacheEntries) {
+    }
+}
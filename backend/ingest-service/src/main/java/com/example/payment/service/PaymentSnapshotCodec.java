@@ -0,0 +1,68 @@
+package com.example.payment.service;
+
+import com.example.payment.domain.PaymentStatus;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * PaymentSnapshot 바이너리 인코딩
+ *
+ * 고정 순서 필드 + 포맷 버전 1바이트 (약 50바이트, JSON 대비 1/4 수준)
+ * [format:1][id:8][merchantId:UTF][amount:8][currency:UTF][status:UTF][refunded:8][requestedAt:8+4][version:8]
+ *
+ * 필드 구성을 바꾸면 FORMAT_VERSION을 올린다. 포맷이 다른 값은 캐시 미스로 처리된다.
+ */
+final class PaymentSnapshotCodec {
+
+    static final byte FORMAT_VERSION = 1;
+
+    private PaymentSnapshotCodec() {
+    }
+
+    static byte[] encode(PaymentSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(snapshot.getId());
+            out.writeUTF(snapshot.getMerchantId());
+            out.writeLong(snapshot.getAmount());
+            out.writeUTF(snapshot.getCurrency());
+            out.writeUTF(snapshot.getStatus().name());
+            out.writeLong(snapshot.getRefundedAmount());
+            out.writeLong(snapshot.getRequestedAt().getEpochSecond());
+            out.writeInt(snapshot.getRequestedAt().getNano());
+            out.writeLong(snapshot.getVersion());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return 포맷 버전이 다르면 null
+     */
+    static PaymentSnapshot decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+            Long id = in.readLong();
+            String merchantId = in.readUTF();
+            Long amount = in.readLong();
+            String currency = in.readUTF();
+            PaymentStatus status = PaymentStatus.valueOf(in.readUTF());
+            Long refundedAmount = in.readLong();
+            Instant requestedAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            Long version = in.readLong();
+            return new PaymentSnapshot(id, merchantId, amount, currency, status, refundedAmount, requestedAt,
+                    version);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
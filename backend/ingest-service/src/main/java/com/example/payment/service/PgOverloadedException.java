@@ -0,0 +1,18 @@
+package com.example.payment.service;
+
+/**
+ * PG 동시 호출 한도 초과로 승인 요청을 거절한 경우 (PG 미호출, 같은 멱등 키로 재시도 가능)
+ */
+public class PgOverloadedException extends RuntimeException {
+
+    private final String code;
+
+    public PgOverloadedException(String message, String code) {
+        super(message);
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.payment.web;
+
+import com.example.payment.service.BulkFileReader.Format;
+import com.example.payment.service.BulkOperationJob;
+import com.example.payment.service.BulkOperationService;
+import com.example.payment.web.dto.BulkJobResponse;
+import com.example.payment.web.dto.ErrorResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * 대량 capture/refund 파일 업로드 (가맹점 일 마감 대사 파일)
+ *
+ * POST   /payments/bulk/files               본문 = CSV(text/csv) 또는 NDJSON(application/x-ndjson), 202 + 작업 상태
+ * GET    /payments/bulk/files/{jobId}        진행률 조회
+ * GET    /payments/bulk/files/{jobId}/result 줄별 결과 CSV (처리 중이면 409)
+ */
+@RestController
+@RequestMapping("/payments/bulk/files")
+public class BulkOperationController {
+
+    private final BulkOperationService bulkOperationService;
+
+    public BulkOperationController(BulkOperationService bulkOperationService) {
+        this.bulkOperationService = bulkOperationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<BulkJobResponse> upload(HttpServletRequest request) throws IOException {
+        // 본문은 요청 스트림에서 바로 스풀 파일로 복사한다 (메모리에 올리지 않음)
+        BulkOperationJob job = bulkOperationService.submit(request.getInputStream(),
+                Format.fromContentType(request.getContentType()));
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/payments/bulk/files/" + job.getId())
+                .body(toResponse(job));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> status(@PathVariable String jobId) {
+        return bulkOperationService.findJob(jobId)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(toResponse(job)))
+                .orElseGet(() -> notFound(jobId));
+    }
+
+    @GetMapping("/{jobId}/result")
+    public ResponseEntity<?> result(@PathVariable String jobId) {
+        BulkOperationJob job = bulkOperationService.findJob(jobId).orElse(null);
+        if (job == null) {
+            return notFound(jobId);
+        }
+        if (!job.isFinished()) {
+            String progress = String.format(Locale.ROOT, "%.1f", job.getProgressPercent());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("BULK_JOB_RUNNING", "Job is still running (" + progress + "%)", null));
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + jobId + "-result.csv\"")
+                .body(new FileSystemResource(job.getResultFile()));
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecution(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "60")
+                .body(new ErrorResponse("BULK_BUSY", "Too many bulk file jobs in progress", null));
+    }
+
+    private static ResponseEntity<ErrorResponse> notFound(String jobId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse("NOT_FOUND", "Bulk job not found: " + jobId, null));
+    }
+
+    private static BulkJobResponse toResponse(BulkOperationJob job) {
+        return new BulkJobResponse(
+                job.getId(),
+                job.getStatus().name(),
+                job.getFormat().name(),
+                job.getLines(),
+                job.getApplied(),
+                job.getRejected(),
+                job.getInvalid(),
+                job.getFailed(),
+                job.getBytesRead(),
+                job.getTotalBytes(),
+                job.getProgressPercent(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                job.isFinished() ? "/payments/bulk/files/" + job.getId() + "/result" : null,
+                job.getError());
+    }
+}
@@ -1,30 +1,42 @@
 package com.example.payment.web;
 
 import com.example.payment.config.shard.ShardContextHolder;
+import com.example.payment.config.shard.ShardScope;
+import com.example.payment.service.AsyncAuthorizationService;
+import com.example.payment.service.BatchAuthorizationService;
 import com.example.payment.service.PaymentService;
 import com.example.payment.service.PaymentResult;
+import com.example.payment.service.PgOverloadedException;
 import com.example.payment.service.RateLimitExceededException;
 import com.example.payment.web.dto.*;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/payments")
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final AsyncAuthorizationService asyncAuthorizationService;
+    private final BatchAuthorizationService batchAuthorizationService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, AsyncAuthorizationService asyncAuthorizationService,
+                             BatchAuthorizationService batchAuthorizationService) {
         this.paymentService = paymentService;
+        this.asyncAuthorizationService = asyncAuthorizationService;
+        this.batchAuthorizationService = batchAuthorizationService;
     }
 
     @PostMapping("/authorize")
     public ResponseEntity<?> authorize(@Valid @RequestBody AuthorizePaymentRequest request) {
         // 트랜잭션 시작 전에 샤드 선택 (중요!)
-        ShardContextHolder.setShardByMerchantId(request.merchantId());
-        try {
+        try (ShardScope ignored = ShardContextHolder.openForMerchant(request.merchantId())) {
             PaymentResult result = paymentService.authorize(request);
             if (result.duplicate()) {
                 return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -33,17 +45,48 @@ public class PaymentController {
                                 result.response().paymentId()));
             }
             return ResponseEntity.ok(result.response());
-        } finally {
-            ShardContextHolder.clear();
         }
     }
 
+    /**
+     * 비동기 승인: PG 호출/저장/캐시 적재를 단계별 실행기에서 처리하고 서블릿 스레드는 바로 반환한다.
+     * 샤드 범위는 AsyncAuthorizationService가 DB 단계마다 ShardScope로 연다 (서블릿 스레드의 범위는 넘어가지 않는다).
+     */
+    @PostMapping("/authorize/async")
+    public CompletableFuture<ResponseEntity<?>> authorizeAsync(@Valid @RequestBody AuthorizePaymentRequest request) {
+        return asyncAuthorizationService.authorize(request)
+                .<ResponseEntity<?>>thenApply(result -> {
+                    if (result.duplicate()) {
+                        return ResponseEntity.status(HttpStatus.CONFLICT)
+                                .body(new ErrorResponse("DUPLICATE_REQUEST",
+                                        "Idempotency key already used",
+                                        result.response().paymentId()));
+                    }
+                    return ResponseEntity.ok(result.response());
+                });
+    }
+
+    /**
+     * 배치 승인: 항목별 멱등 키로 최대 payment.authorize.batch.max-items건을 한 번에 승인한다.
+     * 항목 결과는 요청 순서대로 한 응답에 담기며, 항목 단위 실패(중복/레이트 제한/PG 거절)는 HTTP 상태에 반영하지 않는다.
+     * 샤드 범위는 BatchAuthorizationService가 샤드별로 연다.
+     */
+    @PostMapping("/authorize/batch")
+    public ResponseEntity<?> authorizeBatch(@Valid @RequestBody BatchAuthorizeRequest request) {
+        if (request.items().size() > batchAuthorizationService.getMaxItems()) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("BATCH_TOO_LARGE",
+                            "Batch must not exceed " + batchAuthorizationService.getMaxItems() + " items",
+                            null));
+        }
+        return ResponseEntity.ok(batchAuthorizationService.authorize(request.items()));
+    }
+
     @PostMapping("/capture/{paymentId}")
     public ResponseEntity<?> capture(@PathVariable Long paymentId,
                                       @Valid @RequestBody CapturePaymentRequest request) {
         // 트랜잭션 시작 전에 샤드 선택 (중요!)
-        ShardContextHolder.setShardByMerchantId(request.merchantId());
-        try {
+        try (ShardScope ignored = ShardContextHolder.openForMerchant(request.merchantId())) {
             PaymentResult result = paymentService.capture(paymentId, request);
             if (result.duplicate()) {
                 return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -52,8 +95,6 @@ public class PaymentController {
                                 result.response().paymentId()));
             }
             return ResponseEntity.ok(result.response());
-        } finally {
-            ShardContextHolder.clear();
         }
     }
 
@@ -61,8 +102,7 @@ public class PaymentController {
     public ResponseEntity<?> refund(@PathVariable Long paymentId,
                                      @Valid @RequestBody RefundPaymentRequest request) {
         // 트랜잭션 시작 전에 샤드 선택 (중요!)
-        ShardContextHolder.setShardByMerchantId(request.merchantId());
-        try {
+        try (ShardScope ignored = ShardContextHolder.openForMerchant(request.merchantId())) {
             PaymentResult result = paymentService.refund(paymentId, request);
             if (result.duplicate()) {
                 return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -71,8 +111,6 @@ public class PaymentController {
                                 result.response().paymentId()));
             }
             return ResponseEntity.ok(result.response());
-        } finally {
-            ShardContextHolder.clear();
         }
     }
 
@@ -87,4 +125,18 @@ public class PaymentController {
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
                 .body(new ErrorResponse(ex.getCode(), ex.getMessage(), null));
     }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<ErrorResponse> handleRejectedExecution(RejectedExecutionException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse("AUTHORIZE_BUSY", "Authorization pipeline is saturated", null));
+    }
+
+    @ExceptionHandler(PgOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handlePgOverloaded(PgOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(ex.getCode(), ex.getMessage(), null));
+    }
 }
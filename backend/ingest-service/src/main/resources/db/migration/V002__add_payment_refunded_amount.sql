@@ -0,0 +1,15 @@
+-- Partial refund support
+-- refunded_amount tracks the total amount reserved by refund requests.
+-- It is maintained by a single conditional UPDATE (no row lock wait, no read-modify-write).
+
+ALTER TABLE payment
+    ADD COLUMN IF NOT EXISTS refunded_amount BIGINT NOT NULL DEFAULT 0 AFTER status;
+
+ALTER TABLE payment
+    ADD CONSTRAINT ck_refunded_amount CHECK (refunded_amount >= 0 AND refunded_amount <= amount);
+
+-- Existing full refunds reserve the whole payment amount
+UPDATE payment
+   SET refunded_amount = amount
+ WHERE status IN ('REFUND_REQUESTED', 'REFUNDED', 'REFUND_FAILED')
+   AND refunded_amount = 0;
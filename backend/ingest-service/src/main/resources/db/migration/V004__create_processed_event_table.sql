@@ -0,0 +1,13 @@
+-- Consumer-side event deduplication (consumer-worker, settlement-worker, refund-worker)
+-- Keyed by outbox eventId header (or topic-partition@offset when the header is absent).
+-- Workers only use this table on shard1 and purge rows older than event-dedupe.retention-hours.
+
+CREATE TABLE IF NOT EXISTS processed_event (
+  consumer_group  VARCHAR(64)  NOT NULL,
+  event_key       VARCHAR(160) NOT NULL,  -- evt:{outbox eventId} 또는 {topic}-{partition}@{offset}
+  topic           VARCHAR(128) NOT NULL,
+  partition_no    INT          NOT NULL,
+  processed_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (consumer_group, event_key),
+  KEY ix_partition_time (consumer_group, topic, partition_no, processed_at)
+) ENGINE=InnoDB;
@@ -0,0 +1,28 @@
+-- Per-merchant account balances maintained by consumer-worker (one table per shard)
+-- Updated in the same shard transaction as each ledger batch; reconciliation reads this table
+-- instead of summing ledger_entry. The backfill below must run while consumer-worker is stopped.
+
+CREATE TABLE IF NOT EXISTS account_balance (
+  merchant_id   VARCHAR(32)  NOT NULL,
+  account       VARCHAR(64)  NOT NULL,
+  debit_total   BIGINT       NOT NULL DEFAULT 0,
+  credit_total  BIGINT       NOT NULL DEFAULT 0,
+  entry_count   BIGINT       NOT NULL DEFAULT 0,
+  updated_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (merchant_id, account),
+  KEY ix_account (account)
+) ENGINE=InnoDB;
+
+INSERT INTO account_balance (merchant_id, account, debit_total, credit_total, entry_count)
+SELECT merchant_id, account, SUM(debit), SUM(credit), COUNT(*)
+FROM (
+  SELECT p.merchant_id, le.debit_account AS account, le.amount AS debit, 0 AS credit
+  FROM ledger_entry le JOIN payment p ON p.payment_id = le.payment_id
+  UNION ALL
+  SELECT p.merchant_id, le.credit_account AS account, 0 AS debit, le.amount AS credit
+  FROM ledger_entry le JOIN payment p ON p.payment_id = le.payment_id
+) postings
+GROUP BY merchant_id, account
+ON DUPLICATE KEY UPDATE debit_total = VALUES(debit_total),
+                        credit_total = VALUES(credit_total),
+                        entry_count = VALUES(entry_count);
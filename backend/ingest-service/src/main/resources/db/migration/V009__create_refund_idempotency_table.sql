@@ -0,0 +1,14 @@
+-- Refund request idempotency keys (one table per shard)
+-- PaymentService claims (payment_id, idempotency_key) before reserving the refund amount and stores the
+-- response in the same transaction. A retried refund POST with the same key replays the stored response
+-- instead of reserving the amount again.
+
+CREATE TABLE IF NOT EXISTS refund_idempotency (
+  payment_id       BIGINT      NOT NULL,
+  idempotency_key  VARCHAR(64) NOT NULL,
+  merchant_id      VARCHAR(32) NOT NULL,
+  rejected         BOOLEAN,
+  response_body    JSON,
+  created_at       TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (payment_id, idempotency_key)
+) ENGINE=InnoDB;
@@ -0,0 +1,244 @@
+package com.example.payment.readmodel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentReadModelProjectorTest {
+
+        private static final String MERCHANT_ID = "M2";
+        private static final long PAYMENT_ID = 42L;
+
+        @Mock
+        private PaymentReadModelStore store;
+
+        private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        /** view key → hash (PaymentReadModelStore APPLY_SCRIPT와 같은 규칙으로 반영) */
+        private final Map<String, Map<String, String>> hashes = new HashMap<>();
+
+        private PaymentReadModelProjector projector;
+        private long nextOffset;
+
+        @BeforeEach
+        void setUp() {
+                projector = new PaymentReadModelProjector(store, new ObjectMapper(), meterRegistry,
+                                "payment.authorized", "payment.capture-requested", "payment.captured",
+                                "payment.refund-requested", "payment.refunded");
+                when(store.apply(anyCollection())).thenAnswer(invocation -> {
+                        Collection<PaymentProjection> projections = invocation.getArgument(0);
+                        int applied = 0;
+                        for (PaymentProjection projection : projections) {
+                                applied += applyLikeScript(projection);
+                        }
+                        return applied;
+                });
+        }
+
+        @Test
+        @DisplayName("이벤트가 역순으로 도착해도 순서대로 반영한 것과 같은 읽기 모델이어야 함")
+        void outOfOrderEventsConvergeToSameView() {
+                List<ConsumerRecord<String, String>> lifecycle = lifecycle();
+
+                projector.project(lifecycle);
+                Map<String, String> inOrder = new HashMap<>(view());
+
+                hashes.clear();
+                List<ConsumerRecord<String, String>> reversed = new ArrayList<>(lifecycle);
+                Collections.reverse(reversed);
+                for (ConsumerRecord<String, String> record : reversed) {
+                        projector.project(List.of(record));
+                }
+
+                assertThat(view()).isEqualTo(inOrder);
+                PaymentView payment = PaymentView.of(view());
+                assertThat(payment.status()).isEqualTo("REFUNDED");
+                assertThat(payment.amount()).isEqualTo(10000L);
+                assertThat(payment.refundRequestedAmount()).isEqualTo(10000L);
+                assertThat(payment.refundedAmount()).isEqualTo(10000L);
+                assertThat(payment.authorizedAt()).isEqualTo(Instant.parse("2026-03-01T00:00:00Z"));
+                assertThat(payment.lastRefundedAt()).isEqualTo(Instant.parse("2026-03-01T00:05:00Z"));
+                assertThat(payment.updatedAt()).isEqualTo(Instant.parse("2026-03-01T00:05:00Z"));
+        }
+
+        @Test
+        @DisplayName("환불 완료가 승인보다 먼저 와도 승인 반영 후 상태가 맞아야 함")
+        void refundBeforeAuthorization() {
+                projector.project(List.of(refunded("shard1:5", 10000, "2026-03-01T00:05:00Z")));
+                assertThat(PaymentView.of(view()).status()).isEqualTo("PARTIAL_REFUNDED");
+
+                projector.project(List.of(authorized("shard1:1", "2026-03-01T00:00:00Z")));
+
+                assertThat(PaymentView.of(view()).status()).isEqualTo("REFUNDED");
+        }
+
+        @Test
+        @DisplayName("outbox 재발행으로 오프셋이 달라도 같은 eventId는 한 번만 누적해야 함")
+        void republishedEventIsAppliedOnce() {
+                ConsumerRecord<String, String> first = refundRequested("shard1:3", 4000, "2026-03-01T00:02:00Z");
+                ConsumerRecord<String, String> republished = refundRequested("shard1:3", 4000, "2026-03-01T00:02:00Z");
+                assertThat(republished.offset()).isNotEqualTo(first.offset());
+
+                int applied = projector.project(List.of(authorized("shard1:1", "2026-03-01T00:00:00Z"), first));
+                int reapplied = projector.project(List.of(republished));
+
+                assertThat(applied).isEqualTo(2);
+                assertThat(reapplied).isZero();
+                assertThat(PaymentView.of(view()).refundRequestedAmount()).isEqualTo(4000L);
+                assertThat(counter("applied")).isEqualTo(2.0);
+                assertThat(counter("duplicate")).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("같은 배치 안에 중복된 이벤트도 한 번만 반영해야 함")
+        void duplicateWithinBatchIsAppliedOnce() {
+                ConsumerRecord<String, String> refunded = refunded("shard1:4", 4000, "2026-03-01T00:03:00Z");
+
+                int applied = projector.project(List.of(refunded, refunded));
+
+                assertThat(applied).isEqualTo(1);
+                assertThat(PaymentView.of(view()).refundedAmount()).isEqualTo(4000L);
+                assertThat(counter("duplicate")).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("eventId 헤더가 없으면 partition:offset으로 중복을 판정해야 함")
+        void eventWithoutHeaderIsDedupedByOffset() {
+                ConsumerRecord<String, String> record = record("payment.refunded", null,
+                                payload(", \"amount\": 4000", "2026-03-01T00:03:00Z"));
+
+                projector.project(List.of(record));
+                projector.project(List.of(record));
+
+                assertThat(PaymentView.of(view()).refundedAmount()).isEqualTo(4000L);
+                assertThat(view()).containsKey("e:R:0:" + record.offset());
+        }
+
+        @Test
+        @DisplayName("같은 eventId라도 다른 종류의 이벤트는 따로 반영해야 함")
+        void eventIdIsScopedByKind() {
+                projector.project(List.of(
+                                refundRequested("shard1:9", 4000, "2026-03-01T00:02:00Z"),
+                                refunded("shard1:9", 4000, "2026-03-01T00:03:00Z")));
+
+                PaymentView payment = PaymentView.of(view());
+                assertThat(payment.refundRequestedAmount()).isEqualTo(4000L);
+                assertThat(payment.refundedAmount()).isEqualTo(4000L);
+        }
+
+        @Test
+        @DisplayName("파싱할 수 없거나 결제 식별자가 없는 이벤트는 건너뛰어야 함")
+        void unparseableEventsAreSkipped() {
+                int applied = projector.project(List.of(
+                                record("payment.refunded", "shard1:7", "not-json"),
+                                record("payment.refunded", "shard1:8", "{\"amount\": 1000}")));
+
+                assertThat(applied).isZero();
+                assertThat(hashes).isEmpty();
+                assertThat(counter("skipped")).isEqualTo(2.0);
+        }
+
+        private List<ConsumerRecord<String, String>> lifecycle() {
+                return List.of(
+                                authorized("shard1:1", "2026-03-01T00:00:00Z"),
+                                record("payment.capture-requested", "shard1:2",
+                                                payload(", \"amount\": 10000", "2026-03-01T00:00:30Z")),
+                                record("payment.captured", "shard1:3",
+                                                payload(", \"amount\": 10000", "2026-03-01T00:01:00Z")),
+                                refundRequested("shard1:4", 4000, "2026-03-01T00:02:00Z"),
+                                refunded("shard1:5", 4000, "2026-03-01T00:03:00Z"),
+                                refundRequested("shard1:6", 6000, "2026-03-01T00:04:00Z"),
+                                refunded("shard1:7", 6000, "2026-03-01T00:05:00Z"));
+        }
+
+        private ConsumerRecord<String, String> authorized(String eventId, String occurredAt) {
+                return record("payment.authorized", eventId, payload(
+                                ", \"amount\": 10000, \"currency\": \"KRW\", \"approvalNumber\": \"A1\", "
+                                                + "\"transactionId\": \"T1\"", occurredAt));
+        }
+
+        private ConsumerRecord<String, String> refundRequested(String eventId, long amount, String occurredAt) {
+                return record("payment.refund-requested", eventId, payload(
+                                ", \"amount\": " + amount + ", \"paymentAmount\": 10000, \"reason\": \"고객 요청\"",
+                                occurredAt));
+        }
+
+        private ConsumerRecord<String, String> refunded(String eventId, long amount, String occurredAt) {
+                return record("payment.refunded", eventId, payload(", \"amount\": " + amount, occurredAt));
+        }
+
+        private static String payload(String extra, String occurredAt) {
+                return "{\"paymentId\": " + PAYMENT_ID + ", \"merchantId\": \"" + MERCHANT_ID + "\""
+                                + extra + ", \"occurredAt\": \"" + occurredAt + "\"}";
+        }
+
+        private ConsumerRecord<String, String> record(String topic, String eventId, String value) {
+                RecordHeaders headers = new RecordHeaders();
+                if (eventId != null) {
+                        // JSON 헤더 매퍼가 붙인 따옴표까지 포함
+                        headers.add(new RecordHeader("eventId",
+                                        ("\"" + eventId + "\"").getBytes(StandardCharsets.UTF_8)));
+                }
+                return new ConsumerRecord<>(topic, 0, nextOffset++, 0L, TimestampType.CREATE_TIME,
+                                ConsumerRecord.NULL_SIZE, ConsumerRecord.NULL_SIZE, "shard1:" + PAYMENT_ID, value,
+                                headers, Optional.empty());
+        }
+
+        private Map<String, String> view() {
+                return hashes.get(PaymentReadModelStore.viewKey(MERCHANT_ID, "shard1", PAYMENT_ID));
+        }
+
+        private double counter(String result) {
+                return meterRegistry.get("payment.read_model.events").tag("result", result).counter().count();
+        }
+
+        /**
+         * APPLY_SCRIPT의 hash 반영 규칙 (이벤트 필드 HSETNX, 시각은 큰 값, 금액은 누적, 나머지는 덮어쓰기)
+         */
+        private int applyLikeScript(PaymentProjection projection) {
+                Map<String, String> hash = hashes.computeIfAbsent(
+                                PaymentReadModelStore.viewKey(projection.merchantId(), projection.shard(),
+                                                projection.paymentId()),
+                                key -> new HashMap<>());
+                if (hash.putIfAbsent(projection.eventField(), "1") != null) {
+                        return 0;
+                }
+                long at = projection.occurredAtMillis();
+                hash.merge(projection.timeField(), String.valueOf(at), PaymentReadModelProjectorTest::max);
+                hash.merge(PaymentReadModelStore.UPDATED_AT, String.valueOf(at), PaymentReadModelProjectorTest::max);
+                if (projection.sumField() != null) {
+                        hash.merge(projection.sumField(), String.valueOf(projection.sumAmount()),
+                                        (current, amount) -> String.valueOf(
+                                                        Long.parseLong(current) + Long.parseLong(amount)));
+                }
+                hash.putAll(projection.fields());
+                return 1;
+        }
+
+        private static String max(String current, String candidate) {
+                return Long.parseLong(current) >= Long.parseLong(candidate) ? current : candidate;
+        }
+}
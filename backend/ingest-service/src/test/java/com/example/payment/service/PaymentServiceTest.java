@@ -2,22 +2,31 @@ package com.example.payment.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import com.example.payment.client.MockPgAuthApiClient.AuthorizationResponse;
+import com.example.payment.client.PgAuthApiClient.AuthorizationResponse;
 import com.example.payment.client.PgAuthApiService;
 import com.example.payment.domain.Payment;
+import com.example.payment.domain.PaymentStatus;
 import com.example.payment.repository.PaymentRepository;
+import com.example.payment.repository.PaymentSummary;
 import com.example.payment.web.dto.AuthorizePaymentRequest;
+import com.example.payment.web.dto.CapturePaymentRequest;
 import com.example.payment.web.dto.PaymentResponse;
+import com.example.payment.web.dto.RefundPaymentRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -27,6 +36,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
 
 /**
  * PaymentService 단위 테스트
@@ -40,6 +51,9 @@ class PaymentServiceTest {
         @Mock
         private PaymentRepository paymentRepository;
 
+        @Mock
+        private PaymentCacheService paymentCacheService;
+
         @Mock
         private IdempotencyCacheService idempotencyCacheService;
 
@@ -53,7 +67,7 @@ class PaymentServiceTest {
         private PgAuthApiService pgAuthApiService;
 
         @Mock
-        private org.springframework.transaction.PlatformTransactionManager transactionManager;
+        private PlatformTransactionManager transactionManager;
 
         private PaymentService paymentService;
 
@@ -61,10 +75,12 @@ class PaymentServiceTest {
         void setUp() {
                 paymentService = new PaymentService(
                                 paymentRepository,
+                                paymentCacheService,
                                 idempotencyCacheService,
                                 rateLimiter,
                                 eventPublisher,
                                 pgAuthApiService,
+                                new PaymentStageMetrics(new SimpleMeterRegistry()),
                                 transactionManager,
                                 false);
 
@@ -72,9 +88,8 @@ class PaymentServiceTest {
                 // When transactionTemplate.execute is called, it calls
                 // transactionManager.getTransaction and commit/rollback
                 // We need to ensure it executes the callback
-                org.springframework.transaction.TransactionStatus status = org.mockito.Mockito
-                                .mock(org.springframework.transaction.TransactionStatus.class);
-                org.mockito.Mockito.lenient().when(transactionManager.getTransaction(any())).thenReturn(status);
+                TransactionStatus status = mock(TransactionStatus.class);
+                lenient().when(transactionManager.getTransaction(any())).thenReturn(status);
         }
 
         @Test
@@ -125,6 +140,7 @@ class PaymentServiceTest {
                                 BigDecimal.valueOf(1000L),
                                 Instant.now());
                 when(pgAuthApiService.requestAuthorization(
+                                eq("M123:key-2"),
                                 eq("M123"),
                                 eq(BigDecimal.valueOf(1000L)),
                                 eq("KRW"),
@@ -145,6 +161,7 @@ class PaymentServiceTest {
                 assertThat(result.duplicate()).isFalse();
                 verify(rateLimiter).verifyAuthorizeAllowed("M123");
                 verify(pgAuthApiService).requestAuthorization(
+                                eq("M123:key-2"),
                                 eq("M123"),
                                 eq(BigDecimal.valueOf(1000L)),
                                 eq("KRW"),
@@ -162,4 +179,170 @@ class PaymentServiceTest {
                 assertThat(eventTypeCaptor.getAllValues()).containsExactly("PAYMENT_AUTHORIZED",
                                 "PAYMENT_CAPTURE_REQUESTED");
         }
+
+        @Test
+        @DisplayName("부분 환불 시 조건부 UPDATE로 금액을 예약하고 환불 금액으로 이벤트를 발행해야 함")
+        void partialRefundReservesAmountAndPublishesRefundAmount() {
+                // Given: 10000원 정산 완료 결제 (캐시 미스 → DB 조회), 3000원 예약 성공
+                // 예약 직후 재조회에는 동시에 예약된 다른 부분 환불 2000원까지 반영되어 있음
+                readThroughCache();
+                PaymentSummary summary = summary(7L, 10000L, PaymentStatus.CAPTURED);
+                PaymentSummary reserved = summary(7L, 10000L, PaymentStatus.REFUND_REQUESTED, 5000L, 6L);
+                when(paymentRepository.findSummaryByIdAndMerchantId(7L, "M123"))
+                                .thenReturn(Optional.of(summary), Optional.of(reserved));
+                when(paymentRepository.reserveRefund(eq(7L), eq("M123"), eq(3000L), any(),
+                                eq(PaymentStatus.REFUND_REQUESTED), any())).thenReturn(1);
+                when(idempotencyCacheService.claimRefund(7L, "M123", "refund-1")).thenReturn(true);
+
+                // When: 3000원 부분 환불
+                PaymentResult result = paymentService.refund(7L,
+                                new RefundPaymentRequest("M123", "line item", 3000L, "refund-1"));
+
+                // Then: 예약 성공, 환불 금액으로 이벤트 발행, 캐시는 예약 직후 DB 상태로 write-through
+                assertThat(result.duplicate()).isFalse();
+                assertThat(result.response().status()).isEqualTo("REFUND_REQUESTED");
+                ArgumentCaptor<Map<String, Object>> payloadCaptor = ArgumentCaptor.forClass(Map.class);
+                verify(eventPublisher).publishEvent(eq(7L), eq("PAYMENT_REFUND_REQUESTED"), payloadCaptor.capture());
+                assertThat(payloadCaptor.getValue()).containsEntry("amount", 3000L);
+                ArgumentCaptor<PaymentSnapshot> snapshotCaptor = ArgumentCaptor.forClass(PaymentSnapshot.class);
+                verify(paymentCacheService).putAfterCommit(snapshotCaptor.capture());
+                assertThat(snapshotCaptor.getValue().getVersion()).isEqualTo(6L);
+                assertThat(snapshotCaptor.getValue().getRefundedAmount()).isEqualTo(5000L);
+                verify(paymentRepository, never()).save(any(Payment.class));
+                verify(idempotencyCacheService).saveRefund(7L, "refund-1", result);
+        }
+
+        @Test
+        @DisplayName("같은 멱등 키로 재시도한 부분 환불은 다시 예약하지 않고 처음 응답을 돌려줘야 함")
+        void retriedRefundReplaysOriginalResult() {
+                // Given: 같은 결제에 같은 키로 이미 처리된 3000원 부분 환불
+                PaymentResponse original = new PaymentResponse(7L, "REFUND_REQUESTED", 10000L, "KRW",
+                                Instant.now(), List.of(), "Refund requested successfully (amount=3000)");
+                when(idempotencyCacheService.findRefund(7L, "M123", "refund-1"))
+                                .thenReturn(Optional.of(new PaymentResult(original, false)));
+
+                // When: 같은 요청 재시도
+                PaymentResult result = paymentService.refund(7L,
+                                new RefundPaymentRequest("M123", "line item", 3000L, "refund-1"));
+
+                // Then: 처음 응답, 예약/이벤트/레이트 제한 없음
+                assertThat(result.duplicate()).isFalse();
+                assertThat(result.response()).isEqualTo(original);
+                verify(rateLimiter, never()).verifyRefundAllowed(anyString());
+                verify(idempotencyCacheService, never()).claimRefund(any(), anyString(), anyString());
+                verify(paymentRepository, never()).reserveRefund(any(), anyString(), anyLong(), any(), any(),
+                                any());
+                verify(eventPublisher, never()).publishEvent(any(), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("같은 멱등 키의 동시 요청이 먼저 커밋하면 선점 실패 후 그 결과를 돌려줘야 함")
+        void concurrentRefundWithSameKeyReturnsCommittedResult() {
+                // Given: 재생 조회 시점에는 없었지만 선점 INSERT가 앞선 트랜잭션의 커밋을 기다린 뒤 0건
+                readThroughCache();
+                PaymentSummary summary = summary(7L, 10000L, PaymentStatus.CAPTURED);
+                when(paymentRepository.findSummaryByIdAndMerchantId(7L, "M123")).thenReturn(Optional.of(summary));
+                PaymentResponse committed = new PaymentResponse(7L, "REFUND_REQUESTED", 10000L, "KRW",
+                                Instant.now(), List.of(), "Refund requested successfully (amount=3000)");
+                when(idempotencyCacheService.findRefund(7L, "M123", "refund-1"))
+                                .thenReturn(Optional.empty(), Optional.of(new PaymentResult(committed, false)));
+                when(idempotencyCacheService.claimRefund(7L, "M123", "refund-1")).thenReturn(false);
+
+                PaymentResult result = paymentService.refund(7L,
+                                new RefundPaymentRequest("M123", "line item", 3000L, "refund-1"));
+
+                assertThat(result.response()).isEqualTo(committed);
+                verify(paymentRepository, never()).reserveRefund(any(), anyString(), anyLong(), any(), any(),
+                                any());
+                verify(idempotencyCacheService, never()).saveRefund(any(), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("환불 가능 잔액을 초과하면 DB 재확인 후 예약 없이 충돌 응답을 반환해야 함")
+        void refundExceedingBalanceIsRejected() {
+                readThroughCache();
+                PaymentSummary summary = summary(8L, 10000L, PaymentStatus.PARTIAL_REFUNDED);
+                when(paymentRepository.findSummaryByIdAndMerchantId(8L, "M123")).thenReturn(Optional.of(summary));
+                when(idempotencyCacheService.claimRefund(8L, "M123", "refund-2")).thenReturn(true);
+
+                PaymentResult result = paymentService.refund(8L,
+                                new RefundPaymentRequest("M123", "too much", 20000L, "refund-2"));
+
+                assertThat(result.duplicate()).isTrue();
+                assertThat(result.response().message()).isEqualTo("Refund amount exceeds refundable balance");
+                verify(paymentRepository, never()).reserveRefund(any(), anyString(), anyLong(), any(), any(),
+                                any());
+                verify(eventPublisher, never()).publishEvent(any(), anyString(), any());
+                // 거절도 같은 키의 재시도에 그대로 재생되도록 기록
+                verify(idempotencyCacheService).saveRefund(8L, "refund-2", result);
+        }
+
+        @Test
+        @DisplayName("캐시 적중 시 DB 조회 없이 조건부 UPDATE 한 번으로 정산 완료 처리해야 함")
+        void captureUsesCachedSnapshotWithoutDbRead() {
+                PaymentSnapshot cached = new PaymentSnapshot(10L, "M123", 5000L, "KRW",
+                                PaymentStatus.CAPTURE_REQUESTED, 0L, Instant.now(), 2L);
+                when(paymentCacheService.getOrLoad(eq(10L), eq("M123"), any())).thenReturn(Optional.of(cached));
+                when(paymentRepository.transitionStatus(eq(10L), eq("M123"), any(),
+                                eq(PaymentStatus.CAPTURED), eq(2L), any())).thenReturn(1);
+
+                PaymentResult result = paymentService.capture(10L, new CapturePaymentRequest("M123"));
+
+                assertThat(result.duplicate()).isFalse();
+                assertThat(result.response().status()).isEqualTo("CAPTURED");
+                verify(paymentRepository, never()).findSummaryByIdAndMerchantId(any(), anyString());
+                ArgumentCaptor<PaymentSnapshot> snapshotCaptor = ArgumentCaptor.forClass(PaymentSnapshot.class);
+                verify(paymentCacheService).putAfterCommit(snapshotCaptor.capture());
+                assertThat(snapshotCaptor.getValue().getStatus()).isEqualTo(PaymentStatus.CAPTURED);
+                assertThat(snapshotCaptor.getValue().getVersion()).isEqualTo(3L);
+        }
+
+        @Test
+        @DisplayName("오래된 캐시로 조건부 UPDATE가 0건이면 DB 재조회 결과로 충돌 응답을 반환해야 함")
+        void captureRejectedWhenConditionalUpdateMisses() {
+                // Given: 캐시는 CAPTURE_REQUESTED(v2)지만 DB는 이미 REFUNDED로 바뀜
+                PaymentSnapshot stale = new PaymentSnapshot(9L, "M123", 5000L, "KRW",
+                                PaymentStatus.CAPTURE_REQUESTED, 0L, Instant.now(), 2L);
+                when(paymentCacheService.getOrLoad(eq(9L), eq("M123"), any())).thenReturn(Optional.of(stale));
+                when(paymentRepository.transitionStatus(eq(9L), eq("M123"), any(),
+                                eq(PaymentStatus.CAPTURED), eq(2L), any())).thenReturn(0);
+                PaymentSummary summary = summary(9L, 5000L, PaymentStatus.REFUNDED);
+                when(paymentRepository.findSummaryByIdAndMerchantId(9L, "M123")).thenReturn(Optional.of(summary));
+
+                PaymentResult result = paymentService.capture(9L, new CapturePaymentRequest("M123"));
+
+                // Then: 재조회한 최신 상태로 거절, 이벤트/write-through 없음
+                assertThat(result.duplicate()).isTrue();
+                assertThat(result.response().status()).isEqualTo("REFUNDED");
+                verify(paymentRepository, never()).save(any(Payment.class));
+                verify(eventPublisher, never()).publishEvent(any(), anyString(), any());
+                verify(paymentCacheService, never()).putAfterCommit(any());
+        }
+
+        /**
+         * 캐시 미스: getOrLoad가 전달받은 loader(DB 조회)를 그대로 실행
+         */
+        @SuppressWarnings("unchecked")
+        private void readThroughCache() {
+                when(paymentCacheService.getOrLoad(any(), anyString(), any()))
+                                .thenAnswer(invocation -> ((java.util.function.Supplier<Optional<PaymentSummary>>) invocation
+                                                .getArgument(2)).get().map(PaymentSnapshot::of));
+        }
+
+        private PaymentSummary summary(Long id, Long amount, PaymentStatus status) {
+                return summary(id, amount, status, 0L, 4L);
+        }
+
+        private PaymentSummary summary(Long id, Long amount, PaymentStatus status, long refundedAmount,
+                        long version) {
+                PaymentSummary summary = mock(PaymentSummary.class);
+                lenient().when(summary.getId()).thenReturn(id);
+                lenient().when(summary.getMerchantId()).thenReturn("M123");
+                lenient().when(summary.getAmount()).thenReturn(amount);
+                lenient().when(summary.getCurrency()).thenReturn("KRW");
+                lenient().when(summary.getStatus()).thenReturn(status);
+                lenient().when(summary.getRefundedAmount()).thenReturn(refundedAmount);
+                lenient().when(summary.getVersion()).thenReturn(version);
+                return summary;
+        }
 }
@@ -0,0 +1,55 @@
+package com.example.monitoring.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * 분석(rollup) 전용 데이터소스.
+ * OLTP 샤드와 분리된 DB에 rollup 테이블을 두어 대시보드 조회가 결제 DB에 부하를 주지 않도록 한다.
+ *
+ * JdbcTemplate/TransactionManager 빈은 등록하지 않는다 (샤드용 자동 구성 빈을 대체하지 않도록 사용하는 쪽에서 직접 생성).
+ */
+@Configuration
+public class AnalyticsDataSourceConfig {
+
+    /**
+     * Analytics 데이터소스 프로퍼티
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.analytics")
+    public DataSourceProperties analyticsDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * Analytics HikariCP 데이터소스
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.analytics.hikari")
+    public HikariDataSource analyticsDataSource(
+            @Qualifier("analyticsDataSourceProperties") DataSourceProperties properties) {
+        return properties
+                .initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * rollup 테이블 생성 (CREATE TABLE IF NOT EXISTS)
+     */
+    @Bean
+    public DataSourceInitializer analyticsSchemaInitializer(
+            @Qualifier("analyticsDataSource") HikariDataSource analyticsDataSource) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(analyticsDataSource);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("analytics-schema.sql")));
+        return initializer;
+    }
+}
@@ -1,54 +1,36 @@
 package com.example.monitoring.config.shard;
 
 /**
- * ThreadLocal을 이용한 샤드 컨텍스트 관리.
- * merchant_id를 기반으로 샤드 키를 자동 설정.
+ * merchant_id → 샤드 키 계산.
+ * 샤드 바인딩은 ShardScope(open/run/call)로만 하고, 여기서는 ThreadLocal을 직접 건드리지 않는다.
  */
-public class ShardContextHolder {
+public final class ShardContextHolder {
 
-    private static final ThreadLocal<String> CONTEXT = new ThreadLocal<>();
-
-    /**
-     * 현재 스레드의 샤드 키 설정
-     */
-    public static void setShardKey(String shardKey) {
-        CONTEXT.set(shardKey);
+    private ShardContextHolder() {
     }
 
     /**
-     * 현재 스레드의 샤드 키 조회
+     * 현재 범위의 샤드 키 (범위 밖이면 null)
      */
     public static String getShardKey() {
-        return CONTEXT.get();
-    }
-
-    /**
-     * 샤드 컨텍스트 초기화
-     */
-    public static void clear() {
-        CONTEXT.remove();
+        return ShardScope.current();
     }
 
     /**
-     * merchant_id를 기반으로 샤드 키 자동 설정 (modulo 2 해싱)
-     * MERCHANT-123 → 123 (홀수) → shard2
-     * MERCHANT-456 → 456 (짝수) → shard1
+     * merchant_id가 속한 샤드 키 계산 (컨텍스트는 변경하지 않음)
      */
-    public static void setShardByMerchantId(String merchantId) {
+    public static String resolveShardKey(String merchantId) {
         if (merchantId == null || merchantId.isEmpty()) {
-            setShardKey("shard1"); // 기본값
-            return;
+            return "shard1"; // 기본값
         }
 
         // "MERCHANT-123" → "123" 추출
         String numericPart = merchantId.replaceAll("[^0-9]", "");
         if (numericPart.isEmpty()) {
-            setShardKey("shard1"); // 기본값
-            return;
+            return "shard1"; // 기본값
         }
 
         int merchantNumber = Integer.parseInt(numericPart);
-        String shardKey = (merchantNumber % 2 == 0) ? "shard1" : "shard2";
-        setShardKey(shardKey);
+        return (merchantNumber % 2 == 0) ? "shard1" : "shard2";
     }
 }
@@ -2,6 +2,7 @@ package com.example.monitoring.config.shard;
 
 import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -67,19 +68,20 @@ public class ShardDataSourceConfig {
 
     /**
      * 라우팅 데이터소스 (Primary)
-     * ShardContextHolder의 샤드 키에 따라 shard1 또는 shard2로 라우팅
+     * ShardScope의 샤드 키에 따라 shard1 또는 shard2로 라우팅
      */
     @Bean
     @Primary
     public DataSource dataSource(
             @Qualifier("shard1DataSource") HikariDataSource shard1,
-            @Qualifier("shard2DataSource") HikariDataSource shard2) throws SQLException {
+            @Qualifier("shard2DataSource") HikariDataSource shard2,
+            @Value("${shard.routing.strict:true}") boolean strict) throws SQLException {
 
         // 두 데이터소스 모두 초기화 (Lazy 초기화 방지)
         shard1.getConnection().close();
         shard2.getConnection().close();
 
-        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(strict);
 
         Map<Object, Object> targetDataSources = new HashMap<>();
         targetDataSources.put("shard1", shard1);
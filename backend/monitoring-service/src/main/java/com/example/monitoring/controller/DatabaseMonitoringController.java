@@ -1,34 +1,53 @@
 package com.example.monitoring.controller;
 
 import com.example.monitoring.config.shard.ShardContextHolder;
+import com.example.monitoring.rollup.RollupQueryService;
+import com.example.monitoring.scatter.ScatterGatherExecutor;
+import com.example.monitoring.scatter.ScatterResult;
+import com.example.monitoring.scatter.ShardOutcome;
+import com.example.monitoring.scatter.ShardPageToken;
+import com.example.monitoring.scatter.ShardReducers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * REST API for Database monitoring and queries
  * Provides same functionality as database-query-mcp but via HTTP
  * Supports dual shard querying (shard1 + shard2)
+ * 샤드 조회는 ScatterGatherExecutor로 동시에 실행하고, 응답에 샤드별 상태(shards)와 부분 응답 여부(partial)를 싣는다.
  */
 @RestController
 @RequestMapping("/monitoring/database")
 public class DatabaseMonitoringController {
 
+    private static final int MAX_PAGE_SIZE = 500;
+
+    @Autowired
+    private ScatterGatherExecutor scatterGatherExecutor;
+
     @Autowired
-    private JdbcTemplate jdbcTemplate;
+    private RollupQueryService rollupQueryService;
 
     /**
-     * GET /monitoring/database/payments?filter=...&limit=10
+     * GET /monitoring/database/payments?filter=...&limit=10&pageToken=...
      * Query payments with natural language filters
+     * (requested_at, payment_id) 내림차순 keyset 페이지 - 샤드별 페이지를 k-way 병합하고 nextPageToken으로 이어서 조회
      */
     @GetMapping("/payments")
     public ResponseEntity<Map<String, Object>> queryPayments(
             @RequestParam String filter,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(required = false) String pageToken) {
+
+        ShardPageToken token;
+        try {
+            token = ShardPageToken.decode(pageToken);
+        } catch (IllegalArgumentException e) {
+            return invalidPageToken(e);
+        }
 
         try {
             StringBuilder sql = new StringBuilder(
@@ -39,16 +58,16 @@ public class DatabaseMonitoringController {
             List<Object> params = new ArrayList<>();
             parseFilter(filter, sql, params);
 
-            sql.append(" ORDER BY requested_at DESC LIMIT ?");
-            params.add(limit);
-
-            List<Map<String, Object>> results = jdbcTemplate.queryForList(sql.toString(), params.toArray());
+            KeysetPage page = keysetPage(ScatterGatherExecutor.SHARDS, sql.toString(), params,
+                    "requested_at", "payment_id", "requested_at", "payment_id",
+                    token, limit);
+            if (page.result().isFailed()) {
+                return shardFailure("Query failed", page.result());
+            }
 
-            return ResponseEntity.ok(Map.of(
-                    "count", results.size(),
-                    "filter", filter,
-                    "payments", results
-            ));
+            Map<String, Object> response = page.toResponse("payments");
+            response.put("filter", filter);
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of(
                     "error", "Query failed",
@@ -59,47 +78,24 @@ public class DatabaseMonitoringController {
 
     /**
      * GET /monitoring/database/statistics?timeRange=today
-     * Get payment statistics from BOTH shards (shard1 + shard2)
+     * Get payment statistics from payment rollups (both shards, analytics DB)
+     * 원본 payment 테이블을 집계하지 않으므로 결제 DB에 분석 부하를 주지 않음
      */
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getStatistics(
             @RequestParam(defaultValue = "today") String timeRange) {
 
         try {
-            String whereClause = getTimeRangeClause(timeRange);
-
-            // Query shard1
-            ShardContextHolder.setShardKey("shard1");
-            Map<String, Object> shard1Stats = queryShardStatistics(whereClause);
-            List<Map<String, Object>> shard1StatusBreakdown = queryShardStatusBreakdown(whereClause);
-            List<Map<String, Object>> shard1TopMerchants = queryShardTopMerchants(whereClause);
-
-            // Query shard2
-            ShardContextHolder.setShardKey("shard2");
-            Map<String, Object> shard2Stats = queryShardStatistics(whereClause);
-            List<Map<String, Object>> shard2StatusBreakdown = queryShardStatusBreakdown(whereClause);
-            List<Map<String, Object>> shard2TopMerchants = queryShardTopMerchants(whereClause);
-
-            // Clear shard context
-            ShardContextHolder.clear();
-
-            // Merge overall stats
-            Map<String, Object> mergedStats = mergeOverallStats(shard1Stats, shard2Stats);
-
-            // Merge status breakdown
-            List<Map<String, Object>> mergedStatusBreakdown = mergeStatusBreakdown(shard1StatusBreakdown, shard2StatusBreakdown);
-
-            // Merge top merchants
-            List<Map<String, Object>> mergedTopMerchants = mergeTopMerchants(shard1TopMerchants, shard2TopMerchants);
+            RollupQueryService.Window window = rollupQueryService.window(timeRange);
 
             return ResponseEntity.ok(Map.of(
                     "timeRange", timeRange,
-                    "overall", mergedStats,
-                    "byStatus", mergedStatusBreakdown,
-                    "topMerchants", mergedTopMerchants
+                    "granularity", window.granularity().name(),
+                    "overall", rollupQueryService.overall(window, RollupQueryService.AUTHORIZED),
+                    "byStatus", rollupQueryService.byStatus(window),
+                    "topMerchants", rollupQueryService.topMerchants(window, RollupQueryService.AUTHORIZED, 5)
             ));
         } catch (Exception e) {
-            ShardContextHolder.clear();
             return ResponseEntity.status(500).body(Map.of(
                     "error", "Statistics query failed",
                     "message", e.getMessage()
@@ -107,107 +103,6 @@ public class DatabaseMonitoringController {
         }
     }
 
-    private Map<String, Object> queryShardStatistics(String whereClause) {
-        String statsSql = "SELECT COUNT(*) as total_count, " +
-                "COALESCE(SUM(amount), 0) as total_amount, " +
-                "COALESCE(AVG(amount), 0) as avg_amount, " +
-                "COALESCE(MIN(amount), 0) as min_amount, " +
-                "COALESCE(MAX(amount), 0) as max_amount " +
-                "FROM payment WHERE " + whereClause;
-        return jdbcTemplate.queryForMap(statsSql);
-    }
-
-    private List<Map<String, Object>> queryShardStatusBreakdown(String whereClause) {
-        String statusSql = "SELECT status, COUNT(*) as count, " +
-                "COALESCE(SUM(amount), 0) as total_amount " +
-                "FROM payment WHERE " + whereClause +
-                " GROUP BY status";
-        return jdbcTemplate.queryForList(statusSql);
-    }
-
-    private List<Map<String, Object>> queryShardTopMerchants(String whereClause) {
-        String merchantSql = "SELECT merchant_id, COUNT(*) as transaction_count, " +
-                "COALESCE(SUM(amount), 0) as total_amount " +
-                "FROM payment WHERE " + whereClause +
-                " GROUP BY merchant_id ORDER BY total_amount DESC LIMIT 10";
-        return jdbcTemplate.queryForList(merchantSql);
-    }
-
-    private Map<String, Object> mergeOverallStats(Map<String, Object> shard1, Map<String, Object> shard2) {
-        long totalCount = ((Number) shard1.get("total_count")).longValue() + ((Number) shard2.get("total_count")).longValue();
-        long totalAmount = ((Number) shard1.get("total_amount")).longValue() + ((Number) shard2.get("total_amount")).longValue();
-        long avgAmount = totalCount > 0 ? totalAmount / totalCount : 0;
-
-        long min1 = ((Number) shard1.get("min_amount")).longValue();
-        long min2 = ((Number) shard2.get("min_amount")).longValue();
-        long minAmount = Math.min(min1, min2);
-
-        long max1 = ((Number) shard1.get("max_amount")).longValue();
-        long max2 = ((Number) shard2.get("max_amount")).longValue();
-        long maxAmount = Math.max(max1, max2);
-
-        Map<String, Object> merged = new HashMap<>();
-        merged.put("total_count", totalCount);
-        merged.put("total_amount", totalAmount);
-        merged.put("avg_amount", avgAmount);
-        merged.put("min_amount", minAmount);
-        merged.put("max_amount", maxAmount);
-        return merged;
-    }
-
-    private List<Map<String, Object>> mergeStatusBreakdown(List<Map<String, Object>> shard1, List<Map<String, Object>> shard2) {
-        Map<String, Map<String, Object>> merged = new HashMap<>();
-
-        for (Map<String, Object> item : shard1) {
-            String status = (String) item.get("status");
-            merged.put(status, new HashMap<>(item));
-        }
-
-        for (Map<String, Object> item : shard2) {
-            String status = (String) item.get("status");
-            if (merged.containsKey(status)) {
-                Map<String, Object> existing = merged.get(status);
-                long count = ((Number) existing.get("count")).longValue() + ((Number) item.get("count")).longValue();
-                long totalAmount = ((Number) existing.get("total_amount")).longValue() + ((Number) item.get("total_amount")).longValue();
-                existing.put("count", count);
-                existing.put("total_amount", totalAmount);
-            } else {
-                merged.put(status, new HashMap<>(item));
-            }
-        }
-
-        return new ArrayList<>(merged.values());
-    }
-
-    private List<Map<String, Object>> mergeTopMerchants(List<Map<String, Object>> shard1, List<Map<String, Object>> shard2) {
-        Map<String, Map<String, Object>> merged = new HashMap<>();
-
-        for (Map<String, Object> item : shard1) {
-            String merchantId = (String) item.get("merchant_id");
-            merged.put(merchantId, new HashMap<>(item));
-        }
-
-        for (Map<String, Object> item : shard2) {
-            String merchantId = (String) item.get("merchant_id");
-            if (merged.containsKey(merchantId)) {
-                Map<String, Object> existing = merged.get(merchantId);
-                long txCount = ((Number) existing.get("transaction_count")).longValue() + ((Number) item.get("transaction_count")).longValue();
-                long totalAmount = ((Number) existing.get("total_amount")).longValue() + ((Number) item.get("total_amount")).longValue();
-                existing.put("transaction_count", txCount);
-                existing.put("total_amount", totalAmount);
-            } else {
-                merged.put(merchantId, new HashMap<>(item));
-            }
-        }
-
-        return merged.values().stream()
-                .sorted((a, b) -> Long.compare(
-                        ((Number) b.get("total_amount")).longValue(),
-                        ((Number) a.get("total_amount")).longValue()))
-                .limit(5)
-                .collect(Collectors.toList());
-    }
-
     /**
      * GET /monitoring/database/outbox?maxAgeMinutes=5
      * Check for stuck outbox events
@@ -224,13 +119,21 @@ public class DatabaseMonitoringController {
                     "WHERE published = 0 AND created_at < DATE_SUB(NOW(), INTERVAL ? MINUTE) " +
                     "ORDER BY created_at ASC";
 
-            List<Map<String, Object>> stuckEvents = jdbcTemplate.queryForList(sql, maxAgeMinutes);
+            ScatterResult<List<Map<String, Object>>> result = scatterGatherExecutor.scatter(
+                    (shard, jdbc) -> jdbc.queryForList(sql, maxAgeMinutes));
+            if (result.isFailed()) {
+                return shardFailure("Outbox check failed", result);
+            }
+            List<Map<String, Object>> stuckEvents = result.reduce(
+                    ShardReducers.mergeSorted(ShardReducers.byColumn("created_at", false), Integer.MAX_VALUE));
 
             if (stuckEvents.isEmpty()) {
                 return ResponseEntity.ok(Map.of(
-                        "healthy", true,
-                        "message", "No stuck events found",
-                        "events", Collections.emptyList()
+                        "healthy", !result.isPartial(),
+                        "message", result.isPartial() ? "No stuck events found on responding shards" : "No stuck events found",
+                        "events", Collections.emptyList(),
+                        "partial", result.isPartial(),
+                        "shards", result.shardStatus()
                 ));
             }
 
@@ -238,7 +141,9 @@ public class DatabaseMonitoringController {
                     "healthy", false,
                     "message", stuckEvents.size() + " unpublished events older than " + maxAgeMinutes + " minutes",
                     "count", stuckEvents.size(),
-                    "events", stuckEvents
+                    "events", stuckEvents,
+                    "partial", result.isPartial(),
+                    "shards", result.shardStatus()
             ));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of(
@@ -255,73 +160,57 @@ public class DatabaseMonitoringController {
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getDatabaseStats() {
         try {
-            Map<String, Object> stats = new HashMap<>();
+            // 샤드마다 한 가상 스레드에서 통계 쿼리를 순서대로 실행
+            ScatterResult<Map<String, Object>> result = scatterGatherExecutor.scatter((shard, jdbc) -> {
+                Map<String, Object> shardStats = new HashMap<>();
+                shardStats.put("paymentsByStatus",
+                        jdbc.queryForList("SELECT status, COUNT(*) as count FROM payment GROUP BY status"));
+                shardStats.put("totalPayments", jdbc.queryForObject("SELECT COUNT(*) as total FROM payment", Long.class));
+                shardStats.put("ledgerEntryCount",
+                        jdbc.queryForObject("SELECT COUNT(*) as count FROM ledger_entry", Long.class));
+                shardStats.put("outboxEvents", jdbc.queryForMap("SELECT " +
+                        "COUNT(*) as total, " +
+                        "SUM(CASE WHEN published = 1 THEN 1 ELSE 0 END) as published, " +
+                        "SUM(CASE WHEN published = 0 THEN 1 ELSE 0 END) as unpublished " +
+                        "FROM outbox_event"));
+                shardStats.put("settlementsByStatus",
+                        jdbc.queryForList("SELECT status, COUNT(*) as count FROM settlement_request GROUP BY status"));
+                shardStats.put("refundsByStatus",
+                        jdbc.queryForList("SELECT status, COUNT(*) as count FROM refund_request GROUP BY status"));
+                return shardStats;
+            });
+            if (result.isFailed()) {
+                return shardFailure("Database stats query failed", result);
+            }
+            List<Map<String, Object>> shardStats = result.values();
 
-            // Payment counts by status
-            String paymentStatusSql = "SELECT status, COUNT(*) as count FROM payment GROUP BY status";
-            List<Map<String, Object>> paymentByStatus = jdbcTemplate.queryForList(paymentStatusSql);
-            stats.put("paymentsByStatus", paymentByStatus);
-
-            // Total payments
-            String totalPaymentsSql = "SELECT COUNT(*) as total FROM payment";
-            Long totalPayments = jdbcTemplate.queryForObject(totalPaymentsSql, Long.class);
-            stats.put("totalPayments", totalPayments);
-
-            // Ledger entry count
-            String ledgerCountSql = "SELECT COUNT(*) as count FROM ledger_entry";
-            Long ledgerCount = jdbcTemplate.queryForObject(ledgerCountSql, Long.class);
-            stats.put("ledgerEntryCount", ledgerCount);
-
-            // Outbox event statistics
-            String outboxStatsSql = "SELECT " +
-                "COUNT(*) as total, " +
-                "SUM(CASE WHEN published = 1 THEN 1 ELSE 0 END) as published, " +
-                "SUM(CASE WHEN published = 0 THEN 1 ELSE 0 END) as unpublished " +
-                "FROM outbox_event";
-            Map<String, Object> outboxStats = jdbcTemplate.queryForMap(outboxStatsSql);
-            stats.put("outboxEvents", outboxStats);
-
-            // Settlement statistics
-            String settlementStatsSql = "SELECT status, COUNT(*) as count FROM settlement_request GROUP BY status";
-            List<Map<String, Object>> settlementByStatus = jdbcTemplate.queryForList(settlementStatsSql);
-            stats.put("settlementsByStatus", settlementByStatus);
-
-            // Refund statistics
-            String refundStatsSql = "SELECT status, COUNT(*) as count FROM refund_request GROUP BY status";
-            List<Map<String, Object>> refundByStatus = jdbcTemplate.queryForList(refundStatsSql);
-            stats.put("refundsByStatus", refundByStatus);
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("paymentsByStatus", ShardReducers.groupBy("status", "count")
+                    .apply(column(shardStats, "paymentsByStatus")));
+            stats.put("totalPayments", ShardReducers.<Long>sum().apply(column(shardStats, "totalPayments")));
+            stats.put("ledgerEntryCount", ShardReducers.<Long>sum().apply(column(shardStats, "ledgerEntryCount")));
+            stats.put("outboxEvents", ShardReducers.sumColumns("total", "published", "unpublished")
+                    .apply(column(shardStats, "outboxEvents")));
+            stats.put("settlementsByStatus", ShardReducers.groupBy("status", "count")
+                    .apply(column(shardStats, "settlementsByStatus")));
+            stats.put("refundsByStatus", ShardReducers.groupBy("status", "count")
+                    .apply(column(shardStats, "refundsByStatus")));
 
             // DB Sharding validation (Shard1 and Shard2)
             Map<String, Object> shardingStats = new HashMap<>();
-            try {
-                String shard1Sql = "SELECT COUNT(*) as total FROM payment";
-                Long shard1Count = jdbcTemplate.queryForObject(shard1Sql, Long.class);
-                shardingStats.put("shard1Total", shard1Count);
-                shardingStats.put("shard1Status", "UP");
-            } catch (Exception e) {
-                shardingStats.put("shard1Status", "DOWN");
-                shardingStats.put("shard1Error", e.getMessage());
-            }
-
-            // Shard2 (Separate connection via environment variable if available)
-            String shard2Host = System.getenv("PAYMENT_DB_HOST_SHARD2");
-            String shard2Port = System.getenv("PAYMENT_DB_PORT_SHARD2");
-            if (shard2Host != null && shard2Port != null) {
-                try {
-                    String shard2Sql = "SELECT COUNT(*) as total FROM payment";
-                    Long shard2Count = jdbcTemplate.queryForObject(shard2Sql, Long.class);
-                    shardingStats.put("shard2Total", shard2Count);
-                    shardingStats.put("shard2Status", "UP");
-                    shardingStats.put("shard2Host", shard2Host);
-                    shardingStats.put("shard2Port", shard2Port);
-                } catch (Exception e) {
-                    shardingStats.put("shard2Status", "DOWN");
-                    shardingStats.put("shard2Error", e.getMessage());
+            for (ShardOutcome<Map<String, Object>> outcome : result.outcomes()) {
+                if (outcome.isOk()) {
+                    shardingStats.put(outcome.shard() + "Total", outcome.value().get("totalPayments"));
+                    shardingStats.put(outcome.shard() + "Status", "UP");
+                } else {
+                    shardingStats.put(outcome.shard() + "Status",
+                            outcome.status() == ShardOutcome.Status.TIMEOUT ? "TIMEOUT" : "DOWN");
+                    shardingStats.put(outcome.shard() + "Error", outcome.error());
                 }
-            } else {
-                shardingStats.put("shard2Status", "UNCONFIGURED");
             }
             stats.put("databaseSharding", shardingStats);
+            stats.put("partial", result.isPartial());
+            stats.put("shards", result.shardStatus());
 
             stats.put("message", "Database statistics retrieved successfully");
 
@@ -337,20 +226,38 @@ public class DatabaseMonitoringController {
     /**
      * GET /monitoring/database/reconciliation
      * Verify double-entry bookkeeping integrity
+     * account_balance(샤드별 누적 잔액)만 읽으므로 원장 크기와 무관하게 계정 수만큼만 조회
      */
     @GetMapping("/reconciliation")
     public ResponseEntity<Map<String, Object>> checkReconciliation() {
         try {
-            String balanceSql = "SELECT COALESCE(SUM(amount), 0) as total FROM ledger_entry";
-            Long total = jdbcTemplate.queryForObject(balanceSql, Long.class);
+            String accountSql = "SELECT account, COALESCE(SUM(debit_total), 0) as debit_total, " +
+                    "COALESCE(SUM(credit_total), 0) as credit_total " +
+                    "FROM account_balance GROUP BY account";
+
+            ScatterResult<List<Map<String, Object>>> result = scatterGatherExecutor.scatter(
+                    (shard, jdbc) -> jdbc.queryForList(accountSql));
+            // 일부 샤드만으로는 대차 일치 여부를 판단할 수 없음
+            if (result.isPartial()) {
+                return shardFailure("Reconciliation check failed", result);
+            }
 
-            String debitSql = "SELECT debit_account, COALESCE(SUM(amount), 0) as total " +
-                    "FROM ledger_entry GROUP BY debit_account";
-            List<Map<String, Object>> debits = jdbcTemplate.queryForList(debitSql);
+            Map<String, long[]> totals = new TreeMap<>();
+            for (Map<String, Object> row : result.reduce(ShardReducers.groupBy("account", "debit_total", "credit_total"))) {
+                totals.put((String) row.get("account"),
+                        new long[]{(Long) row.get("debit_total"), (Long) row.get("credit_total")});
+            }
 
-            String creditSql = "SELECT credit_account, COALESCE(SUM(amount), 0) as total " +
-                    "FROM ledger_entry GROUP BY credit_account";
-            List<Map<String, Object>> credits = jdbcTemplate.queryForList(creditSql);
+            List<Map<String, Object>> debits = new ArrayList<>();
+            List<Map<String, Object>> credits = new ArrayList<>();
+            totals.forEach((account, total) -> {
+                if (total[0] > 0) {
+                    debits.add(Map.of("debit_account", account, "total", total[0]));
+                }
+                if (total[1] > 0) {
+                    credits.add(Map.of("credit_account", account, "total", total[1]));
+                }
+            });
 
             long debitSum = debits.stream()
                     .mapToLong(m -> ((Number) m.get("total")).longValue())
@@ -368,7 +275,8 @@ public class DatabaseMonitoringController {
                     "totalCredits", creditSum,
                     "debitAccounts", debits,
                     "creditAccounts", credits,
-                    "message", balanced ? "Books are balanced" : "IMBALANCE DETECTED!"
+                    "message", balanced ? "Books are balanced" : "IMBALANCE DETECTED!",
+                    "shards", result.shardStatus()
             ));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of(
@@ -379,41 +287,86 @@ public class DatabaseMonitoringController {
     }
 
     /**
-     * GET /monitoring/database/ledger?paymentId=123
+     * GET /monitoring/database/balances?merchantId=...
+     * Get account balances of a merchant (가맹점 샤드의 account_balance stripe 합산)
+     */
+    @GetMapping("/balances")
+    public ResponseEntity<Map<String, Object>> getAccountBalances(@RequestParam String merchantId) {
+        try {
+            ScatterResult<List<Map<String, Object>>> result = scatterGatherExecutor.scatter(
+                    List.of(ShardContextHolder.resolveShardKey(merchantId)),
+                    (shard, jdbc) -> jdbc.queryForList(
+                            "SELECT account, SUM(debit_total) as debit_total, SUM(credit_total) as credit_total, " +
+                            "SUM(debit_total) - SUM(credit_total) as net_balance, SUM(entry_count) as entry_count, " +
+                            "COUNT(*) as stripes, MAX(updated_at) as updated_at " +
+                            "FROM account_balance WHERE merchant_id = ? GROUP BY account ORDER BY account",
+                            merchantId));
+            if (result.isFailed()) {
+                return shardFailure("Balance query failed", result);
+            }
+            List<Map<String, Object>> balances = result.values().get(0);
+
+            return ResponseEntity.ok(Map.of(
+                    "merchantId", merchantId,
+                    "count", balances.size(),
+                    "balances", balances
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body(Map.of(
+                    "error", "Balance query failed",
+                    "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * GET /monitoring/database/ledger?paymentId=123&limit=20&pageToken=...
      * Get ledger entries for a payment
+     * (occurred_at, entry_id) 내림차순 keyset 페이지
      */
     @GetMapping("/ledger")
     public ResponseEntity<Map<String, Object>> getLedgerEntries(
             @RequestParam(required = false) Long paymentId,
-            @RequestParam(required = false) String merchantId) {
+            @RequestParam(required = false) String merchantId,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String pageToken) {
+
+        ShardPageToken token;
+        try {
+            token = ShardPageToken.decode(pageToken);
+        } catch (IllegalArgumentException e) {
+            return invalidPageToken(e);
+        }
 
         try {
-            String sql;
-            Object[] params;
+            KeysetPage page;
 
             if (paymentId != null) {
-                sql = "SELECT entry_id, payment_id, debit_account, credit_account, " +
+                // 결제 ID만으로는 샤드를 알 수 없으므로 전체 샤드 조회 (ix_payment_time)
+                page = keysetPage(ScatterGatherExecutor.SHARDS,
+                        "SELECT entry_id, payment_id, debit_account, credit_account, " +
                         "amount, occurred_at FROM ledger_entry " +
-                        "WHERE payment_id = ? ORDER BY occurred_at DESC";
-                params = new Object[]{paymentId};
+                        "WHERE payment_id = ?", List.of(paymentId),
+                        "occurred_at", "entry_id", "occurred_at", "entry_id",
+                        token, limit);
             } else if (merchantId != null) {
-                sql = "SELECT le.entry_id, le.payment_id, le.debit_account, le.credit_account, " +
+                page = keysetPage(List.of(ShardContextHolder.resolveShardKey(merchantId)),
+                        "SELECT le.entry_id, le.payment_id, le.debit_account, le.credit_account, " +
                         "le.amount, le.occurred_at FROM ledger_entry le " +
                         "JOIN payment p ON le.payment_id = p.payment_id " +
-                        "WHERE p.merchant_id = ? ORDER BY le.occurred_at DESC LIMIT 20";
-                params = new Object[]{merchantId};
+                        "WHERE p.merchant_id = ?", List.of(merchantId),
+                        "le.occurred_at", "le.entry_id", "occurred_at", "entry_id",
+                        token, limit);
             } else {
                 return ResponseEntity.badRequest().body(Map.of(
                         "error", "Either paymentId or merchantId is required"
                 ));
             }
 
-            List<Map<String, Object>> entries = jdbcTemplate.queryForList(sql, params);
-
-            return ResponseEntity.ok(Map.of(
-                    "count", entries.size(),
-                    "entries", entries
-            ));
+            if (page.result().isFailed()) {
+                return shardFailure("Ledger query failed", page.result());
+            }
+            return ResponseEntity.ok(page.toResponse("entries"));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of(
                     "error", "Ledger query failed",
@@ -422,6 +375,85 @@ public class DatabaseMonitoringController {
         }
     }
 
+    /**
+     * 샤드별 keyset 페이지 조회 후 k-way 병합
+     *
+     * 각 샤드는 커서 다음부터 (timeExpr, idExpr) 내림차순으로 limit + 1건만 읽는다 (OFFSET 없음).
+     * 병합 후 남는 행이 있으면 다음 페이지가 있는 것이며, 내보낸 행 기준으로 샤드별 커서를 전진시킨다.
+     *
+     * @param baseSql WHERE 절까지 포함한 조회문 (ORDER BY/LIMIT 제외)
+     */
+    private KeysetPage keysetPage(List<String> shards, String baseSql, List<Object> baseParams,
+                                  String timeExpr, String idExpr, String timeColumn, String idColumn,
+                                  ShardPageToken token, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        ScatterResult<List<Map<String, Object>>> result = scatterGatherExecutor.scatter(shards, (shard, jdbc) -> {
+            StringBuilder sql = new StringBuilder(baseSql);
+            List<Object> params = new ArrayList<>(baseParams);
+            token.position(shard).ifPresent(position -> {
+                sql.append(" AND (").append(timeExpr).append(" < ? OR (")
+                        .append(timeExpr).append(" = ? AND ").append(idExpr).append(" < ?))");
+                params.add(position.at());
+                params.add(position.at());
+                params.add(position.id());
+            });
+            sql.append(" ORDER BY ").append(timeExpr).append(" DESC, ").append(idExpr).append(" DESC LIMIT ?");
+            params.add(pageSize + 1);
+
+            List<Map<String, Object>> rows = jdbc.queryForList(sql.toString(), params.toArray());
+            rows.forEach(row -> row.put(ShardPageToken.SHARD_COLUMN, shard));
+            return rows;
+        });
+
+        List<Map<String, Object>> rows = result.reduce(ShardReducers.mergeSorted(
+                ShardReducers.byColumn(timeColumn, true).thenComparing(ShardReducers.byColumn(idColumn, true)),
+                pageSize));
+        int fetched = result.values().stream().mapToInt(List::size).sum();
+        String nextPageToken = fetched > rows.size() ? token.advance(rows, timeColumn, idColumn).encode() : null;
+        return new KeysetPage(result, rows, nextPageToken);
+    }
+
+    private record KeysetPage(ScatterResult<List<Map<String, Object>>> result,
+                              List<Map<String, Object>> rows,
+                              String nextPageToken) {
+
+        Map<String, Object> toResponse(String rowsKey) {
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("count", rows.size());
+            response.put(rowsKey, rows);
+            response.put("nextPageToken", nextPageToken);
+            response.put("partial", result.isPartial());
+            response.put("shards", result.shardStatus());
+            return response;
+        }
+    }
+
+    /**
+     * 샤드 조회 실패 응답 (503, 샤드별 상태 포함)
+     */
+    private ResponseEntity<Map<String, Object>> shardFailure(String error, ScatterResult<?> result) {
+        return ResponseEntity.status(503).body(Map.of(
+                "error", error,
+                "message", "Shards did not respond",
+                "shards", result.shardStatus()
+        ));
+    }
+
+    private ResponseEntity<Map<String, Object>> invalidPageToken(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid page token",
+                "message", e.getMessage()
+        ));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> column(List<Map<String, Object>> shardStats, String key) {
+        List<T> values = new ArrayList<>(shardStats.size());
+        shardStats.forEach(stats -> values.add((T) stats.get(key)));
+        return values;
+    }
+
     private void parseFilter(String filter, StringBuilder sql, List<Object> params) {
         String filterLower = filter.toLowerCase();
 
@@ -447,7 +479,7 @@ public class DatabaseMonitoringController {
         if (filterLower.contains("last hour") || filterLower.contains("1h")) {
             sql.append(" AND requested_at >= DATE_SUB(NOW(), INTERVAL 1 HOUR)");
         } else if (filterLower.contains("today")) {
-            sql.append(" AND DATE(requested_at) = CURDATE()");
+            sql.append(" AND requested_at >= CURDATE()");
         } else if (filterLower.contains("last 24h") || filterLower.contains("24 hours")) {
             sql.append(" AND requested_at >= DATE_SUB(NOW(), INTERVAL 24 HOUR)");
         }
@@ -459,18 +491,4 @@ public class DatabaseMonitoringController {
             params.add(Long.parseLong(amount));
         }
     }
-
-    private String getTimeRangeClause(String timeRange) {
-        switch (timeRange.toLowerCase()) {
-            case "today":
-                return "DATE(requested_at) = CURDATE()";
-            case "last_hour":
-                return "requested_at >= DATE_SUB(NOW(), INTERVAL 1 HOUR)";
-            case "last_24h":
-                return "requested_at >= DATE_SUB(NOW(), INTERVAL 24 HOUR)";
-            case "all":
-            default:
-                return "1=1";
-        }
-    }
 }
@@ -1,41 +1,38 @@
 package com.example.monitoring.controller;
 
-import org.apache.kafka.clients.admin.*;
-import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
-import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import com.example.monitoring.kafka.KafkaOffsetSampler;
+import com.example.monitoring.kafka.KafkaOffsetSnapshot;
+import com.example.monitoring.kafka.KafkaOffsetSnapshot.GroupState;
+import com.example.monitoring.kafka.KafkaOffsetSnapshot.PartitionState;
+import com.example.monitoring.kafka.KafkaOffsetSnapshot.TopicState;
+import com.example.monitoring.kafka.KafkaTailReader;
+import com.example.monitoring.kafka.LagTrend;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.TopicPartition;
-import org.apache.kafka.common.serialization.StringDeserializer;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Kafka 모니터링 API
+ * 오프셋/consumer group/클러스터 정보는 KafkaOffsetSampler의 백그라운드 스냅샷을 반환하며 요청마다 Kafka 클라이언트를 만들지 않는다.
+ */
 @RestController
 @RequestMapping("/monitoring/kafka")
 public class KafkaMonitoringController {
 
-    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
-    private String bootstrapServers;
+    private static final List<String> DLQ_TOPICS = List.of("payment.dlq", "settlement.dlq", "refund.dlq");
 
-    private AdminClient getAdminClient() {
-        Properties props = new Properties();
-        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 5000);
-        return AdminClient.create(props);
-    }
+    private final KafkaOffsetSampler offsetSampler;
+    private final KafkaTailReader tailReader;
 
-    private KafkaConsumer<String, String> getConsumer() {
-        Properties props = new Properties();
-        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
-        props.put(ConsumerConfig.GROUP_ID_CONFIG, "monitoring-temp-" + UUID.randomUUID());
-        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new KafkaConsumer<>(props);
+    public KafkaMonitoringController(KafkaOffsetSampler offsetSampler, KafkaTailReader tailReader) {
+        this.offsetSampler = offsetSampler;
+        this.tailReader = tailReader;
     }
 
     /**
@@ -44,74 +41,34 @@ public class KafkaMonitoringController {
      */
     @GetMapping("/stats")
     public Map<String, Object> getKafkaStats() {
-        try (AdminClient admin = getAdminClient();
-             KafkaConsumer<String, String> consumer = getConsumer()) {
-
-            Map<String, Object> stats = new HashMap<>();
+        return fromSnapshot("Failed to retrieve Kafka stats", snapshot -> {
+            Map<String, Object> stats = snapshotInfo(snapshot);
 
             // Topic list
-            ListTopicsResult topics = admin.listTopics();
-            Set<String> topicNames = topics.names().get();
-            List<String> paymentTopics = topicNames.stream()
-                    .filter(name -> name.startsWith("payment.") ||
-                                    name.equals("settlement.dlq") ||
-                                    name.equals("refund.dlq"))
-                    .sorted()
-                    .collect(Collectors.toList());
+            List<String> paymentTopics = new ArrayList<>(snapshot.topics().keySet());
             stats.put("topicCount", paymentTopics.size());
             stats.put("topics", paymentTopics);
 
             // Consumer groups
-            Collection<ConsumerGroupListing> groups = admin.listConsumerGroups().all().get();
-            stats.put("consumerGroupCount", groups.size());
-            List<String> groupIds = groups.stream()
-                    .map(ConsumerGroupListing::groupId)
-                    .collect(Collectors.toList());
-            stats.put("consumerGroups", groupIds);
+            stats.put("consumerGroupCount", snapshot.groups().size());
+            stats.put("consumerGroups", new ArrayList<>(snapshot.groups().keySet()));
 
             // DLQ counts
             Map<String, Long> dlqCounts = new HashMap<>();
-            String[] dlqTopics = {"payment.dlq", "settlement.dlq", "refund.dlq"};
-            for (String dlqTopic : dlqTopics) {
-                try {
-                    List<TopicPartition> partitions = consumer.partitionsFor(dlqTopic).stream()
-                            .map(p -> new TopicPartition(dlqTopic, p.partition()))
-                            .collect(Collectors.toList());
-
-                    Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
-                    Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
-
-                    long totalCount = endOffsets.entrySet().stream()
-                            .mapToLong(e -> e.getValue() - beginningOffsets.get(e.getKey()))
-                            .sum();
-                    dlqCounts.put(dlqTopic, totalCount);
-                } catch (Exception e) {
-                    dlqCounts.put(dlqTopic, 0L);
-                }
+            for (String dlqTopic : DLQ_TOPICS) {
+                TopicState state = snapshot.topics().get(dlqTopic);
+                dlqCounts.put(dlqTopic, state != null ? state.messages() : 0L);
             }
             stats.put("dlqCounts", dlqCounts);
 
             // Cluster health
-            try {
-                DescribeClusterResult cluster = admin.describeCluster();
-                int nodeCount = cluster.nodes().get().size();
-                String clusterId = cluster.clusterId().get();
-                stats.put("clusterHealthy", true);
-                stats.put("brokerCount", nodeCount);
-                stats.put("clusterId", clusterId);
-            } catch (Exception e) {
-                stats.put("clusterHealthy", false);
-            }
+            stats.put("clusterHealthy", isHealthy(snapshot));
+            stats.put("brokerCount", snapshot.brokerCount());
+            stats.put("clusterId", snapshot.clusterId());
 
             stats.put("message", "Kafka statistics retrieved successfully");
-
             return stats;
-        } catch (Exception e) {
-            return Map.of(
-                    "error", true,
-                    "message", "Failed to retrieve Kafka stats: " + e.getMessage()
-            );
-        }
+        });
     }
 
     /**
@@ -119,28 +76,13 @@ public class KafkaMonitoringController {
      */
     @GetMapping("/topics")
     public Map<String, Object> listTopics() {
-        try (AdminClient admin = getAdminClient()) {
-            ListTopicsResult topics = admin.listTopics();
-            Set<String> topicNames = topics.names().get();
-
-            List<String> paymentTopics = topicNames.stream()
-                    .filter(name -> name.startsWith("payment.") ||
-                                    name.equals("settlement.dlq") ||
-                                    name.equals("refund.dlq"))
-                    .sorted()
-                    .collect(Collectors.toList());
-
-            return Map.of(
-                    "count", paymentTopics.size(),
-                    "topics", paymentTopics,
-                    "message", "Successfully retrieved Kafka topics"
-            );
-        } catch (Exception e) {
-            return Map.of(
-                    "error", true,
-                    "message", "Failed to retrieve topics: " + e.getMessage()
-            );
-        }
+        return fromSnapshot("Failed to retrieve topics", snapshot -> {
+            Map<String, Object> response = snapshotInfo(snapshot);
+            response.put("count", snapshot.topics().size());
+            response.put("topics", new ArrayList<>(snapshot.topics().keySet()));
+            response.put("message", "Successfully retrieved Kafka topics");
+            return response;
+        });
     }
 
     /**
@@ -148,7 +90,7 @@ public class KafkaMonitoringController {
      */
     @GetMapping("/topic-stats")
     public Map<String, Object> getTopicStats(@RequestParam(required = false) String topic) {
-        try (KafkaConsumer<String, String> consumer = getConsumer()) {
+        return fromSnapshot("Failed to retrieve topic stats", snapshot -> {
             List<String> topics = topic != null
                     ? List.of(topic)
                     : List.of("payment.authorized", "payment.captured", "payment.refunded",
@@ -157,47 +99,32 @@ public class KafkaMonitoringController {
             List<Map<String, Object>> stats = new ArrayList<>();
 
             for (String t : topics) {
-                try {
-                    List<TopicPartition> partitions = consumer.partitionsFor(t).stream()
-                            .map(p -> new TopicPartition(t, p.partition()))
-                            .collect(Collectors.toList());
-
-                    Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
-                    Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
-
-                    long totalMessages = endOffsets.entrySet().stream()
-                            .mapToLong(e -> e.getValue() - beginningOffsets.get(e.getKey()))
-                            .sum();
-
-                    stats.add(Map.of(
-                            "topic", t,
-                            "partitions", partitions.size(),
-                            "totalMessages", totalMessages,
-                            "endOffsets", endOffsets.entrySet().stream()
-                                    .collect(Collectors.toMap(
-                                            e -> "partition-" + e.getKey().partition(),
-                                            Map.Entry::getValue
-                                    ))
-                    ));
-                } catch (Exception e) {
+                TopicState state = snapshot.topics().get(t);
+                if (state == null) {
                     stats.add(Map.of(
                             "topic", t,
                             "error", "Topic not found or empty"
                     ));
+                    continue;
                 }
+                stats.add(Map.of(
+                        "topic", t,
+                        "partitions", state.partitions().size(),
+                        "totalMessages", state.messages(),
+                        "endOffsets", state.partitions().stream()
+                                .collect(Collectors.toMap(
+                                        p -> "partition-" + p.partition(),
+                                        PartitionState::endOffset
+                                ))
+                ));
             }
 
-            return Map.of(
-                    "count", stats.size(),
-                    "topics", stats,
-                    "message", "Topic statistics retrieved successfully"
-            );
-        } catch (Exception e) {
-            return Map.of(
-                    "error", true,
-                    "message", "Failed to retrieve topic stats: " + e.getMessage()
-            );
-        }
+            Map<String, Object> response = snapshotInfo(snapshot);
+            response.put("count", stats.size());
+            response.put("topics", stats);
+            response.put("message", "Topic statistics retrieved successfully");
+            return response;
+        });
     }
 
     /**
@@ -205,30 +132,23 @@ public class KafkaMonitoringController {
      */
     @GetMapping("/consumer-groups")
     public Map<String, Object> listConsumerGroups() {
-        try (AdminClient admin = getAdminClient()) {
-            Collection<ConsumerGroupListing> groups = admin.listConsumerGroups().all().get();
-
-            List<Map<String, Object>> groupList = groups.stream()
+        return fromSnapshot("Failed to retrieve consumer groups", snapshot -> {
+            List<Map<String, Object>> groupList = snapshot.groups().values().stream()
                     .map(g -> {
-                        Map<String, Object> group = new java.util.HashMap<>();
+                        Map<String, Object> group = new HashMap<>();
                         group.put("groupId", g.groupId());
-                        group.put("isSimpleConsumerGroup", g.isSimpleConsumerGroup());
-                        group.put("state", g.state().map(Enum::name).orElse("UNKNOWN"));
+                        group.put("isSimpleConsumerGroup", g.simple());
+                        group.put("state", g.state());
                         return group;
                     })
                     .collect(Collectors.toList());
 
-            return Map.of(
-                    "count", groupList.size(),
-                    "groups", groupList,
-                    "message", "Consumer groups retrieved successfully"
-            );
-        } catch (Exception e) {
-            return Map.of(
-                    "error", true,
-                    "message", "Failed to retrieve consumer groups: " + e.getMessage()
-            );
-        }
+            Map<String, Object> response = snapshotInfo(snapshot);
+            response.put("count", groupList.size());
+            response.put("groups", groupList);
+            response.put("message", "Consumer groups retrieved successfully");
+            return response;
+        });
     }
 
     /**
@@ -236,71 +156,77 @@ public class KafkaMonitoringController {
      */
     @GetMapping("/consumer-lag")
     public Map<String, Object> getConsumerLag(@RequestParam String groupId) {
-        try (AdminClient admin = getAdminClient();
-             KafkaConsumer<String, String> consumer = getConsumer()) {
-
-            // Consumer Group의 오프셋 조회
-            ListConsumerGroupOffsetsResult offsetsResult = admin.listConsumerGroupOffsets(groupId);
-            Map<TopicPartition, OffsetAndMetadata> currentOffsets = offsetsResult.partitionsToOffsetAndMetadata().get();
-
-            if (currentOffsets.isEmpty()) {
+        return fromSnapshot("Failed to retrieve consumer lag", snapshot -> {
+            GroupState group = snapshot.groups().get(groupId);
+            if (group == null) {
                 return Map.of(
+                        "error", true,
                         "groupId", groupId,
-                        "message", "No active consumers or no committed offsets",
-                        "lag", 0
+                        "message", "Consumer group not found"
                 );
             }
 
-            // End Offset 조회
-            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(currentOffsets.keySet());
-
-            // Lag 계산
-            List<Map<String, Object>> lagDetails = new ArrayList<>();
-            long totalLag = 0;
-
-            for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : currentOffsets.entrySet()) {
-                TopicPartition tp = entry.getKey();
-                long currentOffset = entry.getValue().offset();
-                long endOffset = endOffsets.getOrDefault(tp, 0L);
-                long lag = Math.max(0, endOffset - currentOffset);
-                totalLag += lag;
-
-                lagDetails.add(Map.of(
-                        "topic", tp.topic(),
-                        "partition", tp.partition(),
-                        "currentOffset", currentOffset,
-                        "endOffset", endOffset,
-                        "lag", lag
-                ));
+            Map<String, Object> response = snapshotInfo(snapshot);
+            response.put("groupId", groupId);
+            if (group.partitions().isEmpty()) {
+                response.put("message", "No active consumers or no committed offsets");
+                response.put("lag", 0);
+                return response;
             }
 
+            List<Map<String, Object>> lagDetails = group.partitions().stream()
+                    .map(p -> Map.<String, Object>of(
+                            "topic", p.topic(),
+                            "partition", p.partition(),
+                            "currentOffset", p.committedOffset(),
+                            "endOffset", p.endOffset(),
+                            "lag", p.lag()
+                    ))
+                    .collect(Collectors.toList());
+
+            long totalLag = group.totalLag();
             String status = totalLag == 0 ? "OK" : (totalLag > 100 ? "WARNING" : "MINOR_LAG");
 
-            return Map.of(
-                    "groupId", groupId,
-                    "totalLag", totalLag,
-                    "status", status,
-                    "partitions", lagDetails,
-                    "message", totalLag == 0 ? "No lag - all caught up" : "Consumer lag detected"
-            );
-        } catch (ExecutionException e) {
-            if (e.getCause() instanceof org.apache.kafka.common.errors.GroupIdNotFoundException) {
-                return Map.of(
-                        "error", true,
-                        "groupId", groupId,
-                        "message", "Consumer group not found"
-                );
+            response.put("totalLag", totalLag);
+            response.put("status", status);
+            response.put("partitions", lagDetails);
+            response.put("message", totalLag == 0 ? "No lag - all caught up" : "Consumer lag detected");
+            return response;
+        });
+    }
+
+    /**
+     * Consumer Lag 추세 조회 (lag 변화율, 소진 예상 시간)
+     * groupId가 없으면 전체 그룹
+     */
+    @GetMapping("/consumer-lag/trend")
+    public Map<String, Object> getConsumerLagTrend(
+            @RequestParam(required = false) String groupId,
+            @RequestParam(defaultValue = "300") long windowSeconds) {
+        return fromSnapshot("Failed to retrieve consumer lag trend", snapshot -> {
+            Duration window = Duration.ofSeconds(Math.max(1, windowSeconds));
+            List<LagTrend> trends;
+            if (groupId != null) {
+                Optional<LagTrend> trend = offsetSampler.trend(groupId, window);
+                if (trend.isEmpty()) {
+                    return Map.of(
+                            "error", true,
+                            "groupId", groupId,
+                            "message", "Consumer group not found"
+                    );
+                }
+                trends = List.of(trend.get());
+            } else {
+                trends = new ArrayList<>(offsetSampler.trends(window).values());
             }
-            return Map.of(
-                    "error", true,
-                    "message", "Failed to retrieve consumer lag: " + e.getMessage()
-            );
-        } catch (Exception e) {
-            return Map.of(
-                    "error", true,
-                    "message", "Failed to retrieve consumer lag: " + e.getMessage()
-            );
-        }
+
+            Map<String, Object> response = snapshotInfo(snapshot);
+            response.put("windowSeconds", window.toSeconds());
+            response.put("count", trends.size());
+            response.put("groups", trends);
+            response.put("message", "Consumer lag trend retrieved successfully");
+            return response;
+        });
     }
 
     /**
@@ -314,24 +240,16 @@ public class KafkaMonitoringController {
         // topic 파라미터가 없으면 payment.dlq 조회 (하위 호환성)
         String dlqTopic = topic != null ? topic : "payment.dlq";
 
-        try (KafkaConsumer<String, String> consumer = getConsumer()) {
-            List<TopicPartition> partitions = consumer.partitionsFor(dlqTopic).stream()
-                    .map(p -> new TopicPartition(dlqTopic, p.partition()))
-                    .collect(Collectors.toList());
-
-            consumer.assign(partitions);
-
-            // 최근 메시지부터 읽기 위해 끝에서 limit만큼 뒤로
-            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
-            for (Map.Entry<TopicPartition, Long> entry : endOffsets.entrySet()) {
-                long offset = Math.max(0, entry.getValue() - limit);
-                consumer.seek(entry.getKey(), offset);
-            }
+        try {
+            // 최근 메시지부터 읽기 위해 끝에서 limit만큼 뒤로 (end offset은 스냅샷 값 사용)
+            Map<TopicPartition, Long> endOffsets = new HashMap<>();
+            offsetSampler.snapshot()
+                    .map(snapshot -> snapshot.topics().get(dlqTopic))
+                    .ifPresent(state -> state.partitions().forEach(p ->
+                            endOffsets.put(new TopicPartition(dlqTopic, p.partition()), p.endOffset())));
 
             List<Map<String, Object>> messages = new ArrayList<>();
-            var records = consumer.poll(Duration.ofSeconds(2));
-
-            records.forEach(record -> {
+            for (ConsumerRecord<String, String> record : tailReader.tail(dlqTopic, endOffsets, limit)) {
                 messages.add(Map.of(
                         "partition", record.partition(),
                         "offset", record.offset(),
@@ -339,7 +257,7 @@ public class KafkaMonitoringController {
                         "key", record.key() != null ? record.key() : "null",
                         "value", record.value() != null ? record.value().substring(0, Math.min(200, record.value().length())) : "null"
                 ));
-            });
+            }
 
             return Map.of(
                     "topic", dlqTopic,
@@ -360,31 +278,7 @@ public class KafkaMonitoringController {
      */
     @GetMapping("/settlement-dlq-count")
     public Map<String, Object> getSettlementDlqCount() {
-        try (KafkaConsumer<String, String> consumer = getConsumer()) {
-            String topic = "settlement.dlq";
-            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
-                    .map(p -> new TopicPartition(topic, p.partition()))
-                    .collect(Collectors.toList());
-
-            Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
-            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
-
-            long totalCount = endOffsets.entrySet().stream()
-                    .mapToLong(e -> e.getValue() - beginningOffsets.get(e.getKey()))
-                    .sum();
-
-            return Map.of(
-                    "topic", topic,
-                    "count", totalCount,
-                    "message", "Settlement DLQ count retrieved"
-            );
-        } catch (Exception e) {
-            return Map.of(
-                    "error", true,
-                    "count", 0,
-                    "message", "Failed to retrieve settlement DLQ count: " + e.getMessage()
-            );
-        }
+        return dlqCount("settlement.dlq", "Settlement");
     }
 
     /**
@@ -392,55 +286,30 @@ public class KafkaMonitoringController {
      */
     @GetMapping("/refund-dlq-count")
     public Map<String, Object> getRefundDlqCount() {
-        try (KafkaConsumer<String, String> consumer = getConsumer()) {
-            String topic = "refund.dlq";
-            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
-                    .map(p -> new TopicPartition(topic, p.partition()))
-                    .collect(Collectors.toList());
-
-            Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
-            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
-
-            long totalCount = endOffsets.entrySet().stream()
-                    .mapToLong(e -> e.getValue() - beginningOffsets.get(e.getKey()))
-                    .sum();
-
-            return Map.of(
-                    "topic", topic,
-                    "count", totalCount,
-                    "message", "Refund DLQ count retrieved"
-            );
-        } catch (Exception e) {
-            return Map.of(
-                    "error", true,
-                    "count", 0,
-                    "message", "Failed to retrieve refund DLQ count: " + e.getMessage()
-            );
-        }
+        return dlqCount("refund.dlq", "Refund");
     }
 
     /**
      * Kafka 클러스터 헬스 체크
+     * 직전 샘플이 실패했거나 스냅샷이 오래되었으면 unhealthy
      */
     @GetMapping("/health")
     public Map<String, Object> checkHealth() {
-        try (AdminClient admin = getAdminClient()) {
-            DescribeClusterResult cluster = admin.describeCluster();
-            int nodeCount = cluster.nodes().get().size();
-            String clusterId = cluster.clusterId().get();
-
-            return Map.of(
-                    "healthy", true,
-                    "clusterId", clusterId,
-                    "brokerCount", nodeCount,
-                    "message", "Kafka cluster is healthy"
-            );
-        } catch (Exception e) {
+        Optional<KafkaOffsetSnapshot> snapshot = offsetSampler.snapshot();
+        if (snapshot.isEmpty() || !isHealthy(snapshot.get())) {
             return Map.of(
                     "healthy", false,
-                    "message", "Kafka cluster unreachable: " + e.getMessage()
+                    "message", "Kafka cluster unreachable: " + offsetSampler.lastFailure()
+                            .orElse(snapshot.isEmpty() ? "no successful sample yet" : "offset snapshot is stale")
             );
         }
+
+        Map<String, Object> response = snapshotInfo(snapshot.get());
+        response.put("healthy", true);
+        response.put("clusterId", snapshot.get().clusterId());
+        response.put("brokerCount", snapshot.get().brokerCount());
+        response.put("message", "Kafka cluster is healthy");
+        return response;
     }
 
     /**
@@ -448,30 +317,79 @@ public class KafkaMonitoringController {
      */
     @GetMapping("/topic-details")
     public Map<String, Object> getTopicDetails(@RequestParam String topic) {
-        try (AdminClient admin = getAdminClient()) {
-            DescribeTopicsResult result = admin.describeTopics(Collections.singleton(topic));
-            TopicDescription description = result.all().get().get(topic);
+        return fromSnapshot("Failed to retrieve topic details", snapshot -> {
+            TopicState state = snapshot.topics().get(topic);
+            if (state == null) {
+                return Map.of(
+                        "error", true,
+                        "message", "Failed to retrieve topic details: Topic not found: " + topic
+                );
+            }
 
-            List<Map<String, Object>> partitionInfo = description.partitions().stream()
-                    .map(p -> Map.of(
+            List<Map<String, Object>> partitionInfo = state.partitions().stream()
+                    .map(p -> Map.<String, Object>of(
                             "partition", p.partition(),
-                            "leader", p.leader().id(),
-                            "replicas", p.replicas().stream().map(n -> n.id()).collect(Collectors.toList()),
-                            "isr", p.isr().stream().map(n -> n.id()).collect(Collectors.toList())
+                            "leader", p.leader(),
+                            "replicas", p.replicas(),
+                            "isr", p.isr()
                     ))
                     .collect(Collectors.toList());
 
+            Map<String, Object> response = snapshotInfo(snapshot);
+            response.put("topic", topic);
+            response.put("partitionCount", state.partitions().size());
+            response.put("partitions", partitionInfo);
+            response.put("message", "Topic details retrieved successfully");
+            return response;
+        });
+    }
+
+    private Map<String, Object> dlqCount(String topic, String label) {
+        Optional<KafkaOffsetSnapshot> snapshot = offsetSampler.snapshot();
+        if (snapshot.isEmpty()) {
             return Map.of(
-                    "topic", topic,
-                    "partitionCount", description.partitions().size(),
-                    "partitions", partitionInfo,
-                    "message", "Topic details retrieved successfully"
+                    "error", true,
+                    "count", 0,
+                    "message", "Failed to retrieve " + label.toLowerCase() + " DLQ count: "
+                            + offsetSampler.lastFailure().orElse("Kafka offset sampling has not completed yet")
             );
+        }
+        TopicState state = snapshot.get().topics().get(topic);
+        Map<String, Object> response = snapshotInfo(snapshot.get());
+        response.put("topic", topic);
+        response.put("count", state != null ? state.messages() : 0L);
+        response.put("message", label + " DLQ count retrieved");
+        return response;
+    }
+
+    private Map<String, Object> fromSnapshot(String error, Function<KafkaOffsetSnapshot, Map<String, Object>> mapper) {
+        try {
+            Optional<KafkaOffsetSnapshot> snapshot = offsetSampler.snapshot();
+            if (snapshot.isEmpty()) {
+                return Map.of(
+                        "error", true,
+                        "message", error + ": " + offsetSampler.lastFailure()
+                                .orElse("Kafka offset sampling has not completed yet")
+                );
+            }
+            return mapper.apply(snapshot.get());
         } catch (Exception e) {
             return Map.of(
                     "error", true,
-                    "message", "Failed to retrieve topic details: " + e.getMessage()
+                    "message", error + ": " + e.getMessage()
             );
         }
     }
+
+    private boolean isHealthy(KafkaOffsetSnapshot snapshot) {
+        return offsetSampler.lastFailure().isEmpty() && !offsetSampler.isStale(snapshot);
+    }
+
+    private Map<String, Object> snapshotInfo(KafkaOffsetSnapshot snapshot) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("snapshotAt", snapshot.takenAt().toString());
+        info.put("snapshotAgeMs", Duration.between(snapshot.takenAt(), Instant.now()).toMillis());
+        info.put("stale", offsetSampler.isStale(snapshot));
+        return info;
+    }
 }
@@ -1,5 +1,9 @@
 package com.example.monitoring.controller;
 
+import com.example.monitoring.redis.KeyspaceSnapshot;
+import com.example.monitoring.redis.KeyspaceSnapshot.PrefixStats;
+import com.example.monitoring.redis.KeyspaceSnapshot.RateCounter;
+import com.example.monitoring.redis.RedisKeyspaceAnalyzer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
@@ -7,11 +11,12 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * REST API for Redis Cache and Rate Limiter monitoring
  * Provides same functionality as redis-cache-mcp but via HTTP
+ * 키 공간 전체를 보는 엔드포인트는 RedisKeyspaceAnalyzer의 백그라운드 SCAN 스냅샷(추정치)을 반환하며 Redis에 KEYS를 보내지 않는다.
  */
 @RestController
 @RequestMapping("/monitoring/redis")
@@ -20,6 +25,9 @@ public class RedisMonitoringController {
     @Autowired
     private RedisTemplate<String, String> redisTemplate;
 
+    @Autowired
+    private RedisKeyspaceAnalyzer keyspaceAnalyzer;
+
     /**
      * GET /monitoring/redis/rate-limit?merchantId=merchant123
      * Check rate limit status for a merchant
@@ -33,20 +41,21 @@ public class RedisMonitoringController {
             String value = redisTemplate.opsForValue().get(key);
             Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
 
+            long limit = keyspaceAnalyzer.capacityOf("authorize");
+
             if (value == null) {
                 return ResponseEntity.ok(Map.of(
                         "merchantId", merchantId,
                         "currentCount", 0,
-                        "limit", 100,
-                        "remaining", 100,
+                        "limit", limit,
+                        "remaining", limit,
                         "status", "OK",
                         "message", "No requests recorded in current window"
                 ));
             }
 
-            int currentCount = Integer.parseInt(value);
-            int limit = 100;
-            int remaining = Math.max(0, limit - currentCount);
+            long currentCount = Long.parseLong(value);
+            long remaining = Math.max(0, limit - currentCount);
             boolean isBlocked = currentCount >= limit;
 
             return ResponseEntity.ok(Map.of(
@@ -106,112 +115,31 @@ public class RedisMonitoringController {
 
     /**
      * GET /monitoring/redis/stats
-     * Get comprehensive Redis statistics
+     * Get comprehensive Redis statistics (keyspace snapshot)
      */
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getRedisStats() {
-        try {
-            Set<String> rateLimitKeys = redisTemplate.keys("rate:*");
-            Set<String> idempotencyKeys = redisTemplate.keys("idem:*");
-            Set<String> cacheKeys = redisTemplate.keys("cache:*");
-
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("rateLimitKeys", rateLimitKeys != null ? rateLimitKeys.size() : 0);
-            stats.put("idempotencyKeys", idempotencyKeys != null ? idempotencyKeys.size() : 0);
-            stats.put("cacheKeys", cacheKeys != null ? cacheKeys.size() : 0);
-            stats.put("totalKeys",
-                (rateLimitKeys != null ? rateLimitKeys.size() : 0) +
-                (idempotencyKeys != null ? idempotencyKeys.size() : 0) +
-                (cacheKeys != null ? cacheKeys.size() : 0)
-            );
-
-            // Count blocked merchants
-            long blockedCount = 0;
-            if (rateLimitKeys != null && !rateLimitKeys.isEmpty()) {
-                for (String key : rateLimitKeys) {
-                    String value = redisTemplate.opsForValue().get(key);
-                    if (value != null && Integer.parseInt(value) >= 100) {
-                        blockedCount++;
-                    }
-                }
-            }
-            stats.put("blockedMerchants", blockedCount);
-
-            // Sample some rate limit values
-            List<Map<String, Object>> rateLimitSamples = new ArrayList<>();
-            if (rateLimitKeys != null && !rateLimitKeys.isEmpty()) {
-                rateLimitKeys.stream()
-                        .limit(5)
-                        .forEach(key -> {
-                            String value = redisTemplate.opsForValue().get(key);
-                            Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-                            rateLimitSamples.add(Map.of(
-                                    "key", key,
-                                    "count", value != null ? value : "0",
-                                    "ttlSeconds", ttl != null ? ttl : 0
-                            ));
-                        });
-            }
-
-            stats.put("rateLimitSamples", rateLimitSamples);
+        return fromSnapshot("Redis stats retrieval failed", snapshot -> {
+            Map<String, Object> stats = keyCounts(snapshot);
+            stats.put("blockedMerchants", snapshot.blockedCount());
+            stats.put("rateLimitSamples", rateLimitSamples(snapshot));
             stats.put("message", "Redis statistics retrieved successfully");
-
-            return ResponseEntity.ok(stats);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of(
-                    "error", "Redis stats retrieval failed",
-                    "message", e.getMessage()
-            ));
-        }
+            return stats;
+        });
     }
 
     /**
      * GET /monitoring/redis/cache-stats
-     * Get cache statistics
+     * Get cache statistics (keyspace snapshot)
      */
     @GetMapping("/cache-stats")
     public ResponseEntity<Map<String, Object>> getCacheStats() {
-        try {
-            Set<String> rateLimitKeys = redisTemplate.keys("rate:*");
-            Set<String> idempotencyKeys = redisTemplate.keys("idem:*");
-            Set<String> cacheKeys = redisTemplate.keys("cache:*");
-
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("rateLimitKeys", rateLimitKeys != null ? rateLimitKeys.size() : 0);
-            stats.put("idempotencyKeys", idempotencyKeys != null ? idempotencyKeys.size() : 0);
-            stats.put("cacheKeys", cacheKeys != null ? cacheKeys.size() : 0);
-            stats.put("totalKeys",
-                (rateLimitKeys != null ? rateLimitKeys.size() : 0) +
-                (idempotencyKeys != null ? idempotencyKeys.size() : 0) +
-                (cacheKeys != null ? cacheKeys.size() : 0)
-            );
-
-            // Sample some rate limit values
-            List<Map<String, Object>> rateLimitSamples = new ArrayList<>();
-            if (rateLimitKeys != null && !rateLimitKeys.isEmpty()) {
-                rateLimitKeys.stream()
-                        .limit(5)
-                        .forEach(key -> {
-                            String value = redisTemplate.opsForValue().get(key);
-                            Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-                            rateLimitSamples.add(Map.of(
-                                    "key", key,
-                                    "count", value != null ? value : "0",
-                                    "ttlSeconds", ttl != null ? ttl : 0
-                            ));
-                        });
-            }
-
-            stats.put("rateLimitSamples", rateLimitSamples);
+        return fromSnapshot("Cache stats retrieval failed", snapshot -> {
+            Map<String, Object> stats = keyCounts(snapshot);
+            stats.put("rateLimitSamples", rateLimitSamples(snapshot));
             stats.put("message", "Redis cache statistics retrieved successfully");
-
-            return ResponseEntity.ok(stats);
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of(
-                    "error", "Cache stats retrieval failed",
-                    "message", e.getMessage()
-            ));
-        }
+            return stats;
+        });
     }
 
     /**
@@ -243,48 +171,28 @@ public class RedisMonitoringController {
 
     /**
      * GET /monitoring/redis/rate-limit/all
-     * List all merchants with rate limits
+     * List rate limit counters (액션별 카운트 상위 N개)
      */
     @GetMapping("/rate-limit/all")
     public ResponseEntity<Map<String, Object>> listAllRateLimits() {
-        try {
-            Set<String> keys = redisTemplate.keys("rate:*");
-
-            if (keys == null || keys.isEmpty()) {
-                return ResponseEntity.ok(Map.of(
-                        "count", 0,
-                        "rateLimits", Collections.emptyList(),
-                        "message", "No rate limits found"
-                ));
+        return fromSnapshot("Rate limit listing failed", snapshot -> {
+            List<Map<String, Object>> rateLimits = new ArrayList<>();
+            snapshot.topRateLimits().values().forEach(counters -> counters.forEach(counter -> {
+                Map<String, Object> result = toMap(counter);
+                result.put("status", counter.count() >= keyspaceAnalyzer.capacityOf(counter.action())
+                        ? "RATE_LIMITED" : "OK");
+                rateLimits.add(result);
+            }));
+
+            Map<String, Object> response = snapshotInfo(snapshot);
+            response.put("count", rateLimits.size());
+            response.put("estimatedTotal", snapshot.namespaces().getOrDefault("rate", 0L));
+            response.put("rateLimits", rateLimits);
+            if (rateLimits.isEmpty()) {
+                response.put("message", "No rate limits found");
             }
-
-            List<Map<String, Object>> rateLimits = keys.stream()
-                    .map(key -> {
-                        String merchantId = key.substring(key.lastIndexOf(":") + 1);
-                        String value = redisTemplate.opsForValue().get(key);
-                        Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-                        int count = value != null ? Integer.parseInt(value) : 0;
-                        long ttlSeconds = ttl != null ? ttl : 0L;
-
-                        Map<String, Object> result = new HashMap<>();
-                        result.put("merchantId", merchantId);
-                        result.put("currentCount", count);
-                        result.put("ttlSeconds", ttlSeconds);
-                        result.put("status", count >= 100 ? "RATE_LIMITED" : "OK");
-                        return result;
-                    })
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(Map.of(
-                    "count", rateLimits.size(),
-                    "rateLimits", rateLimits
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of(
-                    "error", "Rate limit listing failed",
-                    "message", e.getMessage()
-            ));
-        }
+            return response;
+        });
     }
 
     /**
@@ -293,107 +201,107 @@ public class RedisMonitoringController {
      */
     @GetMapping("/rate-limit/blocked")
     public ResponseEntity<Map<String, Object>> getBlockedMerchants() {
-        try {
-            Set<String> keys = redisTemplate.keys("rate:*");
-
-            if (keys == null || keys.isEmpty()) {
-                return ResponseEntity.ok(Map.of(
-                        "count", 0,
-                        "blockedMerchants", Collections.emptyList(),
-                        "message", "No rate limits found"
-                ));
-            }
-
-            List<Map<String, Object>> blocked = keys.stream()
-                    .map(key -> {
-                        String merchantId = key.substring(key.lastIndexOf(":") + 1);
-                        String value = redisTemplate.opsForValue().get(key);
-                        int count = value != null ? Integer.parseInt(value) : 0;
-                        Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-                        long ttlSeconds = ttl != null ? ttl : 0L;
-
-                        Map<String, Object> result = new HashMap<>();
-                        result.put("merchantId", merchantId);
-                        result.put("count", count);
-                        result.put("ttl", ttlSeconds);
-                        result.put("isBlocked", count >= 100);
-                        return result;
-                    })
-                    .filter(m -> (Boolean) m.get("isBlocked"))
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(Map.of(
-                    "count", blocked.size(),
-                    "blockedMerchants", blocked,
-                    "message", blocked.isEmpty()
-                        ? "No merchants currently blocked"
-                        : blocked.size() + " merchant(s) are rate limited"
-            ));
-        } catch (Exception e) {
-            return ResponseEntity.status(500).body(Map.of(
-                    "error", "Blocked merchants check failed",
-                    "message", e.getMessage()
-            ));
-        }
+        return fromSnapshot("Blocked merchants check failed", snapshot -> {
+            List<Map<String, Object>> blocked = snapshot.blocked().stream().map(this::toMap).toList();
+
+            Map<String, Object> response = snapshotInfo(snapshot);
+            response.put("count", snapshot.blockedCount());
+            response.put("blockedMerchants", blocked);
+            response.put("message", snapshot.blockedCount() == 0
+                    ? "No merchants currently blocked"
+                    : snapshot.blockedCount() + " merchant(s) are rate limited");
+            return response;
+        });
     }
 
     /**
      * GET /monitoring/redis/ttl-analysis
-     * Analyze TTL distribution across Redis keys
+     * Analyze TTL distribution across Redis keys (prefix별 표본 TTL 히스토그램)
      */
     @GetMapping("/ttl-analysis")
     public ResponseEntity<Map<String, Object>> analyzeTTL() {
-        try {
-            Set<String> allKeys = redisTemplate.keys("*");
-
-            if (allKeys == null || allKeys.isEmpty()) {
-                return ResponseEntity.ok(Map.of(
-                        "totalKeys", 0,
-                        "message", "No keys found in Redis"
+        return fromSnapshot("TTL analysis failed", snapshot -> {
+            Map<String, Object> analysis = new LinkedHashMap<>();
+            for (Map.Entry<String, PrefixStats> entry : snapshot.prefixes().entrySet()) {
+                PrefixStats stats = entry.getValue();
+                Map<String, Long> histogram = stats.ttlHistogram();
+                analysis.put(entry.getKey(), Map.of(
+                        "count", stats.estimatedKeys(),
+                        "sampledKeys", stats.sampledKeys(),
+                        "avgTTLSeconds", stats.avgTtlSeconds(),
+                        "expiringSoon", histogram.getOrDefault("<10s", 0L) + histogram.getOrDefault("<1m", 0L),
+                        "neverExpire", histogram.getOrDefault("no-expire", 0L),
+                        "ttlHistogram", histogram
                 ));
             }
 
-            Map<String, List<Long>> ttlByPrefix = new HashMap<>();
-            Map<String, Integer> countByPrefix = new HashMap<>();
-
-            for (String key : allKeys) {
-                String prefix = key.split(":")[0];
-                Long ttl = redisTemplate.getExpire(key, TimeUnit.SECONDS);
-
-                ttlByPrefix.computeIfAbsent(prefix, k -> new ArrayList<>()).add(ttl != null ? ttl : -1);
-                countByPrefix.put(prefix, countByPrefix.getOrDefault(prefix, 0) + 1);
-            }
-
-            Map<String, Object> analysis = new HashMap<>();
-            for (String prefix : ttlByPrefix.keySet()) {
-                List<Long> ttls = ttlByPrefix.get(prefix);
-                long avgTTL = (long) ttls.stream()
-                        .filter(t -> t >= 0)
-                        .mapToLong(Long::longValue)
-                        .average()
-                        .orElse(0);
-
-                long expiringSoon = ttls.stream().filter(t -> t >= 0 && t < 60).count();
-                long neverExpire = ttls.stream().filter(t -> t == -1).count();
+            Map<String, Object> response = snapshotInfo(snapshot);
+            response.put("totalKeys", snapshot.estimatedKeys());
+            response.put("analysis", analysis);
+            response.put("message", "TTL analysis completed");
+            return response;
+        });
+    }
 
-                analysis.put(prefix, Map.of(
-                        "count", countByPrefix.get(prefix),
-                        "avgTTLSeconds", avgTTL,
-                        "expiringSoon", expiringSoon,
-                        "neverExpire", neverExpire
+    /**
+     * 스냅샷 기반 응답 (첫 SCAN이 끝나기 전이면 503)
+     */
+    private ResponseEntity<Map<String, Object>> fromSnapshot(
+            String error, Function<KeyspaceSnapshot, Map<String, Object>> mapper) {
+        try {
+            Optional<KeyspaceSnapshot> snapshot = keyspaceAnalyzer.snapshot();
+            if (snapshot.isEmpty()) {
+                return ResponseEntity.status(503).body(Map.of(
+                        "error", error,
+                        "message", "Keyspace scan has not completed yet"
                 ));
             }
-
-            return ResponseEntity.ok(Map.of(
-                    "totalKeys", allKeys.size(),
-                    "analysis", analysis,
-                    "message", "TTL analysis completed"
-            ));
+            return ResponseEntity.ok(mapper.apply(snapshot.get()));
         } catch (Exception e) {
             return ResponseEntity.status(500).body(Map.of(
-                    "error", "TTL analysis failed",
+                    "error", error,
                     "message", e.getMessage()
             ));
         }
     }
+
+    private Map<String, Object> keyCounts(KeyspaceSnapshot snapshot) {
+        Map<String, Object> stats = snapshotInfo(snapshot);
+        stats.put("rateLimitKeys", snapshot.namespaces().getOrDefault("rate", 0L));
+        stats.put("idempotencyKeys", snapshot.namespaces().getOrDefault("idem", 0L));
+        stats.put("cacheKeys", snapshot.namespaces().getOrDefault("payment", 0L));
+        stats.put("totalKeys", snapshot.estimatedKeys());
+        return stats;
+    }
+
+    private List<Map<String, Object>> rateLimitSamples(KeyspaceSnapshot snapshot) {
+        List<Map<String, Object>> samples = new ArrayList<>();
+        snapshot.topRateLimits().values().forEach(counters -> counters.stream()
+                .limit(5)
+                .forEach(counter -> samples.add(Map.of(
+                        "key", "rate:" + counter.action() + ":" + counter.merchantId(),
+                        "count", counter.count(),
+                        "ttlSeconds", counter.ttlSeconds()
+                ))));
+        return samples;
+    }
+
+    private Map<String, Object> snapshotInfo(KeyspaceSnapshot snapshot) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("estimated", true);
+        info.put("snapshotAt", snapshot.takenAt().toString());
+        info.put("scanDurationMs", snapshot.durationMs());
+        info.put("scannedKeys", snapshot.scannedKeys());
+        info.put("truncated", snapshot.truncated());
+        return info;
+    }
+
+    private Map<String, Object> toMap(RateCounter counter) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("action", counter.action());
+        result.put("merchantId", counter.merchantId());
+        result.put("currentCount", counter.count());
+        result.put("ttlSeconds", counter.ttlSeconds());
+        return result;
+    }
 }
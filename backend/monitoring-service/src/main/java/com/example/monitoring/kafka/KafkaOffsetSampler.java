@@ -0,0 +1,302 @@
+package com.example.monitoring.kafka;
+
+import com.example.monitoring.kafka.KafkaOffsetSnapshot.GroupState;
+import com.example.monitoring.kafka.KafkaOffsetSnapshot.PartitionLag;
+import com.example.monitoring.kafka.KafkaOffsetSnapshot.PartitionState;
+import com.example.monitoring.kafka.KafkaOffsetSnapshot.TopicState;
+import com.example.monitoring.kafka.OffsetHistory.GroupTotals;
+import com.example.monitoring.kafka.OffsetHistory.Point;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ConsumerGroupListing;
+import org.apache.kafka.clients.admin.DescribeClusterResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsResult;
+import org.apache.kafka.clients.admin.ListConsumerGroupOffsetsSpec;
+import org.apache.kafka.clients.admin.ListOffsetsResult.ListOffsetsResultInfo;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Kafka 오프셋 백그라운드 샘플러
+ *
+ * 요청마다 AdminClient/KafkaConsumer를 새로 만들면 TCP 연결, 메타데이터 조회, group coordination이 매번 일어난다.
+ * 대신 AdminClient 하나를 서비스 수명 동안 유지하고, 주기마다 토픽 begin/end 오프셋과
+ * consumer group 커밋 오프셋을 한 번에 조회해 스냅샷으로 캐시한다 (대시보드 요청은 Kafka를 건드리지 않음).
+ * 그룹별 lag 합계는 링 버퍼에 쌓아 lag 변화율과 소진 예상 시간을 계산한다.
+ */
+@Component
+public class KafkaOffsetSampler implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(KafkaOffsetSampler.class);
+
+    private final Admin admin;
+    private final long apiTimeoutMs;
+    private final long staleAfterMs;
+    private final OffsetHistory history;
+
+    private volatile KafkaOffsetSnapshot snapshot;
+    private volatile String lastFailure;
+
+    public KafkaOffsetSampler(@Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers,
+                              @Value("${monitoring.kafka.api-timeout-ms:5000}") long apiTimeoutMs,
+                              @Value("${monitoring.kafka.sample-interval-ms:5000}") long sampleIntervalMs,
+                              @Value("${monitoring.kafka.history-size:360}") int historySize) {
+        Properties props = new Properties();
+        props.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(AdminClientConfig.CLIENT_ID_CONFIG, "monitoring-offset-sampler");
+        props.put(AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, (int) apiTimeoutMs);
+        props.put(AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, (int) apiTimeoutMs);
+        this.admin = Admin.create(props);
+        this.apiTimeoutMs = apiTimeoutMs;
+        // 연속 두 번 넘게 샘플을 놓치면 스냅샷을 오래된 것으로 본다
+        this.staleAfterMs = sampleIntervalMs * 3;
+        this.history = new OffsetHistory(historySize);
+    }
+
+    public static boolean isMonitoredTopic(String topic) {
+        return topic.startsWith("payment.") || topic.equals("settlement.dlq") || topic.equals("refund.dlq");
+    }
+
+    /**
+     * 마지막으로 성공한 스냅샷 (첫 샘플 전이면 empty)
+     */
+    public Optional<KafkaOffsetSnapshot> snapshot() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    /**
+     * 직전 샘플 실패 사유 (직전 샘플이 성공했으면 empty)
+     */
+    public Optional<String> lastFailure() {
+        return Optional.ofNullable(lastFailure);
+    }
+
+    public boolean isStale(KafkaOffsetSnapshot snapshot) {
+        return Duration.between(snapshot.takenAt(), Instant.now()).toMillis() > staleAfterMs;
+    }
+
+    @Scheduled(initialDelayString = "${monitoring.kafka.initial-delay-ms:1000}",
+            fixedDelayString = "${monitoring.kafka.sample-interval-ms:5000}")
+    public void sample() {
+        try {
+            KafkaOffsetSnapshot taken = takeSnapshot();
+            snapshot = taken;
+            lastFailure = null;
+            history.add(OffsetHistory.of(taken));
+        } catch (ExecutionException | TimeoutException ex) {
+            Throwable cause = ex instanceof ExecutionException && ex.getCause() != null ? ex.getCause() : ex;
+            lastFailure = cause.getClass().getSimpleName() + ": " + cause.getMessage();
+            log.warn("Kafka offset sampling failed, keeping previous snapshot: {}", lastFailure);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 그룹 lag 추세 (window 안 샘플 기준, 그룹이 window 안에 한 번도 없으면 empty)
+     */
+    public Optional<LagTrend> trend(String groupId, Duration window) {
+        List<Point> points = history.since(Instant.now().minus(window));
+        List<Point> groupPoints = points.stream().filter(point -> point.groups().containsKey(groupId)).toList();
+        if (groupPoints.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(trendOf(groupId, groupPoints));
+    }
+
+    /**
+     * 마지막 스냅샷의 모든 그룹 lag 추세
+     */
+    public Map<String, LagTrend> trends(Duration window) {
+        Map<String, LagTrend> trends = new TreeMap<>();
+        snapshot().ifPresent(current -> current.groups().keySet()
+                .forEach(groupId -> trend(groupId, window).ifPresent(trend -> trends.put(groupId, trend))));
+        return trends;
+    }
+
+    @Override
+    public void destroy() {
+        admin.close(Duration.ofMillis(apiTimeoutMs));
+    }
+
+    private KafkaOffsetSnapshot takeSnapshot() throws ExecutionException, InterruptedException, TimeoutException {
+        long start = System.nanoTime();
+
+        DescribeClusterResult cluster = admin.describeCluster();
+        String clusterId = orUnknown(cluster.clusterId().get(apiTimeoutMs, TimeUnit.MILLISECONDS));
+        int brokerCount = cluster.nodes().get(apiTimeoutMs, TimeUnit.MILLISECONDS).size();
+
+        List<String> topicNames = admin.listTopics().names().get(apiTimeoutMs, TimeUnit.MILLISECONDS).stream()
+                .filter(KafkaOffsetSampler::isMonitoredTopic)
+                .sorted()
+                .toList();
+        Map<String, TopicDescription> descriptions = topicNames.isEmpty()
+                ? Map.of()
+                : admin.describeTopics(topicNames).allTopicNames().get(apiTimeoutMs, TimeUnit.MILLISECONDS);
+
+        Collection<ConsumerGroupListing> listings =
+                admin.listConsumerGroups().all().get(apiTimeoutMs, TimeUnit.MILLISECONDS);
+        Map<String, Map<TopicPartition, OffsetAndMetadata>> committed = committedOffsets(listings);
+
+        // end offset은 대상 토픽 파티션과 그룹이 커밋한 파티션 전체를 한 번에 조회
+        Set<TopicPartition> topicPartitions = new HashSet<>();
+        descriptions.values().forEach(description -> description.partitions()
+                .forEach(info -> topicPartitions.add(new TopicPartition(description.name(), info.partition()))));
+        Set<TopicPartition> endPartitions = new HashSet<>(topicPartitions);
+        committed.values().forEach(offsets -> endPartitions.addAll(offsets.keySet()));
+        Map<TopicPartition, Long> endOffsets = listOffsets(endPartitions, OffsetSpec.latest());
+        Map<TopicPartition, Long> beginningOffsets = listOffsets(topicPartitions, OffsetSpec.earliest());
+
+        Map<String, TopicState> topics = new TreeMap<>();
+        for (String topic : topicNames) {
+            TopicDescription description = descriptions.get(topic);
+            if (description == null) {
+                continue;
+            }
+            List<PartitionState> partitions = new ArrayList<>();
+            for (TopicPartitionInfo info : description.partitions()) {
+                TopicPartition tp = new TopicPartition(topic, info.partition());
+                partitions.add(new PartitionState(
+                        info.partition(),
+                        info.leader() != null ? info.leader().id() : -1,
+                        info.replicas().stream().map(Node::id).toList(),
+                        info.isr().stream().map(Node::id).toList(),
+                        beginningOffsets.getOrDefault(tp, 0L),
+                        endOffsets.getOrDefault(tp, 0L)));
+            }
+            topics.put(topic, new TopicState(topic, partitions));
+        }
+
+        Map<String, GroupState> groups = new TreeMap<>();
+        for (ConsumerGroupListing listing : listings) {
+            List<PartitionLag> lags = new ArrayList<>();
+            committed.getOrDefault(listing.groupId(), Map.of()).forEach((tp, offset) -> lags.add(
+                    new PartitionLag(tp.topic(), tp.partition(), offset.offset(), endOffsets.getOrDefault(tp, 0L))));
+            groups.put(listing.groupId(), new GroupState(listing.groupId(), listing.isSimpleConsumerGroup(),
+                    listing.state().map(Enum::name).orElse("UNKNOWN"), lags));
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return new KafkaOffsetSnapshot(Instant.now(), durationMs, clusterId, brokerCount, topics, groups);
+    }
+
+    /**
+     * 모든 그룹의 커밋 오프셋을 요청 하나로 조회 (그룹 하나가 실패해도 나머지는 유지)
+     */
+    private Map<String, Map<TopicPartition, OffsetAndMetadata>> committedOffsets(
+            Collection<ConsumerGroupListing> listings) throws InterruptedException, TimeoutException {
+        Map<String, ListConsumerGroupOffsetsSpec> specs = new HashMap<>();
+        listings.forEach(listing -> specs.put(listing.groupId(), new ListConsumerGroupOffsetsSpec()));
+        if (specs.isEmpty()) {
+            return Map.of();
+        }
+        ListConsumerGroupOffsetsResult result = admin.listConsumerGroupOffsets(specs);
+        Map<String, Map<TopicPartition, OffsetAndMetadata>> committed = new HashMap<>();
+        for (String groupId : specs.keySet()) {
+            try {
+                Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+                result.partitionsToOffsetAndMetadata(groupId).get(apiTimeoutMs, TimeUnit.MILLISECONDS)
+                        .forEach((tp, offset) -> {
+                            if (offset != null) {
+                                offsets.put(tp, offset);
+                            }
+                        });
+                committed.put(groupId, offsets);
+            } catch (ExecutionException ex) {
+                log.debug("Failed to list offsets for group {}: {}", groupId, ex.getMessage());
+            }
+        }
+        return committed;
+    }
+
+    private Map<TopicPartition, Long> listOffsets(Set<TopicPartition> partitions, OffsetSpec spec)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        if (partitions.isEmpty()) {
+            return Map.of();
+        }
+        Map<TopicPartition, OffsetSpec> request = new HashMap<>();
+        partitions.forEach(tp -> request.put(tp, spec));
+        Map<TopicPartition, ListOffsetsResultInfo> infos =
+                admin.listOffsets(request).all().get(apiTimeoutMs, TimeUnit.MILLISECONDS);
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        infos.forEach((tp, info) -> offsets.put(tp, info.offset()));
+        return offsets;
+    }
+
+    private static String orUnknown(String value) {
+        return value != null ? value : "unknown";
+    }
+
+    private static LagTrend trendOf(String groupId, List<Point> points) {
+        Point first = points.get(0);
+        Point last = points.get(points.size() - 1);
+        GroupTotals current = last.groups().get(groupId);
+        double elapsed = Duration.between(first.at(), last.at()).toMillis() / 1000.0;
+
+        if (points.size() < 2 || elapsed <= 0) {
+            return new LagTrend(groupId, 0, points.size(), current.lag(), 0, 0, 0,
+                    current.lag() == 0 ? 0.0 : null, current.lag() == 0 ? "CAUGHT_UP" : "INSUFFICIENT_DATA");
+        }
+
+        // lag 기울기는 최소제곱으로 (샘플 한두 개의 튐에 덜 민감)
+        double sumT = 0;
+        double sumL = 0;
+        double sumTT = 0;
+        double sumTL = 0;
+        for (Point point : points) {
+            double t = Duration.between(first.at(), point.at()).toMillis() / 1000.0;
+            double lag = point.groups().get(groupId).lag();
+            sumT += t;
+            sumL += lag;
+            sumTT += t * t;
+            sumTL += t * lag;
+        }
+        int n = points.size();
+        double denominator = n * sumTT - sumT * sumT;
+        double lagRate = denominator == 0 ? 0 : (n * sumTL - sumT * sumL) / denominator;
+
+        GroupTotals oldest = first.groups().get(groupId);
+        double consumeRate = Math.max(0, current.committed() - oldest.committed()) / elapsed;
+        double produceRate = Math.max(0, current.end() - oldest.end()) / elapsed;
+
+        Double secondsToDrain;
+        String status;
+        if (current.lag() == 0) {
+            secondsToDrain = 0.0;
+            status = "CAUGHT_UP";
+        } else if (lagRate < 0) {
+            secondsToDrain = current.lag() / -lagRate;
+            status = "DRAINING";
+        } else {
+            secondsToDrain = null;
+            status = lagRate > 0 ? "GROWING" : "STABLE";
+        }
+        return new LagTrend(groupId, Math.round(elapsed), n, current.lag(), lagRate, consumeRate, produceRate,
+                secondsToDrain, status);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.monitoring.kafka;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kafka 오프셋 스냅샷 (백그라운드 샘플러 한 번의 결과)
+ *
+ * @param topics 모니터링 대상 토픽 (payment.*, settlement.dlq, refund.dlq)별 파티션 오프셋
+ * @param groups consumer group별 커밋 오프셋과 lag
+ */
+public record KafkaOffsetSnapshot(Instant takenAt,
+                                  long durationMs,
+                                  String clusterId,
+                                  int brokerCount,
+                                  Map<String, TopicState> topics,
+                                  Map<String, GroupState> groups) {
+
+    public record PartitionState(int partition,
+                                 int leader,
+                                 List<Integer> replicas,
+                                 List<Integer> isr,
+                                 long beginningOffset,
+                                 long endOffset) {
+
+        public long messages() {
+            return Math.max(0, endOffset - beginningOffset);
+        }
+    }
+
+    public record TopicState(String topic, List<PartitionState> partitions) {
+
+        public long messages() {
+            return partitions.stream().mapToLong(PartitionState::messages).sum();
+        }
+    }
+
+    /**
+     * @param partitions 커밋 오프셋이 있는 파티션만 (비어 있으면 활성 consumer/커밋 없음)
+     */
+    public record GroupState(String groupId, boolean simple, String state, List<PartitionLag> partitions) {
+
+        public long totalLag() {
+            return partitions.stream().mapToLong(PartitionLag::lag).sum();
+        }
+
+        public long committedTotal() {
+            return partitions.stream().mapToLong(PartitionLag::committedOffset).sum();
+        }
+
+        public long endTotal() {
+            return partitions.stream().mapToLong(PartitionLag::endOffset).sum();
+        }
+    }
+
+    public record PartitionLag(String topic, int partition, long committedOffset, long endOffset) {
+
+        public long lag() {
+            return Math.max(0, endOffset - committedOffset);
+        }
+    }
+}
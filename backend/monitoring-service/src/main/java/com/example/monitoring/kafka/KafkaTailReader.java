@@ -0,0 +1,74 @@
+package com.example.monitoring.kafka;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 토픽 끝부분 레코드 조회 (DLQ 메시지 확인용)
+ *
+ * group.id 없이 assign/seek만 쓰는 KafkaConsumer 하나를 재사용한다 (group coordination, 오프셋 커밋 없음).
+ * KafkaConsumer는 스레드 안전하지 않으므로 조회를 직렬화한다.
+ */
+@Component
+public class KafkaTailReader implements DisposableBean {
+
+    private final KafkaConsumer<String, String> consumer;
+    private final Duration pollTimeout;
+
+    public KafkaTailReader(@Value("${spring.kafka.bootstrap-servers:localhost:9092}") String bootstrapServers,
+                           @Value("${monitoring.kafka.tail-poll-ms:2000}") long pollTimeoutMs) {
+        Properties props = new Properties();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.CLIENT_ID_CONFIG, "monitoring-tail-reader");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class.getName());
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // 보존 기간으로 지워진 구간에 seek하면 남아 있는 가장 앞 레코드부터 읽는다
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        this.consumer = new KafkaConsumer<>(props);
+        this.pollTimeout = Duration.ofMillis(pollTimeoutMs);
+    }
+
+    /**
+     * 파티션마다 마지막 limit개 레코드 조회
+     *
+     * @param endOffsets 파티션별 end offset (샘플러 스냅샷 값, 없으면 consumer로 조회)
+     */
+    public synchronized List<ConsumerRecord<String, String>> tail(String topic, Map<TopicPartition, Long> endOffsets,
+                                                                  int limit) {
+        Map<TopicPartition, Long> ends = endOffsets;
+        if (ends.isEmpty()) {
+            List<TopicPartition> partitions = consumer.partitionsFor(topic).stream()
+                    .map(p -> new TopicPartition(topic, p.partition()))
+                    .toList();
+            ends = consumer.endOffsets(partitions);
+        }
+
+        consumer.assign(ends.keySet());
+        ends.forEach((tp, end) -> consumer.seek(tp, Math.max(0, end - limit)));
+
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        try {
+            consumer.poll(pollTimeout).forEach(records::add);
+        } finally {
+            consumer.unsubscribe();
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        consumer.close(Duration.ofSeconds(5));
+    }
+}
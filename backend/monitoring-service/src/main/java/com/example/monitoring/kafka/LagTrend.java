@@ -0,0 +1,21 @@
+package com.example.monitoring.kafka;
+
+/**
+ * consumer group lag 추세 (링 버퍼 구간 기준)
+ *
+ * @param lagRatePerSecond   lag 변화율 (최소제곱 기울기, 음수면 줄어드는 중)
+ * @param consumeRatePerSecond 커밋 오프셋 합계 증가율
+ * @param produceRatePerSecond 대상 파티션 end offset 합계 증가율
+ * @param secondsToDrain     현재 변화율로 lag가 0이 될 때까지 예상 시간 (줄어들지 않으면 null)
+ * @param status             CAUGHT_UP, DRAINING, GROWING, STABLE, INSUFFICIENT_DATA
+ */
+public record LagTrend(String groupId,
+                       long windowSeconds,
+                       int samples,
+                       long currentLag,
+                       double lagRatePerSecond,
+                       double consumeRatePerSecond,
+                       double produceRatePerSecond,
+                       Double secondsToDrain,
+                       String status) {
+}
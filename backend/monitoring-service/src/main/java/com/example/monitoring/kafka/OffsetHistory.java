@@ -0,0 +1,56 @@
+package com.example.monitoring.kafka;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * consumer group 오프셋 시계열 링 버퍼 (고정 크기, 가장 오래된 샘플부터 덮어씀)
+ *
+ * 스냅샷 전체 대신 그룹별 합계만 보관해 샘플 수를 늘려도 메모리가 작다.
+ */
+final class OffsetHistory {
+
+    private final Point[] ring;
+    private int next;
+    private int size;
+
+    OffsetHistory(int capacity) {
+        this.ring = new Point[Math.max(2, capacity)];
+    }
+
+    synchronized void add(Point point) {
+        ring[next] = point;
+        next = (next + 1) % ring.length;
+        size = Math.min(size + 1, ring.length);
+    }
+
+    /**
+     * from 이후 샘플 (오래된 순)
+     */
+    synchronized List<Point> since(Instant from) {
+        List<Point> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Point point = ring[Math.floorMod(next - size + i, ring.length)];
+            if (!point.at().isBefore(from)) {
+                points.add(point);
+            }
+        }
+        return points;
+    }
+
+    static Point of(KafkaOffsetSnapshot snapshot) {
+        Map<String, GroupTotals> groups = new HashMap<>();
+        snapshot.groups().forEach((groupId, group) -> groups.put(groupId,
+                new GroupTotals(group.totalLag(), group.committedTotal(), group.endTotal())));
+        return new Point(snapshot.takenAt(), groups);
+    }
+
+    record Point(Instant at, Map<String, GroupTotals> groups) {
+    }
+
+    record GroupTotals(long lag, long committed, long end) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.monitoring.redis;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis 키 공간 분석 결과 (백그라운드 SCAN 한 바퀴의 스냅샷, 추정치)
+ *
+ * @param namespaces     첫 세그먼트별 추정 고유 키 수 (rate, idem, payment ...)
+ * @param prefixes       두 세그먼트 prefix별 통계 (rate:authorize, payment:state ...)
+ * @param topRateLimits  액션별 카운트 상위 N개 rate limit 키
+ * @param blocked        capacity 이상인 rate limit 키 (최대 maxBlocked건)
+ * @param truncated      키 상한에 걸려 SCAN을 끝까지 돌지 못했는지 여부
+ */
+public record KeyspaceSnapshot(Instant takenAt,
+                               long durationMs,
+                               long scannedKeys,
+                               boolean truncated,
+                               long estimatedKeys,
+                               Map<String, Long> namespaces,
+                               Map<String, PrefixStats> prefixes,
+                               Map<String, List<RateCounter>> topRateLimits,
+                               long blockedCount,
+                               List<RateCounter> blocked) {
+
+    /**
+     * @param ttlHistogram 표본 키의 TTL 구간별 건수 (no-expire, <10s, <1m, <5m, <1h, <1d, >=1d)
+     */
+    public record PrefixStats(long estimatedKeys,
+                              long scannedKeys,
+                              int sampledKeys,
+                              long avgTtlSeconds,
+                              Map<String, Long> ttlHistogram) {
+    }
+
+    public record RateCounter(String action, String merchantId, long count, long ttlSeconds) {
+    }
+}
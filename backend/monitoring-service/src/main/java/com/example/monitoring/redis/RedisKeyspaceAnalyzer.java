@@ -0,0 +1,344 @@
+package com.example.monitoring.redis;
+
+import com.example.monitoring.redis.KeyspaceSnapshot.PrefixStats;
+import com.example.monitoring.redis.KeyspaceSnapshot.RateCounter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Redis 키 공간 분석 (KEYS 대체)
+ *
+ * KEYS는 단일 스레드 Redis를 키 수만큼 막아 authorize 경로(rate limit, 멱등 캐시) 지연을 튀게 한다.
+ * 대신 백그라운드에서 SCAN COUNT 작은 단위로 키 공간을 한 바퀴 돌며 초당 키 수 상한에 맞춰 쉬고,
+ * 결과는 스냅샷으로 캐시해 대시보드 요청은 Redis를 건드리지 않는다.
+ * - prefix별 고유 키 수: HyperLogLog 추정 (SCAN 중복 반환 허용)
+ * - prefix별 TTL 분포: reservoir 표본의 TTL을 파이프라인으로 조회
+ * - rate limit 카운터: SCAN 배치마다 MGET, 액션별 상위 N개와 capacity 초과 키
+ */
+@Component
+public class RedisKeyspaceAnalyzer {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisKeyspaceAnalyzer.class);
+
+    private static final String RATE_PREFIX = "rate:";
+    private static final int MAX_PREFIXES = 50;
+    private static final String OTHER_PREFIX = "(other)";
+    private static final long[] TTL_BOUNDS = {10, 60, 300, 3600, 86400};
+    private static final String[] TTL_LABELS = {"<10s", "<1m", "<5m", "<1h", "<1d", ">=1d"};
+
+    private final StringRedisTemplate redisTemplate;
+    private final int scanCount;
+    private final long maxKeysPerSecond;
+    private final long maxKeys;
+    private final int ttlSampleSize;
+    private final int topN;
+    private final int maxBlocked;
+    private final Map<String, Long> capacities;
+
+    private volatile KeyspaceSnapshot snapshot;
+
+    public RedisKeyspaceAnalyzer(StringRedisTemplate redisTemplate,
+                                 @Value("${monitoring.redis-keyspace.scan-count:100}") int scanCount,
+                                 @Value("${monitoring.redis-keyspace.max-keys-per-second:5000}") long maxKeysPerSecond,
+                                 @Value("${monitoring.redis-keyspace.max-keys:500000}") long maxKeys,
+                                 @Value("${monitoring.redis-keyspace.ttl-sample-size:200}") int ttlSampleSize,
+                                 @Value("${monitoring.redis-keyspace.top-n:20}") int topN,
+                                 @Value("${monitoring.redis-keyspace.max-blocked:1000}") int maxBlocked,
+                                 @Value("${monitoring.redis-keyspace.capacity.authorize:30000}") long authorizeCapacity,
+                                 @Value("${monitoring.redis-keyspace.capacity.capture:30000}") long captureCapacity,
+                                 @Value("${monitoring.redis-keyspace.capacity.refund:15000}") long refundCapacity) {
+        this.redisTemplate = redisTemplate;
+        this.scanCount = Math.max(10, scanCount);
+        this.maxKeysPerSecond = Math.max(1, maxKeysPerSecond);
+        this.maxKeys = maxKeys;
+        this.ttlSampleSize = ttlSampleSize;
+        this.topN = topN;
+        this.maxBlocked = maxBlocked;
+        this.capacities = Map.of("authorize", authorizeCapacity, "capture", captureCapacity, "refund", refundCapacity);
+    }
+
+    /**
+     * 마지막으로 완료된 스냅샷 (첫 스캔 전이면 empty)
+     */
+    public Optional<KeyspaceSnapshot> snapshot() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    /**
+     * rate limit 액션의 capacity (알 수 없는 액션은 authorize 기준)
+     */
+    public long capacityOf(String action) {
+        return capacities.getOrDefault(action, capacities.get("authorize"));
+    }
+
+    @Scheduled(initialDelayString = "${monitoring.redis-keyspace.initial-delay-ms:5000}",
+            fixedDelayString = "${monitoring.redis-keyspace.refresh-ms:60000}")
+    public void refresh() {
+        try {
+            snapshot = scan();
+            log.debug("Redis keyspace snapshot: scanned={}, estimated={}, took={}ms",
+                    snapshot.scannedKeys(), snapshot.estimatedKeys(), snapshot.durationMs());
+        } catch (DataAccessException ex) {
+            log.warn("Redis keyspace scan failed, keeping previous snapshot: {}", ex.getMessage());
+        }
+    }
+
+    KeyspaceSnapshot scan() {
+        long start = System.nanoTime();
+        ScanState state = new ScanState();
+
+        ScanOptions options = ScanOptions.scanOptions().count(scanCount).build();
+        List<String> rateBatch = new ArrayList<>(scanCount);
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                if (state.scanned >= maxKeys) {
+                    state.truncated = true;
+                    break;
+                }
+                String key = cursor.next();
+                state.offer(key);
+                if (key.startsWith(RATE_PREFIX)) {
+                    rateBatch.add(key);
+                }
+                if (state.scanned % scanCount == 0) {
+                    flushRateCounters(rateBatch, state);
+                    pace(state.scanned, start);
+                }
+            }
+        }
+        flushRateCounters(rateBatch, state);
+
+        Map<String, PrefixStats> prefixes = new LinkedHashMap<>();
+        state.prefixes.forEach((prefix, stats) -> prefixes.put(prefix, stats.toStats(sampleTtls(stats.sample))));
+
+        Map<String, List<RateCounter>> topRateLimits = new LinkedHashMap<>();
+        state.topByAction.forEach((action, heap) -> {
+            List<RateCounter> top = new ArrayList<>(heap);
+            top.sort(Comparator.comparingLong(RateCounter::count).reversed());
+            topRateLimits.put(action, withTtl(top));
+        });
+
+        Map<String, Long> namespaces = new LinkedHashMap<>();
+        state.namespaces.forEach((namespace, hll) -> namespaces.put(namespace, hll.estimate()));
+
+        return new KeyspaceSnapshot(Instant.now(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                state.scanned, state.truncated, state.all.estimate(), namespaces, prefixes, topRateLimits,
+                state.blockedCount, withTtl(state.blocked));
+    }
+
+    /**
+     * 초당 키 수 상한에 맞춰 대기 (SCAN 배치 사이에만 쉼)
+     */
+    private void pace(long scanned, long startNanos) {
+        long expectedNanos = scanned * TimeUnit.SECONDS.toNanos(1) / maxKeysPerSecond;
+        long sleepNanos = expectedNanos - (System.nanoTime() - startNanos);
+        if (sleepNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * SCAN 배치의 rate limit 키 값을 MGET 한 번으로 읽어 상위 N/차단 목록에 반영
+     */
+    private void flushRateCounters(List<String> rateBatch, ScanState state) {
+        if (rateBatch.isEmpty()) {
+            return;
+        }
+        List<String> values = redisTemplate.opsForValue().multiGet(rateBatch);
+        for (int i = 0; i < rateBatch.size(); i++) {
+            String value = values != null ? values.get(i) : null;
+            if (value == null) {
+                continue; // SCAN 이후 만료
+            }
+            String key = rateBatch.get(i);
+            String[] parts = key.split(":", 3);
+            if (parts.length < 3) {
+                continue;
+            }
+            long count;
+            try {
+                count = Long.parseLong(value);
+            } catch (NumberFormatException ex) {
+                continue;
+            }
+            RateCounter counter = new RateCounter(parts[1], parts[2], count, -1);
+
+            PriorityQueue<RateCounter> heap = state.topByAction.computeIfAbsent(parts[1],
+                    action -> new PriorityQueue<>(Comparator.comparingLong(RateCounter::count)));
+            heap.add(counter);
+            if (heap.size() > topN) {
+                heap.poll();
+            }
+            if (count >= capacityOf(parts[1])) {
+                state.blockedCount++;
+                if (state.blocked.size() < maxBlocked) {
+                    state.blocked.add(counter);
+                }
+            }
+        }
+        rateBatch.clear();
+    }
+
+    /**
+     * 표본 키 TTL을 파이프라인 한 번으로 조회 (-1: 만료 없음, -2: 이미 삭제)
+     */
+    private List<Long> sampleTtls(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            pipelineTtl(connection, keys);
+            return null;
+        });
+        List<Long> ttls = new ArrayList<>(results.size());
+        for (Object result : results) {
+            ttls.add(result instanceof Number number ? number.longValue() : -2L);
+        }
+        return ttls;
+    }
+
+    private List<RateCounter> withTtl(List<RateCounter> counters) {
+        if (counters.isEmpty()) {
+            return List.of();
+        }
+        List<String> keys = counters.stream()
+                .map(counter -> RATE_PREFIX + counter.action() + ":" + counter.merchantId())
+                .toList();
+        List<Long> ttls = sampleTtls(keys);
+        List<RateCounter> result = new ArrayList<>(counters.size());
+        for (int i = 0; i < counters.size(); i++) {
+            RateCounter counter = counters.get(i);
+            result.add(new RateCounter(counter.action(), counter.merchantId(), counter.count(),
+                    i < ttls.size() ? ttls.get(i) : -2L));
+        }
+        return result;
+    }
+
+    private static void pipelineTtl(RedisConnection connection, List<String> keys) {
+        for (String key : keys) {
+            connection.keyCommands().ttl(key.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String prefixOf(String key) {
+        int first = key.indexOf(':');
+        if (first < 0) {
+            return key;
+        }
+        int second = key.indexOf(':', first + 1);
+        return second < 0 ? key.substring(0, first) : key.substring(0, second);
+    }
+
+    private static String namespaceOf(String key) {
+        int first = key.indexOf(':');
+        return first < 0 ? key : key.substring(0, first);
+    }
+
+    /**
+     * 한 번의 SCAN 동안의 누적 상태
+     */
+    private final class ScanState {
+
+        private final HyperLogLog all = new HyperLogLog();
+        private final Map<String, HyperLogLog> namespaces = new HashMap<>();
+        private final Map<String, PrefixAccumulator> prefixes = new LinkedHashMap<>();
+        private final Map<String, PriorityQueue<RateCounter>> topByAction = new LinkedHashMap<>();
+        private final List<RateCounter> blocked = new ArrayList<>();
+        private long blockedCount;
+        private long scanned;
+        private boolean truncated;
+
+        private void offer(String key) {
+            scanned++;
+            all.offer(key);
+
+            String namespace = namespaceOf(key);
+            if (namespaces.size() < MAX_PREFIXES || namespaces.containsKey(namespace)) {
+                namespaces.computeIfAbsent(namespace, n -> new HyperLogLog()).offer(key);
+            }
+
+            String prefix = prefixOf(key);
+            if (prefixes.size() >= MAX_PREFIXES && !prefixes.containsKey(prefix)) {
+                prefix = OTHER_PREFIX;
+            }
+            prefixes.computeIfAbsent(prefix, p -> new PrefixAccumulator()).offer(key);
+        }
+    }
+
+    /**
+     * prefix별 HLL + reservoir 표본
+     */
+    private final class PrefixAccumulator {
+
+        private final HyperLogLog hll = new HyperLogLog();
+        private final List<String> sample = new ArrayList<>();
+        private long seen;
+
+        private void offer(String key) {
+            hll.offer(key);
+            seen++;
+            if (sample.size() < ttlSampleSize) {
+                sample.add(key);
+            } else {
+                long slot = ThreadLocalRandom.current().nextLong(seen);
+                if (slot < ttlSampleSize) {
+                    sample.set((int) slot, key);
+                }
+            }
+        }
+
+        private PrefixStats toStats(List<Long> ttls) {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            histogram.put("no-expire", 0L);
+            for (String label : TTL_LABELS) {
+                histogram.put(label, 0L);
+            }
+            long ttlSum = 0;
+            long withTtl = 0;
+            for (long ttl : ttls) {
+                if (ttl == -1) {
+                    histogram.merge("no-expire", 1L, Long::sum);
+                } else if (ttl >= 0) {
+                    histogram.merge(TTL_LABELS[bucketOf(ttl)], 1L, Long::sum);
+                    ttlSum += ttl;
+                    withTtl++;
+                }
+            }
+            return new PrefixStats(hll.estimate(), seen, ttls.size(), withTtl > 0 ? ttlSum / withTtl : 0, histogram);
+        }
+
+        private int bucketOf(long ttl) {
+            for (int i = 0; i < TTL_BOUNDS.length; i++) {
+                if (ttl < TTL_BOUNDS[i]) {
+                    return i;
+                }
+            }
+            return TTL_BOUNDS.length;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.monitoring.rollup;
+
+import com.example.monitoring.config.shard.ShardContextHolder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+/**
+ * 결제 이벤트 → rollup 증분 갱신 (rollup worker)
+ *
+ * 결제 상태 이벤트 토픽을 배치로 소비해 가맹점/상태/샤드별 MINUTE/HOUR/DAY 버킷에 건수·금액을 더한다.
+ * 오프셋은 analytics DB에 rollup과 함께 저장하고, 파티션 할당 시 그 값으로 seek 한다.
+ * 파싱할 수 없는 이벤트는 건너뛰고 rollup.events.skipped 메트릭으로 남긴다 (통계용이므로 DLQ로 보내지 않음).
+ */
+@Component
+public class PaymentRollupListener implements ConsumerSeekAware {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentRollupListener.class);
+
+    private final PaymentRollupWriter rollupWriter;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    public PaymentRollupListener(PaymentRollupWriter rollupWriter, ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry) {
+        this.rollupWriter = rollupWriter;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @KafkaListener(
+            topics = {"payment.authorized", "payment.capture-requested", "payment.captured",
+                    "payment.refund-requested", "payment.refunded"},
+            groupId = "${rollup.consumer-group:payment-rollup}",
+            concurrency = "${rollup.concurrency:2}",
+            autoStartup = "${rollup.enabled:true}",
+            batch = "true",
+            properties = {"auto.offset.reset=earliest", "max.poll.records=2000"}
+    )
+    public void handleBatch(List<ConsumerRecord<String, String>> records) {
+        List<RollupEvent> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            RollupEvent event = toEvent(record);
+            if (event != null) {
+                events.add(event);
+            } else {
+                meterRegistry.counter("rollup.events.skipped", "topic", record.topic()).increment();
+            }
+        }
+
+        int applied = rollupWriter.write(records, events);
+        meterRegistry.counter("rollup.events.applied").increment(applied);
+        log.debug("Rollup batch applied: records={}, applied={}", records.size(), applied);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        assignments.keySet().forEach(partition -> rollupWriter.restartOffset(partition)
+                .ifPresent(offset -> callback.seek(partition.topic(), partition.partition(), offset)));
+    }
+
+    private RollupEvent toEvent(ConsumerRecord<String, String> record) {
+        try {
+            JsonNode node = objectMapper.readTree(record.value());
+            String merchantId = node.path("merchantId").asText("UNKNOWN");
+            String status = node.hasNonNull("status")
+                    ? node.get("status").asText()
+                    : statusOf(record.topic());
+            String occurredAt = node.path("occurredAt").asText(null);
+            Instant occurred = occurredAt != null ? Instant.parse(occurredAt) : Instant.ofEpochMilli(record.timestamp());
+            return new RollupEvent(record, merchantId, status, ShardContextHolder.resolveShardKey(merchantId),
+                    node.path("amount").asLong(), occurred);
+        } catch (Exception ex) {
+            log.warn("Skipping unparseable rollup event topic={} partition={} offset={}: {}",
+                    record.topic(), record.partition(), record.offset(), ex.getMessage());
+            return null;
+        }
+    }
+
+    private static String statusOf(String topic) {
+        return topic.substring(topic.indexOf('.') + 1).replace('-', '_').toUpperCase(Locale.ROOT);
+    }
+}
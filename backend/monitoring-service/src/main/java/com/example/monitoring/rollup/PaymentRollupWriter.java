@@ -0,0 +1,149 @@
+package com.example.monitoring.rollup;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import javax.sql.DataSource;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * rollup 배치 반영 (analytics DB)
+ *
+ * 배치 하나를 트랜잭션 하나로 "payment_rollup 가산 + rollup_offset 전진"을 함께 커밋한다.
+ * 재처리 시 저장된 next_offset 미만 레코드는 건너뛰므로 이벤트가 두 번 더해지지 않는다.
+ * 이벤트 한 건은 MINUTE/HOUR/DAY 버킷에 모두 더해진다.
+ */
+@Component
+public class PaymentRollupWriter {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO payment_rollup (granularity, bucket_start, merchant_id, status, shard_id, " +
+            "event_count, amount_sum, min_amount, max_amount) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE event_count = event_count + VALUES(event_count), " +
+            "amount_sum = amount_sum + VALUES(amount_sum), " +
+            "min_amount = LEAST(min_amount, VALUES(min_amount)), " +
+            "max_amount = GREATEST(max_amount, VALUES(max_amount))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String consumerGroup;
+
+    public PaymentRollupWriter(@Qualifier("analyticsDataSource") DataSource analyticsDataSource,
+                               @Value("${rollup.consumer-group:payment-rollup}") String consumerGroup) {
+        this.jdbcTemplate = new JdbcTemplate(analyticsDataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(analyticsDataSource));
+        this.consumerGroup = consumerGroup;
+    }
+
+    /**
+     * @param batch  poll로 받은 전체 레코드 (오프셋 계산용, 파싱에 실패한 레코드 포함)
+     * @param events rollup에 반영할 이벤트
+     * @return 실제로 반영한 이벤트 수
+     */
+    public int write(List<ConsumerRecord<String, String>> batch, List<RollupEvent> events) {
+        Map<TopicPartition, Long> nextOffsets = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : batch) {
+            nextOffsets.merge(new TopicPartition(record.topic(), record.partition()), record.offset() + 1, Math::max);
+        }
+
+        Integer applied = transactionTemplate.execute(status -> {
+            Map<TopicPartition, Long> stored = new HashMap<>();
+            for (TopicPartition tp : nextOffsets.keySet()) {
+                List<Long> offsets = jdbcTemplate.queryForList(
+                        "SELECT next_offset FROM rollup_offset " +
+                        "WHERE consumer_group = ? AND topic = ? AND partition_no = ? FOR UPDATE",
+                        Long.class, consumerGroup, tp.topic(), tp.partition());
+                if (!offsets.isEmpty()) {
+                    stored.put(tp, offsets.get(0));
+                }
+            }
+
+            // [0]=count, [1]=sum, [2]=min, [3]=max
+            TreeMap<RollupKey, long[]> deltas = new TreeMap<>();
+            int count = 0;
+            for (RollupEvent event : events) {
+                Long appliedUpTo = stored.get(new TopicPartition(event.record().topic(), event.record().partition()));
+                if (appliedUpTo != null && event.record().offset() < appliedUpTo) {
+                    continue;
+                }
+                for (RollupGranularity granularity : RollupGranularity.values()) {
+                    RollupKey key = new RollupKey(granularity.name(), granularity.bucketOf(event.occurredAt()),
+                            event.merchantId(), event.status(), event.shardId());
+                    long[] delta = deltas.computeIfAbsent(key,
+                            k -> new long[]{0, 0, Long.MAX_VALUE, Long.MIN_VALUE});
+                    delta[0]++;
+                    delta[1] += event.amount();
+                    delta[2] = Math.min(delta[2], event.amount());
+                    delta[3] = Math.max(delta[3], event.amount());
+                }
+                count++;
+            }
+
+            if (!deltas.isEmpty()) {
+                List<Object[]> args = new ArrayList<>(deltas.size());
+                deltas.forEach((key, delta) -> args.add(new Object[]{
+                        key.granularity(), Timestamp.from(key.bucketStart()), key.merchantId(), key.status(),
+                        key.shardId(), delta[0], delta[1], delta[2], delta[3]}));
+                jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+            }
+
+            nextOffsets.forEach((tp, next) -> jdbcTemplate.update(
+                    "INSERT INTO rollup_offset (consumer_group, topic, partition_no, next_offset) VALUES (?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE next_offset = GREATEST(next_offset, VALUES(next_offset))",
+                    consumerGroup, tp.topic(), tp.partition(), next));
+            return count;
+        });
+        return applied != null ? applied : 0;
+    }
+
+    /**
+     * 파티션 재시작 오프셋 (기록이 없으면 empty)
+     */
+    public Optional<Long> restartOffset(TopicPartition partition) {
+        List<Long> offsets = jdbcTemplate.queryForList(
+                "SELECT next_offset FROM rollup_offset WHERE consumer_group = ? AND topic = ? AND partition_no = ?",
+                Long.class, consumerGroup, partition.topic(), partition.partition());
+        return offsets.stream().findFirst();
+    }
+
+    /**
+     * 보존 기간이 지난 버킷 삭제 (한 번에 최대 10,000건)
+     */
+    public int purgeBefore(RollupGranularity granularity, Instant cutoff) {
+        return jdbcTemplate.update(
+                "DELETE FROM payment_rollup WHERE granularity = ? AND bucket_start < ? LIMIT 10000",
+                granularity.name(), Timestamp.from(cutoff));
+    }
+
+    /**
+     * payment_rollup 행 키 (PK 순서로 정렬 - 동시 배치 간 잠금 순서 고정)
+     */
+    private record RollupKey(String granularity, Instant bucketStart, String merchantId, String status,
+                             String shardId) implements Comparable<RollupKey> {
+
+        private static final Comparator<RollupKey> ORDER = Comparator.comparing(RollupKey::granularity)
+                .thenComparing(RollupKey::bucketStart)
+                .thenComparing(RollupKey::merchantId)
+                .thenComparing(RollupKey::status)
+                .thenComparing(RollupKey::shardId);
+
+        @Override
+        public int compareTo(RollupKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
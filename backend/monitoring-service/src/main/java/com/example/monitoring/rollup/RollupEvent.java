@@ -0,0 +1,15 @@
+package com.example.monitoring.rollup;
+
+import java.time.Instant;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+
+/**
+ * rollup에 반영할 결제 이벤트 한 건
+ */
+public record RollupEvent(ConsumerRecord<String, String> record,
+                          String merchantId,
+                          String status,
+                          String shardId,
+                          long amount,
+                          Instant occurredAt) {
+}
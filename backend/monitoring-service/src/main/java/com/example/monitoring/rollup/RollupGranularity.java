@@ -0,0 +1,24 @@
+package com.example.monitoring.rollup;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * rollup 버킷 단위 (UTC 기준으로 잘라냄)
+ */
+public enum RollupGranularity {
+
+    MINUTE(ChronoUnit.MINUTES),
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public Instant bucketOf(Instant instant) {
+        return instant.truncatedTo(unit);
+    }
+}
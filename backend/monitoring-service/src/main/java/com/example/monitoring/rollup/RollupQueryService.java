@@ -0,0 +1,106 @@
+package com.example.monitoring.rollup;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * rollup 기반 통계 조회
+ *
+ * 기간에 맞는 가장 굵은 버킷을 골라 읽으므로 조회 비용은 원본 행 수가 아니라 버킷 수에 비례한다.
+ * - last_hour: MINUTE 버킷 / last_24h: HOUR 버킷 / today, all: DAY 버킷
+ * - 건수는 "해당 상태로 전이된 이벤트 수"이다 (결제의 현재 상태 분포가 아님)
+ */
+@Service
+public class RollupQueryService {
+
+    public static final String AUTHORIZED = "AUTHORIZED";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RollupQueryService(@Qualifier("analyticsDataSource") DataSource analyticsDataSource) {
+        this.jdbcTemplate = new JdbcTemplate(analyticsDataSource);
+    }
+
+    /**
+     * 조회 기간 → (버킷 단위, 시작 시각)
+     */
+    public Window window(String timeRange) {
+        Instant now = Instant.now();
+        return switch (timeRange.toLowerCase(Locale.ROOT)) {
+            case "last_hour" -> new Window(RollupGranularity.MINUTE,
+                    RollupGranularity.MINUTE.bucketOf(now.minus(Duration.ofHours(1))));
+            case "last_24h" -> new Window(RollupGranularity.HOUR,
+                    RollupGranularity.HOUR.bucketOf(now.minus(Duration.ofHours(24))));
+            case "today" -> new Window(RollupGranularity.DAY, RollupGranularity.DAY.bucketOf(now));
+            default -> new Window(RollupGranularity.DAY, Instant.EPOCH);
+        };
+    }
+
+    /**
+     * 기간 내 특정 상태 이벤트의 건수/금액 요약
+     */
+    public Map<String, Object> overall(Window window, String status) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT COALESCE(SUM(event_count), 0) as total_count, COALESCE(SUM(amount_sum), 0) as total_amount, " +
+                "COALESCE(MIN(min_amount), 0) as min_amount, COALESCE(MAX(max_amount), 0) as max_amount " +
+                "FROM payment_rollup WHERE granularity = ? AND status = ? AND bucket_start >= ?",
+                window.granularity().name(), status, Timestamp.from(window.from()));
+        long totalCount = ((Number) row.get("total_count")).longValue();
+        long totalAmount = ((Number) row.get("total_amount")).longValue();
+
+        Map<String, Object> overall = new HashMap<>();
+        overall.put("total_count", totalCount);
+        overall.put("total_amount", totalAmount);
+        overall.put("avg_amount", totalCount > 0 ? totalAmount / totalCount : 0);
+        overall.put("min_amount", ((Number) row.get("min_amount")).longValue());
+        overall.put("max_amount", ((Number) row.get("max_amount")).longValue());
+        return overall;
+    }
+
+    /**
+     * 기간 내 상태별 이벤트 건수/금액
+     */
+    public List<Map<String, Object>> byStatus(Window window) {
+        return jdbcTemplate.queryForList(
+                "SELECT status, SUM(event_count) as count, SUM(amount_sum) as total_amount " +
+                "FROM payment_rollup WHERE granularity = ? AND bucket_start >= ? GROUP BY status",
+                window.granularity().name(), Timestamp.from(window.from()));
+    }
+
+    /**
+     * 기간 내 특정 상태 이벤트 금액 상위 가맹점
+     */
+    public List<Map<String, Object>> topMerchants(Window window, String status, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT merchant_id, SUM(event_count) as transaction_count, SUM(amount_sum) as total_amount " +
+                "FROM payment_rollup WHERE granularity = ? AND status = ? AND bucket_start >= ? " +
+                "GROUP BY merchant_id ORDER BY total_amount DESC LIMIT ?",
+                window.granularity().name(), status, Timestamp.from(window.from()), limit);
+    }
+
+    /**
+     * 전체 기간 상태별 누적 (status → [count, amount])
+     */
+    public Map<String, long[]> totalsByStatus() {
+        Map<String, long[]> totals = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT status, SUM(event_count) as count, SUM(amount_sum) as total_amount " +
+                "FROM payment_rollup WHERE granularity = 'DAY' GROUP BY status",
+                rs -> {
+                    totals.put(rs.getString("status"), new long[]{rs.getLong("count"), rs.getLong("total_amount")});
+                });
+        return totals;
+    }
+
+    public record Window(RollupGranularity granularity, Instant from) {
+    }
+}
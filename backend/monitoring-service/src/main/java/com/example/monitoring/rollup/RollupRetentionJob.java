@@ -0,0 +1,45 @@
+package com.example.monitoring.rollup;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 보존 기간이 지난 세밀한 버킷 삭제 (MINUTE 기본 2일, HOUR 기본 90일, DAY는 유지)
+ */
+@Component
+public class RollupRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RollupRetentionJob.class);
+
+    private final PaymentRollupWriter rollupWriter;
+    private final Duration minuteRetention;
+    private final Duration hourRetention;
+
+    public RollupRetentionJob(PaymentRollupWriter rollupWriter,
+                              @Value("${rollup.retention.minute-hours:48}") long minuteRetentionHours,
+                              @Value("${rollup.retention.hour-days:90}") long hourRetentionDays) {
+        this.rollupWriter = rollupWriter;
+        this.minuteRetention = Duration.ofHours(minuteRetentionHours);
+        this.hourRetention = Duration.ofDays(hourRetentionDays);
+    }
+
+    @Scheduled(fixedDelayString = "${rollup.retention.interval-ms:600000}")
+    public void purgeExpiredBuckets() {
+        try {
+            Instant now = Instant.now();
+            int minutes = rollupWriter.purgeBefore(RollupGranularity.MINUTE, now.minus(minuteRetention));
+            int hours = rollupWriter.purgeBefore(RollupGranularity.HOUR, now.minus(hourRetention));
+            if (minutes + hours > 0) {
+                log.info("Purged expired rollup buckets: minute={}, hour={}", minutes, hours);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Failed to purge rollup buckets: {}", ex.getMessage());
+        }
+    }
+}
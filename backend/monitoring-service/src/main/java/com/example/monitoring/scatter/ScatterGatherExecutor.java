@@ -0,0 +1,111 @@
+package com.example.monitoring.scatter;
+
+import com.example.monitoring.config.shard.ShardScope;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 샤드 scatter-gather 조회 실행기
+ *
+ * 샤드마다 가상 스레드 하나에서 ShardScope를 열고 조회를 동시에 실행한다.
+ * 응답 시간은 샤드 지연의 합이 아니라 가장 느린 샤드(최대 타임아웃)로 제한된다.
+ * 타임아웃을 넘긴 샤드는 취소하고 TIMEOUT으로 표시하며, 나머지 샤드 결과로 부분 응답을 만든다.
+ *
+ * Metrics: monitoring.scatter.shard{shard, status=OK|TIMEOUT|ERROR} (샤드별 응답 시간)
+ */
+@Component
+public class ScatterGatherExecutor implements DisposableBean {
+
+    public static final List<String> SHARDS = List.of("shard1", "shard2");
+
+    private static final Logger log = LoggerFactory.getLogger(ScatterGatherExecutor.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long shardTimeoutMs;
+
+    public ScatterGatherExecutor(DataSource dataSource,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${monitoring.scatter.shard-timeout-ms:3000}") long shardTimeoutMs) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        // 드라이버 쿼리 타임아웃(초 단위)으로 취소된 샤드의 쿼리도 DB에서 정리되게 한다
+        this.jdbcTemplate.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(shardTimeoutMs + 999)));
+        this.meterRegistry = meterRegistry;
+        this.shardTimeoutMs = shardTimeoutMs;
+    }
+
+    /**
+     * 전체 샤드에 조회 실행
+     */
+    public <T> ScatterResult<T> scatter(ShardQuery<T> query) {
+        return scatter(SHARDS, query);
+    }
+
+    /**
+     * 지정 샤드에 조회 실행 (가맹점 샤드처럼 대상이 정해진 경우 하나만 넘긴다)
+     */
+    public <T> ScatterResult<T> scatter(List<String> shards, ShardQuery<T> query) {
+        long start = System.nanoTime();
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (String shard : shards) {
+            futures.put(shard, executor.submit(() -> {
+                try (ShardScope ignored = ShardScope.open(shard)) {
+                    return query.query(shard, jdbcTemplate);
+                }
+            }));
+        }
+
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(shardTimeoutMs);
+        List<ShardOutcome<T>> outcomes = new ArrayList<>(futures.size());
+        for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+            String shard = entry.getKey();
+            Future<T> future = entry.getValue();
+            ShardOutcome<T> outcome;
+            try {
+                T value = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                outcome = ShardOutcome.ok(shard, value, elapsedMs(start));
+            } catch (TimeoutException ex) {
+                future.cancel(true);
+                outcome = ShardOutcome.timeout(shard, elapsedMs(start));
+                log.warn("Shard query timed out on {} after {}ms", shard, outcome.elapsedMs());
+            } catch (ExecutionException ex) {
+                outcome = ShardOutcome.error(shard, elapsedMs(start), ex.getCause());
+                log.warn("Shard query failed on {}: {}", shard, outcome.error());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                outcome = ShardOutcome.error(shard, elapsedMs(start), ex);
+            }
+            meterRegistry.timer("monitoring.scatter.shard", "shard", shard, "status", outcome.status().name())
+                    .record(outcome.elapsedMs(), TimeUnit.MILLISECONDS);
+            outcomes.add(outcome);
+        }
+        return new ScatterResult<>(outcomes);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+}
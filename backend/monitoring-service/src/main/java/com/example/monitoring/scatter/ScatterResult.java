@@ -0,0 +1,71 @@
+package com.example.monitoring.scatter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * scatter-gather 결과
+ *
+ * 응답한 샤드의 값만 reducer에 넘기고, 늦거나 실패한 샤드는 shardStatus()로 응답에 드러낸다.
+ */
+public class ScatterResult<T> {
+
+    private final List<ShardOutcome<T>> outcomes;
+
+    ScatterResult(List<ShardOutcome<T>> outcomes) {
+        this.outcomes = List.copyOf(outcomes);
+    }
+
+    public List<ShardOutcome<T>> outcomes() {
+        return outcomes;
+    }
+
+    /**
+     * 성공한 샤드의 값 (샤드 순서 유지)
+     */
+    public List<T> values() {
+        return outcomes.stream().filter(ShardOutcome::isOk).map(ShardOutcome::value).toList();
+    }
+
+    public Optional<ShardOutcome<T>> outcome(String shard) {
+        return outcomes.stream().filter(outcome -> outcome.shard().equals(shard)).findFirst();
+    }
+
+    public <R> R reduce(Function<List<T>, R> reducer) {
+        return reducer.apply(values());
+    }
+
+    /**
+     * 일부 샤드만 응답했는지 여부
+     */
+    public boolean isPartial() {
+        return outcomes.stream().anyMatch(outcome -> !outcome.isOk());
+    }
+
+    /**
+     * 모든 샤드가 실패했는지 여부
+     */
+    public boolean isFailed() {
+        return outcomes.stream().noneMatch(ShardOutcome::isOk);
+    }
+
+    /**
+     * 응답용 샤드별 상태 (shard → {status, elapsedMs, error})
+     */
+    public Map<String, Object> shardStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        for (ShardOutcome<T> outcome : outcomes) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("status", outcome.status().name());
+            entry.put("elapsedMs", outcome.elapsedMs());
+            if (outcome.error() != null) {
+                entry.put("error", outcome.error());
+            }
+            status.put(outcome.shard(), entry);
+        }
+        return status;
+    }
+}
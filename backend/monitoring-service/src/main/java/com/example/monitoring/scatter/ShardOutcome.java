@@ -0,0 +1,28 @@
+package com.example.monitoring.scatter;
+
+/**
+ * 샤드 하나의 조회 결과 (값 또는 실패 사유)
+ */
+public record ShardOutcome<T>(String shard, Status status, T value, long elapsedMs, String error) {
+
+    public enum Status {
+        OK, TIMEOUT, ERROR
+    }
+
+    static <T> ShardOutcome<T> ok(String shard, T value, long elapsedMs) {
+        return new ShardOutcome<>(shard, Status.OK, value, elapsedMs, null);
+    }
+
+    static <T> ShardOutcome<T> timeout(String shard, long elapsedMs) {
+        return new ShardOutcome<>(shard, Status.TIMEOUT, null, elapsedMs, "Timed out after " + elapsedMs + "ms");
+    }
+
+    static <T> ShardOutcome<T> error(String shard, long elapsedMs, Throwable cause) {
+        return new ShardOutcome<>(shard, Status.ERROR, null, elapsedMs,
+                cause.getClass().getSimpleName() + ": " + cause.getMessage());
+    }
+
+    public boolean isOk() {
+        return status == Status.OK;
+    }
+}
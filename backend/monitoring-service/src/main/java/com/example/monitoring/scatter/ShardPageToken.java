@@ -0,0 +1,100 @@
+package com.example.monitoring.scatter;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 샤드별 keyset 페이지 커서 (continuation token)
+ *
+ * 샤드마다 마지막으로 내보낸 행의 (시각, ID)를 기억한다. payment_id/entry_id는 샤드마다 따로 증가하므로
+ * 전역 커서 하나로는 샤드 간 같은 키를 구분할 수 없어 샤드별로 둔다.
+ * 다음 페이지는 각 샤드에서 "커서보다 뒤" 조건의 인덱스 range scan으로 시작하므로 깊이와 무관하게 비용이 같다.
+ *
+ * 토큰 형식은 Base64URL("shard,시각,ID;shard,시각,ID") 이며 클라이언트는 내용을 해석하지 않는다.
+ */
+public final class ShardPageToken {
+
+    public static final String SHARD_COLUMN = "shard";
+
+    private static final ShardPageToken FIRST_PAGE = new ShardPageToken(Map.of());
+
+    private final Map<String, Position> positions;
+
+    private ShardPageToken(Map<String, Position> positions) {
+        this.positions = positions;
+    }
+
+    /**
+     * 토큰 해석 (null/빈 값이면 첫 페이지)
+     *
+     * @throws IllegalArgumentException 형식이 잘못된 토큰
+     */
+    public static ShardPageToken decode(String token) {
+        if (token == null || token.isBlank()) {
+            return FIRST_PAGE;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            Map<String, Position> positions = new LinkedHashMap<>();
+            for (String part : raw.split(";")) {
+                String[] fields = part.split(",", 3);
+                positions.put(fields[0], new Position(LocalDateTime.parse(fields[1]), Long.parseLong(fields[2])));
+            }
+            return new ShardPageToken(positions);
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid page token", ex);
+        }
+    }
+
+    /**
+     * 샤드의 마지막 위치 (첫 페이지이거나 아직 행을 내보내지 않은 샤드면 empty)
+     */
+    public Optional<Position> position(String shard) {
+        return Optional.ofNullable(positions.get(shard));
+    }
+
+    /**
+     * 이번 페이지 행으로 커서 전진 (행에는 SHARD_COLUMN이 있어야 함, 행을 내보내지 않은 샤드는 기존 위치 유지)
+     */
+    public ShardPageToken advance(List<Map<String, Object>> page, String timeColumn, String idColumn) {
+        Map<String, Position> next = new LinkedHashMap<>(positions);
+        for (Map<String, Object> row : page) {
+            next.put((String) row.get(SHARD_COLUMN),
+                    new Position(toLocalDateTime(row.get(timeColumn)), ((Number) row.get(idColumn)).longValue()));
+        }
+        return new ShardPageToken(next);
+    }
+
+    public String encode() {
+        StringBuilder raw = new StringBuilder();
+        positions.forEach((shard, position) -> {
+            if (!raw.isEmpty()) {
+                raw.append(';');
+            }
+            raw.append(shard).append(',').append(position.at()).append(',').append(position.id());
+        });
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return localDateTime;
+        }
+        throw new IllegalStateException("Unsupported cursor time value: " + value);
+    }
+
+    /**
+     * 샤드 안에서의 위치 (내림차순 정렬 기준 마지막 행)
+     */
+    public record Position(LocalDateTime at, long id) {
+    }
+}
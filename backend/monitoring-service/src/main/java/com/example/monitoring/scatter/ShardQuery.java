@@ -0,0 +1,15 @@
+package com.example.monitoring.scatter;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 샤드 하나에서 실행할 조회
+ *
+ * 호출 시점에는 해당 샤드의 ShardScope가 이미 열려 있으며,
+ * 전달되는 JdbcTemplate에는 샤드 타임아웃에 맞춘 쿼리 타임아웃이 걸려 있다.
+ */
+@FunctionalInterface
+public interface ShardQuery<T> {
+
+    T query(String shard, JdbcTemplate jdbcTemplate);
+}
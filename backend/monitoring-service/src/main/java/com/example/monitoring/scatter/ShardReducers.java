@@ -0,0 +1,126 @@
+package com.example.monitoring.scatter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+/**
+ * 샤드별 결과 병합 함수
+ */
+public final class ShardReducers {
+
+    private ShardReducers() {
+    }
+
+    /**
+     * 샤드별 숫자 합계 (null은 0)
+     */
+    public static <N extends Number> Function<List<N>, Long> sum() {
+        return values -> values.stream().mapToLong(value -> value != null ? value.longValue() : 0L).sum();
+    }
+
+    /**
+     * 단일 행 결과(queryForMap)의 지정 컬럼 합계
+     */
+    public static Function<List<Map<String, Object>>, Map<String, Object>> sumColumns(String... columns) {
+        return rows -> {
+            Map<String, Object> merged = new LinkedHashMap<>();
+            for (String column : columns) {
+                merged.put(column, 0L);
+            }
+            for (Map<String, Object> row : rows) {
+                for (String column : columns) {
+                    merged.merge(column, toLong(row.get(column)), (a, b) -> (Long) a + (Long) b);
+                }
+            }
+            return merged;
+        };
+    }
+
+    /**
+     * GROUP BY 결과 병합 - 같은 키 행의 지정 컬럼을 더한다 (첫 등장 순서 유지, 나머지 컬럼은 첫 행 값)
+     */
+    public static Function<List<List<Map<String, Object>>>, List<Map<String, Object>>> groupBy(
+            String keyColumn, String... sumColumns) {
+        return shardRows -> {
+            Map<Object, Map<String, Object>> groups = new LinkedHashMap<>();
+            for (List<Map<String, Object>> rows : shardRows) {
+                for (Map<String, Object> row : rows) {
+                    Map<String, Object> group = groups.get(row.get(keyColumn));
+                    if (group == null) {
+                        group = new LinkedHashMap<>(row);
+                        for (String column : sumColumns) {
+                            group.put(column, toLong(row.get(column)));
+                        }
+                        groups.put(row.get(keyColumn), group);
+                        continue;
+                    }
+                    for (String column : sumColumns) {
+                        group.put(column, (Long) group.get(column) + toLong(row.get(column)));
+                    }
+                }
+            }
+            return new ArrayList<>(groups.values());
+        };
+    }
+
+    /**
+     * 정렬된 샤드별 결과의 k-way 병합 (상위 limit건)
+     * 각 샤드가 같은 ORDER BY, LIMIT으로 조회했다는 전제에서 전체 순서의 상위 limit건과 같다.
+     */
+    public static <R> Function<List<List<R>>, List<R>> mergeSorted(Comparator<? super R> order, int limit) {
+        return shardRows -> {
+            PriorityQueue<Cursor<R>> heap = new PriorityQueue<>(
+                    Math.max(1, shardRows.size()), (a, b) -> order.compare(a.head(), b.head()));
+            for (List<R> rows : shardRows) {
+                if (!rows.isEmpty()) {
+                    heap.add(new Cursor<>(rows));
+                }
+            }
+            List<R> merged = new ArrayList<>(Math.min(limit, shardRows.stream().mapToInt(List::size).sum()));
+            while (!heap.isEmpty() && merged.size() < limit) {
+                Cursor<R> cursor = heap.poll();
+                merged.add(cursor.head());
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+            return merged;
+        };
+    }
+
+    /**
+     * 행 컬럼 기준 비교자 (null은 뒤로)
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Comparator<Map<String, Object>> byColumn(String column, boolean descending) {
+        Comparator<Comparable> natural = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return Comparator.comparing(row -> (Comparable) row.get(column), Comparator.nullsLast(natural));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    private static final class Cursor<R> {
+
+        private final List<R> rows;
+        private int index;
+
+        private Cursor(List<R> rows) {
+            this.rows = rows;
+        }
+
+        private R head() {
+            return rows.get(index);
+        }
+
+        private boolean advance() {
+            return ++index < rows.size();
+        }
+    }
+}
@@ -41,16 +41,19 @@ public class AdminTestService {
     private final MCPAnalysisService mcpAnalysisService;
     private final String apiBaseUrl;
     private final String gatewayBaseUrl;
+    private final String pgStubUrl;
 
     @Autowired
     public AdminTestService(RestTemplate restTemplate, ObjectMapper objectMapper, MCPAnalysisService mcpAnalysisService,
                            @org.springframework.beans.factory.annotation.Value("${ingest-service-vm1-url:http://ingest-service-vm1:8080}") String apiBaseUrl,
-                           @org.springframework.beans.factory.annotation.Value("${monitoring-gateway-base-url:http://localhost:8080}") String gatewayBaseUrl) {
+                           @org.springframework.beans.factory.annotation.Value("${monitoring-gateway-base-url:http://localhost:8080}") String gatewayBaseUrl,
+                           @org.springframework.beans.factory.annotation.Value("${services.pg-stub-server.url:http://pg-stub-server:8090}") String pgStubUrl) {
         this.restTemplate = restTemplate;
         this.objectMapper = objectMapper;
         this.mcpAnalysisService = mcpAnalysisService;
         this.apiBaseUrl = apiBaseUrl;
         this.gatewayBaseUrl = gatewayBaseUrl;
+        this.pgStubUrl = pgStubUrl;
     }
 
     /**
@@ -92,6 +95,7 @@ public class AdminTestService {
             long startTime = System.currentTimeMillis();
             try {
                 logger.info("Running K6 test: scenario={}, testId={}", scenario, testId);
+                Object pgProfileAtStart = fetchPgProfile();
 
                 // K6 스크립트 실행
                 ProcessBuilder processBuilder = new ProcessBuilder();
@@ -123,6 +127,8 @@ public class AdminTestService {
                 rawData.put("exitCode", exitCode);
                 rawData.put("output", output.toString());
                 rawData.put("scenario", scenario);
+                rawData.put("pgProfileAtStart", pgProfileAtStart);
+                rawData.put("pgProfileAtEnd", fetchPgProfile());
 
                 // K6 summary.json 파일 읽기 (있는 경우)
                 File summaryFile = new File("loadtest/k6/summary.json");
@@ -197,6 +203,7 @@ public class AdminTestService {
             long startTime = System.currentTimeMillis();
             try {
                 logger.info("Running Circuit Breaker test: testId={}", testId);
+                Object pgProfileAtStart = fetchPgProfile();
 
                 ProcessBuilder processBuilder = new ProcessBuilder();
                 processBuilder.command("bash", "scripts/test-circuit-breaker.sh");
@@ -229,6 +236,8 @@ public class AdminTestService {
                 Map<String, Object> rawData = new HashMap<>();
                 rawData.put("exitCode", exitCode);
                 rawData.put("output", output.toString());
+                rawData.put("pgProfileAtStart", pgProfileAtStart);
+                rawData.put("pgProfileAtEnd", fetchPgProfile());
 
                 String status = exitCode == 0 ? "success" : "failure";
 
@@ -565,6 +574,18 @@ public class AdminTestService {
     /**
      * Duration 포맷팅
      */
+    /**
+     * PG 스텁 서버에 적용 중인 지연/장애 프로파일 (테스트 조건 기록용, 조회 실패 시 오류 내용)
+     */
+    private Object fetchPgProfile() {
+        try {
+            return restTemplate.getForObject(pgStubUrl + "/admin/pg-profile", Map.class);
+        } catch (Exception e) {
+            logger.warn("Failed to fetch PG stub profile: {}", e.getMessage());
+            return Map.of("error", "PG stub profile unavailable: " + e.getMessage());
+        }
+    }
+
     private String formatDuration(long millis) {
         long seconds = millis / 1000;
         long minutes = seconds / 60;
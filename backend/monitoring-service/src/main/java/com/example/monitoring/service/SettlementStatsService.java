@@ -1,23 +1,33 @@
 package com.example.monitoring.service;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.example.monitoring.rollup.RollupQueryService;
+import com.example.monitoring.scatter.ScatterGatherExecutor;
+import com.example.monitoring.scatter.ScatterResult;
+import com.example.monitoring.scatter.ShardReducers;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 /**
  * 정산/환불 통계 서비스
+ *
+ * 누적 성공 건수/금액은 payment rollup(CAPTURED, REFUNDED 이벤트)에서 읽고,
+ * 대기/실패/지연 건은 (status, requested_at) 인덱스로 좁혀지는 작은 집합만 원본 테이블에서 센다.
+ * 원본 테이블 조회는 ScatterGatherExecutor로 두 샤드에 동시에 실행해 합산한다.
  */
 @Service
 public class SettlementStatsService {
 
-    private final JdbcTemplate jdbcTemplate;
+    private final ScatterGatherExecutor scatterGatherExecutor;
+    private final RollupQueryService rollupQueryService;
 
-    public SettlementStatsService(JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    public SettlementStatsService(ScatterGatherExecutor scatterGatherExecutor, RollupQueryService rollupQueryService) {
+        this.scatterGatherExecutor = scatterGatherExecutor;
+        this.rollupQueryService = rollupQueryService;
     }
 
     /**
@@ -26,64 +36,31 @@ public class SettlementStatsService {
     public Map<String, Object> getSettlementStats() {
         Map<String, Object> stats = new HashMap<>();
 
-        // 총 정산 건수
-        Integer totalCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM settlement_request",
-                Integer.class
-        );
-
-        // 정산 성공 건수
-        Integer successCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM settlement_request WHERE status = 'SUCCESS'",
-                Integer.class
-        );
-
-        // 정산 실패 건수
-        Integer failedCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM settlement_request WHERE status = 'FAILED'",
-                Integer.class
-        );
-
-        // 대기 중인 정산
-        Integer pendingCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM settlement_request WHERE status = 'PENDING'",
-                Integer.class
-        );
-
-        // 총 정산 금액
-        Double totalAmount = jdbcTemplate.queryForObject(
-                "SELECT COALESCE(SUM(request_amount), 0) FROM settlement_request WHERE status = 'SUCCESS'",
-                Double.class
-        );
-
-        // Dead Letter (최대 재시도 초과)
-        Integer deadLetterCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM settlement_request WHERE status = 'FAILED' AND retry_count >= 10",
-                Integer.class
-        );
-
-        // 지연 정산 감지 (1시간 이상 PENDING 상태)
-        Integer delayedSettlements = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM settlement_request WHERE status = 'PENDING' AND requested_at < DATE_SUB(NOW(), INTERVAL 1 HOUR)",
-                Integer.class
-        );
-
-        // 실패 정산 상세 (재시도 횟수별)
-        List<Map<String, Object>> failureDetails = jdbcTemplate.queryForList(
-                "SELECT retry_count, COUNT(*) as count FROM settlement_request WHERE status = 'FAILED' GROUP BY retry_count ORDER BY retry_count DESC"
-        );
+        // 정산 성공 건수/금액 (rollup 누적)
+        long[] captured = rollupQueryService.totalsByStatus().getOrDefault("CAPTURED", new long[2]);
+        long successCount = captured[0];
+
+        // 실패/대기/Dead Letter(최대 재시도 초과)/지연(1시간 이상 PENDING) 건수, 실패 상세 (샤드 합산)
+        ScatterResult<RequestCounts> result = scatterGatherExecutor.scatter(
+                (shard, jdbc) -> countRequests(jdbc, "settlement_request", "1 HOUR"));
+        RequestCounts counts = result.reduce(RequestCounts::merge);
+
+        // 총 정산 건수/금액
+        long totalCount = successCount + counts.failed() + counts.pending();
+        double totalAmount = captured[1];
 
         stats.put("totalCount", totalCount);
         stats.put("successCount", successCount);
-        stats.put("failedCount", failedCount);
-        stats.put("pendingCount", pendingCount);
+        stats.put("failedCount", counts.failed());
+        stats.put("pendingCount", counts.pending());
         stats.put("totalAmount", totalAmount);
-        stats.put("deadLetterCount", deadLetterCount);
-        stats.put("delayedSettlements", delayedSettlements);
-        stats.put("failureDetails", failureDetails);
+        stats.put("deadLetterCount", counts.deadLetter());
+        stats.put("delayedSettlements", counts.delayed());
+        stats.put("failureDetails", counts.failureDetails());
         stats.put("successRate", totalCount > 0 ? (double) successCount / totalCount * 100 : 0.0);
-        stats.put("failureRate", totalCount > 0 ? (double) failedCount / totalCount * 100 : 0.0);
-        stats.put("healthStatus", delayedSettlements > 0 || deadLetterCount > 0 ? "WARNING" : "HEALTHY");
+        stats.put("failureRate", totalCount > 0 ? (double) counts.failed() / totalCount * 100 : 0.0);
+        stats.put("healthStatus", healthStatus(result, counts));
+        stats.put("shards", result.shardStatus());
 
         return stats;
     }
@@ -94,58 +71,30 @@ public class SettlementStatsService {
     public Map<String, Object> getRefundStats() {
         Map<String, Object> stats = new HashMap<>();
 
-        Integer totalCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM refund_request",
-                Integer.class
-        );
-
-        Integer successCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM refund_request WHERE status = 'SUCCESS'",
-                Integer.class
-        );
-
-        Integer failedCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM refund_request WHERE status = 'FAILED'",
-                Integer.class
-        );
-
-        Integer pendingCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM refund_request WHERE status = 'PENDING'",
-                Integer.class
-        );
-
-        Double totalAmount = jdbcTemplate.queryForObject(
-                "SELECT COALESCE(SUM(refund_amount), 0) FROM refund_request WHERE status = 'SUCCESS'",
-                Double.class
-        );
-
-        Integer deadLetterCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM refund_request WHERE status = 'FAILED' AND retry_count >= 10",
-                Integer.class
-        );
-
-        // 지연 환불 감지 (30분 이상 PENDING 상태)
-        Integer delayedRefunds = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM refund_request WHERE status = 'PENDING' AND requested_at < DATE_SUB(NOW(), INTERVAL 30 MINUTE)",
-                Integer.class
-        );
-
-        // 실패 환불 상세 (재시도 횟수별)
-        List<Map<String, Object>> failureDetails = jdbcTemplate.queryForList(
-                "SELECT retry_count, COUNT(*) as count FROM refund_request WHERE status = 'FAILED' GROUP BY retry_count ORDER BY retry_count DESC"
-        );
+        // 환불 성공 건수/금액 (rollup 누적)
+        long[] refunded = rollupQueryService.totalsByStatus().getOrDefault("REFUNDED", new long[2]);
+        long successCount = refunded[0];
+
+        // 지연 환불 기준: 30분 이상 PENDING
+        ScatterResult<RequestCounts> result = scatterGatherExecutor.scatter(
+                (shard, jdbc) -> countRequests(jdbc, "refund_request", "30 MINUTE"));
+        RequestCounts counts = result.reduce(RequestCounts::merge);
+
+        long totalCount = successCount + counts.failed() + counts.pending();
+        double totalAmount = refunded[1];
 
         stats.put("totalCount", totalCount);
         stats.put("successCount", successCount);
-        stats.put("failedCount", failedCount);
-        stats.put("pendingCount", pendingCount);
+        stats.put("failedCount", counts.failed());
+        stats.put("pendingCount", counts.pending());
         stats.put("totalAmount", totalAmount);
-        stats.put("deadLetterCount", deadLetterCount);
-        stats.put("delayedRefunds", delayedRefunds);
-        stats.put("failureDetails", failureDetails);
+        stats.put("deadLetterCount", counts.deadLetter());
+        stats.put("delayedRefunds", counts.delayed());
+        stats.put("failureDetails", counts.failureDetails());
         stats.put("successRate", totalCount > 0 ? (double) successCount / totalCount * 100 : 0.0);
-        stats.put("failureRate", totalCount > 0 ? (double) failedCount / totalCount * 100 : 0.0);
-        stats.put("healthStatus", delayedRefunds > 0 || deadLetterCount > 0 ? "WARNING" : "HEALTHY");
+        stats.put("failureRate", totalCount > 0 ? (double) counts.failed() / totalCount * 100 : 0.0);
+        stats.put("healthStatus", healthStatus(result, counts));
+        stats.put("shards", result.shardStatus());
 
         return stats;
     }
@@ -156,28 +105,67 @@ public class SettlementStatsService {
     public Map<String, Object> getOverviewStats() {
         Map<String, Object> stats = new HashMap<>();
 
-        // 결제 상태별 통계
-        Integer authorizedCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM payment WHERE status = 'AUTHORIZED'",
-                Integer.class
-        );
-
-        Integer capturedCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM payment WHERE status = 'CAPTURED'",
-                Integer.class
-        );
-
-        Integer refundedCount = jdbcTemplate.queryForObject(
-                "SELECT COUNT(*) FROM payment WHERE status = 'REFUNDED'",
-                Integer.class
-        );
-
-        stats.put("authorizedCount", authorizedCount);
-        stats.put("capturedCount", capturedCount);
-        stats.put("refundedCount", refundedCount);
+        // 결제 상태별 누적 이벤트 수 (rollup)
+        Map<String, long[]> totals = rollupQueryService.totalsByStatus();
+
+        stats.put("authorizedCount", totals.getOrDefault("AUTHORIZED", new long[2])[0]);
+        stats.put("capturedCount", totals.getOrDefault("CAPTURED", new long[2])[0]);
+        stats.put("refundedCount", totals.getOrDefault("REFUNDED", new long[2])[0]);
         stats.put("settlement", getSettlementStats());
         stats.put("refund", getRefundStats());
 
         return stats;
     }
+
+    /**
+     * 샤드 하나의 요청 테이블 건수 조회 (table, delayInterval은 내부 상수만 전달)
+     */
+    private static RequestCounts countRequests(JdbcTemplate jdbc,
+                                               String table, String delayInterval) {
+        Long failed = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE status = 'FAILED'", Long.class);
+        Long pending = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE status = 'PENDING'", Long.class);
+        Long deadLetter = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE status = 'FAILED' AND retry_count >= 10", Long.class);
+        Long delayed = jdbc.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE status = 'PENDING' " +
+                "AND requested_at < DATE_SUB(NOW(), INTERVAL " + delayInterval + ")", Long.class);
+        List<Map<String, Object>> failureDetails = jdbc.queryForList(
+                "SELECT retry_count, COUNT(*) as count FROM " + table + " WHERE status = 'FAILED' " +
+                "GROUP BY retry_count ORDER BY retry_count DESC");
+        return new RequestCounts(failed, pending, deadLetter, delayed, failureDetails);
+    }
+
+    /**
+     * 응답하지 않은 샤드가 있으면 건수를 신뢰할 수 없으므로 DEGRADED
+     */
+    private static String healthStatus(ScatterResult<RequestCounts> result, RequestCounts counts) {
+        if (result.isPartial()) {
+            return "DEGRADED";
+        }
+        return counts.delayed() > 0 || counts.deadLetter() > 0 ? "WARNING" : "HEALTHY";
+    }
+
+    private record RequestCounts(long failed, long pending, long deadLetter, long delayed,
+                                 List<Map<String, Object>> failureDetails) {
+
+        static RequestCounts merge(List<RequestCounts> shards) {
+            long failed = 0;
+            long pending = 0;
+            long deadLetter = 0;
+            long delayed = 0;
+            List<List<Map<String, Object>>> details = new ArrayList<>();
+            for (RequestCounts counts : shards) {
+                failed += counts.failed();
+                pending += counts.pending();
+                deadLetter += counts.deadLetter();
+                delayed += counts.delayed();
+                details.add(counts.failureDetails());
+            }
+            List<Map<String, Object>> failureDetails = ShardReducers.groupBy("retry_count", "count").apply(details);
+            failureDetails.sort(ShardReducers.byColumn("retry_count", true));
+            return new RequestCounts(failed, pending, deadLetter, delayed, failureDetails);
+        }
+    }
 }
@@ -0,0 +1,25 @@
+-- 결제 이벤트 rollup (monitoring-service가 Kafka 이벤트로 증분 갱신, 버킷 시각은 UTC)
+CREATE TABLE IF NOT EXISTS payment_rollup (
+  granularity   VARCHAR(8)   NOT NULL,  -- MINUTE, HOUR, DAY
+  bucket_start  DATETIME     NOT NULL,
+  merchant_id   VARCHAR(32)  NOT NULL,
+  status        VARCHAR(50)  NOT NULL,  -- 이벤트의 상태 (AUTHORIZED, CAPTURED, REFUNDED ...)
+  shard_id      VARCHAR(16)  NOT NULL,
+  event_count   BIGINT       NOT NULL DEFAULT 0,
+  amount_sum    BIGINT       NOT NULL DEFAULT 0,
+  min_amount    BIGINT       NOT NULL,
+  max_amount    BIGINT       NOT NULL,
+  updated_at    TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (granularity, bucket_start, merchant_id, status, shard_id),
+  KEY ix_status_bucket (granularity, status, bucket_start)
+) ENGINE=InnoDB;
+
+-- rollup consumer 오프셋 (rollup 갱신과 같은 트랜잭션으로 기록)
+CREATE TABLE IF NOT EXISTS rollup_offset (
+  consumer_group  VARCHAR(64)  NOT NULL,
+  topic           VARCHAR(128) NOT NULL,
+  partition_no    INT          NOT NULL,
+  next_offset     BIGINT       NOT NULL,
+  updated_at      TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+  PRIMARY KEY (consumer_group, topic, partition_no)
+) ENGINE=InnoDB;
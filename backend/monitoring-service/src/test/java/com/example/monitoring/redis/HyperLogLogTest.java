@@ -0,0 +1,82 @@
+package com.example.monitoring.redis;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class HyperLogLogTest {
+
+    @Test
+    @DisplayName("빈 HLL은 0, 같은 키를 반복해도 추정치가 변하지 않아야 함")
+    void duplicateOffersDoNotChangeRegisters() {
+        HyperLogLog hll = new HyperLogLog();
+        assertThat(hll.estimate()).isZero();
+
+        hll.offer("rate:authorize:M1");
+        assertThat(hll.estimate()).isEqualTo(1);
+        for (int i = 0; i < 1000; i++) {
+            hll.offer("rate:authorize:M1");
+        }
+        assertThat(hll.estimate()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("새 키를 넣을수록 추정치가 줄지 않아야 함 (레지스터는 최댓값만 유지)")
+    void estimateNeverDecreases() {
+        HyperLogLog hll = new HyperLogLog();
+        long previous = 0;
+        for (int i = 0; i < 20_000; i++) {
+            hll.offer("key:" + i);
+            if (i % 500 == 0) {
+                long current = hll.estimate();
+                assertThat(current).isGreaterThanOrEqualTo(previous);
+                previous = current;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("작은 집합은 linear counting 보정으로 거의 정확해야 함")
+    void smallRangeCorrection() {
+        assertThat(estimateOf(10)).isEqualTo(10);
+        assertThat(estimateOf(100)).isCloseTo(100, within(2L));
+        assertThat(estimateOf(1_000)).isCloseTo(1_000, within(20L));
+    }
+
+    @Test
+    @DisplayName("큰 집합은 표준 오차(약 1.6%)의 3배 이내여야 함")
+    void largeRangeWithinErrorBound() {
+        assertThat(estimateOf(100_000)).isCloseTo(100_000, within(5_000L));
+        assertThat(estimateOf(1_000_000)).isCloseTo(1_000_000, within(50_000L));
+    }
+
+    @Test
+    @DisplayName("두 HLL을 합치면 합집합을 한 HLL에 넣은 것과 같아야 함")
+    void mergeEqualsUnion() {
+        HyperLogLog left = new HyperLogLog();
+        HyperLogLog right = new HyperLogLog();
+        HyperLogLog union = new HyperLogLog();
+        for (int i = 0; i < 30_000; i++) {
+            (i % 3 == 0 ? left : right).offer("key:" + i);
+            union.offer("key:" + i);
+        }
+        // 겹치는 키
+        for (int i = 0; i < 5_000; i++) {
+            left.offer("key:" + i);
+        }
+
+        left.merge(right);
+
+        assertThat(left.estimate()).isEqualTo(union.estimate());
+    }
+
+    private static long estimateOf(int cardinality) {
+        HyperLogLog hll = new HyperLogLog();
+        for (int i = 0; i < cardinality; i++) {
+            hll.offer("payment:idem:" + i);
+        }
+        return hll.estimate();
+    }
+}
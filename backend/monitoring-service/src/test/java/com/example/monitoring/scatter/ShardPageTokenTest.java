@@ -0,0 +1,72 @@
+package com.example.monitoring.scatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ShardPageTokenTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2024, 5, 1, 10, 0);
+    private static final LocalDateTime T2 = LocalDateTime.of(2024, 5, 1, 9, 30, 15, 123_000_000);
+
+    @Test
+    @DisplayName("비어 있는 토큰은 첫 페이지여야 함")
+    void blankTokenIsFirstPage() {
+        assertThat(ShardPageToken.decode(null).position("shard1")).isEmpty();
+        assertThat(ShardPageToken.decode("").position("shard2")).isEmpty();
+        assertThat(ShardPageToken.decode(ShardPageToken.decode(null).encode()).position("shard1")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("인코딩한 토큰을 다시 해석하면 샤드별 위치가 같아야 함")
+    void roundTripKeepsPositionPerShard() {
+        ShardPageToken token = ShardPageToken.decode(null).advance(List.of(
+                Map.of(ShardPageToken.SHARD_COLUMN, "shard1", "created_at", Timestamp.valueOf(T1), "payment_id", 42L),
+                Map.of(ShardPageToken.SHARD_COLUMN, "shard2", "created_at", T2, "payment_id", 7)),
+                "created_at", "payment_id");
+
+        ShardPageToken decoded = ShardPageToken.decode(token.encode());
+
+        assertThat(decoded.position("shard1")).contains(new ShardPageToken.Position(T1, 42L));
+        assertThat(decoded.position("shard2")).contains(new ShardPageToken.Position(T2, 7L));
+    }
+
+    @Test
+    @DisplayName("행을 내보내지 않은 샤드는 이전 위치를 유지해야 함")
+    void advanceKeepsPositionOfIdleShard() {
+        ShardPageToken first = ShardPageToken.decode(null).advance(List.of(
+                Map.of(ShardPageToken.SHARD_COLUMN, "shard1", "at", T1, "id", 10L),
+                Map.of(ShardPageToken.SHARD_COLUMN, "shard2", "at", T1, "id", 20L)), "at", "id");
+
+        ShardPageToken second = ShardPageToken.decode(first.encode()).advance(List.of(
+                Map.of(ShardPageToken.SHARD_COLUMN, "shard1", "at", T2, "id", 5L)), "at", "id");
+
+        assertThat(second.position("shard1")).contains(new ShardPageToken.Position(T2, 5L));
+        assertThat(second.position("shard2")).contains(new ShardPageToken.Position(T1, 20L));
+    }
+
+    @Test
+    @DisplayName("형식이 잘못된 토큰은 IllegalArgumentException이어야 함")
+    void malformedTokenIsRejected() {
+        assertThatThrownBy(() -> ShardPageToken.decode("%%%not-base64"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ShardPageToken.decode(encodeRaw("shard1,2024-05-01T10:00")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ShardPageToken.decode(encodeRaw("shard1,yesterday,1")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ShardPageToken.decode(encodeRaw("shard1,2024-05-01T10:00,abc")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
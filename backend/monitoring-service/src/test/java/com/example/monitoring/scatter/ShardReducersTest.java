@@ -0,0 +1,74 @@
+package com.example.monitoring.scatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+class ShardReducersTest {
+
+    private static final Comparator<Map<String, Object>> NEWEST_FIRST =
+            ShardReducers.byColumn("seq", true).thenComparing(ShardReducers.byColumn("shard", false));
+
+    @Test
+    @DisplayName("샤드별 정렬 결과를 전체 순서로 병합해야 함")
+    void mergeSortedInterleavesShards() {
+        List<Map<String, Object>> merged = ShardReducers.mergeSorted(NEWEST_FIRST, 10).apply(List.of(
+                List.of(row("shard1", 9), row("shard1", 5), row("shard1", 2)),
+                List.of(row("shard2", 8), row("shard2", 7), row("shard2", 1))));
+
+        assertThat(merged).extracting(row -> row.get("seq")).containsExactly(9, 8, 7, 5, 2, 1);
+    }
+
+    @Test
+    @DisplayName("샤드 간 같은 정렬 키는 보조 키 순서로 모두 포함되어야 함")
+    void mergeSortedKeepsTiesAcrossShards() {
+        List<Map<String, Object>> merged = ShardReducers.mergeSorted(NEWEST_FIRST, 10).apply(List.of(
+                List.of(row("shard2", 5), row("shard2", 3)),
+                List.of(row("shard1", 5), row("shard1", 3))));
+
+        assertThat(merged).extracting(row -> row.get("shard") + ":" + row.get("seq"))
+                .containsExactly("shard1:5", "shard2:5", "shard1:3", "shard2:3");
+    }
+
+    @Test
+    @DisplayName("빈 샤드는 건너뛰고 모든 샤드가 비면 빈 결과여야 함")
+    void mergeSortedSkipsEmptyShard() {
+        List<Map<String, Object>> merged = ShardReducers.mergeSorted(NEWEST_FIRST, 10).apply(List.of(
+                List.of(),
+                List.of(row("shard2", 4), row("shard2", 2))));
+
+        assertThat(merged).extracting(row -> row.get("seq")).containsExactly(4, 2);
+        assertThat(ShardReducers.mergeSorted(NEWEST_FIRST, 10).apply(List.of(List.of(), List.of()))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("limit 건수에서 잘라야 함")
+    void mergeSortedTruncatesAtLimit() {
+        List<Map<String, Object>> merged = ShardReducers.mergeSorted(NEWEST_FIRST, 3).apply(List.of(
+                List.of(row("shard1", 9), row("shard1", 6), row("shard1", 3)),
+                List.of(row("shard2", 8), row("shard2", 7), row("shard2", 1))));
+
+        assertThat(merged).extracting(row -> row.get("seq")).containsExactly(9, 8, 7);
+        assertThat(ShardReducers.mergeSorted(NEWEST_FIRST, 0).apply(List.of(List.of(row("shard1", 1)))))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("GROUP BY 결과는 같은 키끼리 합산해야 함")
+    void groupBySumsAcrossShards() {
+        List<Map<String, Object>> merged = ShardReducers.groupBy("status", "cnt").apply(List.of(
+                List.of(Map.of("status", "CAPTURED", "cnt", 3L), Map.of("status", "REFUNDED", "cnt", 1L)),
+                List.of(Map.of("status", "CAPTURED", "cnt", 2))));
+
+        assertThat(merged).extracting(row -> row.get("status") + "=" + row.get("cnt"))
+                .containsExactly("CAPTURED=5", "REFUNDED=1");
+    }
+
+    private static Map<String, Object> row(String shard, int seq) {
+        return Map.of("shard", shard, "seq", seq);
+    }
+}
@@ -0,0 +1,12 @@
+pluginManagement {
+    repositories {
+        gradlePluginPortal()
+        mavenCentral()
+    }
+    plugins {
+        id("org.springframework.boot") version "3.3.4"
+        id("io.spring.dependency-management") version "1.1.6"
+    }
+}
+
+rootProject.name = "pg-stub-server"
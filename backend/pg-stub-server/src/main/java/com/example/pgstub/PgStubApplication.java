@@ -0,0 +1,15 @@
+package com.example.pgstub;
+
+import com.example.pgstub.config.PgStubProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+@SpringBootApplication
+@EnableConfigurationProperties(PgStubProperties.class)
+public class PgStubApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(PgStubApplication.class, args);
+    }
+}
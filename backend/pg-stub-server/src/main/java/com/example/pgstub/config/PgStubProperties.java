@@ -0,0 +1,39 @@
+package com.example.pgstub.config;
+
+import com.example.pgstub.profile.PgProfile;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * API별 기동 시 기본 프로파일 (실행 중 교체는 PgProfileRegistry / 관리 API)
+ */
+@ConfigurationProperties(prefix = "pg-stub")
+public class PgStubProperties {
+
+    private PgProfile authorize = new PgProfile();
+    private PgProfile settle = new PgProfile();
+    private PgProfile refund = new PgProfile();
+
+    public PgProfile getAuthorize() {
+        return authorize;
+    }
+
+    public void setAuthorize(PgProfile authorize) {
+        this.authorize = authorize;
+    }
+
+    public PgProfile getSettle() {
+        return settle;
+    }
+
+    public void setSettle(PgProfile settle) {
+        this.settle = settle;
+    }
+
+    public PgProfile getRefund() {
+        return refund;
+    }
+
+    public void setRefund(PgProfile refund) {
+        this.refund = refund;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.pgstub.controller;
+
+import com.example.pgstub.profile.PgProfile;
+import com.example.pgstub.profile.PgProfilePresets;
+import com.example.pgstub.profile.PgProfileRegistry;
+import com.example.pgstub.profile.PgProfileRegistry.ActiveProfile;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * PG 스텁 프로파일 관리 API
+ * 부하 테스트 중에도 API별 지연 분포/장애 주입을 바꿀 수 있다. 현재 상태는 테스트 보고서에 함께 기록된다.
+ */
+@RestController
+@RequestMapping("/admin/pg-profile")
+public class PgProfileAdminController {
+
+    private final PgProfileRegistry registry;
+
+    public PgProfileAdminController(PgProfileRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * API별 적용 중인 프로파일, 적용 시각, 적용 후 경과 시간
+     */
+    @GetMapping
+    public Map<String, Object> current() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        registry.snapshot().forEach((operation, active) -> result.put(operation, describe(active)));
+        return result;
+    }
+
+    @GetMapping("/presets")
+    public List<String> presets() {
+        return PgProfilePresets.NAMES;
+    }
+
+    /**
+     * 한 API의 프로파일 교체
+     */
+    @PutMapping("/{operation}")
+    public ResponseEntity<Object> apply(@PathVariable String operation, @RequestBody PgProfile profile) {
+        try {
+            return ResponseEntity.ok(describe(registry.apply(operation, profile)));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    /**
+     * 프리셋 적용 (operation을 주지 않으면 모든 API)
+     */
+    @PostMapping("/presets/{name}")
+    public ResponseEntity<Object> applyPreset(@PathVariable String name,
+                                              @RequestParam(required = false) String operation) {
+        try {
+            List<String> operations = operation != null ? List.of(operation) : PgProfileRegistry.OPERATIONS;
+            operations.forEach(PgProfileRegistry::requireOperation);
+            for (String target : operations) {
+                registry.apply(target, PgProfilePresets.create(name));
+            }
+            return ResponseEntity.ok(current());
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    /**
+     * 설정 파일 기본값으로 복구
+     */
+    @PostMapping("/reset")
+    public Map<String, Object> reset() {
+        registry.reset();
+        return current();
+    }
+
+    private static Map<String, Object> describe(ActiveProfile active) {
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("profile", active.profile());
+        description.put("appliedAt", active.appliedAt());
+        description.put("elapsedMs", Duration.between(active.appliedAt(), Instant.now()).toMillis());
+        return description;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.pgstub.controller;
+
+import com.example.pgstub.service.PgIdempotencyStore;
+import com.example.pgstub.service.PgSimulator;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * PG 스텁 API (승인/정산/환불)
+ * 응답 필드는 각 서비스의 PG 클라이언트 응답 DTO와 같다.
+ * 지연/실패는 API별 적용 프로파일을 따르고 (PgProfileAdminController), 실패는 503 + {errorCode, message} 로 응답한다.
+ */
+@RestController
+@RequestMapping("/pg")
+public class PgStubController {
+
+    private final PgSimulator simulator;
+    private final PgIdempotencyStore idempotencyStore;
+
+    public PgStubController(PgSimulator simulator, PgIdempotencyStore idempotencyStore) {
+        this.simulator = simulator;
+        this.idempotencyStore = idempotencyStore;
+    }
+
+    @PostMapping("/authorizations")
+    public Mono<ResponseEntity<Object>> authorize(@RequestBody AuthorizationRequest request) {
+        // 같은 pgReference의 재요청(헤징 등)은 처음 승인 결과를 그대로 돌려준다
+        return respond("authorize", "승인", () -> idempotencyStore.resolve(request.pgReference(),
+                () -> new AuthorizationResult(
+                        "SUCCESS",
+                        "txn_" + shortId(),
+                        "APP" + shortId().toUpperCase(),
+                        "0000",
+                        "승인 성공",
+                        request.amount(),
+                        Instant.now())));
+    }
+
+    @PostMapping("/settlements")
+    public Mono<ResponseEntity<Object>> settle(@RequestBody SettlementRequest request) {
+        return respond("settle", "정산", () -> new SettlementResult(
+                "SUCCESS",
+                "txn_" + shortId(),
+                "0000",
+                "정산 성공",
+                request.amount(),
+                Instant.now()));
+    }
+
+    @PostMapping("/refunds")
+    public Mono<ResponseEntity<Object>> refund(@RequestBody RefundRequest request) {
+        return respond("refund", "환불", () -> new RefundResult(
+                "SUCCESS",
+                "cancel_" + shortId(),
+                "0000",
+                "환불 성공",
+                request.amount(),
+                Instant.now()));
+    }
+
+    private Mono<ResponseEntity<Object>> respond(String operation, String apiName, Supplier<Object> body) {
+        return simulator.simulate(operation)
+                .map(outcome -> outcome.success()
+                        ? ResponseEntity.ok(body.get())
+                        : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                .body(Map.of("errorCode", outcome.errorCode(),
+                                        "message", apiName + ("PG_UNAVAILABLE".equals(outcome.errorCode())
+                                                ? " API 장애" : " API 타임아웃"))));
+    }
+
+    private static String shortId() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public record AuthorizationRequest(String pgReference, String merchantId, BigDecimal amount, String currency,
+                                       String cardNumber) {
+    }
+
+    public record SettlementRequest(Long paymentId, BigDecimal amount) {
+    }
+
+    public record RefundRequest(Long paymentId, BigDecimal amount, String reason) {
+    }
+
+    public record AuthorizationResult(String status, String transactionId, String approvalNumber,
+                                      String responseCode, String responseMessage,
+                                      BigDecimal amount, Instant authorizedAt) {
+    }
+
+    public record SettlementResult(String status, String transactionId, String responseCode,
+                                   String responseMessage, BigDecimal amount, Instant capturedAt) {
+    }
+
+    public record RefundResult(String status, String cancelTransactionId, String responseCode,
+                               String responseMessage, BigDecimal refundedAmount, Instant refundedAt) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.pgstub.profile;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * PgProfile 지연 분포 샘플링
+ */
+public final class LatencySampler {
+
+    private LatencySampler() {
+    }
+
+    /**
+     * 분포에서 지연 하나를 뽑는다 (ms, [0, maxDelayMs])
+     */
+    public static long sampleMs(PgProfile profile) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double delay = switch (profile.getDistribution()) {
+            case UNIFORM -> uniform(random, profile.getDelayMinMs(), profile.getDelayMaxMs());
+            case BIMODAL -> random.nextDouble() < profile.getTailRate()
+                    ? uniform(random, profile.getTailDelayMinMs(), profile.getTailDelayMaxMs())
+                    : uniform(random, profile.getDelayMinMs(), profile.getDelayMaxMs());
+            case LOG_NORMAL -> profile.getMedianMs() * Math.exp(profile.getSigma() * random.nextGaussian());
+            // 역변환: U ~ (0, 1] 이면 scale / U^(1/alpha) 는 Pareto(scale, alpha)
+            case PARETO -> profile.getParetoScaleMs() / Math.pow(1.0 - random.nextDouble(), 1.0 / profile.getParetoAlpha());
+        };
+        return Math.min(profile.getMaxDelayMs(), Math.max(0L, Math.round(delay)));
+    }
+
+    private static double uniform(ThreadLocalRandom random, int a, int b) {
+        int lowerBound = Math.max(0, Math.min(a, b));
+        int upperBound = Math.max(0, Math.max(a, b));
+        return random.nextLong(lowerBound, upperBound + 1L);
+    }
+}
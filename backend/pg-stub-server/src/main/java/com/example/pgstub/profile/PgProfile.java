@@ -0,0 +1,299 @@
+package com.example.pgstub.profile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PG API 응답 프로파일 (지연 분포 + 장애 주입)
+ *
+ * 지연 분포 (distribution):
+ * - UNIFORM: [delayMinMs, delayMaxMs] 균등
+ * - BIMODAL: 1 - tailRate 확률로 [delayMinMs, delayMaxMs], tailRate 확률로 [tailDelayMinMs, tailDelayMaxMs]
+ * - LOG_NORMAL: 중앙값 medianMs, 로그 표준편차 sigma (sigma가 클수록 꼬리가 길다)
+ * - PARETO: 최소값 paretoScaleMs, 형상 paretoAlpha (alpha가 작을수록 꼬리가 두껍다, 1 이하면 평균 발산)
+ * 모든 분포는 maxDelayMs에서 자른다.
+ *
+ * 장애 주입:
+ * - failureRate: 평상시 오류 응답 확률
+ * - brownout: periodMs 주기마다 durationMs 동안 지연 latencyFactor배 + 오류율 failureRate
+ * - outages: 프로파일 적용 시점 기준 startAfterMs 후 durationMs 동안 ERROR(즉시 503) 또는 HANG(maxDelayMs 대기 후 503)
+ *
+ * yml 바인딩과 관리 API 요청 본문에 같이 쓰인다. 적용된 인스턴스는 수정하지 않고 새 인스턴스로 교체한다.
+ */
+public class PgProfile {
+
+    public enum Distribution { UNIFORM, BIMODAL, LOG_NORMAL, PARETO }
+
+    public enum OutageMode { ERROR, HANG }
+
+    private String name = "default";
+    private Distribution distribution = Distribution.UNIFORM;
+
+    private int delayMinMs = 25;
+    private int delayMaxMs = 75;
+
+    private double tailRate = 0.0;
+    private int tailDelayMinMs = 1000;
+    private int tailDelayMaxMs = 3000;
+
+    private double medianMs = 50;
+    private double sigma = 0.5;
+
+    private double paretoScaleMs = 30;
+    private double paretoAlpha = 2.5;
+
+    private int maxDelayMs = 30000;
+
+    private double failureRate = 0.005;
+
+    private Brownout brownout = new Brownout();
+    private List<Outage> outages = new ArrayList<>();
+
+    /**
+     * 설정값 검증 (관리 API 입력용)
+     *
+     * @throws IllegalArgumentException 범위를 벗어난 값이 있을 때
+     */
+    public void validate() {
+        requireRate("failureRate", failureRate);
+        requireRate("tailRate", tailRate);
+        requireRate("brownout.failureRate", brownout.failureRate);
+        if (delayMinMs < 0 || delayMaxMs < 0 || tailDelayMinMs < 0 || tailDelayMaxMs < 0 || maxDelayMs <= 0) {
+            throw new IllegalArgumentException("delays must be non-negative and maxDelayMs positive");
+        }
+        if (distribution == Distribution.LOG_NORMAL && (medianMs <= 0 || sigma < 0)) {
+            throw new IllegalArgumentException("LOG_NORMAL requires medianMs > 0 and sigma >= 0");
+        }
+        if (distribution == Distribution.PARETO && (paretoScaleMs <= 0 || paretoAlpha <= 0)) {
+            throw new IllegalArgumentException("PARETO requires paretoScaleMs > 0 and paretoAlpha > 0");
+        }
+        if (brownout.isEnabled() && (brownout.durationMs > brownout.periodMs || brownout.latencyFactor < 1)) {
+            throw new IllegalArgumentException("brownout requires durationMs <= periodMs and latencyFactor >= 1");
+        }
+        for (Outage outage : outages) {
+            if (outage.startAfterMs < 0 || outage.durationMs <= 0) {
+                throw new IllegalArgumentException("outage requires startAfterMs >= 0 and durationMs > 0");
+            }
+        }
+    }
+
+    private static void requireRate(String field, double value) {
+        if (value < 0 || value > 1) {
+            throw new IllegalArgumentException(field + " must be between 0 and 1");
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Distribution getDistribution() {
+        return distribution;
+    }
+
+    public void setDistribution(Distribution distribution) {
+        this.distribution = distribution;
+    }
+
+    public int getDelayMinMs() {
+        return delayMinMs;
+    }
+
+    public void setDelayMinMs(int delayMinMs) {
+        this.delayMinMs = delayMinMs;
+    }
+
+    public int getDelayMaxMs() {
+        return delayMaxMs;
+    }
+
+    public void setDelayMaxMs(int delayMaxMs) {
+        this.delayMaxMs = delayMaxMs;
+    }
+
+    public double getTailRate() {
+        return tailRate;
+    }
+
+    public void setTailRate(double tailRate) {
+        this.tailRate = tailRate;
+    }
+
+    public int getTailDelayMinMs() {
+        return tailDelayMinMs;
+    }
+
+    public void setTailDelayMinMs(int tailDelayMinMs) {
+        this.tailDelayMinMs = tailDelayMinMs;
+    }
+
+    public int getTailDelayMaxMs() {
+        return tailDelayMaxMs;
+    }
+
+    public void setTailDelayMaxMs(int tailDelayMaxMs) {
+        this.tailDelayMaxMs = tailDelayMaxMs;
+    }
+
+    public double getMedianMs() {
+        return medianMs;
+    }
+
+    public void setMedianMs(double medianMs) {
+        this.medianMs = medianMs;
+    }
+
+    public double getSigma() {
+        return sigma;
+    }
+
+    public void setSigma(double sigma) {
+        this.sigma = sigma;
+    }
+
+    public double getParetoScaleMs() {
+        return paretoScaleMs;
+    }
+
+    public void setParetoScaleMs(double paretoScaleMs) {
+        this.paretoScaleMs = paretoScaleMs;
+    }
+
+    public double getParetoAlpha() {
+        return paretoAlpha;
+    }
+
+    public void setParetoAlpha(double paretoAlpha) {
+        this.paretoAlpha = paretoAlpha;
+    }
+
+    public int getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public void setMaxDelayMs(int maxDelayMs) {
+        this.maxDelayMs = maxDelayMs;
+    }
+
+    public double getFailureRate() {
+        return failureRate;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public Brownout getBrownout() {
+        return brownout;
+    }
+
+    public void setBrownout(Brownout brownout) {
+        this.brownout = brownout != null ? brownout : new Brownout();
+    }
+
+    public List<Outage> getOutages() {
+        return outages;
+    }
+
+    public void setOutages(List<Outage> outages) {
+        this.outages = outages != null ? outages : new ArrayList<>();
+    }
+
+    /**
+     * 주기적 성능 저하 구간
+     */
+    public static class Brownout {
+        /**
+         * Brownout cycle length in milliseconds (0 disables brownouts).
+         */
+        private long periodMs = 0;
+
+        /**
+         * Degraded part of each cycle in milliseconds, starting at the beginning of the cycle.
+         */
+        private long durationMs = 0;
+
+        /**
+         * Delay multiplier applied while degraded.
+         */
+        private double latencyFactor = 5.0;
+
+        /**
+         * Error probability while degraded (replaces the normal failure rate if higher).
+         */
+        private double failureRate = 0.1;
+
+        public boolean isEnabled() {
+            return periodMs > 0 && durationMs > 0;
+        }
+
+        public long getPeriodMs() {
+            return periodMs;
+        }
+
+        public void setPeriodMs(long periodMs) {
+            this.periodMs = periodMs;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public void setDurationMs(long durationMs) {
+            this.durationMs = durationMs;
+        }
+
+        public double getLatencyFactor() {
+            return latencyFactor;
+        }
+
+        public void setLatencyFactor(double latencyFactor) {
+            this.latencyFactor = latencyFactor;
+        }
+
+        public double getFailureRate() {
+            return failureRate;
+        }
+
+        public void setFailureRate(double failureRate) {
+            this.failureRate = failureRate;
+        }
+    }
+
+    /**
+     * 예약된 장애 구간 (프로파일 적용 시점 기준)
+     */
+    public static class Outage {
+        private long startAfterMs;
+        private long durationMs;
+        private OutageMode mode = OutageMode.ERROR;
+
+        public long getStartAfterMs() {
+            return startAfterMs;
+        }
+
+        public void setStartAfterMs(long startAfterMs) {
+            this.startAfterMs = startAfterMs;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        public void setDurationMs(long durationMs) {
+            this.durationMs = durationMs;
+        }
+
+        public OutageMode getMode() {
+            return mode;
+        }
+
+        public void setMode(OutageMode mode) {
+            this.mode = mode;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.pgstub.profile;
+
+import com.example.pgstub.profile.PgProfile.Distribution;
+import com.example.pgstub.profile.PgProfile.OutageMode;
+import java.util.List;
+
+/**
+ * 부하 테스트용 기본 프로파일 모음 (승인 API 기준 지연 값)
+ * - baseline: 25~75ms 균등, 0.5% 오류
+ * - log-normal: 중앙값 50ms, sigma 0.8 (p99 ≈ 320ms)
+ * - bimodal: 95%는 25~75ms, 5%는 0.8~2.5s
+ * - pareto-tail: 최소 30ms, alpha 1.5 (p99 ≈ 650ms, p99.9 ≈ 3s, 10s에서 자름)
+ * - brownout: log-normal + 60초마다 15초간 지연 8배, 오류 20%
+ * - outage: baseline + 적용 30초 후 30초간 전면 장애 (즉시 503)
+ * - hang: baseline + 적용 30초 후 30초간 응답 없음 (클라이언트 타임아웃 유도)
+ */
+public final class PgProfilePresets {
+
+    public static final List<String> NAMES = List.of(
+            "baseline", "log-normal", "bimodal", "pareto-tail", "brownout", "outage", "hang");
+
+    private PgProfilePresets() {
+    }
+
+    /**
+     * @throws IllegalArgumentException 알 수 없는 프리셋
+     */
+    public static PgProfile create(String name) {
+        PgProfile profile = new PgProfile();
+        profile.setName(name);
+        switch (name) {
+            case "baseline" -> {
+                profile.setDistribution(Distribution.UNIFORM);
+                profile.setDelayMinMs(25);
+                profile.setDelayMaxMs(75);
+            }
+            case "log-normal" -> logNormal(profile);
+            case "bimodal" -> {
+                profile.setDistribution(Distribution.BIMODAL);
+                profile.setDelayMinMs(25);
+                profile.setDelayMaxMs(75);
+                profile.setTailRate(0.05);
+                profile.setTailDelayMinMs(800);
+                profile.setTailDelayMaxMs(2500);
+            }
+            case "pareto-tail" -> {
+                profile.setDistribution(Distribution.PARETO);
+                profile.setParetoScaleMs(30);
+                profile.setParetoAlpha(1.5);
+                profile.setMaxDelayMs(10000);
+            }
+            case "brownout" -> {
+                logNormal(profile);
+                profile.getBrownout().setPeriodMs(60_000);
+                profile.getBrownout().setDurationMs(15_000);
+                profile.getBrownout().setLatencyFactor(8.0);
+                profile.getBrownout().setFailureRate(0.2);
+            }
+            case "outage", "hang" -> {
+                profile.setDistribution(Distribution.UNIFORM);
+                profile.setDelayMinMs(25);
+                profile.setDelayMaxMs(75);
+                PgProfile.Outage outage = new PgProfile.Outage();
+                outage.setStartAfterMs(30_000);
+                outage.setDurationMs(30_000);
+                outage.setMode("hang".equals(name) ? OutageMode.HANG : OutageMode.ERROR);
+                profile.setOutages(List.of(outage));
+            }
+            default -> throw new IllegalArgumentException("Unknown preset: " + name + " (expected " + NAMES + ")");
+        }
+        return profile;
+    }
+
+    private static void logNormal(PgProfile profile) {
+        profile.setDistribution(Distribution.LOG_NORMAL);
+        profile.setMedianMs(50);
+        profile.setSigma(0.8);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.pgstub.profile;
+
+import com.example.pgstub.config.PgStubProperties;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * API별 현재 적용 중인 프로파일
+ * 기동 시 pg-stub.* 설정값으로 시작하고, 관리 API로 실행 중에 교체/초기화한다.
+ * 예약 장애(outages)와 brownout 주기는 프로파일이 적용된 시점부터 계산한다.
+ */
+@Component
+public class PgProfileRegistry {
+
+    public static final List<String> OPERATIONS = List.of("authorize", "settle", "refund");
+
+    private static final Logger log = LoggerFactory.getLogger(PgProfileRegistry.class);
+
+    private final PgStubProperties properties;
+    private final Map<String, ActiveProfile> active = new ConcurrentHashMap<>();
+
+    public PgProfileRegistry(PgStubProperties properties) {
+        this.properties = properties;
+        reset();
+    }
+
+    public ActiveProfile active(String operation) {
+        return active.get(operation);
+    }
+
+    /**
+     * @throws IllegalArgumentException 알 수 없는 API이거나 프로파일 값이 잘못된 경우
+     */
+    public ActiveProfile apply(String operation, PgProfile profile) {
+        requireOperation(operation);
+        profile.validate();
+        ActiveProfile applied = new ActiveProfile(profile, Instant.now());
+        active.put(operation, applied);
+        log.info("PG stub profile applied: operation={}, profile={}, distribution={}",
+                operation, profile.getName(), profile.getDistribution());
+        return applied;
+    }
+
+    /**
+     * 설정 파일의 기본 프로파일로 되돌린다
+     */
+    public void reset() {
+        active.put("authorize", new ActiveProfile(properties.getAuthorize(), Instant.now()));
+        active.put("settle", new ActiveProfile(properties.getSettle(), Instant.now()));
+        active.put("refund", new ActiveProfile(properties.getRefund(), Instant.now()));
+    }
+
+    public Map<String, ActiveProfile> snapshot() {
+        Map<String, ActiveProfile> snapshot = new LinkedHashMap<>();
+        for (String operation : OPERATIONS) {
+            snapshot.put(operation, active.get(operation));
+        }
+        return snapshot;
+    }
+
+    public static void requireOperation(String operation) {
+        if (!OPERATIONS.contains(operation)) {
+            throw new IllegalArgumentException("Unknown operation: " + operation + " (expected " + OPERATIONS + ")");
+        }
+    }
+
+    public record ActiveProfile(PgProfile profile, Instant appliedAt) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.pgstub.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * PG 참조값(pgReference)별 승인 결과 (최근 maxEntries건, LRU)
+ * 같은 참조로 다시 들어온 요청(헤징, 재시도)은 새 승인을 만들지 않고 처음 결과를 그대로 돌려준다. 실패 응답은 저장하지 않는다.
+ *
+ * Metrics: pg.stub.idempotent.replays
+ */
+@Component
+public class PgIdempotencyStore {
+
+    private final Map<String, Object> results;
+    private final Counter replayCounter;
+
+    public PgIdempotencyStore(MeterRegistry meterRegistry,
+                              @Value("${pg-stub.idempotency.max-entries:100000}") int maxEntries) {
+        this.results = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.replayCounter = meterRegistry.counter("pg.stub.idempotent.replays");
+    }
+
+    /**
+     * 참조값의 기존 결과, 없으면 새로 만들어 저장 (참조값이 없으면 저장하지 않음)
+     */
+    public synchronized Object resolve(String pgReference, Supplier<Object> creator) {
+        if (pgReference == null || pgReference.isBlank()) {
+            return creator.get();
+        }
+        Object existing = results.get(pgReference);
+        if (existing != null) {
+            replayCounter.increment();
+            return existing;
+        }
+        Object created = creator.get();
+        results.put(pgReference, created);
+        return created;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.pgstub.service;
+
+import com.example.pgstub.profile.LatencySampler;
+import com.example.pgstub.profile.PgProfile;
+import com.example.pgstub.profile.PgProfileRegistry;
+import com.example.pgstub.profile.PgProfileRegistry.ActiveProfile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * PG 응답 시뮬레이터
+ * API에 적용된 프로파일(PgProfileRegistry)대로 지연/오류를 정하고, 지연은 Mono.delay로 기다린다 (스레드를 점유하지 않음).
+ * - outage 구간: ERROR면 즉시 PG_UNAVAILABLE, HANG이면 maxDelayMs 대기 후 PG_TIMEOUT
+ * - brownout 구간: 샘플 지연 × latencyFactor, 오류율 max(평상시, brownout)
+ *
+ * Metrics: pg.stub.delay{operation, phase}, pg.stub.requests{operation, outcome=success|failure, phase=normal|brownout|outage}
+ */
+@Service
+public class PgSimulator {
+
+    private final PgProfileRegistry registry;
+    private final MeterRegistry meterRegistry;
+
+    public PgSimulator(PgProfileRegistry registry, MeterRegistry meterRegistry) {
+        this.registry = registry;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Mono<Outcome> simulate(String operation) {
+        Outcome outcome = decide(registry.active(operation));
+        Timer.builder("pg.stub.delay").tags("operation", operation, "phase", outcome.phase())
+                .register(meterRegistry)
+                .record(Duration.ofMillis(outcome.delayMs()));
+        return Mono.delay(Duration.ofMillis(outcome.delayMs()))
+                .map(tick -> {
+                    meterRegistry.counter("pg.stub.requests", "operation", operation,
+                            "outcome", outcome.success() ? "success" : "failure",
+                            "phase", outcome.phase()).increment();
+                    return outcome;
+                });
+    }
+
+    private static Outcome decide(ActiveProfile active) {
+        PgProfile profile = active.profile();
+        long elapsedMs = Duration.between(active.appliedAt(), Instant.now()).toMillis();
+
+        PgProfile.Outage outage = activeOutage(profile, elapsedMs);
+        if (outage != null) {
+            return outage.getMode() == PgProfile.OutageMode.HANG
+                    ? new Outcome(false, "PG_TIMEOUT", profile.getMaxDelayMs(), "outage")
+                    : new Outcome(false, "PG_UNAVAILABLE", 0, "outage");
+        }
+
+        long delayMs = LatencySampler.sampleMs(profile);
+        double failureRate = profile.getFailureRate();
+        String phase = "normal";
+        PgProfile.Brownout brownout = profile.getBrownout();
+        if (brownout.isEnabled() && elapsedMs % brownout.getPeriodMs() < brownout.getDurationMs()) {
+            phase = "brownout";
+            delayMs = Math.min(profile.getMaxDelayMs(), Math.round(delayMs * brownout.getLatencyFactor()));
+            failureRate = Math.max(failureRate, brownout.getFailureRate());
+        }
+        boolean success = ThreadLocalRandom.current().nextDouble() >= failureRate;
+        return new Outcome(success, success ? null : "PG_TIMEOUT", delayMs, phase);
+    }
+
+    private static PgProfile.Outage activeOutage(PgProfile profile, long elapsedMs) {
+        for (PgProfile.Outage outage : profile.getOutages()) {
+            if (elapsedMs >= outage.getStartAfterMs() && elapsedMs < outage.getStartAfterMs() + outage.getDurationMs()) {
+                return outage;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param errorCode 실패 시 응답 errorCode (성공이면 null)
+     * @param phase normal | brownout | outage
+     */
+    public record Outcome(boolean success, String errorCode, long delayMs, String phase) {
+    }
+}
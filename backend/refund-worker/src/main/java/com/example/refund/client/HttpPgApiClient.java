@@ -0,0 +1,103 @@
+package com.example.refund.client;
+
+import io.netty.handler.timeout.ReadTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP PG API 클라이언트 (pg.client.mode=http)
+ * pg-stub-server 또는 실제 PG의 환불 API를 커넥션 풀/타임아웃이 설정된 WebClient로 호출한다 (PgClientConfig).
+ * listener/재시도 스케줄러 스레드에서 호출되므로 응답까지 대기한다 (reactor 스레드에서 호출하면 안 된다).
+ *
+ * 오류 매핑: 4xx/5xx는 응답 본문의 errorCode, 응답 타임아웃 PG_TIMEOUT,
+ *           커넥션 풀 대기 초과 PG_POOL_EXHAUSTED, 연결 실패 등 PG_UNAVAILABLE
+ */
+@Component
+@Qualifier("pgApiDelegate")
+@ConditionalOnProperty(name = "pg.client.mode", havingValue = "http")
+public class HttpPgApiClient implements PgApiClient {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpPgApiClient.class);
+
+    private final WebClient webClient;
+
+    public HttpPgApiClient(@Qualifier("pgWebClient") WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    @Override
+    public RefundResponse requestRefund(Long paymentId, BigDecimal amount, String reason) throws PgApiException {
+        log.info("Requesting refund to PG: paymentId={}, amount={}, reason={}", paymentId, amount, reason);
+
+        RefundResult result;
+        try {
+            result = webClient.post()
+                    .uri("/pg/refunds")
+                    .bodyValue(new RefundCall(paymentId, amount, reason))
+                    .retrieve()
+                    .bodyToMono(RefundResult.class)
+                    .block();
+        } catch (RuntimeException ex) {
+            PgApiException pgEx = translate(ex, "환불");
+            log.warn("PG refund failed: paymentId={}, errorCode={}, message={}",
+                    paymentId, pgEx.getErrorCode(), ex.getMessage());
+            throw pgEx;
+        }
+        if (result == null) {
+            throw new PgApiException("PG_EMPTY_RESPONSE", "환불 API 응답 없음");
+        }
+        log.info("PG refund succeeded: paymentId={}, cancelTransactionId={}", paymentId, result.cancelTransactionId());
+
+        return new RefundResponse(
+                result.status(),
+                result.cancelTransactionId(),
+                result.responseCode(),
+                result.responseMessage(),
+                result.refundedAmount(),
+                result.refundedAt()
+        );
+    }
+
+    private static PgApiException translate(RuntimeException ex, String apiName) {
+        if (ex instanceof WebClientResponseException response) {
+            ErrorBody body = null;
+            try {
+                body = response.getResponseBodyAs(ErrorBody.class);
+            } catch (RuntimeException ignored) {
+                // 본문이 JSON이 아니면 상태 코드로만 판단
+            }
+            if (body != null && body.errorCode() != null) {
+                return new PgApiException(body.errorCode(), body.message() != null ? body.message() : apiName + " API 오류");
+            }
+            return new PgApiException("PG_HTTP_" + response.getStatusCode().value(), apiName + " API 오류");
+        }
+        Throwable cause = ex instanceof WebClientRequestException && ex.getCause() != null ? ex.getCause() : ex;
+        if (cause instanceof ReadTimeoutException) {
+            return new PgApiException("PG_TIMEOUT", apiName + " API 응답 시간 초과");
+        }
+        if (cause instanceof TimeoutException) {
+            return new PgApiException("PG_POOL_EXHAUSTED", apiName + " API 커넥션 대기 시간 초과");
+        }
+        return new PgApiException("PG_UNAVAILABLE", apiName + " API 연결 실패: " + cause.getMessage());
+    }
+
+    record RefundCall(Long paymentId, BigDecimal amount, String reason) {
+    }
+
+    record RefundResult(String status, String cancelTransactionId, String responseCode,
+                        String responseMessage, BigDecimal refundedAmount, Instant refundedAt) {
+    }
+
+    record ErrorBody(String errorCode, String message) {
+    }
+}
@@ -2,6 +2,8 @@ package com.example.refund.client;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -14,10 +16,21 @@ import java.util.concurrent.ThreadLocalRandom;
  * 실제 PG사 환불 API 호출을 시뮬레이션
  */
 @Component
-public class MockPgApiClient {
+@Qualifier("pgApiDelegate")
+@ConditionalOnProperty(name = "pg.client.mode", havingValue = "mock", matchIfMissing = true)
+public class MockPgApiClient implements PgApiClient {
 
     private static final Logger log = LoggerFactory.getLogger(MockPgApiClient.class);
 
+    @org.springframework.beans.factory.annotation.Value("${mock.pg.delay-min-ms:1000}")
+    private int minDelayMs;
+
+    @org.springframework.beans.factory.annotation.Value("${mock.pg.delay-max-ms:3000}")
+    private int maxDelayMs;
+
+    @org.springframework.beans.factory.annotation.Value("${mock.pg.failure-rate:0.05}")
+    private double failureRate;
+
     @org.springframework.beans.factory.annotation.Value("${mock.pg.loadtest-mode:false}")
     private boolean loadTestMode;
 
@@ -27,18 +40,19 @@ public class MockPgApiClient {
      * - 일반 모드: 5% 확률로 실패 시뮬레이션
      * - 부하테스트 모드: 0.01% 확률로 실패
      */
+    @Override
     public RefundResponse requestRefund(Long paymentId, BigDecimal amount, String reason) throws PgApiException {
         try {
-            // 1~3초 지연 시뮬레이션
-            int delay = ThreadLocalRandom.current().nextInt(1000, 3000);
+            // 지연 시뮬레이션 (기본 1~3초, mock.pg.delay-min-ms/delay-max-ms)
+            int delay = ThreadLocalRandom.current().nextInt(Math.min(minDelayMs, maxDelayMs), Math.max(minDelayMs, maxDelayMs) + 1);
             log.info("Requesting refund to Mock PG: paymentId={}, amount={}, reason={}", paymentId, amount, reason);
             Thread.sleep(delay);
 
             // 실패 시뮬레이션
             // 부하테스트 모드: 거의 성공 (0.01% 실패) - 성능 측정용
-            // 일반 모드: 현실적인 실패율 (5% 실패) - 에러 처리 검증용
-            double failureRate = loadTestMode ? 0.0001 : 0.05;
-            if (Math.random() < failureRate) {
+            // 일반 모드: 설정된 실패율 (기본 5%) - 에러 처리 검증용
+            double effectiveFailureRate = loadTestMode ? Math.min(failureRate, 0.0001) : failureRate;
+            if (Math.random() < effectiveFailureRate) {
                 log.warn("Mock PG refund failed (random failure): paymentId={}, mode={}",
                         paymentId, loadTestMode ? "LOADTEST" : "NORMAL");
                 throw new PgApiException("PG_TIMEOUT", "환불 API 타임아웃");
@@ -61,66 +75,4 @@ public class MockPgApiClient {
             throw new PgApiException("INTERRUPTED", "환불 API 중단됨");
         }
     }
-
-    /**
-     * 환불 응답 DTO
-     */
-    public static class RefundResponse {
-        private final String status;
-        private final String cancelTransactionId;
-        private final String responseCode;
-        private final String responseMessage;
-        private final BigDecimal refundedAmount;
-        private final Instant refundedAt;
-
-        public RefundResponse(String status, String cancelTransactionId, String responseCode,
-                              String responseMessage, BigDecimal refundedAmount, Instant refundedAt) {
-            this.status = status;
-            this.cancelTransactionId = cancelTransactionId;
-            this.responseCode = responseCode;
-            this.responseMessage = responseMessage;
-            this.refundedAmount = refundedAmount;
-            this.refundedAt = refundedAt;
-        }
-
-        public String getStatus() {
-            return status;
-        }
-
-        public String getCancelTransactionId() {
-            return cancelTransactionId;
-        }
-
-        public String getResponseCode() {
-            return responseCode;
-        }
-
-        public String getResponseMessage() {
-            return responseMessage;
-        }
-
-        public BigDecimal getRefundedAmount() {
-            return refundedAmount;
-        }
-
-        public Instant getRefundedAt() {
-            return refundedAt;
-        }
-    }
-
-    /**
-     * PG API 예외
-     */
-    public static class PgApiException extends Exception {
-        private final String errorCode;
-
-        public PgApiException(String errorCode, String message) {
-            super(message);
-            this.errorCode = errorCode;
-        }
-
-        public String getErrorCode() {
-            return errorCode;
-        }
-    }
 }
@@ -0,0 +1,84 @@
+package com.example.refund.client;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * PG 환불 API 클라이언트
+ * pg.client.mode 로 구현을 고른다: mock (JVM 내 시뮬레이션, 기본값) | http (pg-stub-server 등 실제 HTTP PG)
+ */
+public interface PgApiClient {
+
+    /**
+     * 환불 요청
+     *
+     * @param paymentId 결제 ID
+     * @param amount 환불 금액
+     * @param reason 환불 사유
+     * @return 환불 응답
+     * @throws PgApiException PG API 오류 발생 시
+     */
+    RefundResponse requestRefund(Long paymentId, BigDecimal amount, String reason) throws PgApiException;
+
+    /**
+     * 환불 응답 DTO
+     */
+    class RefundResponse {
+        private final String status;
+        private final String cancelTransactionId;
+        private final String responseCode;
+        private final String responseMessage;
+        private final BigDecimal refundedAmount;
+        private final Instant refundedAt;
+
+        public RefundResponse(String status, String cancelTransactionId, String responseCode,
+                              String responseMessage, BigDecimal refundedAmount, Instant refundedAt) {
+            this.status = status;
+            this.cancelTransactionId = cancelTransactionId;
+            this.responseCode = responseCode;
+            this.responseMessage = responseMessage;
+            this.refundedAmount = refundedAmount;
+            this.refundedAt = refundedAt;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getCancelTransactionId() {
+            return cancelTransactionId;
+        }
+
+        public String getResponseCode() {
+            return responseCode;
+        }
+
+        public String getResponseMessage() {
+            return responseMessage;
+        }
+
+        public BigDecimal getRefundedAmount() {
+            return refundedAmount;
+        }
+
+        public Instant getRefundedAt() {
+            return refundedAt;
+        }
+    }
+
+    /**
+     * PG API 예외
+     */
+    class PgApiException extends Exception {
+        private final String errorCode;
+
+        public PgApiException(String errorCode, String message) {
+            super(message);
+            this.errorCode = errorCode;
+        }
+
+        public String getErrorCode() {
+            return errorCode;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.refund.config;
 
+import com.example.refund.consumer.ProcessedEventStore;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.RangeAssignor;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -13,6 +15,7 @@ import org.springframework.kafka.core.*;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -25,6 +28,14 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String consumerGroupId;
 
+    // 담당 샤드 (비우면 두 샤드 모두, ShardAffinityAssignor 참고)
+    @Value("${worker.shard:}")
+    private String workerShard;
+
+    // 시작 concurrency (ListenerConcurrencyAutoscaler 하한)
+    @Value("${spring.kafka.listener.concurrency:1}")
+    private int listenerConcurrency;
+
     // Consumer Configuration
     @Bean
     public ConsumerFactory<String, String> consumerFactory() {
@@ -34,14 +45,22 @@ public class KafkaConfig {
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        // 샤드 파티션 구간을 담당 샤드 인스턴스에 할당 (RangeAssignor는 롤링 배포 중 혼재 대비)
+        props.put(ConsumerConfig.PARTITION_ASSIGNMENT_STRATEGY_CONFIG,
+                List.of(ShardAffinityAssignor.class, RangeAssignor.class));
+        props.put(ShardAffinityAssignor.SHARD_CONFIG, workerShard);
         return new DefaultKafkaConsumerFactory<>(props);
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
+            ProcessedEventStore processedEventStore) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(listenerConcurrency);
+        // 파티션 할당 시 dedupe 윈도우 적재
+        factory.getContainerProperties().setConsumerRebalanceListener(processedEventStore);
         return factory;
     }
 
@@ -52,6 +71,8 @@ public class KafkaConfig {
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        // 샤드 접두어 키("shard1:123")를 샤드 파티션 구간에 배치
+        props.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, ShardPartitioner.class);
         return new DefaultKafkaProducerFactory<>(props);
     }
 
@@ -0,0 +1,55 @@
+package com.example.refund.config;
+
+import io.netty.channel.ChannelOption;
+import java.time.Duration;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * HTTP PG 클라이언트 (pg.client.mode=http)
+ *
+ * Reactor Netty 커넥션 풀 + connect/response 타임아웃을 둔 WebClient.
+ * - 풀이 가득 차면 pending-acquire-timeout 동안만 대기하고 실패한다 (listener 스레드가 무한정 묶이지 않도록)
+ * - Metrics: reactor.netty.connection.provider.* (풀 사용량/대기), reactor.netty.http.client.* (연결/응답 시간),
+ *            http.client.requests (WebClient.Builder 관측)
+ */
+@Configuration
+@ConditionalOnProperty(name = "pg.client.mode", havingValue = "http")
+public class PgClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider pgConnectionProvider(
+            @Value("${pg.client.max-connections:50}") int maxConnections,
+            @Value("${pg.client.pending-acquire-timeout-ms:1000}") long pendingAcquireTimeoutMs,
+            @Value("${pg.client.max-idle-time-ms:30000}") long maxIdleTimeMs) {
+        return ConnectionProvider.builder("pg-client")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient pgWebClient(WebClient.Builder builder,
+                                 ConnectionProvider pgConnectionProvider,
+                                 @Value("${pg.client.base-url:http://localhost:8090}") String baseUrl,
+                                 @Value("${pg.client.connect-timeout-ms:1000}") int connectTimeoutMs,
+                                 @Value("${pg.client.response-timeout-ms:5000}") long responseTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(pgConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs))
+                .metrics(true, Function.identity());
+        return builder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
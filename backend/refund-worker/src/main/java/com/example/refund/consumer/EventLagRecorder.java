@@ -0,0 +1,102 @@
+package com.example.refund.consumer;
+
+import com.example.refund.config.ShardPartitions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Consumer 수신 지연 / 처리 완료 시간 (percentile histogram, 샤드 태그)
+ *
+ * payment.consumer.lag{topic, shard, reference}
+ * - kafka_timestamp: 브로커 append(레코드 timestamp) → 수신 (Kafka 체류 시간)
+ * - occurred_at: 이벤트 발생(payload occurredAt) → 수신 (outbox 체류 + 발행 + Kafka 체류)
+ * payment.refund.completion{topic, shard}: 환불 요청 발생 → 환불 처리 완료
+ *
+ * 샤드는 레코드 키("shard:paymentId")에서 얻고, 접두어가 없는 이전 형식 키는 unknown으로 남긴다.
+ */
+@Component
+public class EventLagRecorder {
+
+    private static final String CONSUMER_LAG = "payment.consumer.lag";
+
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public EventLagRecorder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 수신 시점 기준 Kafka timestamp / occurredAt 지연 기록. 파싱한 occurredAt을 돌려준다 (없으면 null)
+     */
+    public Instant recordReceived(ConsumerRecord<String, String> record, Object occurredAt) {
+        Instant now = Instant.now();
+        String shard = shardOf(record);
+        if (record.timestamp() >= 0) {
+            timer(CONSUMER_LAG, "Event occurrence / Kafka append → consumer receive",
+                    "topic", record.topic(), "shard", shard, "reference", "kafka_timestamp")
+                    .record(since(Instant.ofEpochMilli(record.timestamp()), now));
+        }
+
+        Instant occurred = parse(occurredAt);
+        if (occurred != null) {
+            timer(CONSUMER_LAG, "Event occurrence / Kafka append → consumer receive",
+                    "topic", record.topic(), "shard", shard, "reference", "occurred_at")
+                    .record(since(occurred, now));
+        }
+        return occurred;
+    }
+
+    /**
+     * start부터 지금까지를 레코드의 샤드/토픽 완료 시간으로 기록 (start가 없으면 무시)
+     */
+    public void recordCompletion(String name, ConsumerRecord<String, String> record, Instant start) {
+        if (start != null) {
+            timer(name, "Payment event → processing completed", "topic", record.topic(), "shard", shardOf(record))
+                    .record(since(start, Instant.now()));
+        }
+    }
+
+    public static String shardOf(ConsumerRecord<String, String> record) {
+        String shard = ShardPartitions.shardOf(record.key());
+        return shard != null ? shard : "unknown";
+    }
+
+    public static Instant parse(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(value.toString());
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return timers.computeIfAbsent(name + '|' + String.join("|", tags),
+                ignored -> Timer.builder(name)
+                        .description(description)
+                        .tags(tags)
+                        .publishPercentileHistogram()
+                        .minimumExpectedValue(Duration.ofMillis(1))
+                        .maximumExpectedValue(Duration.ofMinutes(10))
+                        .register(meterRegistry));
+    }
+
+    /**
+     * 서버 간 시계 차이로 음수가 나오면 0으로 기록
+     */
+    private static Duration since(Instant start, Instant now) {
+        Duration elapsed = Duration.between(start, now);
+        return elapsed.isNegative() ? Duration.ZERO : elapsed;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.refund.consumer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 이벤트 중복 처리 방지 저장소 (consumer 측 dedupe)
+ *
+ * - 키: outbox eventId 헤더("shard1:42"), 헤더가 없으면 topic-partition@offset (리밸런스 후 재전달 감지용)
+ *   outbox id는 샤드마다 따로 증가하므로 발행 측이 헤더에 샤드를 넣는다 (id만 쓰면 두 샤드 이벤트가 같은 키가 됨)
+ * - 파티션별 슬라이딩 윈도우(LRU) 메모리 집합으로 비즈니스 로직 전에 해시 조회 1번으로 판정
+ * - processed_event 테이블(shard1)에 영속화, 파티션을 할당받으면 해당 파티션의 최근 키를 윈도우로 적재
+ * - 보존 기간이 지난 행은 주기적으로 삭제 (TTL)
+ *
+ * 윈도우 밖의 오래된 재전달은 기존 DB 기반 멱등성 검사가 처리한다.
+ * consumer-worker, settlement-worker에도 동일한 클래스가 있으므로 변경 시 함께 수정해야 한다.
+ */
+@Component
+public class ProcessedEventStore implements ConsumerAwareRebalanceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessedEventStore.class);
+    private static final String EVENT_ID_HEADER = "eventId";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String consumerGroup;
+    private final int windowSize;
+    private final Duration retention;
+    private final Map<TopicPartition, Window> windows = new ConcurrentHashMap<>();
+    private final Counter duplicateCounter;
+
+    public ProcessedEventStore(@Qualifier("shard1DataSource") DataSource shard1DataSource,
+                               MeterRegistry meterRegistry,
+                               @Value("${spring.kafka.consumer.group-id}") String consumerGroup,
+                               @Value("${event-dedupe.window-size:10000}") int windowSize,
+                               @Value("${event-dedupe.retention-hours:24}") long retentionHours) {
+        this(new JdbcTemplate(shard1DataSource), meterRegistry, consumerGroup, windowSize, retentionHours);
+    }
+
+    ProcessedEventStore(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry, String consumerGroup, int windowSize,
+                        long retentionHours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.consumerGroup = consumerGroup;
+        this.windowSize = windowSize;
+        this.retention = Duration.ofHours(retentionHours);
+        this.duplicateCounter = Counter.builder("event.dedupe.duplicates")
+                .description("Redelivered events skipped before business logic")
+                .tag("group", consumerGroup)
+                .register(meterRegistry);
+    }
+
+    /**
+     * dedupe 키: eventId 헤더 우선 ("evt:shard1:42"), 없으면 topic-partition@offset
+     */
+    public static String eventKey(ConsumerRecord<?, ?> record) {
+        Header header = record.headers().lastHeader(EVENT_ID_HEADER);
+        if (header != null && header.value() != null) {
+            String value = new String(header.value(), StandardCharsets.UTF_8);
+            // JSON 헤더 매퍼로 인코딩된 문자열은 따옴표로 감싸져 있음
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            return "evt:" + value;
+        }
+        return record.topic() + "-" + record.partition() + "@" + record.offset();
+    }
+
+    /**
+     * 이미 처리한 이벤트인지 (메모리 해시 조회만 수행)
+     */
+    public boolean isDuplicate(ConsumerRecord<?, ?> record) {
+        Window window = windows.get(new TopicPartition(record.topic(), record.partition()));
+        if (window != null && window.contains(eventKey(record))) {
+            duplicateCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 처리 완료 기록 - 트랜잭션 안이면 커밋 이후에 기록 (롤백된 처리가 중복으로 판정되지 않도록)
+     */
+    public void markProcessed(ConsumerRecord<?, ?> record) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    persist(record);
+                }
+            });
+        } else {
+            persist(record);
+        }
+    }
+
+    private void persist(ConsumerRecord<?, ?> record) {
+        String key = eventKey(record);
+        windows.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), tp -> new Window(windowSize))
+                .add(key);
+        try {
+            jdbcTemplate.update(
+                    "INSERT IGNORE INTO processed_event (consumer_group, event_key, topic, partition_no, processed_at) " +
+                            "VALUES (?, ?, ?, ?, ?)",
+                    consumerGroup, key, record.topic(), record.partition(), Timestamp.from(Instant.now()));
+        } catch (DataAccessException ex) {
+            // 메모리 윈도우에는 남아 있으므로 이 인스턴스의 재전달은 계속 걸러진다
+            log.warn("Failed to persist processed event key={} (topic={}, partition={}): {}",
+                    key, record.topic(), record.partition(), ex.getMessage());
+        }
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        for (TopicPartition partition : partitions) {
+            Window window = new Window(windowSize);
+            try {
+                List<String> keys = jdbcTemplate.queryForList(
+                        "SELECT event_key FROM processed_event " +
+                                "WHERE consumer_group = ? AND topic = ? AND partition_no = ? " +
+                                "ORDER BY processed_at DESC LIMIT ?",
+                        String.class, consumerGroup, partition.topic(), partition.partition(), windowSize);
+                // 오래된 키부터 넣어 LRU 순서 유지
+                for (int i = keys.size() - 1; i >= 0; i--) {
+                    window.add(keys.get(i));
+                }
+            } catch (DataAccessException ex) {
+                log.warn("Failed to preload processed events for {}: {}", partition, ex.getMessage());
+            }
+            windows.put(partition, window);
+            log.info("Dedupe window loaded for {}: {} keys", partition, window.size());
+        }
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitions.forEach(windows::remove);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        partitions.forEach(windows::remove);
+    }
+
+    /**
+     * 보존 기간이 지난 dedupe 기록 삭제 (한 번에 최대 10,000건)
+     */
+    @Scheduled(fixedDelayString = "${event-dedupe.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        try {
+            int deleted = jdbcTemplate.update(
+                    "DELETE FROM processed_event WHERE consumer_group = ? AND processed_at < ? LIMIT 10000",
+                    consumerGroup, Timestamp.from(Instant.now().minus(retention)));
+            if (deleted > 0) {
+                log.info("Purged {} expired processed events for group {}", deleted, consumerGroup);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Failed to purge processed events: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * 파티션별 슬라이딩 윈도우 (크기 초과 시 가장 오래된 키 제거)
+     */
+    private static final class Window {
+
+        private final LinkedHashMap<String, Boolean> keys;
+
+        Window(int capacity) {
+            this.keys = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized boolean contains(String key) {
+            return keys.containsKey(key);
+        }
+
+        synchronized void add(String key) {
+            keys.put(key, Boolean.TRUE);
+        }
+
+        synchronized int size() {
+            return keys.size();
+        }
+    }
+}
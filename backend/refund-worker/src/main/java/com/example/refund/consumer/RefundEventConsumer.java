@@ -1,16 +1,16 @@
 package com.example.refund.consumer;
 
 import com.example.refund.config.ShardContextHolder;
+import com.example.refund.config.ShardScope;
 import com.example.refund.service.RefundService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.Map;
 
 /**
@@ -20,45 +20,60 @@ import java.util.Map;
 @Component
 public class RefundEventConsumer {
 
+    public static final String LISTENER_ID = "refund-listener";
+
     private static final Logger log = LoggerFactory.getLogger(RefundEventConsumer.class);
 
     private final RefundService refundService;
     private final ObjectMapper objectMapper;
+    private final ProcessedEventStore processedEventStore;
+    private final EventLagRecorder eventLagRecorder;
 
-    public RefundEventConsumer(RefundService refundService, ObjectMapper objectMapper) {
+    public RefundEventConsumer(RefundService refundService, ObjectMapper objectMapper,
+                               ProcessedEventStore processedEventStore, EventLagRecorder eventLagRecorder) {
         this.refundService = refundService;
         this.objectMapper = objectMapper;
+        this.processedEventStore = processedEventStore;
+        this.eventLagRecorder = eventLagRecorder;
     }
 
     @KafkaListener(
+            id = LISTENER_ID,
             topics = "payment.refund-requested",
             groupId = "refund-worker-group",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void handleRefundRequested(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            @Header(KafkaHeaders.OFFSET) long offset
-    ) {
+    public void handleRefundRequested(ConsumerRecord<String, String> record) {
+        String topic = record.topic();
+        long offset = record.offset();
         log.info("Received refund-requested event from topic={}, offset={}", topic, offset);
 
+        // 재전달(리밸런스, outbox 재발행)은 환불 합계 조회 없이 해시 조회로 걸러냄
+        if (processedEventStore.isDuplicate(record)) {
+            log.info("Skipping already processed refund-requested event: topic={}, partition={}, offset={}",
+                    topic, record.partition(), offset);
+            return;
+        }
+
         try {
-            Map<String, Object> payload = objectMapper.readValue(message, Map.class);
+            Map<String, Object> payload = objectMapper.readValue(record.value(), Map.class);
 
             Long paymentId = getLongValue(payload, "paymentId");
             String merchantId = (String) payload.get("merchantId");
             Long amount = getLongValue(payload, "amount");
             String reason = (String) payload.getOrDefault("reason", "고객 요청");
+            Instant occurredAt = eventLagRecorder.recordReceived(record, payload.get("occurredAt"));
 
             log.info("Processing refund request: paymentId={}, merchantId={}, amount={}, reason={}", paymentId, merchantId, amount, reason);
 
-            // 트랜잭션 시작 전에 샤드 컨텍스트 설정 (AbstractRoutingDataSource가 올바른 샤드로 연결)
-            ShardContextHolder.setShardByMerchantId(merchantId);
-            log.info("Shard routing set for merchantId={}, shard={}", merchantId, ShardContextHolder.getShardKey());
-
-            refundService.processRefund(paymentId, merchantId, amount, reason);
-
-            // Note: ShardContextHolder는 다음 메시지 처리 전에 자동으로 덮어써지므로 clear() 불필요
+            // 트랜잭션 시작 전에 샤드 범위를 연다 (AbstractRoutingDataSource가 올바른 샤드로 연결, 처리 후 리스너 스레드에서 해제)
+            try (ShardScope ignored = ShardContextHolder.openForMerchant(merchantId)) {
+                log.info("Shard routing set for merchantId={}, shard={}", merchantId, ShardScope.current());
+                refundService.processRefund(paymentId, merchantId, amount, reason,
+                        ProcessedEventStore.eventKey(record));
+            }
+            processedEventStore.markProcessed(record);
+            eventLagRecorder.recordCompletion("payment.refund.completion", record, occurredAt);
 
         } catch (Exception ex) {
             log.error("Failed to process refund-requested event: topic={}, offset={}", topic, offset, ex);
@@ -1,5 +1,8 @@
 package com.example.refund.controller;
 
+import com.example.refund.config.ShardPartitions;
+import com.example.refund.config.ShardScope;
+import com.example.refund.consumer.ListenerConcurrencyAutoscaler;
 import com.example.refund.domain.RefundRequest;
 import com.example.refund.repository.RefundRequestRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,6 +12,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,13 +29,16 @@ public class RefundAdminController {
     private final RefundRequestRepository refundRequestRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final ListenerConcurrencyAutoscaler listenerAutoscaler;
 
     public RefundAdminController(RefundRequestRepository refundRequestRepository,
                                  KafkaTemplate<String, String> kafkaTemplate,
-                                 ObjectMapper objectMapper) {
+                                 ObjectMapper objectMapper,
+                                 ListenerConcurrencyAutoscaler listenerAutoscaler) {
         this.refundRequestRepository = refundRequestRepository;
         this.kafkaTemplate = kafkaTemplate;
         this.objectMapper = objectMapper;
+        this.listenerAutoscaler = listenerAutoscaler;
     }
 
     /**
@@ -40,11 +47,14 @@ public class RefundAdminController {
     @PostMapping("/migrate-dlq")
     public Map<String, Object> migrateDlqToKafka() {
         try {
-            List<RefundRequest> deadLetters = refundRequestRepository
-                    .findByStatusAndRetryCountGreaterThanEqual(
-                            RefundRequest.RefundStatus.FAILED,
-                            10
-                    );
+            List<RefundRequest> deadLetters = new ArrayList<>();
+            for (String shard : ShardPartitions.SHARDS) {
+                deadLetters.addAll(ShardScope.call(shard, () -> refundRequestRepository
+                        .findByStatusAndRetryCountGreaterThanEqual(
+                                RefundRequest.RefundStatus.FAILED,
+                                10
+                        )));
+            }
 
             int successCount = 0;
             int failCount = 0;
@@ -91,4 +101,21 @@ public class RefundAdminController {
             );
         }
     }
+
+    /**
+     * listener concurrency 자동 조정 상태 (현재 concurrency, lag, 처리 시간, 최근 조정 이력)
+     */
+    @GetMapping("/listener-concurrency")
+    public Map<String, Object> listenerConcurrency() {
+        return listenerAutoscaler.status();
+    }
+
+    /**
+     * listener concurrency 자동 조정 켜기/끄기 (끄면 현재 concurrency 유지)
+     */
+    @PostMapping("/listener-concurrency/enabled")
+    public Map<String, Object> setListenerAutoscaleEnabled(@RequestParam boolean value) {
+        listenerAutoscaler.setEnabled(value);
+        return listenerAutoscaler.status();
+    }
 }
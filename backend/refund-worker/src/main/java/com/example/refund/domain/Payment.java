@@ -29,6 +29,12 @@ public class Payment {
     @Column(name = "status", nullable = false)
     private PaymentStatus status;
 
+    @Column(name = "refunded_amount", nullable = false)
+    private Long refundedAmount = 0L;
+
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
     @Column(name = "idempotency_key", nullable = false, length = 64)
     private String idempotencyKey;
 
@@ -84,6 +90,14 @@ public class Payment {
         this.updatedAt = Instant.now();
     }
 
+    public Long getRefundedAmount() {
+        return refundedAmount;
+    }
+
+    public void setRefundedAmount(Long refundedAmount) {
+        this.refundedAmount = refundedAmount;
+    }
+
     public String getIdempotencyKey() {
         return idempotencyKey;
     }
@@ -104,6 +118,10 @@ public class Payment {
         return updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
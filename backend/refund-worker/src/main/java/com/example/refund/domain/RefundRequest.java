@@ -25,6 +25,12 @@ public class RefundRequest {
     @Column(name = "refund_reason", length = 500)
     private String refundReason;
 
+    /**
+     * 이 환불을 만든 이벤트 키 (outbox eventId, payment_id와 함께 unique - 재전달 판정 기준)
+     */
+    @Column(name = "event_key", length = 160)
+    private String eventKey;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "status", nullable = false, length = 50)
     private RefundStatus status;
@@ -55,9 +61,14 @@ public class RefundRequest {
     }
 
     public RefundRequest(Long paymentId, BigDecimal refundAmount, String refundReason) {
+        this(paymentId, refundAmount, refundReason, null);
+    }
+
+    public RefundRequest(Long paymentId, BigDecimal refundAmount, String refundReason, String eventKey) {
         this.paymentId = paymentId;
         this.refundAmount = refundAmount;
         this.refundReason = refundReason;
+        this.eventKey = eventKey;
         this.status = RefundStatus.PENDING;
         this.requestedAt = Instant.now();
     }
@@ -119,6 +130,14 @@ public class RefundRequest {
         this.refundReason = refundReason;
     }
 
+    public String getEventKey() {
+        return eventKey;
+    }
+
+    public void setEventKey(String eventKey) {
+        this.eventKey = eventKey;
+    }
+
     public RefundStatus getStatus() {
         return status;
     }
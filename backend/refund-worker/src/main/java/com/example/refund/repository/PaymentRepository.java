@@ -1,9 +1,79 @@
 package com.example.refund.repository;
 
 import com.example.refund.domain.Payment;
+import com.example.refund.domain.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Optional;
+
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
+
+    /**
+     * 상태 전이 (단일 조건부 UPDATE, compare-and-set)
+     * 출발 상태 집합은 PaymentStateMachine에서 얻는다.
+     * version을 1 증가시켜 ingest-service의 결제 캐시 스냅샷이 오래되었음을 알린다.
+     *
+     * @return 1이면 전이 성공, 0이면 결제가 없거나 현재 상태가 출발 상태 집합에 없음
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :newStatus, p.version = p.version + 1, p.updatedAt = :now " +
+           "WHERE p.id = :paymentId AND p.status IN :fromStatuses")
+    int transitionStatus(@Param("paymentId") Long paymentId,
+                         @Param("fromStatuses") Collection<PaymentStatus> fromStatuses,
+                         @Param("newStatus") PaymentStatus newStatus,
+                         @Param("now") Instant now);
+
+    /**
+     * 환불 성공 후 상태 결정 (단일 조건부 UPDATE)
+     * 성공한 환불 합계가 결제 금액 이상이면 REFUNDED, 아니면 PARTIAL_REFUNDED
+     * fromStatuses는 PaymentStateMachine 기준 두 목표 상태 모두로 전이 가능한 상태명이어야 한다.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE payment SET status = CASE " +
+            "WHEN (SELECT COALESCE(SUM(r.refund_amount), 0) FROM refund_request r " +
+            "      WHERE r.payment_id = :paymentId AND r.status = 'SUCCESS') >= amount " +
+            "THEN 'REFUNDED' ELSE 'PARTIAL_REFUNDED' END, " +
+            "version = version + 1, updated_at = CURRENT_TIMESTAMP(3) " +
+            "WHERE payment_id = :paymentId AND status IN (:fromStatuses)", nativeQuery = true)
+    int completeRefund(@Param("paymentId") Long paymentId,
+                       @Param("fromStatuses") Collection<String> fromStatuses);
+
+    /**
+     * completeRefund 직후 실제 기록된 상태와 성공 환불 합계 (native 조회라 영속성 컨텍스트의 오래된 엔티티를 거치지 않음)
+     */
+    @Query(value = "SELECT p.status AS status, " +
+            "(SELECT COALESCE(SUM(r.refund_amount), 0) FROM refund_request r " +
+            " WHERE r.payment_id = p.payment_id AND r.status = 'SUCCESS') AS refundedAmount " +
+            "FROM payment p WHERE p.payment_id = :paymentId", nativeQuery = true)
+    Optional<RefundOutcome> findRefundOutcome(@Param("paymentId") Long paymentId);
+
+    /**
+     * 최종 실패한 환불의 예약 금액 반환 (조건부 UPDATE, 음수 방지)
+     * 상태가 REFUND_FAILED이면 반환 후 남은 예약과 성공 환불 합계로 상태를 복구한다.
+     * - 남은 예약 0 → CAPTURED (전액 다시 환불 가능)
+     * - 성공 합계보다 남은 예약이 크면 → REFUND_REQUESTED (다른 환불이 아직 진행 중)
+     * - 성공 합계가 결제 금액 이상 → REFUNDED, 그 외 → PARTIAL_REFUNDED
+     * 다른 상태(다른 환불이 이미 상태를 바꿈)는 그대로 둔다.
+     * status는 refunded_amount보다 먼저 대입해야 반환 전 값을 기준으로 계산된다 (SET은 왼쪽부터 평가).
+     */
+    @Modifying
+    @Query(value = "UPDATE payment SET status = CASE " +
+            "WHEN status <> 'REFUND_FAILED' THEN status " +
+            "WHEN refunded_amount - :amount = 0 THEN 'CAPTURED' " +
+            "WHEN refunded_amount - :amount > (SELECT COALESCE(SUM(r.refund_amount), 0) FROM refund_request r " +
+            "      WHERE r.payment_id = :paymentId AND r.status = 'SUCCESS') THEN 'REFUND_REQUESTED' " +
+            "WHEN (SELECT COALESCE(SUM(r.refund_amount), 0) FROM refund_request r " +
+            "      WHERE r.payment_id = :paymentId AND r.status = 'SUCCESS') >= amount THEN 'REFUNDED' " +
+            "ELSE 'PARTIAL_REFUNDED' END, " +
+            "refunded_amount = refunded_amount - :amount, " +
+            "version = version + 1, updated_at = CURRENT_TIMESTAMP(3) " +
+            "WHERE payment_id = :paymentId AND refunded_amount >= :amount", nativeQuery = true)
+    int releaseRefund(@Param("paymentId") Long paymentId, @Param("amount") long amount);
 }
@@ -0,0 +1,14 @@
+package com.example.refund.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * 환불 완료 반영 직후의 결제 상태 (payment.refunded 이벤트 생성용 읽기 전용 프로젝션)
+ * refundedAmount는 성공한 환불 합계로, completeRefund가 REFUNDED / PARTIAL_REFUNDED를 고른 기준과 같다.
+ */
+public interface RefundOutcome {
+
+    String getStatus();
+
+    BigDecimal getRefundedAmount();
+}
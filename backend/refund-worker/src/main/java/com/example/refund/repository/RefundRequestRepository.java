@@ -29,4 +29,9 @@ public interface RefundRequestRepository extends JpaRepository<RefundRequest, Lo
     );
 
     boolean existsByPaymentIdAndStatus(Long paymentId, RefundStatus status);
+
+    /**
+     * 같은 이벤트로 이미 환불 요청을 만들었는지 (uk_refund_event 인덱스)
+     */
+    boolean existsByPaymentIdAndEventKey(Long paymentId, String eventKey);
 }
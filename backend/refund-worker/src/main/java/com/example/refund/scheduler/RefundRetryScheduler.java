@@ -1,22 +1,27 @@
 package com.example.refund.scheduler;
 
-import com.example.refund.client.MockPgApiClient;
-import com.example.refund.domain.Payment;
-import com.example.refund.domain.PaymentStatus;
+import com.example.refund.client.PgApiClient;
+import com.example.refund.config.ShardPartitions;
+import com.example.refund.config.ShardScope;
 import com.example.refund.domain.RefundRequest;
 import com.example.refund.repository.PaymentRepository;
 import com.example.refund.repository.RefundRequestRepository;
+import com.example.refund.service.RefundService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,9 +36,10 @@ public class RefundRetryScheduler {
 
     private final RefundRequestRepository refundRequestRepository;
     private final PaymentRepository paymentRepository;
-    private final MockPgApiClient pgApiClient;
+    private final PgApiClient pgApiClient;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${refund.max-retries:10}")
     private int maxRetries;
@@ -43,20 +49,32 @@ public class RefundRetryScheduler {
 
     public RefundRetryScheduler(RefundRequestRepository refundRequestRepository,
                                 PaymentRepository paymentRepository,
-                                MockPgApiClient pgApiClient,
+                                PgApiClient pgApiClient,
                                 KafkaTemplate<String, String> kafkaTemplate,
-                                ObjectMapper objectMapper) {
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
         this.refundRequestRepository = refundRequestRepository;
         this.paymentRepository = paymentRepository;
         this.pgApiClient = pgApiClient;
         this.kafkaTemplate = kafkaTemplate;
         this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Scheduled(fixedDelayString = "${refund.retry-scheduler.interval-ms:10000}",
                initialDelayString = "${refund.retry-scheduler.initial-delay-ms:30000}")
-    @Transactional
     public void retryFailedRefunds() {
+        // 샤드마다 범위를 먼저 열고 트랜잭션을 시작한다 (트랜잭션 시작 시점에 커넥션의 샤드가 정해짐)
+        for (String shard : ShardPartitions.SHARDS) {
+            try (ShardScope ignored = ShardScope.open(shard)) {
+                transactionTemplate.executeWithoutResult(status -> retryFailedRefunds(shard));
+            } catch (DataAccessException | TransactionException ex) {
+                log.warn("Refund retry cycle failed on {}: {}", shard, ex.getMessage());
+            }
+        }
+    }
+
+    private void retryFailedRefunds(String shard) {
         Instant retryThreshold = Instant.now().minus(retryIntervalSeconds, ChronoUnit.SECONDS);
 
         List<RefundRequest> failedRequests = refundRequestRepository
@@ -70,29 +88,26 @@ public class RefundRetryScheduler {
             return;
         }
 
-        log.info("Found {} failed refund requests to retry", failedRequests.size());
+        log.info("Found {} failed refund requests to retry on {}", failedRequests.size(), shard);
 
         for (RefundRequest request : failedRequests) {
             try {
                 request.incrementRetryCount();
                 refundRequestRepository.save(request);
 
-                Payment payment = paymentRepository.findById(request.getPaymentId())
-                        .orElseThrow(() -> new IllegalStateException("Payment not found"));
-
-                MockPgApiClient.RefundResponse response = pgApiClient.requestRefund(
-                        payment.getId(),
+                PgApiClient.RefundResponse response = pgApiClient.requestRefund(
+                        request.getPaymentId(),
                         request.getRefundAmount(),
                         request.getRefundReason()
                 );
 
                 request.markSuccess(response.getCancelTransactionId(), response.getResponseCode(), response.getResponseMessage());
-                payment.setStatus(PaymentStatus.REFUNDED);
+                refundRequestRepository.saveAndFlush(request);
 
-                paymentRepository.save(payment);
-                refundRequestRepository.save(request);
+                // 성공 환불 합계 기준 REFUNDED / PARTIAL_REFUNDED 결정 (단일 UPDATE)
+                paymentRepository.completeRefund(request.getPaymentId(), RefundService.COMPLETE_SOURCES);
 
-                log.info("Refund retry succeeded: paymentId={}, attemptCount={}", payment.getId(), request.getRetryCount());
+                log.info("Refund retry succeeded: paymentId={}, attemptCount={}", request.getPaymentId(), request.getRetryCount());
 
             } catch (Exception ex) {
                 log.warn("Refund retry failed: paymentId={}, attemptCount={}, error={}",
@@ -101,6 +116,8 @@ public class RefundRetryScheduler {
                 if (request.getRetryCount() >= maxRetries) {
                     log.error("Refund exceeded max retries: paymentId={}, maxRetries={}",
                             request.getPaymentId(), maxRetries);
+                    // 최종 실패 - 예약해 둔 환불 금액을 반환하고 REFUND_FAILED면 남은 환불 상태로 복구 (다시 환불 요청 가능)
+                    paymentRepository.releaseRefund(request.getPaymentId(), request.getRefundAmount().longValue());
                     publishToDeadLetterQueue(request, ex.getMessage());
                 }
             }
@@ -109,11 +126,14 @@ public class RefundRetryScheduler {
 
     @Scheduled(fixedDelayString = "${refund.dead-letter.check-interval-ms:300000}")
     public void checkDeadLetterRefunds() {
-        List<RefundRequest> deadLetters = refundRequestRepository
-                .findByStatusAndRetryCountGreaterThanEqual(
-                        RefundRequest.RefundStatus.FAILED,
-                        maxRetries
-                );
+        List<RefundRequest> deadLetters = new ArrayList<>();
+        for (String shard : ShardPartitions.SHARDS) {
+            deadLetters.addAll(ShardScope.call(shard, () -> refundRequestRepository
+                    .findByStatusAndRetryCountGreaterThanEqual(
+                            RefundRequest.RefundStatus.FAILED,
+                            maxRetries
+                    )));
+        }
 
         if (!deadLetters.isEmpty()) {
             log.error("Found {} refund dead letter requests (exceeded max retries)", deadLetters.size());
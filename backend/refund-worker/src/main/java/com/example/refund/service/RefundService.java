@@ -1,13 +1,16 @@
 package com.example.refund.service;
 
-import com.example.refund.client.MockPgApiClient;
+import com.example.refund.client.PgApiClient;
 import com.example.refund.config.ShardContextHolder;
-import com.example.refund.domain.Payment;
+import com.example.refund.config.ShardPartitions;
+import com.example.refund.domain.PaymentStateMachine;
 import com.example.refund.domain.PaymentStatus;
 import com.example.refund.domain.RefundRequest;
 import com.example.refund.repository.PaymentRepository;
+import com.example.refund.repository.RefundOutcome;
 import com.example.refund.repository.RefundRequestRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -15,9 +18,12 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * 환불 처리 서비스
@@ -27,15 +33,29 @@ public class RefundService {
 
     private static final Logger log = LoggerFactory.getLogger(RefundService.class);
 
+    /**
+     * 환불 완료(REFUNDED / PARTIAL_REFUNDED) 반영 대상 상태명 (native 쿼리용)
+     * 두 목표 상태의 출발 상태 집합이 같으므로 REFUNDED 기준으로 검증한다.
+     */
+    public static final Set<String> COMPLETE_SOURCES = PaymentStateMachine.sourcesOf(
+                    PaymentStatus.REFUNDED,
+                    PaymentStatus.REFUND_REQUESTED, PaymentStatus.REFUND_FAILED, PaymentStatus.PARTIAL_REFUNDED)
+            .stream()
+            .map(Enum::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private static final Set<PaymentStatus> FAIL_SOURCES = PaymentStateMachine.sourcesOf(
+            PaymentStatus.REFUND_FAILED, PaymentStatus.REFUND_REQUESTED);
+
     private final PaymentRepository paymentRepository;
     private final RefundRequestRepository refundRequestRepository;
-    private final MockPgApiClient pgApiClient;
+    private final PgApiClient pgApiClient;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
 
     public RefundService(PaymentRepository paymentRepository,
                          RefundRequestRepository refundRequestRepository,
-                         MockPgApiClient pgApiClient,
+                         PgApiClient pgApiClient,
                          KafkaTemplate<String, String> kafkaTemplate,
                          ObjectMapper objectMapper) {
         this.paymentRepository = paymentRepository;
@@ -45,31 +65,28 @@ public class RefundService {
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * 환불 처리 (부분 환불 지원)
+     * 환불 금액은 ingest-service가 payment.refunded_amount에 이미 예약해 둔 상태이며,
+     * 여기서는 Payment 엔티티를 수정/저장하지 않고 조건부 UPDATE만 사용한다.
+     *
+     * 재전달 판정은 금액이 아니라 이벤트 식별자(eventKey = outbox eventId)로 한다.
+     * RefundRequest에 eventKey를 함께 저장하므로(payment_id, event_key unique) 같은 이벤트는 PG에 한 번만 요청되고,
+     * 금액이 같은 서로 다른 부분 환불은 각각 처리된다.
+     */
     @Transactional
-    public void processRefund(Long paymentId, String merchantId, Long amount, String reason) {
-        log.info("Processing refund: paymentId={}, merchantId={}, shard={}, amount={}, reason={}", paymentId, merchantId, ShardContextHolder.getShardKey(), amount, reason);
-
-        try {
-            // Payment 조회 (ShardContextHolder는 Consumer에서 이미 설정됨)
-            Payment payment = paymentRepository.findById(paymentId)
-                    .orElseThrow(() -> new IllegalArgumentException("Payment not found: " + paymentId));
+    public void processRefund(Long paymentId, String merchantId, Long amount, String reason, String eventKey) {
+        log.info("Processing refund: paymentId={}, merchantId={}, shard={}, amount={}, reason={}, eventKey={}",
+                paymentId, merchantId, ShardContextHolder.getShardKey(), amount, reason, eventKey);
 
-        if (payment.getStatus() == PaymentStatus.REFUNDED) {
-            log.info("Payment {} already marked as REFUNDED. Re-publishing event if necessary.", paymentId);
-            publishRefundedEvent(payment, amount);
-            return;
+        // 샤드 범위는 Consumer에서 열어 둠
+        if (!paymentRepository.existsById(paymentId)) {
+            throw new IllegalArgumentException("Payment not found: " + paymentId);
         }
 
-        if (payment.getStatus() != PaymentStatus.REFUND_REQUESTED) {
-            log.warn("Received refund request for payment {} in unexpected status {}. Skipping.", paymentId, payment.getStatus());
-            return;
-        }
-
-        if (refundRequestRepository.existsByPaymentIdAndStatus(paymentId, RefundRequest.RefundStatus.SUCCESS)) {
-            log.info("Refund request already completed for payment {}. Ensuring event propagation.", paymentId);
-            payment.setStatus(PaymentStatus.REFUNDED);
-            paymentRepository.save(payment);
-            publishRefundedEvent(payment, amount);
+        // 같은 이벤트로 이미 만든 환불 요청이 있으면 재전달 (처리 중/실패 건은 재시도 스케줄러가 담당)
+        if (refundRequestRepository.existsByPaymentIdAndEventKey(paymentId, eventKey)) {
+            log.info("Refund already requested for payment {} by event {}. Skipping redelivery.", paymentId, eventKey);
             return;
         }
 
@@ -77,13 +94,14 @@ public class RefundService {
         RefundRequest refundRequest = new RefundRequest(
                 paymentId,
                 BigDecimal.valueOf(amount),
-                reason
+                reason,
+                eventKey
         );
         refundRequestRepository.save(refundRequest);
 
         try {
             // Mock PG API 호출 (환불 처리)
-            MockPgApiClient.RefundResponse response = pgApiClient.requestRefund(
+            PgApiClient.RefundResponse response = pgApiClient.requestRefund(
                     paymentId,
                     BigDecimal.valueOf(amount),
                     reason
@@ -95,46 +113,57 @@ public class RefundService {
                     response.getResponseCode(),
                     response.getResponseMessage()
             );
-            payment.setStatus(PaymentStatus.REFUNDED);
+            refundRequestRepository.saveAndFlush(refundRequest);
 
-            paymentRepository.save(payment);
-            refundRequestRepository.save(refundRequest);
+            // 성공 환불 합계 기준 REFUNDED / PARTIAL_REFUNDED 결정 (단일 UPDATE)
+            paymentRepository.completeRefund(paymentId, COMPLETE_SOURCES);
+            // 실제로 기록된 상태를 다시 읽어 발행 (부분 환불이면 PARTIAL_REFUNDED, 다른 환불이 먼저 바꿨으면 그 상태)
+            RefundOutcome outcome = paymentRepository.findRefundOutcome(paymentId)
+                    .orElseThrow(() -> new IllegalStateException("Payment disappeared after refund: " + paymentId));
 
-            // payment.refunded 이벤트 발행
-            publishRefundedEvent(payment, amount);
+            // payment.refunded 이벤트 발행 (환불된 금액만큼 원장 기록)
+            publishRefundedEvent(refundRequest.getId(), paymentId, merchantId, amount, outcome);
 
-            log.info("Refund succeeded: paymentId={}, cancelTxnId={}", paymentId, response.getCancelTransactionId());
+            log.info("Refund succeeded: paymentId={}, amount={}, cancelTxnId={}", paymentId, amount, response.getCancelTransactionId());
 
-        } catch (MockPgApiClient.PgApiException ex) {
-            // 실패 처리
+        } catch (PgApiClient.PgApiException ex) {
+            // 실패 처리 - 예약 금액은 재시도 스케줄러가 최종 실패 시 반환
             refundRequest.markFailed(ex.getErrorCode(), ex.getMessage());
-            payment.setStatus(PaymentStatus.REFUND_FAILED);
-
-            paymentRepository.save(payment);
             refundRequestRepository.save(refundRequest);
+            paymentRepository.transitionStatus(paymentId, FAIL_SOURCES, PaymentStatus.REFUND_FAILED, Instant.now());
 
-            log.error("Refund failed: paymentId={}, error={}", paymentId, ex.getMessage());
-        }
-        } finally {
-            ShardContextHolder.clear();
+            log.error("Refund failed: paymentId={}, amount={}, error={}", paymentId, amount, ex.getMessage());
         }
     }
 
-    private void publishRefundedEvent(Payment payment, Long amount) {
+    /**
+     * eventId 헤더는 샤드 + 환불 요청 id 기준 ("refund-shard1:42", 같은 환불을 다시 발행해도 소비자가 한 번만 반영)
+     * refund_request id는 샤드마다 따로 증가하므로 샤드를 빼면 다른 샤드의 환불과 키가 겹친다.
+     * status는 completeRefund가 실제로 기록한 상태, amount는 이번 환불 금액, refundedAmount는 성공 환불 누계다.
+     */
+    private void publishRefundedEvent(Long refundRequestId, Long paymentId, String merchantId, Long amount,
+                                      RefundOutcome outcome) {
         try {
             Map<String, Object> eventPayload = new HashMap<>();
-            eventPayload.put("paymentId", payment.getId());
-            eventPayload.put("status", PaymentStatus.REFUNDED.name());
+            eventPayload.put("paymentId", paymentId);
+            eventPayload.put("merchantId", merchantId);
+            eventPayload.put("status", outcome.getStatus());
             eventPayload.put("amount", amount);
+            eventPayload.put("refundedAmount", outcome.getRefundedAmount().longValue());
             eventPayload.put("occurredAt", Instant.now().toString());
 
             String message = objectMapper.writeValueAsString(eventPayload);
-            kafkaTemplate.send("payment.refunded", String.valueOf(payment.getId()), message).get();
+            String shardKey = ShardContextHolder.resolveShardKey(merchantId);
+            ProducerRecord<String, String> record = new ProducerRecord<>("payment.refunded",
+                    ShardPartitions.messageKey(shardKey, paymentId), message);
+            record.headers().add("eventId",
+                    ("refund-" + ShardPartitions.messageKey(shardKey, refundRequestId)).getBytes(StandardCharsets.UTF_8));
+            kafkaTemplate.send(record).get();
 
-            log.info("Published payment.refunded event: paymentId={}", payment.getId());
+            log.info("Published payment.refunded event: paymentId={}", paymentId);
 
         } catch (Exception ex) {
-            log.error("Failed to publish payment.refunded event: paymentId={}", payment.getId(), ex);
+            log.error("Failed to publish payment.refunded event: paymentId={}", paymentId, ex);
             throw new IllegalStateException("Failed to publish payment.refunded event", ex);
         }
     }
@@ -0,0 +1,203 @@
+package com.example.settlement.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * 적응형 동시 호출 제한 (gradient + AIMD)
+ *
+ * 응답 시간의 장기 EMA(큐잉 없는 기준 지연 추정치)와 단기 EMA를 비교해 동시 호출 한도를 조정한다.
+ * - 성공: gradient = clamp(tolerance * baseline / short, 0.5, 1.0), newLimit = limit * gradient + sqrt(limit) 을 smoothing 비율로 반영
+ *   (지연이 기준의 tolerance배 안이면 sqrt(limit)만큼 늘리고, 그 이상 느려지면 비율만큼 줄인다)
+ * - 타임아웃/연결 실패 등 과부하 신호: limit *= backoffRatio (곱셈 감소)
+ * - 한도의 절반도 쓰지 않을 때는 늘리지 않는다 (부하가 없어 지연 정보가 의미 없음)
+ * - 단기 지연이 기준의 절반 아래로 계속 떨어지면 기준을 끌어내려 PG 회복을 따라간다
+ * 한도에 닿으면 tryAcquire()가 null을 돌려주므로 호출자는 기다리지 않고 바로 재시도 가능한 오류로 거절한다.
+ * ingest-service 및 다른 worker에도 동일한 클래스가 있으므로 변경 시 함께 수정해야 한다.
+ *
+ * Metrics (name 태그): pg.limiter.limit, pg.limiter.inflight, pg.limiter.rtt.baseline (ms),
+ *                     pg.limiter.rtt.short (ms), pg.limiter.queue (추정 대기 호출 수 = inflight * (1 - baseline / short)),
+ *                     pg.limiter.rejected
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_WINDOW = 10;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double backoffRatio;
+    private final double longWindow;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final Counter rejectedCounter;
+
+    private volatile double limit;
+    private double baselineRttNanos = -1;
+    private double shortRttNanos = -1;
+
+    public AdaptiveConcurrencyLimiter(String name, boolean enabled, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing, double backoffRatio, int longWindow,
+                                      MeterRegistry meterRegistry) {
+        this(name, enabled, initialLimit, minLimit, maxLimit, tolerance, smoothing, backoffRatio, longWindow,
+                meterRegistry, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(String name, boolean enabled, int initialLimit, int minLimit, int maxLimit,
+                               double tolerance, double smoothing, double backoffRatio, int longWindow,
+                               MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.enabled = enabled;
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.tolerance = Math.max(1.0, tolerance);
+        this.smoothing = Math.min(1.0, Math.max(0.01, smoothing));
+        this.backoffRatio = Math.min(0.99, Math.max(0.1, backoffRatio));
+        this.longWindow = Math.max(SHORT_WINDOW, longWindow);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+
+        this.rejectedCounter = Counter.builder("pg.limiter.rejected")
+                .tag("name", name)
+                .description("Calls rejected because the adaptive concurrency limit was reached")
+                .register(meterRegistry);
+        Gauge.builder("pg.limiter.limit", this, limiter -> limiter.getLimit())
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("pg.limiter.inflight", inflight, AtomicInteger::get)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("pg.limiter.rtt.baseline", this, limiter -> limiter.rttMs(true))
+                .tag("name", name)
+                .description("Estimated no-queue latency in ms (-1 until the first sample)")
+                .register(meterRegistry);
+        Gauge.builder("pg.limiter.rtt.short", this, limiter -> limiter.rttMs(false))
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("pg.limiter.queue", this, limiter -> limiter.estimatedQueue())
+                .tag("name", name)
+                .description("Estimated in-flight calls waiting behind others at the PG")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 호출 허가 (한도 초과 시 null, 비활성화 상태면 항상 허가하되 지표는 기록)
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (enabled && current >= (int) limit) {
+                rejectedCounter.increment();
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return new Permit(current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    private synchronized void onSample(long rttNanos, int inflightAtStart) {
+        if (baselineRttNanos < 0) {
+            baselineRttNanos = rttNanos;
+            shortRttNanos = rttNanos;
+            return;
+        }
+        shortRttNanos += (rttNanos - shortRttNanos) / SHORT_WINDOW;
+        baselineRttNanos += (rttNanos - baselineRttNanos) / longWindow;
+
+        // PG가 회복해 단기 지연이 기준보다 크게 낮아졌으면 기준을 빠르게 따라 내린다
+        if (baselineRttNanos > shortRttNanos * 2) {
+            baselineRttNanos *= 0.95;
+        }
+        if (inflightAtStart < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineRttNanos / shortRttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        setLimit(limit * (1 - smoothing) + newLimit * smoothing);
+    }
+
+    private synchronized void onOverload() {
+        setLimit(limit * backoffRatio);
+    }
+
+    private void setLimit(double newLimit) {
+        limit = Math.min(maxLimit, Math.max(minLimit, newLimit));
+    }
+
+    private synchronized double rttMs(boolean baseline) {
+        double nanos = baseline ? baselineRttNanos : shortRttNanos;
+        return nanos < 0 ? -1 : nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private synchronized double estimatedQueue() {
+        if (baselineRttNanos < 0 || shortRttNanos <= 0) {
+            return 0;
+        }
+        return Math.max(0, inflight.get() * (1 - baselineRttNanos / shortRttNanos));
+    }
+
+    /**
+     * 허가된 호출 1건. onSuccess/onOverload/onIgnore 중 처음 호출한 것만 반영되고 이후 호출은 무시된다.
+     */
+    public final class Permit {
+
+        private final long startNanos = nanoClock.getAsLong();
+        private final int inflightAtStart;
+        private boolean released;
+
+        private Permit(int inflightAtStart) {
+            this.inflightAtStart = inflightAtStart;
+        }
+
+        /**
+         * 정상 응답 - 응답 시간을 한도 계산에 반영
+         */
+        public void onSuccess() {
+            if (release()) {
+                onSample(nanoClock.getAsLong() - startNanos, inflightAtStart);
+            }
+        }
+
+        /**
+         * 타임아웃/연결 실패 등 과부하 신호 - 한도를 곱셈 감소
+         */
+        public void onOverload() {
+            if (release()) {
+                AdaptiveConcurrencyLimiter.this.onOverload();
+            }
+        }
+
+        /**
+         * 한도 계산과 무관한 결과 (승인 거절, Circuit Breaker 차단 등)
+         */
+        public void onIgnore() {
+            release();
+        }
+
+        private synchronized boolean release() {
+            if (released) {
+                return false;
+            }
+            released = true;
+            inflight.decrementAndGet();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.settlement.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+/**
+ * 적응형 동시 호출 제한을 적용한 PgApiClient (SettlementService, SettlementRetryScheduler가 주입받는 기본 구현)
+ * 실제 호출은 pg.client.mode 로 고른 구현(@Qualifier("pgApiDelegate"))에 위임한다.
+ * PG가 느려져 한도에 닿으면 PG를 호출하지 않고 PG_CONCURRENCY_LIMITED로 바로 실패시켜, 기존 실패 처리/재시도 스케줄러 경로로 넘긴다.
+ *
+ * Metrics: pg.limiter.*{name=pg-settlement}
+ */
+@Component
+@Primary
+public class ConcurrencyLimitedPgApiClient implements PgApiClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitedPgApiClient.class);
+    private static final Set<String> OVERLOAD_ERROR_CODES = Set.of("PG_TIMEOUT", "PG_POOL_EXHAUSTED", "PG_UNAVAILABLE");
+
+    private final PgApiClient delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitedPgApiClient(@Qualifier("pgApiDelegate") PgApiClient delegate,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${pg.limiter.enabled:true}") boolean enabled,
+                                         @Value("${pg.limiter.initial-limit:20}") int initialLimit,
+                                         @Value("${pg.limiter.min-limit:2}") int minLimit,
+                                         @Value("${pg.limiter.max-limit:50}") int maxLimit,
+                                         @Value("${pg.limiter.tolerance:2.0}") double tolerance,
+                                         @Value("${pg.limiter.smoothing:0.2}") double smoothing,
+                                         @Value("${pg.limiter.backoff-ratio:0.9}") double backoffRatio,
+                                         @Value("${pg.limiter.long-window:600}") int longWindow) {
+        this.delegate = delegate;
+        this.limiter = new AdaptiveConcurrencyLimiter("pg-settlement", enabled, initialLimit, minLimit, maxLimit,
+                tolerance, smoothing, backoffRatio, longWindow, meterRegistry);
+    }
+
+    @Override
+    public SettlementResponse requestSettlement(Long paymentId, BigDecimal amount) throws PgApiException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            log.warn("PG settlement rejected by concurrency limit: paymentId={}, limit={}", paymentId, limiter.getLimit());
+            throw new PgApiException("PG_CONCURRENCY_LIMITED", "정산 API 동시 호출 한도 초과");
+        }
+        try {
+            SettlementResponse response = delegate.requestSettlement(paymentId, amount);
+            permit.onSuccess();
+            return response;
+        } catch (PgApiException ex) {
+            if (OVERLOAD_ERROR_CODES.contains(ex.getErrorCode())) {
+                permit.onOverload();
+            }
+            throw ex;
+        } finally {
+            // 이미 결과를 알린 경우 아무 일도 하지 않는다
+            permit.onIgnore();
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.example.settlement.client;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
@@ -14,10 +16,21 @@ import java.util.concurrent.ThreadLocalRandom;
  * 실제 PG사 API 호출을 시뮬레이션
  */
 @Component
-public class MockPgApiClient {
+@Qualifier("pgApiDelegate")
+@ConditionalOnProperty(name = "pg.client.mode", havingValue = "mock", matchIfMissing = true)
+public class MockPgApiClient implements PgApiClient {
 
     private static final Logger log = LoggerFactory.getLogger(MockPgApiClient.class);
 
+    @org.springframework.beans.factory.annotation.Value("${mock.pg.delay-min-ms:1000}")
+    private int minDelayMs;
+
+    @org.springframework.beans.factory.annotation.Value("${mock.pg.delay-max-ms:3000}")
+    private int maxDelayMs;
+
+    @org.springframework.beans.factory.annotation.Value("${mock.pg.failure-rate:0.05}")
+    private double failureRate;
+
     @org.springframework.beans.factory.annotation.Value("${mock.pg.loadtest-mode:false}")
     private boolean loadTestMode;
 
@@ -30,12 +43,13 @@ public class MockPgApiClient {
      * @return 정산 응답
      * @throws PgApiException PG API 오류 발생 시
      */
+    @Override
     public SettlementResponse requestSettlement(Long paymentId, BigDecimal amount) throws PgApiException {
         log.info("Requesting settlement to Mock PG: paymentId={}, amount={}", paymentId, amount);
 
-        // 1~3초 지연 시뮬레이션 (실제 PG API 응답 시간)
+        // 지연 시뮬레이션 (기본 1~3초, mock.pg.delay-min-ms/delay-max-ms)
         try {
-            int delay = ThreadLocalRandom.current().nextInt(1000, 3000);
+            int delay = ThreadLocalRandom.current().nextInt(Math.min(minDelayMs, maxDelayMs), Math.max(minDelayMs, maxDelayMs) + 1);
             Thread.sleep(delay);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -44,9 +58,9 @@ public class MockPgApiClient {
 
         // 실패 시뮬레이션
         // 부하테스트 모드: 거의 성공 (0.01% 실패) - 성능 측정용
-        // 일반 모드: 현실적인 실패율 (5% 실패) - 에러 처리 검증용
-        double failureRate = loadTestMode ? 0.0001 : 0.05;
-        if (Math.random() < failureRate) {
+        // 일반 모드: 설정된 실패율 (기본 5%) - 에러 처리 검증용
+        double effectiveFailureRate = loadTestMode ? Math.min(failureRate, 0.0001) : failureRate;
+        if (Math.random() < effectiveFailureRate) {
             log.warn("Mock PG settlement failed (random failure): paymentId={}, mode={}",
                     paymentId, loadTestMode ? "LOADTEST" : "NORMAL");
             throw new PgApiException("PG_TIMEOUT", "정산 API 타임아웃");
@@ -65,66 +79,4 @@ public class MockPgApiClient {
                 Instant.now()
         );
     }
-
-    /**
-     * 정산 응답 DTO
-     */
-    public static class SettlementResponse {
-        private final String status;
-        private final String transactionId;
-        private final String responseCode;
-        private final String responseMessage;
-        private final BigDecimal amount;
-        private final Instant capturedAt;
-
-        public SettlementResponse(String status, String transactionId, String responseCode,
-                                  String responseMessage, BigDecimal amount, Instant capturedAt) {
-            this.status = status;
-            this.transactionId = transactionId;
-            this.responseCode = responseCode;
-            this.responseMessage = responseMessage;
-            this.amount = amount;
-            this.capturedAt = capturedAt;
-        }
-
-        public String getStatus() {
-            return status;
-        }
-
-        public String getTransactionId() {
-            return transactionId;
-        }
-
-        public String getResponseCode() {
-            return responseCode;
-        }
-
-        public String getResponseMessage() {
-            return responseMessage;
-        }
-
-        public BigDecimal getAmount() {
-            return amount;
-        }
-
-        public Instant getCapturedAt() {
-            return capturedAt;
-        }
-    }
-
-    /**
-     * PG API 예외
-     */
-    public static class PgApiException extends Exception {
-        private final String errorCode;
-
-        public PgApiException(String errorCode, String message) {
-            super(message);
-            this.errorCode = errorCode;
-        }
-
-        public String getErrorCode() {
-            return errorCode;
-        }
-    }
 }
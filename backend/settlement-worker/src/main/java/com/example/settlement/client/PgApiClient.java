@@ -0,0 +1,83 @@
+package com.example.settlement.client;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * PG 정산 API 클라이언트
+ * pg.client.mode 로 구현을 고른다: mock (JVM 내 시뮬레이션, 기본값) | http (pg-stub-server 등 실제 HTTP PG)
+ */
+public interface PgApiClient {
+
+    /**
+     * 정산 요청 (매입 확정)
+     *
+     * @param paymentId 결제 ID
+     * @param amount 정산 금액
+     * @return 정산 응답
+     * @throws PgApiException PG API 오류 발생 시
+     */
+    SettlementResponse requestSettlement(Long paymentId, BigDecimal amount) throws PgApiException;
+
+    /**
+     * 정산 응답 DTO
+     */
+    class SettlementResponse {
+        private final String status;
+        private final String transactionId;
+        private final String responseCode;
+        private final String responseMessage;
+        private final BigDecimal amount;
+        private final Instant capturedAt;
+
+        public SettlementResponse(String status, String transactionId, String responseCode,
+                                  String responseMessage, BigDecimal amount, Instant capturedAt) {
+            this.status = status;
+            this.transactionId = transactionId;
+            this.responseCode = responseCode;
+            this.responseMessage = responseMessage;
+            this.amount = amount;
+            this.capturedAt = capturedAt;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getTransactionId() {
+            return transactionId;
+        }
+
+        public String getResponseCode() {
+            return responseCode;
+        }
+
+        public String getResponseMessage() {
+            return responseMessage;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public Instant getCapturedAt() {
+            return capturedAt;
+        }
+    }
+
+    /**
+     * PG API 예외
+     */
+    class PgApiException extends Exception {
+        private final String errorCode;
+
+        public PgApiException(String errorCode, String message) {
+            super(message);
+            this.errorCode = errorCode;
+        }
+
+        public String getErrorCode() {
+            return errorCode;
+        }
+    }
+}
@@ -1,32 +1,37 @@
 package com.example.settlement.config;
 
-public class ShardContextHolder {
+/**
+ * merchant ID → 샤드 키 계산.
+ * 샤드 바인딩은 ShardScope(open/run/call)로만 하고, 여기서는 ThreadLocal을 직접 건드리지 않는다.
+ */
+public final class ShardContextHolder {
 
-    private static final ThreadLocal<String> contextHolder = new ThreadLocal<>();
-
-    public static void setShardKey(String shardKey) {
-        contextHolder.set(shardKey);
+    private ShardContextHolder() {
     }
 
+    /**
+     * 현재 범위의 샤드 키 (범위 밖이면 null)
+     */
     public static String getShardKey() {
-        return contextHolder.get();
-    }
-
-    public static void clear() {
-        contextHolder.remove();
+        return ShardScope.current();
     }
 
-    public static void setShardByMerchantId(String merchantId) {
+    public static String resolveShardKey(String merchantId) {
         if (merchantId == null) {
-            setShardKey("shard1");
-            return;
+            return "shard1";
         }
         try {
             long id = Long.parseLong(merchantId.replaceAll("[^0-9]", ""));
-            String shardKey = (id % 2 == 0) ? "shard1" : "shard2";
-            setShardKey(shardKey);
+            return (id % 2 == 0) ? "shard1" : "shard2";
         } catch (NumberFormatException e) {
-            setShardKey("shard1");
+            return "shard1";
         }
     }
+
+    /**
+     * merchant ID의 샤드 범위 시작 (try-with-resources)
+     */
+    public static ShardScope openForMerchant(String merchantId) {
+        return ShardScope.open(resolveShardKey(merchantId));
+    }
 }
@@ -1,16 +1,16 @@
 package com.example.settlement.consumer;
 
 import com.example.settlement.config.ShardContextHolder;
+import com.example.settlement.config.ShardScope;
 import com.example.settlement.service.SettlementService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.Map;
 
 /**
@@ -20,46 +20,63 @@ import java.util.Map;
 @Component
 public class SettlementEventConsumer {
 
+    public static final String LISTENER_ID = "settlement-listener";
+
     private static final Logger log = LoggerFactory.getLogger(SettlementEventConsumer.class);
 
     private final SettlementService settlementService;
     private final ObjectMapper objectMapper;
+    private final ProcessedEventStore processedEventStore;
+    private final EventLagRecorder eventLagRecorder;
 
-    public SettlementEventConsumer(SettlementService settlementService, ObjectMapper objectMapper) {
+    public SettlementEventConsumer(SettlementService settlementService, ObjectMapper objectMapper,
+                                   ProcessedEventStore processedEventStore, EventLagRecorder eventLagRecorder) {
         this.settlementService = settlementService;
         this.objectMapper = objectMapper;
+        this.processedEventStore = processedEventStore;
+        this.eventLagRecorder = eventLagRecorder;
     }
 
     /**
      * payment.capture-requested 이벤트 처리
      */
     @KafkaListener(
+            id = LISTENER_ID,
             topics = "payment.capture-requested",
             groupId = "settlement-worker-group",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void handleCaptureRequested(@Payload String message,
-                                       @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-                                       @Header(KafkaHeaders.OFFSET) Long offset) {
+    public void handleCaptureRequested(ConsumerRecord<String, String> record) {
+        String topic = record.topic();
+        long offset = record.offset();
         log.info("Received capture-requested event from topic={}, offset={}", topic, offset);
 
+        // 재전달(리밸런스, outbox 재발행)은 DB 조회 없이 해시 조회로 걸러냄
+        if (processedEventStore.isDuplicate(record)) {
+            log.info("Skipping already processed capture-requested event: topic={}, partition={}, offset={}",
+                    topic, record.partition(), offset);
+            return;
+        }
+
         try {
             // JSON 파싱
-            Map<String, Object> payload = objectMapper.readValue(message, Map.class);
+            Map<String, Object> payload = objectMapper.readValue(record.value(), Map.class);
 
             Long paymentId = getLongValue(payload, "paymentId");
             Long amount = getLongValue(payload, "amount");
             String merchantId = (String) payload.get("merchantId");
+            Instant occurredAt = eventLagRecorder.recordReceived(record, payload.get("occurredAt"));
+            Instant authorizedAt = EventLagRecorder.parse(payload.get("authorizedAt"));
 
             log.info("Processing capture request: paymentId={}, merchantId={}, amount={}", paymentId, merchantId, amount);
 
-            // 트랜잭션 시작 전에 샤드 컨텍스트 설정 (AbstractRoutingDataSource가 올바른 샤드로 연결)
-            ShardContextHolder.setShardByMerchantId(merchantId);
-            log.info("Shard routing set for merchantId={}, shard={}", merchantId, ShardContextHolder.getShardKey());
-
-            settlementService.processSettlement(paymentId, merchantId, amount);
-
-            // Note: ShardContextHolder는 다음 메시지 처리 전에 자동으로 덮어써지므로 clear() 불필요
+            // 트랜잭션 시작 전에 샤드 범위를 연다 (AbstractRoutingDataSource가 올바른 샤드로 연결, 처리 후 리스너 스레드에서 해제)
+            try (ShardScope ignored = ShardContextHolder.openForMerchant(merchantId)) {
+                log.info("Shard routing set for merchantId={}, shard={}", merchantId, ShardScope.current());
+                settlementService.processSettlement(paymentId, merchantId, amount, authorizedAt);
+            }
+            processedEventStore.markProcessed(record);
+            eventLagRecorder.recordCompletion("payment.settlement.completion", record, occurredAt);
 
         } catch (Exception ex) {
             log.error("Failed to process capture-requested event: {}", ex.getMessage(), ex);
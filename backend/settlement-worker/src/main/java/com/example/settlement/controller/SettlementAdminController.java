@@ -1,5 +1,8 @@
 package com.example.settlement.controller;
 
+import com.example.settlement.config.ShardPartitions;
+import com.example.settlement.config.ShardScope;
+import com.example.settlement.consumer.ListenerConcurrencyAutoscaler;
 import com.example.settlement.domain.SettlementRequest;
 import com.example.settlement.repository.SettlementRequestRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,6 +12,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,13 +29,16 @@ public class SettlementAdminController {
     private final SettlementRequestRepository settlementRequestRepository;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final ListenerConcurrencyAutoscaler listenerAutoscaler;
 
     public SettlementAdminController(SettlementRequestRepository settlementRequestRepository,
                                      KafkaTemplate<String, String> kafkaTemplate,
-                                     ObjectMapper objectMapper) {
+                                     ObjectMapper objectMapper,
+                                     ListenerConcurrencyAutoscaler listenerAutoscaler) {
         this.settlementRequestRepository = settlementRequestRepository;
         this.kafkaTemplate = kafkaTemplate;
         this.objectMapper = objectMapper;
+        this.listenerAutoscaler = listenerAutoscaler;
     }
 
     /**
@@ -40,11 +47,14 @@ public class SettlementAdminController {
     @PostMapping("/migrate-dlq")
     public Map<String, Object> migrateDlqToKafka() {
         try {
-            List<SettlementRequest> deadLetters = settlementRequestRepository
-                    .findByStatusAndRetryCountGreaterThanEqual(
-                            SettlementRequest.SettlementStatus.FAILED,
-                            10
-                    );
+            List<SettlementRequest> deadLetters = new ArrayList<>();
+            for (String shard : ShardPartitions.SHARDS) {
+                deadLetters.addAll(ShardScope.call(shard, () -> settlementRequestRepository
+                        .findByStatusAndRetryCountGreaterThanEqual(
+                                SettlementRequest.SettlementStatus.FAILED,
+                                10
+                        )));
+            }
 
             int successCount = 0;
             int failCount = 0;
@@ -90,4 +100,21 @@ public class SettlementAdminController {
             );
         }
     }
+
+    /**
+     * listener concurrency 자동 조정 상태 (현재 concurrency, lag, 처리 시간, 최근 조정 이력)
+     */
+    @GetMapping("/listener-concurrency")
+    public Map<String, Object> listenerConcurrency() {
+        return listenerAutoscaler.status();
+    }
+
+    /**
+     * listener concurrency 자동 조정 켜기/끄기 (끄면 현재 concurrency 유지)
+     */
+    @PostMapping("/listener-concurrency/enabled")
+    public Map<String, Object> setListenerAutoscaleEnabled(@RequestParam boolean value) {
+        listenerAutoscaler.setEnabled(value);
+        return listenerAutoscaler.status();
+    }
 }
@@ -29,6 +29,9 @@ public class Payment {
     @Column(name = "status", nullable = false)
     private PaymentStatus status;
 
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
     @Column(name = "idempotency_key", nullable = false, length = 64)
     private String idempotencyKey;
 
@@ -104,6 +107,10 @@ public class Payment {
         return updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void setUpdatedAt(Instant updatedAt) {
         this.updatedAt = updatedAt;
     }
@@ -1,13 +1,46 @@
 package com.example.settlement.repository;
 
 import com.example.settlement.domain.Payment;
+import com.example.settlement.domain.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     Optional<Payment> findById(Long id);
+
+    /**
+     * 상태만 조회 (PG 호출 전 사전 확인용, 엔티티를 영속성 컨텍스트에 올리지 않음)
+     */
+    @Query("SELECT p.status FROM Payment p WHERE p.id = :paymentId")
+    Optional<PaymentStatus> findStatusById(@Param("paymentId") Long paymentId);
+
+    /**
+     * 가맹점 ID만 조회 (재시도 스케줄러의 이벤트 payload용)
+     */
+    @Query("SELECT p.merchantId FROM Payment p WHERE p.id = :paymentId")
+    Optional<String> findMerchantIdById(@Param("paymentId") Long paymentId);
+
+    /**
+     * 상태 전이 (단일 조건부 UPDATE, compare-and-set)
+     * 출발 상태 집합은 PaymentStateMachine에서 얻는다.
+     * version을 1 증가시켜 ingest-service의 결제 캐시 스냅샷이 오래되었음을 알린다.
+     *
+     * @return 1이면 전이 성공, 0이면 결제가 없거나 현재 상태가 출발 상태 집합에 없음
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :newStatus, p.version = p.version + 1, p.updatedAt = :now " +
+           "WHERE p.id = :paymentId AND p.status IN :fromStatuses")
+    int transitionStatus(@Param("paymentId") Long paymentId,
+                         @Param("fromStatuses") Collection<PaymentStatus> fromStatuses,
+                         @Param("newStatus") PaymentStatus newStatus,
+                         @Param("now") Instant now);
 }
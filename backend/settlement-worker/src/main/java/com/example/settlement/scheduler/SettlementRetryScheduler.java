@@ -1,7 +1,9 @@
 package com.example.settlement.scheduler;
 
-import com.example.settlement.client.MockPgApiClient;
-import com.example.settlement.domain.Payment;
+import com.example.settlement.client.PgApiClient;
+import com.example.settlement.config.ShardPartitions;
+import com.example.settlement.config.ShardScope;
+import com.example.settlement.domain.PaymentStateMachine;
 import com.example.settlement.domain.PaymentStatus;
 import com.example.settlement.domain.SettlementRequest;
 import com.example.settlement.repository.PaymentRepository;
@@ -11,17 +13,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 정산 재시도 스케줄러
@@ -32,12 +39,19 @@ public class SettlementRetryScheduler {
 
     private static final Logger log = LoggerFactory.getLogger(SettlementRetryScheduler.class);
 
+    /**
+     * 재시도 성공 시 CAPTURED로 전이 가능한 상태
+     */
+    private static final Set<PaymentStatus> RETRY_SOURCES = PaymentStateMachine.sourcesOf(
+            PaymentStatus.CAPTURED, PaymentStatus.CAPTURE_FAILED, PaymentStatus.CAPTURE_REQUESTED);
+
     private final SettlementRequestRepository settlementRequestRepository;
     private final PaymentRepository paymentRepository;
-    private final MockPgApiClient pgApiClient;
+    private final PgApiClient pgApiClient;
     private final SettlementService settlementService;
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${settlement.max-retries:10}")
     private int maxRetries;
@@ -47,16 +61,18 @@ public class SettlementRetryScheduler {
 
     public SettlementRetryScheduler(SettlementRequestRepository settlementRequestRepository,
                                     PaymentRepository paymentRepository,
-                                    MockPgApiClient pgApiClient,
+                                    PgApiClient pgApiClient,
                                     SettlementService settlementService,
                                     KafkaTemplate<String, String> kafkaTemplate,
-                                    ObjectMapper objectMapper) {
+                                    ObjectMapper objectMapper,
+                                    PlatformTransactionManager transactionManager) {
         this.settlementRequestRepository = settlementRequestRepository;
         this.paymentRepository = paymentRepository;
         this.pgApiClient = pgApiClient;
         this.settlementService = settlementService;
         this.kafkaTemplate = kafkaTemplate;
         this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
@@ -64,8 +80,18 @@ public class SettlementRetryScheduler {
      */
     @Scheduled(fixedDelayString = "${settlement.retry-scheduler.interval-ms:10000}",
                initialDelayString = "${settlement.retry-scheduler.initial-delay-ms:30000}")
-    @Transactional
     public void retryFailedSettlements() {
+        // 샤드마다 범위를 먼저 열고 트랜잭션을 시작한다 (트랜잭션 시작 시점에 커넥션의 샤드가 정해짐)
+        for (String shard : ShardPartitions.SHARDS) {
+            try (ShardScope ignored = ShardScope.open(shard)) {
+                transactionTemplate.executeWithoutResult(status -> retryFailedSettlements(shard));
+            } catch (DataAccessException | TransactionException ex) {
+                log.warn("Settlement retry cycle failed on {}: {}", shard, ex.getMessage());
+            }
+        }
+    }
+
+    private void retryFailedSettlements(String shard) {
         Instant retryThreshold = Instant.now().minus(retryIntervalSeconds, ChronoUnit.SECONDS);
 
         List<SettlementRequest> failedRequests = settlementRequestRepository
@@ -79,7 +105,7 @@ public class SettlementRetryScheduler {
             return;
         }
 
-        log.info("Found {} failed settlement requests to retry", failedRequests.size());
+        log.info("Found {} failed settlement requests to retry on {}", failedRequests.size(), shard);
 
         int succeeded = 0;
         int failed = 0;
@@ -89,27 +115,33 @@ public class SettlementRetryScheduler {
                 request.incrementRetryCount();
                 settlementRequestRepository.save(request);
 
-                Payment payment = paymentRepository.findById(request.getPaymentId())
-                        .orElseThrow(() -> new IllegalStateException("Payment not found: " + request.getPaymentId()));
+                Long paymentId = request.getPaymentId();
 
                 // Mock PG API 재호출
-                MockPgApiClient.SettlementResponse response = pgApiClient.requestSettlement(
-                        payment.getId(),
+                PgApiClient.SettlementResponse response = pgApiClient.requestSettlement(
+                        paymentId,
                         request.getRequestAmount()
                 );
 
                 // 성공 처리
                 request.markSuccess(response.getTransactionId(), response.getResponseCode(), response.getResponseMessage());
-                payment.setStatus(PaymentStatus.CAPTURED);
-
-                paymentRepository.save(payment);
                 settlementRequestRepository.save(request);
 
-                // payment.captured 이벤트 발행
-                settlementService.publishCapturedEvent(payment, request.getRequestAmount().longValue());
+                // Payment 상태 업데이트 (조건부 UPDATE - 이미 다른 상태로 바뀌었으면 이벤트 미발행)
+                int updated = paymentRepository.transitionStatus(
+                        paymentId, RETRY_SOURCES, PaymentStatus.CAPTURED, Instant.now());
+                if (updated == 0) {
+                    log.warn("Payment status changed concurrently, skipping captured event: paymentId={}", paymentId);
+                    succeeded++;
+                    continue;
+                }
+
+                // payment.captured 이벤트 발행 (재시도 경로는 승인 시각을 모르므로 authorizedAt 없이)
+                String merchantId = paymentRepository.findMerchantIdById(paymentId).orElse(null);
+                settlementService.publishCapturedEvent(paymentId, merchantId, request.getRequestAmount().longValue(), null);
 
                 succeeded++;
-                log.info("Settlement retry succeeded: paymentId={}, attemptCount={}", payment.getId(), request.getRetryCount());
+                log.info("Settlement retry succeeded: paymentId={}, attemptCount={}", paymentId, request.getRetryCount());
 
             } catch (Exception ex) {
                 failed++;
@@ -132,11 +164,14 @@ public class SettlementRetryScheduler {
      */
     @Scheduled(fixedDelayString = "${settlement.dead-letter.check-interval-ms:300000}")
     public void checkDeadLetterSettlements() {
-        List<SettlementRequest> deadLetters = settlementRequestRepository
-                .findByStatusAndRetryCountGreaterThanEqual(
-                        SettlementRequest.SettlementStatus.FAILED,
-                        maxRetries
-                );
+        List<SettlementRequest> deadLetters = new ArrayList<>();
+        for (String shard : ShardPartitions.SHARDS) {
+            deadLetters.addAll(ShardScope.call(shard, () -> settlementRequestRepository
+                    .findByStatusAndRetryCountGreaterThanEqual(
+                            SettlementRequest.SettlementStatus.FAILED,
+                            maxRetries
+                    )));
+        }
 
         if (!deadLetters.isEmpty()) {
             log.error("Found {} settlement dead letter requests (exceeded max retries)", deadLetters.size());
@@ -1,10 +1,11 @@
 package com.example.settlement.service;
 
-import com.example.settlement.client.MockPgApiClient;
-import com.example.settlement.client.MockPgApiClient.PgApiException;
-import com.example.settlement.client.MockPgApiClient.SettlementResponse;
+import com.example.settlement.client.PgApiClient;
+import com.example.settlement.client.PgApiClient.PgApiException;
+import com.example.settlement.client.PgApiClient.SettlementResponse;
 import com.example.settlement.config.ShardContextHolder;
-import com.example.settlement.domain.Payment;
+import com.example.settlement.config.ShardPartitions;
+import com.example.settlement.domain.PaymentStateMachine;
 import com.example.settlement.domain.PaymentStatus;
 import com.example.settlement.domain.SettlementRequest;
 import com.example.settlement.domain.SettlementRequest.SettlementStatus;
@@ -20,6 +21,7 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 정산 서비스
@@ -30,14 +32,22 @@ public class SettlementService {
 
     private static final Logger log = LoggerFactory.getLogger(SettlementService.class);
 
+    /**
+     * 정산 결과 반영 대상 상태 (CAPTURE_REQUESTED → CAPTURED / CAPTURE_FAILED)
+     */
+    private static final Set<PaymentStatus> CAPTURE_SOURCES = PaymentStateMachine.sourcesOf(
+            PaymentStatus.CAPTURED, PaymentStatus.CAPTURE_REQUESTED);
+    private static final Set<PaymentStatus> CAPTURE_FAIL_SOURCES = PaymentStateMachine.sourcesOf(
+            PaymentStatus.CAPTURE_FAILED, PaymentStatus.CAPTURE_REQUESTED);
+
     private final SettlementRequestRepository settlementRequestRepository;
     private final PaymentRepository paymentRepository;
-    private final MockPgApiClient pgApiClient;
+    private final PgApiClient pgApiClient;
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
     public SettlementService(SettlementRequestRepository settlementRequestRepository,
                              PaymentRepository paymentRepository,
-                             MockPgApiClient pgApiClient,
+                             PgApiClient pgApiClient,
                              KafkaTemplate<String, Object> kafkaTemplate) {
         this.settlementRequestRepository = settlementRequestRepository;
         this.paymentRepository = paymentRepository;
@@ -49,27 +59,29 @@ public class SettlementService {
      * 정산 처리
      * 1. SettlementRequest 생성
      * 2. Mock PG API 호출
-     * 3. 성공 시: Payment 상태 CAPTURED 변경 + payment.captured 이벤트 발행
-     * 4. 실패 시: SettlementRequest FAILED 상태로 변경
+     * 3. 성공 시: CAPTURE_REQUESTED → CAPTURED 조건부 UPDATE + payment.captured 이벤트 발행
+     * 4. 실패 시: SettlementRequest FAILED, CAPTURE_REQUESTED → CAPTURE_FAILED 조건부 UPDATE
+     *
+     * Payment 엔티티를 로드/저장하지 않으므로 다른 서비스의 동시 상태 변경을 덮어쓰지 않는다.
+     * authorizedAt(승인 시각, 없으면 null)은 payment.captured 이벤트에 그대로 실어 승인→원장 지연 계산에 쓴다.
      */
     @Transactional
-    public void processSettlement(Long paymentId, String merchantId, Long amount) {
+    public void processSettlement(Long paymentId, String merchantId, Long amount, Instant authorizedAt) {
         log.info("Processing settlement: paymentId={}, merchantId={}, shard={}", paymentId, merchantId, ShardContextHolder.getShardKey());
 
-        try {
-            // Payment 조회 (ShardContextHolder는 Consumer에서 이미 설정됨)
-            Payment payment = paymentRepository.findById(paymentId).orElse(null);
-            if (payment == null) {
-                log.warn("Payment not found in shard {}: paymentId={}, merchantId={} - skipping",
-                    ShardContextHolder.getShardKey(), paymentId, merchantId);
-                return;
-            }
+        // PG 호출 전 사전 확인 (상태 컬럼만 조회, 샤드 범위는 Consumer에서 열어 둠)
+        PaymentStatus currentStatus = paymentRepository.findStatusById(paymentId).orElse(null);
+        if (currentStatus == null) {
+            log.warn("Payment not found in shard {}: paymentId={}, merchantId={} - skipping",
+                ShardContextHolder.getShardKey(), paymentId, merchantId);
+            return;
+        }
 
-            // Payment 상태 확인 - CAPTURE_REQUESTED가 아니면 처리 불필요
-            if (payment.getStatus() != PaymentStatus.CAPTURE_REQUESTED) {
-                log.info("Payment status is not CAPTURE_REQUESTED: paymentId={}, status={}", paymentId, payment.getStatus());
-                return;
-            }
+        // Payment 상태 확인 - CAPTURE_REQUESTED가 아니면 처리 불필요
+        if (!CAPTURE_SOURCES.contains(currentStatus)) {
+            log.info("Payment status is not CAPTURE_REQUESTED: paymentId={}, status={}", paymentId, currentStatus);
+            return;
+        }
 
         // 이미 정산 요청이 있는지 확인
         SettlementRequest existingRequest = settlementRequestRepository.findByPaymentId(paymentId)
@@ -105,12 +117,16 @@ public class SettlementService {
             );
             settlementRequestRepository.save(settlementRequest);
 
-            // Payment 상태 업데이트
-            payment.setStatus(PaymentStatus.CAPTURED);
-            paymentRepository.save(payment);
+            // Payment 상태 업데이트 (조건부 UPDATE - 영향 행 수로 전이 성공 판단)
+            int updated = paymentRepository.transitionStatus(
+                    paymentId, CAPTURE_SOURCES, PaymentStatus.CAPTURED, Instant.now());
+            if (updated == 0) {
+                log.warn("Payment status changed concurrently, skipping captured event: paymentId={}", paymentId);
+                return;
+            }
 
             // payment.captured 이벤트 발행 (consumer-worker가 ledger 기록)
-            publishCapturedEvent(payment);
+            publishCapturedEvent(paymentId, merchantId, amount, authorizedAt);
 
             log.info("Settlement succeeded: paymentId={}, txnId={}", paymentId, response.getTransactionId());
 
@@ -120,8 +136,8 @@ public class SettlementService {
             settlementRequestRepository.save(settlementRequest);
 
             // Payment 상태 업데이트
-            payment.setStatus(PaymentStatus.CAPTURE_FAILED);
-            paymentRepository.save(payment);
+            paymentRepository.transitionStatus(
+                    paymentId, CAPTURE_FAIL_SOURCES, PaymentStatus.CAPTURE_FAILED, Instant.now());
 
             log.error("Settlement failed: paymentId={}, error={}", paymentId, ex.getMessage());
 
@@ -131,29 +147,24 @@ public class SettlementService {
                 // DLQ로 전송하거나 알림 발송
             }
         }
-        } finally {
-            ShardContextHolder.clear();
-        }
     }
 
     /**
      * payment.captured 이벤트 발행 (public - 스케줄러에서 사용)
      */
-    public void publishCapturedEvent(Payment payment, Long amount) {
+    public void publishCapturedEvent(Long paymentId, String merchantId, Long amount, Instant authorizedAt) {
         Map<String, Object> payload = new HashMap<>();
-        payload.put("paymentId", payment.getId());
-        payload.put("status", payment.getStatus().name());
-        payload.put("amount", amount != null ? amount : payment.getAmount());
+        payload.put("paymentId", paymentId);
+        payload.put("merchantId", merchantId);
+        payload.put("status", PaymentStatus.CAPTURED.name());
+        payload.put("amount", amount);
+        if (authorizedAt != null) {
+            payload.put("authorizedAt", authorizedAt.toString());
+        }
         payload.put("occurredAt", Instant.now().toString());
 
-        kafkaTemplate.send("payment.captured", payment.getId().toString(), payload);
-        log.info("Published payment.captured event: paymentId={}", payment.getId());
-    }
-
-    /**
-     * payment.captured 이벤트 발행 (private - 내부용)
-     */
-    private void publishCapturedEvent(Payment payment) {
-        publishCapturedEvent(payment, payment.getAmount());
+        kafkaTemplate.send("payment.captured",
+                ShardPartitions.messageKey(ShardContextHolder.resolveShardKey(merchantId), paymentId), payload);
+        log.info("Published payment.captured event: paymentId={}", paymentId);
     }
 }
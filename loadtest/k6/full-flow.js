@@ -152,6 +152,7 @@ export default function () {
     const refundPayload = JSON.stringify({
       merchantId: merchantId,
       reason: "k6 full flow test",
+      idempotencyKey: `refund-${idempotencyKey}`,
     });
 
     const refundResponse = http.post(`${BASE_URL}/payments/refund/${paymentId}`, refundPayload, headers);
@@ -155,6 +155,7 @@ export default function () {
       const refundPayload = JSON.stringify({
         merchantId: merchantId,
         reason: "k6 refund simulation",
+        idempotencyKey: `refund-${idempotencyKey}`,
       });
 
       const refundResponse = http.post(`${BASE_URL}/payments/refund/${paymentId}`, refundPayload, headers);
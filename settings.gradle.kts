@@ -17,6 +17,7 @@ include(":backend:ingest-service-vm2")
 include(":backend:consumer-worker")
 include(":backend:settlement-worker")
 include(":backend:refund-worker")
+include(":backend:pg-stub-server")
 include(":backend:gateway")
 include(":backend:eureka-server")
 include(":backend:monitoring-service")